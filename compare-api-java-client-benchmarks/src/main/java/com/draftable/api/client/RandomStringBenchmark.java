@@ -0,0 +1,58 @@
+package com.draftable.api.client;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast identifiers are generated, against drawing every character
+ * from one shared {@link SecureRandom} as {@link Utils#getRandomString} used
+ * to. Run with {@link ThreadSweep} to see how each scales with thread count.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RandomStringBenchmark {
+    private static final String characters = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+    private static final int length = 12;
+
+    private final SecureRandom shared = new SecureRandom();
+
+    @Benchmark
+    public String getRandomString() {
+        return Utils.getRandomString(characters, length);
+    }
+
+    @Benchmark
+    public String appendRandomString() {
+        // The timestamp prefix of a time-ordered identifier.
+        StringBuilder builder = new StringBuilder(8 + length).append("00000000");
+        return Utils.appendRandomString(builder, characters, length).toString();
+    }
+
+    @Benchmark
+    public String generateTimeOrderedIdentifier() {
+        return Comparisons.generateTimeOrderedIdentifier();
+    }
+
+    @Benchmark
+    public String sharedSecureRandom() {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; ++i) {
+            builder.append(characters.charAt(shared.nextInt(characters.length())));
+        }
+        return builder.toString();
+    }
+}
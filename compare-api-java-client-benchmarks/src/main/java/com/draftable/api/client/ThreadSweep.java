@@ -0,0 +1,87 @@
+package com.draftable.api.client;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Runs {@link RandomStringBenchmark} at each of a range of thread counts and
+ * prints the throughput of every benchmark at each one.
+ *
+ * <p>
+ * Usage, after {@code mvn -Pbenchmarks package}:
+ *
+ * <pre>
+ * java -jar compare-api-java-client-benchmarks/target/draftable-compare-api-benchmarks-*-jar-with-dependencies.jar \
+ *     [threads...] [-- regex]
+ * </pre>
+ *
+ * <p>
+ * where {@code threads} defaults to 1, 2, 4, 8, 16 and 48, and {@code regex}
+ * selects which of the benchmarks to run.
+ */
+public final class ThreadSweep {
+    private static final int[] defaultThreadCounts = {1, 2, 4, 8, 16, 48};
+
+    private ThreadSweep() {
+        throw new AssertionError("`ThreadSweep` should never be instantiated");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        List<Integer> threadCounts = new ArrayList<>();
+        String include = RandomStringBenchmark.class.getName();
+        for (int i = 0; i < args.length; ++i) {
+            if (args[i].equals("--") && i + 1 < args.length) {
+                include = RandomStringBenchmark.class.getName() + "\\." + args[i + 1];
+                break;
+            }
+            threadCounts.add(Integer.parseInt(args[i]));
+        }
+        if (threadCounts.isEmpty()) {
+            for (int threads : defaultThreadCounts) {
+                threadCounts.add(threads);
+            }
+        }
+
+        // Throughput by benchmark, then by thread count.
+        Map<String, Map<Integer, Double>> scores = new TreeMap<>();
+        String unit = "";
+        for (int threads : threadCounts) {
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .include(include)
+                    .threads(threads)
+                    .verbosity(VerboseMode.SILENT);
+            Collection<RunResult> results = new Runner(options.build()).run();
+            for (RunResult result : results) {
+                String benchmark = result.getParams().getBenchmark();
+                benchmark = benchmark.substring(benchmark.lastIndexOf('.') + 1);
+                scores.computeIfAbsent(benchmark, key -> new TreeMap<>())
+                        .put(threads, result.getPrimaryResult().getScore());
+                unit = result.getPrimaryResult().getScoreUnit();
+            }
+            System.out.println(String.format("Finished %d thread(s)", threads));
+        }
+
+        StringBuilder header = new StringBuilder(String.format("%-32s", "Benchmark (" + unit + ")"));
+        for (int threads : threadCounts) {
+            header.append(String.format("%12s", threads + " thr"));
+        }
+        System.out.println(header);
+        for (Map.Entry<String, Map<Integer, Double>> entry : scores.entrySet()) {
+            StringBuilder row = new StringBuilder(String.format("%-32s", entry.getKey()));
+            for (int threads : threadCounts) {
+                row.append(String.format("%12.3f", entry.getValue().getOrDefault(threads, Double.NaN)));
+            }
+            System.out.println(row);
+        }
+    }
+}
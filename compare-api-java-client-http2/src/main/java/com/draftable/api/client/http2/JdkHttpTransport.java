@@ -0,0 +1,364 @@
+package com.draftable.api.client.http2;
+
+import com.draftable.api.client.HttpTransport;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An {@link HttpTransport} built on the JDK's {@link HttpClient}.
+ *
+ * <p>
+ * By default, HTTP/2 is negotiated where the server supports it, so that
+ * concurrent requests are multiplexed over a small number of connections
+ * rather than each needing its own HTTP/1.1 connection.
+ * </p>
+ *
+ * <p>
+ * Use it with {@link com.draftable.api.client.Comparisons.Builder#transport}:
+ * </p>
+ *
+ * <pre>
+ * Comparisons comparisons = Comparisons.builder()
+ *         .accountId(accountId)
+ *         .authToken(authToken)
+ *         .transport(new JdkHttpTransport())
+ *         .build();
+ * </pre>
+ *
+ * <p>
+ * Cancelling a request aborts its exchange on JDK 16 and later. Earlier JDKs
+ * ignore cancellation of an exchange, so there an upload is instead stopped by
+ * closing the stream its body is read from, and a response which arrives anyway
+ * is closed. Content that is already in memory may still be sent in full.
+ * </p>
+ *
+ * <p>
+ * The connect and socket timeouts of each request bound the wait for its
+ * response, as they would on the Apache clients. An upload is only timed out
+ * if the server stops accepting its body, however large it is. A request that
+ * times out fails with an {@link HttpTimeoutException}.
+ * </p>
+ */
+public final class JdkHttpTransport implements HttpTransport {
+
+    /** Headers which {@link HttpClient} sets itself, and refuses to accept. */
+    private static final Set<String> restrictedHeaders = Set.of("connection", "content-length", "expect", "host",
+            "upgrade");
+
+    @Nonnull
+    private final HttpClient client;
+
+    /**
+     * Creates a transport with a new {@link HttpClient} which prefers HTTP/2.
+     */
+    public JdkHttpTransport() {
+        this(HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).build());
+    }
+
+    /**
+     * Creates a transport which sends requests with the given {@link HttpClient}.
+     * This allows the executor, proxy, SSL context and connect timeout to be
+     * configured.
+     *
+     * @param client The client to send requests with.
+     */
+    public JdkHttpTransport(@Nonnull final HttpClient client) {
+        if (client == null) {
+            throw new IllegalArgumentException("`client` cannot be null");
+        }
+        this.client = client;
+    }
+
+    @Nonnull
+    @Override
+    public CompletableFuture<Response> execute(@Nonnull final Request request) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(request.getUri());
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            if (!restrictedHeaders.contains(header.getKey().toLowerCase(Locale.ROOT))) {
+                builder.header(header.getKey(), header.getValue());
+            }
+        }
+
+        Body body = request.getBody();
+        UploadContent upload = null;
+        Watchdog watchdog = null;
+        if (body == null) {
+            builder.method(request.getMethod(), HttpRequest.BodyPublishers.noBody());
+            Duration timeout = getFirstTimeout(request);
+            if (timeout != null) {
+                builder.timeout(timeout);
+            }
+        } else {
+            // The request timeout of an HttpClient includes sending the body, which
+            // may take as long as the size of the upload needs, so only waits
+            // without progress are timed.
+            if (request.getSocketTimeout() != null) {
+                watchdog = new Watchdog(request.getSocketTimeout());
+            }
+            upload = new UploadContent(body, watchdog);
+            builder.header("Content-Type", body.getContentType());
+            builder.method(request.getMethod(), toBodyPublisher(upload));
+        }
+
+        CompletableFuture<HttpResponse<InputStream>> responseFuture = client.sendAsync(builder.build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+
+        CompletableFuture<Response> result = responseFuture.thenApply(JdkResponse::new);
+        UploadContent currentUpload = upload;
+        result.whenComplete((response, error) -> {
+            if (result.isCancelled()) {
+                abort(responseFuture, currentUpload);
+            }
+        });
+        if (watchdog != null) {
+            watchdog.start(getFirstTimeout(request), () -> {
+                if (result.completeExceptionally(new HttpTimeoutException("request timed out"))) {
+                    abort(responseFuture, currentUpload);
+                }
+            }, result);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the longest to wait for a request before it makes any progress, which
+     * is to connect and then for the server to react.
+     */
+    @Nullable
+    private static Duration getFirstTimeout(@Nonnull final Request request) {
+        Duration socketTimeout = request.getSocketTimeout();
+        Duration connectTimeout = request.getConnectTimeout();
+        if (socketTimeout == null) {
+            return null;
+        }
+        return connectTimeout != null ? socketTimeout.plus(connectTimeout) : socketTimeout;
+    }
+
+    @Nonnull
+    private static HttpRequest.BodyPublisher toBodyPublisher(@Nonnull final UploadContent upload) {
+        // The body is read as it is sent, so large uploads are never held in memory.
+        HttpRequest.BodyPublisher publisher = HttpRequest.BodyPublishers.ofInputStream(() -> {
+            try {
+                return upload.open();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+
+        long contentLength = upload.body.getContentLength();
+        return contentLength >= 0 ? HttpRequest.BodyPublishers.fromPublisher(publisher, contentLength) : publisher;
+    }
+
+    /**
+     * Aborts the exchange of a cancelled request. Cancelling the future given by
+     * {@link HttpClient#sendAsync} only does so from JDK 16, so the upload and any
+     * response are also closed.
+     */
+    private static void abort(@Nonnull final CompletableFuture<HttpResponse<InputStream>> responseFuture,
+            @Nullable final UploadContent upload) {
+        responseFuture.cancel(true);
+        if (upload != null) {
+            upload.close();
+        }
+        responseFuture.thenAccept(response -> closeQuietly(response.body()));
+    }
+
+    private static void closeQuietly(@Nonnull final InputStream stream) {
+        try {
+            stream.close();
+        } catch (IOException ex) {
+            // The exchange is being abandoned, so there is nobody to tell.
+        }
+    }
+
+    /**
+     * The {@link HttpClient} has no resources that need releasing, and is
+     * reclaimed once it is no longer referenced.
+     */
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public String toString() {
+        return String.format("JdkHttpTransport(%s)", client.version());
+    }
+
+    /**
+     * Opens the streams a request body is read from, and closes the current one
+     * if the request is cancelled.
+     */
+    private static final class UploadContent {
+        @Nonnull
+        private final Body body;
+        @Nullable
+        private final Watchdog watchdog;
+        @Nullable
+        private InputStream current;
+        private boolean closed;
+
+        UploadContent(@Nonnull final Body body, @Nullable final Watchdog watchdog) {
+            this.body = body;
+            this.watchdog = watchdog;
+        }
+
+        @Nonnull
+        InputStream open() throws IOException {
+            InputStream stream = watchdog != null ? new WatchedInputStream(body.getContent(), watchdog)
+                    : body.getContent();
+            synchronized (this) {
+                if (!closed) {
+                    current = stream;
+                    return stream;
+                }
+            }
+            closeQuietly(stream);
+            throw new IOException("The request was cancelled");
+        }
+
+        void close() {
+            InputStream stream;
+            synchronized (this) {
+                closed = true;
+                stream = current;
+                current = null;
+            }
+            if (stream != null) {
+                closeQuietly(stream);
+            }
+        }
+    }
+
+    /**
+     * Times out a request once it goes too long without progress, in the way a
+     * socket timeout would. Each read of the body counts as progress, since the
+     * client only reads as fast as the server accepts it. The client buffers
+     * some of the body ahead of sending it, so the socket timeout needs to allow
+     * for that much to be sent.
+     */
+    private static final class Watchdog implements Runnable {
+        private final long socketTimeoutNanos;
+        private volatile long expiresAtNanos;
+        @Nullable
+        private Runnable onTimeout;
+        @Nullable
+        private CompletableFuture<?> exchange;
+
+        Watchdog(@Nonnull final Duration socketTimeout) {
+            this.socketTimeoutNanos = socketTimeout.toNanos();
+        }
+
+        /**
+         * Starts timing the request.
+         *
+         * @param firstTimeout The longest to wait before any progress is made.
+         * @param onTimeout    Called if the request times out.
+         * @param exchange     The future for the exchange, which stops the timing
+         *                     once it completes.
+         */
+        void start(@Nonnull final Duration firstTimeout, @Nonnull final Runnable onTimeout,
+                @Nonnull final CompletableFuture<?> exchange) {
+            this.onTimeout = onTimeout;
+            this.exchange = exchange;
+            expiresAtNanos = System.nanoTime() + firstTimeout.toNanos();
+            schedule(Math.min(firstTimeout.toNanos(), socketTimeoutNanos));
+        }
+
+        void progress() {
+            expiresAtNanos = System.nanoTime() + socketTimeoutNanos;
+        }
+
+        @Override
+        public void run() {
+            if (exchange.isDone()) {
+                return;
+            }
+            long remainingNanos = expiresAtNanos - System.nanoTime();
+            if (remainingNanos > 0) {
+                // Progress only ever brings the expiry to a socket timeout from now,
+                // so checking that often never times out late.
+                schedule(Math.min(remainingNanos, socketTimeoutNanos));
+            } else {
+                onTimeout.run();
+            }
+        }
+
+        private void schedule(final long delayNanos) {
+            CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS).execute(this);
+        }
+    }
+
+    /**
+     * Reports each read of a request body to a {@link Watchdog}.
+     */
+    private static final class WatchedInputStream extends FilterInputStream {
+        @Nonnull
+        private final Watchdog watchdog;
+
+        WatchedInputStream(@Nonnull final InputStream in, @Nonnull final Watchdog watchdog) {
+            super(in);
+            this.watchdog = watchdog;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            watchdog.progress();
+            return value;
+        }
+
+        @Override
+        public int read(@Nonnull final byte[] buffer, final int offset, final int length) throws IOException {
+            int count = super.read(buffer, offset, length);
+            watchdog.progress();
+            return count;
+        }
+    }
+
+    private static final class JdkResponse implements Response {
+        @Nonnull
+        private final HttpResponse<InputStream> response;
+
+        JdkResponse(@Nonnull final HttpResponse<InputStream> response) {
+            this.response = response;
+        }
+
+        @Override
+        public int getStatusCode() {
+            return response.statusCode();
+        }
+
+        @Nonnull
+        @Override
+        public Map<String, List<String>> getHeaders() {
+            return response.headers().map();
+        }
+
+        @Nonnull
+        @Override
+        public InputStream getBody() {
+            return response.body();
+        }
+
+        @Override
+        public void close() throws IOException {
+            response.body().close();
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.draftable.api.client;
+
+import com.draftable.api.client.http2.JdkHttpTransport;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.net.http.HttpTimeoutException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the client with {@link JdkHttpTransport} against a local server. This
+ * is in the core package so that it can use the core module's test helpers.
+ */
+class JdkHttpTransportTest {
+
+    @TempDir
+    Path tempDir;
+
+    // region Requests and responses
+
+    @Test
+    void requestsAreSentAndDecoded() throws Exception {
+        try (StubServer server = new StubServer(StubServer::readyComparisons);
+                Comparisons comparisons = server.clientBuilder().transport(new JdkHttpTransport()).build()) {
+            assertEquals("abc", comparisons.getComparison("abc").getIdentifier());
+            assertEquals("def", comparisons.getComparisonAsync("def").get(10, TimeUnit.SECONDS).getIdentifier());
+
+            assertEquals(2, server.count("GET"));
+            assertEquals("Token token", server.requests().get(0).header("Authorization"));
+        }
+    }
+
+    @Test
+    void uploadsAreStreamedAsMultipartBodies() throws Exception {
+        final byte[] leftData = StreamingMultipartEntityTest.randomBytes(100_000, 1);
+        final byte[] rightData = StreamingMultipartEntityTest.randomBytes(200_000, 2);
+        final Path leftFile = tempDir.resolve("left.pdf");
+        Files.write(leftFile, leftData);
+
+        try (StubServer server = new StubServer(request -> StubServer.json(201,
+                StubServer.comparison("abc", false)));
+                Comparisons comparisons = server.clientBuilder().transport(new JdkHttpTransport()).build()) {
+            comparisons.createComparison(Comparisons.Side.create(leftFile.toFile(), "pdf"),
+                    Comparisons.Side.create(rightData, "pdf"), "abc", false, null);
+
+            final StubServer.Request known = server.requests().get(0);
+            assertTrue(known.header("Content-Type").startsWith("multipart/form-data; boundary="));
+            assertEquals(String.valueOf(known.body.length), known.header("Content-Length"));
+            assertTrue(contains(known.body, leftData));
+            assertTrue(contains(known.body, rightData));
+
+            // A stream has no known length, so the body is sent chunked.
+            comparisons.createComparisonAsync(Comparisons.Side.create(new ByteArrayInputStream(leftData), "pdf"),
+                    Comparisons.Side.create(rightData, "pdf"), "abc", false, null).get(10, TimeUnit.SECONDS);
+
+            final StubServer.Request unknown = server.requests().get(1);
+            assertNull(unknown.header("Content-Length"));
+            assertTrue(contains(unknown.body, leftData));
+            assertTrue(contains(unknown.body, rightData));
+        }
+    }
+
+    // endregion Requests and responses
+
+    // region Errors
+
+    @Test
+    void errorResponsesAreMapped() throws Exception {
+        try (StubServer server = new StubServer(request -> StubServer.status(404));
+                Comparisons comparisons = server.clientBuilder().transport(new JdkHttpTransport()).build()) {
+            assertThrows(Comparisons.ComparisonNotFoundException.class, () -> comparisons.getComparison("abc"));
+            final ExecutionException notFound = assertThrows(ExecutionException.class,
+                    () -> comparisons.getComparisonAsync("abc").get(10, TimeUnit.SECONDS));
+            assertInstanceOf(Comparisons.ComparisonNotFoundException.class, notFound.getCause());
+
+            server.setHandler(request -> StubServer.json(400, "{\"detail\":\"Bad file type\"}"));
+            assertThrows(Comparisons.BadRequestException.class,
+                    () -> comparisons.createComparison(Comparisons.Side.create(new byte[10], "pdf"),
+                            Comparisons.Side.create(new byte[10], "pdf")));
+
+            server.setHandler(request -> StubServer.status(401));
+            assertThrows(Comparisons.InvalidAuthenticationException.class, () -> comparisons.getComparison("abc"));
+        }
+    }
+
+    // endregion Errors
+
+    // region Timeouts
+
+    @Test
+    void serversThatDontRespondAreTimedOut() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        try (StubServer server = new StubServer(request -> {
+            release.await(10, TimeUnit.SECONDS);
+            return StubServer.readyComparisons(request);
+        }); Comparisons comparisons = server.clientBuilder().transport(new JdkHttpTransport())
+                .timeouts(TimeoutConfig.builder().connectTimeout(Duration.ofMillis(200))
+                        .leaseTimeout(Duration.ofMillis(200)).socketTimeout(Duration.ofMillis(200)).build())
+                .build()) {
+            final long start = System.nanoTime();
+            assertThrows(HttpTimeoutException.class, () -> comparisons.getComparison("abc"));
+            final ExecutionException failed = assertThrows(ExecutionException.class,
+                    () -> comparisons.getComparisonAsync("abc").get(10, TimeUnit.SECONDS));
+            assertInstanceOf(HttpTimeoutException.class, failed.getCause());
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void uploadsAreOnlyTimedOutOnceTheyStopProgressing() throws Exception {
+        // The body is read far more slowly than the socket timeout, but never stops
+        // for that long. The server then never responds.
+        final InputStream slowContent = new InputStream() {
+            private int remaining = 20;
+
+            @Override
+            public int read() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int read(final byte[] buffer, final int offset, final int count) throws IOException {
+                if (remaining-- <= 0) {
+                    return -1;
+                }
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException ex) {
+                    throw new InterruptedIOException();
+                }
+                final int chunk = Math.min(count, 1024);
+                Arrays.fill(buffer, offset, offset + chunk, (byte) 'x');
+                return chunk;
+            }
+        };
+        final CountDownLatch received = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        try (StubServer server = new StubServer(request -> {
+            received.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return StubServer.json(201, StubServer.comparison("abc", false));
+        }); Comparisons comparisons = server.clientBuilder().transport(new JdkHttpTransport())
+                .timeouts(TimeoutConfig.builder().socketTimeout(Duration.ofMillis(500)).build()).build()) {
+            final long start = System.nanoTime();
+            final ExecutionException failed = assertThrows(ExecutionException.class,
+                    () -> comparisons.createComparisonAsync(Comparisons.Side.create(slowContent, "pdf"),
+                            Comparisons.Side.create(new byte[10], "pdf")).get(10, TimeUnit.SECONDS));
+            assertInstanceOf(HttpTimeoutException.class, failed.getCause());
+
+            assertEquals(0, received.getCount(), "The upload was cut short");
+            assertTrue(System.nanoTime() - start > TimeUnit.SECONDS.toNanos(2));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    // endregion Timeouts
+
+    // region Downloads
+
+    @Test
+    void downloadsFollowRedirects() throws Exception {
+        final byte[] data = StreamingMultipartEntityTest.randomBytes(300_000, 3);
+        try (StubServer server = new StubServer(request -> request.path.equals("/v1/files/export.pdf")
+                ? StubServer.status(302).header("Location", "/storage/export.pdf")
+                : new StubServer.Response(200, data));
+                Comparisons comparisons = server.clientBuilder().transport(new JdkHttpTransport()).build()) {
+            final ByteArrayOutputStream target = new ByteArrayOutputStream();
+            final Export export = new Export("export", "comparison", server.apiBase() + "/files/export.pdf",
+                    ExportKind.COMBINED, true, false, null);
+
+            assertEquals(data.length, comparisons.downloadExport(export, Channels.newChannel(target)));
+            assertArrayEquals(data, target.toByteArray());
+            assertEquals("/storage/export.pdf", server.requests().get(1).path);
+        }
+    }
+
+    // endregion Downloads
+
+    // region Cancellation
+
+    @Test
+    void cancellingTheFutureStopsTheUpload() throws Exception {
+        final long fileSize = 200L * 1024 * 1024;
+        final File file = tempDir.resolve("large.pdf").toFile();
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.setLength(fileSize);
+        }
+
+        try (UploadCancellationTest.SlowServer server = new UploadCancellationTest.SlowServer();
+                Comparisons comparisons = Comparisons.builder().accountId("account").authToken("token")
+                        .apiBaseUrl(server.apiBase()).transport(new JdkHttpTransport()).build()) {
+            final CompletableFuture<Comparison> comparison = comparisons.createComparisonAsync(
+                    Comparisons.Side.create(file, "pdf"), Comparisons.Side.create(file, "pdf"));
+            while (server.received.get() < 256 * 1024) {
+                assertFalse(comparison.isDone(), "The upload finished before it was cancelled");
+                Thread.sleep(10);
+            }
+
+            assertTrue(comparison.cancel(true));
+            server.drain();
+
+            assertTrue(server.closed.await(10, TimeUnit.SECONDS), "The upload carried on after its cancel");
+            final long received = server.received.get();
+            assertTrue(received < fileSize / 4, "Received " + received + " bytes");
+        }
+    }
+
+    // endregion Cancellation
+
+    private static boolean contains(final byte[] data, final byte[] part) {
+        outer:
+        for (int i = 0; i + part.length <= data.length; ++i) {
+            for (int j = 0; j < part.length; ++j) {
+                if (data[i + j] != part[j]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
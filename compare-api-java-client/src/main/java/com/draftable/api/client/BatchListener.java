@@ -0,0 +1,39 @@
+package com.draftable.api.client;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Receives the result of each comparison in a batch started with
+ * {@link Comparisons#createComparisons(Iterable, BatchOptions)}, as soon as it
+ * finishes.
+ *
+ * <p>
+ * Methods may be called concurrently from the client's executor and HTTP
+ * client threads, so implementations must be thread-safe and should return
+ * quickly. Exceptions thrown by a listener are ignored.
+ * </p>
+ */
+public interface BatchListener {
+
+    /**
+     * Called when a comparison in the batch has been created.
+     *
+     * @param index      The position of the request in the batch, from zero.
+     * @param request    The request that was submitted.
+     * @param comparison The newly created comparison.
+     */
+    default void onSuccess(int index, @Nonnull ComparisonRequest request, @Nonnull Comparison comparison) {
+    }
+
+    /**
+     * Called when a comparison in the batch could not be created. The rest of the
+     * batch continues.
+     *
+     * @param index   The position of the request in the batch, from zero.
+     * @param request The request that was submitted.
+     * @param error   The error, as documented for
+     *                {@link Comparisons#createComparisonAsync(Comparisons.Side, Comparisons.Side, String, boolean, java.time.Instant)}.
+     */
+    default void onFailure(int index, @Nonnull ComparisonRequest request, @Nonnull Throwable error) {
+    }
+}
@@ -0,0 +1,116 @@
+package com.draftable.api.client;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Configures a batch of comparisons started with
+ * {@link Comparisons#createComparisons(Iterable, BatchOptions)}.
+ *
+ * <p>
+ * Instances are immutable, and are created with {@link #builder()}.
+ * </p>
+ */
+public final class BatchOptions {
+
+    // region Builder
+
+    /**
+     * Builds a {@link BatchOptions}. Any settings that aren't provided keep their
+     * documented defaults.
+     */
+    public static final class Builder {
+        private int maxInFlight = 8;
+        @Nullable
+        private BatchListener listener = null;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the maximum number of comparisons being uploaded at once. Requests
+         * are only taken from the batch's {@link Iterable} when there is room for
+         * them, so at most this many request bodies are held by the HTTP client.
+         * Defaults to 8.
+         *
+         * @param maxInFlight The maximum number of concurrent uploads, which must be
+         *                    positive.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder maxInFlight(final int maxInFlight) {
+            if (maxInFlight <= 0) {
+                throw new IllegalArgumentException("`maxInFlight` must be positive");
+            }
+            this.maxInFlight = maxInFlight;
+            return this;
+        }
+
+        /**
+         * Sets a listener to receive the result of each comparison as it finishes.
+         * Defaults to null, meaning only the overall {@link BatchSummary} is
+         * reported.
+         *
+         * @param listener The listener, or null for none.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder listener(@Nullable final BatchListener listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * Creates the {@link BatchOptions}.
+         *
+         * @return A new {@link BatchOptions} with this builder's settings.
+         */
+        @Nonnull
+        public BatchOptions build() {
+            return new BatchOptions(this);
+        }
+    }
+
+    /**
+     * Creates a builder for a {@link BatchOptions}.
+     *
+     * @return A new {@link Builder} with the default settings.
+     */
+    @Nonnull
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // endregion Builder
+
+    // region Fields and constructor
+
+    private final int maxInFlight;
+    @Nullable
+    private final BatchListener listener;
+
+    private BatchOptions(@Nonnull final Builder builder) {
+        this.maxInFlight = builder.maxInFlight;
+        this.listener = builder.listener;
+    }
+
+    // endregion Fields and constructor
+
+    // region Getters
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    @Nullable
+    public BatchListener getListener() {
+        return listener;
+    }
+
+    // endregion Getters
+
+    @Override
+    public String toString() {
+        return String.format("BatchOptions(maxInFlight: %d, listener: %s)", maxInFlight, listener);
+    }
+}
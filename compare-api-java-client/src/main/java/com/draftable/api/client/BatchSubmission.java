@@ -0,0 +1,184 @@
+package com.draftable.api.client;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Drives a batch of comparison requests, keeping a bounded number in flight.
+ *
+ * <p>
+ * Requests are pulled from the iterator only when a slot is free, so a lazily
+ * produced batch never has more than {@code maxInFlight} request bodies in
+ * memory. Refilling happens on the given executor rather than on the thread
+ * that completed a request, since that may be an HTTP client I/O thread and
+ * preparing the next upload may block.
+ * </p>
+ */
+final class BatchSubmission {
+
+    @Nonnull
+    private final Iterator<? extends ComparisonRequest> requests;
+    @Nonnull
+    private final Function<ComparisonRequest, CompletableFuture<Comparison>> submitter;
+    private final int maxInFlight;
+    @Nullable
+    private final BatchListener listener;
+    @Nonnull
+    private final Executor executor;
+
+    @Nonnull
+    private final CompletableFuture<BatchSummary> result = new CompletableFuture<>();
+
+    /** Guards {@link #inFlight}, {@link #nextIndex}, {@link #exhausted} and the iterator. */
+    @Nonnull
+    private final ReentrantLock lock = new ReentrantLock();
+    private int inFlight;
+    private int nextIndex;
+    private boolean exhausted;
+
+    @Nonnull
+    private final AtomicInteger succeeded = new AtomicInteger();
+    @Nonnull
+    private final Map<Integer, Throwable> failures = new ConcurrentHashMap<>();
+    private long startNanos;
+
+    BatchSubmission(@Nonnull final Iterator<? extends ComparisonRequest> requests,
+            @Nonnull final Function<ComparisonRequest, CompletableFuture<Comparison>> submitter,
+            @Nonnull final BatchOptions options, @Nonnull final Executor executor) {
+        this.requests = requests;
+        this.submitter = submitter;
+        this.maxInFlight = options.getMaxInFlight();
+        this.listener = options.getListener();
+        this.executor = executor;
+    }
+
+    /**
+     * Starts submitting requests. The first requests are submitted on the calling
+     * thread.
+     *
+     * @return A future that completes once every request has finished. Cancelling
+     *         it stops any further requests from being submitted.
+     */
+    @Nonnull
+    CompletableFuture<BatchSummary> start() {
+        startNanos = System.nanoTime();
+        fill();
+        return result;
+    }
+
+    private void fill() {
+        while (true) {
+            ComparisonRequest request;
+            int index;
+
+            lock.lock();
+            try {
+                if (result.isDone()) {
+                    return;
+                }
+                if (exhausted || inFlight >= maxInFlight) {
+                    completeIfFinished();
+                    return;
+                }
+
+                try {
+                    if (!requests.hasNext()) {
+                        exhausted = true;
+                        completeIfFinished();
+                        return;
+                    }
+                    request = requests.next();
+                } catch (RuntimeException ex) {
+                    // We can't tell which items remain, so fail the whole batch.
+                    exhausted = true;
+                    result.completeExceptionally(ex);
+                    return;
+                }
+
+                index = nextIndex++;
+                if (request == null) {
+                    // Only this item is invalid, so record it and carry on with the rest.
+                    failures.put(index, new IllegalArgumentException("`requests` cannot contain null"));
+                    continue;
+                }
+                inFlight++;
+            } finally {
+                lock.unlock();
+            }
+
+            submit(index, request);
+        }
+    }
+
+    /** Completes the batch if every request has been taken and has finished. Must hold {@link #lock}. */
+    private void completeIfFinished() {
+        if (exhausted && inFlight == 0) {
+            result.complete(new BatchSummary(succeeded.get(), failures,
+                    Duration.ofNanos(System.nanoTime() - startNanos)));
+        }
+    }
+
+    private void submit(final int index, @Nonnull final ComparisonRequest request) {
+        CompletableFuture<Comparison> future;
+        try {
+            future = submitter.apply(request);
+        } catch (RuntimeException ex) {
+            // e.g. an invalid identifier or expiry. This only fails this item.
+            future = new CompletableFuture<>();
+            future.completeExceptionally(ex);
+        }
+
+        future.whenComplete((comparison, error) -> {
+            if (error == null) {
+                succeeded.incrementAndGet();
+                notifySuccess(index, request, comparison);
+            } else {
+                if (error instanceof CompletionException && error.getCause() != null) {
+                    error = error.getCause();
+                }
+                failures.put(index, error);
+                notifyFailure(index, request, error);
+            }
+
+            lock.lock();
+            try {
+                inFlight--;
+            } finally {
+                lock.unlock();
+            }
+            executor.execute(this::fill);
+        });
+    }
+
+    private void notifySuccess(final int index, @Nonnull final ComparisonRequest request,
+            @Nonnull final Comparison comparison) {
+        if (listener != null) {
+            try {
+                listener.onSuccess(index, request, comparison);
+            } catch (RuntimeException ignored) {
+                // A misbehaving listener must not stall the batch.
+            }
+        }
+    }
+
+    private void notifyFailure(final int index, @Nonnull final ComparisonRequest request,
+            @Nonnull final Throwable error) {
+        if (listener != null) {
+            try {
+                listener.onFailure(index, request, error);
+            } catch (RuntimeException ignored) {
+                // A misbehaving listener must not stall the batch.
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.draftable.api.client;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Summarises a completed batch of comparisons, as returned by
+ * {@link Comparisons#createComparisons(Iterable, BatchOptions)}.
+ */
+public final class BatchSummary {
+
+    private final int succeeded;
+    @Nonnull
+    private final Map<Integer, Throwable> failures;
+    @Nonnull
+    private final Duration elapsed;
+
+    BatchSummary(final int succeeded, @Nonnull final Map<Integer, Throwable> failures,
+            @Nonnull final Duration elapsed) {
+        this.succeeded = succeeded;
+        this.failures = Collections.unmodifiableMap(new TreeMap<>(failures));
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * Gets the number of requests that were submitted.
+     *
+     * @return The number of comparisons that were attempted.
+     */
+    public int getSubmitted() {
+        return succeeded + failures.size();
+    }
+
+    /**
+     * Gets the number of comparisons that were created.
+     *
+     * @return The number of successful requests.
+     */
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    /**
+     * Gets the number of comparisons that could not be created.
+     *
+     * @return The number of failed requests.
+     */
+    public int getFailed() {
+        return failures.size();
+    }
+
+    /**
+     * Gets the errors for the requests that failed.
+     *
+     * @return An unmodifiable map from the position of each failed request in the
+     *         batch to its error, ordered by position.
+     */
+    @Nonnull
+    public Map<Integer, Throwable> getFailures() {
+        return failures;
+    }
+
+    /**
+     * Gets the time taken to process the batch.
+     *
+     * @return The time from starting the batch to the last request finishing.
+     */
+    @Nonnull
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * Gets the average number of requests completed per second, whether or not
+     * they succeeded.
+     *
+     * @return The throughput of the batch, in requests per second.
+     */
+    public double getThroughput() {
+        long elapsedNanos = elapsed.toNanos();
+        return elapsedNanos <= 0 ? 0 : getSubmitted() * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BatchSummary(succeeded: %d, failed: %d, elapsed: %s, throughput: %.2f/s)", succeeded,
+                failures.size(), elapsed, getThroughput());
+    }
+}
@@ -0,0 +1,72 @@
+package com.draftable.api.client;
+
+import javax.annotation.Nonnull;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A small pool of fixed-size byte buffers for streaming response bodies.
+ *
+ * <p>
+ * Downloads copy through one of these buffers rather than collecting the body,
+ * so memory use per download is constant however large the body is. Reusing
+ * the buffers keeps a steady stream of downloads from churning the young
+ * generation with 64 KiB arrays.
+ * </p>
+ */
+final class BufferPool {
+
+    /** The size of each buffer, in bytes. */
+    static final int bufferSize = 64 * 1024;
+
+    /** The pool shared by all clients. */
+    @Nonnull
+    static final BufferPool shared = new BufferPool(bufferSize, 32);
+
+    private final int size;
+    private final int maxRetained;
+    @Nonnull
+    private final ConcurrentLinkedQueue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+    @Nonnull
+    private final AtomicInteger retained = new AtomicInteger();
+
+    BufferPool(final int size, final int maxRetained) {
+        this.size = size;
+        this.maxRetained = maxRetained;
+    }
+
+    /**
+     * Takes a buffer from the pool, or allocates a new one if the pool is empty.
+     *
+     * @return A cleared heap buffer, which should be given back with
+     *         {@link #release(ByteBuffer)} once it is no longer used.
+     */
+    @Nonnull
+    ByteBuffer acquire() {
+        ByteBuffer buffer = buffers.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocate(size);
+        }
+        retained.decrementAndGet();
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Returns a buffer to the pool. Buffers beyond the pool's capacity are left
+     * for the garbage collector.
+     *
+     * @param buffer A buffer previously taken with {@link #acquire()}.
+     */
+    void release(@Nonnull final ByteBuffer buffer) {
+        if (buffer.capacity() != size) {
+            return;
+        }
+        if (retained.incrementAndGet() <= maxRetained) {
+            buffers.offer(buffer);
+        } else {
+            retained.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.draftable.api.client;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.FileContentDecoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.protocol.AbstractAsyncResponseConsumer;
+import org.apache.http.protocol.HttpContext;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Consumes an asynchronous response by writing its body straight to a channel,
+ * as it arrives on the I/O reactor.
+ *
+ * <p>
+ * When the target is a {@link FileChannel} or {@link FileRegionChannel} and the
+ * response isn't chunked, the body is moved from the socket to the file with
+ * {@link FileContentDecoder#transfer(FileChannel, long, long)}, so it never
+ * passes through the Java heap. Otherwise it is copied through a single pooled
+ * buffer. Only the body of a response with a success status code is written
+ * to the target: error bodies are kept (up to a limit) so that they can be
+ * reported, and redirect bodies are discarded.
+ * </p>
+ *
+ * <p>
+ * The result is the response itself, with the error body attached as its
+ * entity if there was one. The number of bytes written is given by
+ * {@link #getBytesWritten()}.
+ * </p>
+ */
+final class ChannelResponseConsumer extends AbstractAsyncResponseConsumer<HttpResponse> {
+
+    /** The most of an error response body we keep for the exception message. */
+    private static final int maxErrorBodySize = 64 * 1024;
+
+    @Nonnull
+    private final WritableByteChannel target;
+    @Nonnull
+    private final int[] successStatusCodes;
+
+    @Nullable
+    private HttpResponse response;
+    private boolean writeBody;
+    @Nullable
+    private ByteBuffer buffer;
+    @Nullable
+    private ByteArrayOutputStream errorBody;
+    private long bytesWritten;
+
+    /**
+     * Creates a consumer.
+     *
+     * @param target             The channel to write the body to.
+     * @param successStatusCodes The status codes whose body is written to the
+     *                           target.
+     */
+    ChannelResponseConsumer(@Nonnull final WritableByteChannel target, @Nonnull final int... successStatusCodes) {
+        this.target = target;
+        this.successStatusCodes = successStatusCodes.clone();
+    }
+
+    /**
+     * Gets the number of body bytes written to the target.
+     *
+     * @return The number of bytes written so far.
+     */
+    long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    @Override
+    protected void onResponseReceived(@Nonnull final HttpResponse response) {
+        this.response = response;
+        int statusCode = response.getStatusLine().getStatusCode();
+        writeBody = false;
+        for (int successStatusCode : successStatusCodes) {
+            writeBody |= statusCode == successStatusCode;
+        }
+        if (!writeBody && (statusCode < HttpStatus.SC_MULTIPLE_CHOICES || statusCode >= HttpStatus.SC_BAD_REQUEST)) {
+            errorBody = new ByteArrayOutputStream();
+        }
+    }
+
+    @Override
+    protected void onEntityEnclosed(@Nonnull final HttpEntity entity, @Nullable final ContentType contentType) {
+        // Nothing to do - the body is handled as it arrives.
+    }
+
+    @Override
+    protected void onContentReceived(@Nonnull final ContentDecoder decoder, @Nonnull final IOControl ioControl)
+            throws IOException {
+        // A transfer can't tell the end of the stream apart from there being no data
+        // yet, so if nothing is transferred we read instead, which does.
+        if (writeBody && target instanceof FileRegionChannel && decoder instanceof FileContentDecoder) {
+            long transferred = ((FileRegionChannel) target).transferFrom((FileContentDecoder) decoder);
+            if (transferred > 0) {
+                bytesWritten += transferred;
+                return;
+            }
+        } else if (writeBody && target instanceof FileChannel && decoder instanceof FileContentDecoder) {
+            FileChannel file = (FileChannel) target;
+            long position = file.position();
+            long transferred = ((FileContentDecoder) decoder).transfer(file, position, Integer.MAX_VALUE);
+            if (transferred > 0) {
+                file.position(position + transferred);
+                bytesWritten += transferred;
+                return;
+            }
+        }
+
+        if (buffer == null) {
+            buffer = BufferPool.shared.acquire();
+        }
+        int bytesRead;
+        while ((bytesRead = decoder.read(buffer)) > 0) {
+            buffer.flip();
+            if (writeBody) {
+                while (buffer.hasRemaining()) {
+                    target.write(buffer);
+                }
+                bytesWritten += bytesRead;
+            } else if (errorBody != null && errorBody.size() < maxErrorBodySize) {
+                errorBody.write(buffer.array(), buffer.arrayOffset() + buffer.position(),
+                        Math.min(buffer.remaining(), maxErrorBodySize - errorBody.size()));
+            }
+            buffer.clear();
+        }
+    }
+
+    @Nullable
+    @Override
+    protected HttpResponse buildResult(@Nonnull final HttpContext context) {
+        if (response != null && errorBody != null) {
+            response.setEntity(new ByteArrayEntity(errorBody.toByteArray()));
+        }
+        return response;
+    }
+
+    @Override
+    protected void releaseResources() {
+        if (buffer != null) {
+            BufferPool.shared.release(buffer);
+            buffer = null;
+        }
+    }
+}
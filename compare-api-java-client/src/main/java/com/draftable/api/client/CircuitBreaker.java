@@ -0,0 +1,229 @@
+package com.draftable.api.client;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A circuit breaker for one API server, as configured by a
+ * {@link CircuitBreakerConfig}. The outcomes of recent requests are kept in a
+ * ring buffer, so that the failure and slow call rates cover a sliding window
+ * of requests.
+ *
+ * <p>
+ * Callers take a permit with {@link #tryAcquire()} before sending a request,
+ * and report its outcome with {@link #onResult(long, boolean, long)}, or
+ * {@link #release(long)} if it was cancelled. Each permit records the
+ * generation of the state it was taken in, so that the outcome of a request
+ * that was sent before the last state change is ignored.
+ * </p>
+ */
+final class CircuitBreaker {
+
+    @Nonnull
+    private final String origin;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    @Nullable
+    private final CircuitBreakerListener listener;
+
+    /** Guards all of the fields below. */
+    @Nonnull
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Nonnull
+    private CircuitBreakerState state = CircuitBreakerState.CLOSED;
+
+    /** Incremented on each state change, to tell stale permits apart. */
+    private long generation;
+
+    /** When the circuit breaker last opened, from {@link System#nanoTime()}. */
+    private long openedNanos;
+
+    /** The outcomes in the window, as bit 0 for failed and bit 1 for slow. */
+    @Nonnull
+    private final byte[] outcomes;
+    private int nextOutcome;
+    private int calls;
+    private int failedCalls;
+    private int slowCalls;
+
+    /** The trial requests that may still be sent while half open. */
+    private int halfOpenPermits;
+
+    CircuitBreaker(@Nonnull final String origin, @Nonnull final CircuitBreakerConfig config) {
+        this.origin = origin;
+        this.minimumCalls = config.getMinimumCalls();
+        this.failureRateThreshold = config.getFailureRateThreshold();
+        this.slowCallRateThreshold = config.getSlowCallRateThreshold();
+        this.slowCallNanos = config.getSlowCallDuration().toNanos();
+        this.openNanos = config.getOpenDuration().toNanos();
+        // The trial requests must all fit in the window to be judged together.
+        this.halfOpenCalls = Math.min(config.getHalfOpenCalls(), config.getWindowSize());
+        this.listener = config.getListener();
+        this.outcomes = new byte[config.getWindowSize()];
+    }
+
+    @Nonnull
+    String getOrigin() {
+        return origin;
+    }
+
+    @Nonnull
+    CircuitBreakerState getState() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets whether requests are currently being rejected, without taking a
+     * permit. This lets requests fail before waiting for anything else.
+     */
+    boolean isOpen() {
+        lock.lock();
+        try {
+            return state == CircuitBreakerState.OPEN && System.nanoTime() - openedNanos < openNanos;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes a permit to send a request, half opening the circuit breaker if it
+     * has been open long enough.
+     *
+     * @return The permit, or -1 if the request must not be sent.
+     */
+    long tryAcquire() {
+        CircuitBreakerState from = null;
+        long permit;
+        lock.lock();
+        try {
+            if (state == CircuitBreakerState.OPEN) {
+                if (System.nanoTime() - openedNanos < openNanos) {
+                    return -1;
+                }
+                from = transition(CircuitBreakerState.HALF_OPEN);
+            }
+            if (state == CircuitBreakerState.HALF_OPEN) {
+                if (halfOpenPermits == 0) {
+                    permit = -1;
+                } else {
+                    --halfOpenPermits;
+                    permit = generation;
+                }
+            } else {
+                permit = generation;
+            }
+        } finally {
+            lock.unlock();
+        }
+        notifyListener(from, CircuitBreakerState.HALF_OPEN);
+        return permit;
+    }
+
+    /**
+     * Records the outcome of a request, opening or closing the circuit breaker if
+     * the rates cross their thresholds.
+     *
+     * @param permit        The permit the request was sent with.
+     * @param failed        Whether the request failed.
+     * @param durationNanos How long the request took.
+     */
+    void onResult(final long permit, final boolean failed, final long durationNanos) {
+        CircuitBreakerState from = null;
+        CircuitBreakerState to = null;
+        lock.lock();
+        try {
+            if (permit != generation) {
+                return;
+            }
+
+            byte outcome = (byte) ((failed ? 1 : 0) | (durationNanos > slowCallNanos ? 2 : 0));
+            if (calls == outcomes.length) {
+                byte evicted = outcomes[nextOutcome];
+                failedCalls -= evicted & 1;
+                slowCalls -= (evicted >> 1) & 1;
+            } else {
+                ++calls;
+            }
+            outcomes[nextOutcome] = outcome;
+            nextOutcome = (nextOutcome + 1) % outcomes.length;
+            failedCalls += outcome & 1;
+            slowCalls += (outcome >> 1) & 1;
+
+            boolean exceeded = (double) failedCalls / calls >= failureRateThreshold
+                    || (double) slowCalls / calls >= slowCallRateThreshold;
+            if (state == CircuitBreakerState.CLOSED) {
+                if (calls >= minimumCalls && exceeded) {
+                    to = CircuitBreakerState.OPEN;
+                }
+            } else if (state == CircuitBreakerState.HALF_OPEN && calls >= halfOpenCalls) {
+                to = exceeded ? CircuitBreakerState.OPEN : CircuitBreakerState.CLOSED;
+            }
+            if (to != null) {
+                from = transition(to);
+            }
+        } finally {
+            lock.unlock();
+        }
+        notifyListener(from, to);
+    }
+
+    /**
+     * Returns the permit of a request that was cancelled, so that its outcome
+     * isn't counted either way.
+     *
+     * @param permit The permit the request was sent with.
+     */
+    void release(final long permit) {
+        lock.lock();
+        try {
+            if (permit == generation && state == CircuitBreakerState.HALF_OPEN) {
+                ++halfOpenPermits;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Changes state and starts a new window. Must be called with the lock held.
+     *
+     * @return The previous state.
+     */
+    @Nonnull
+    private CircuitBreakerState transition(@Nonnull final CircuitBreakerState to) {
+        CircuitBreakerState from = state;
+        state = to;
+        ++generation;
+        nextOutcome = 0;
+        calls = 0;
+        failedCalls = 0;
+        slowCalls = 0;
+        if (to == CircuitBreakerState.OPEN) {
+            openedNanos = System.nanoTime();
+        } else if (to == CircuitBreakerState.HALF_OPEN) {
+            halfOpenPermits = halfOpenCalls;
+        }
+        return from;
+    }
+
+    private void notifyListener(@Nullable final CircuitBreakerState from, @Nullable final CircuitBreakerState to) {
+        if (listener != null && from != null && to != null) {
+            try {
+                listener.onStateChange(origin, from, to);
+            } catch (RuntimeException ignored) {
+                // A misbehaving listener must not fail the request that changed the state.
+            }
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.draftable.api.client;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Duration;
+
+/**
+ * Configures the circuit breaker that guards each API server, so that while a
+ * server is failing or very slow, requests to it fail straight away with a
+ * {@link CircuitBreakerOpenException} instead of each waiting out its timeout.
+ *
+ * <p>
+ * The circuit breaker records the outcome of the last {@link #getWindowSize()}
+ * requests. A request fails if it couldn't be sent or its response couldn't be
+ * read, or if the server responded with a 5xx status code; other error
+ * responses, such as 404 or 429, show that the server is up. A request is slow
+ * if it took longer than {@link #getSlowCallDuration()}, whatever its outcome.
+ * Once at least {@link #getMinimumCalls()} requests are recorded, the circuit
+ * breaker opens if the fraction that failed reaches
+ * {@link #getFailureRateThreshold()}, or the fraction that were slow reaches
+ * {@link #getSlowCallRateThreshold()}.
+ * </p>
+ *
+ * <p>
+ * After {@link #getOpenDuration()}, the circuit breaker half opens, and lets
+ * {@link #getHalfOpenCalls()} trial requests through. If they pass the same
+ * thresholds it closes, and otherwise it opens again.
+ * </p>
+ *
+ * <p>
+ * Instances are immutable, and are created with {@link #builder()}.
+ * </p>
+ */
+public final class CircuitBreakerConfig {
+
+    // region Builder
+
+    /**
+     * Builds a {@link CircuitBreakerConfig}. Any settings that aren't provided
+     * keep their documented defaults.
+     */
+    public static final class Builder {
+        private int windowSize = 50;
+        private int minimumCalls = 20;
+        private double failureRateThreshold = 0.5;
+        private double slowCallRateThreshold = 1;
+        @Nonnull
+        private Duration slowCallDuration = Duration.ofSeconds(30);
+        @Nonnull
+        private Duration openDuration = Duration.ofSeconds(30);
+        private int halfOpenCalls = 3;
+        @Nullable
+        private CircuitBreakerListener listener;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets how many of the most recent requests are considered. Defaults to 50.
+         *
+         * @param windowSize The number of requests, which must be positive.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder windowSize(final int windowSize) {
+            if (windowSize <= 0) {
+                throw new IllegalArgumentException("`windowSize` must be positive");
+            }
+            this.windowSize = windowSize;
+            return this;
+        }
+
+        /**
+         * Sets how many requests must be recorded before the circuit breaker can
+         * open, so that a few early failures don't open it. Defaults to 20.
+         *
+         * @param minimumCalls The number of requests, which must be positive and no
+         *                     more than the window size.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder minimumCalls(final int minimumCalls) {
+            if (minimumCalls <= 0) {
+                throw new IllegalArgumentException("`minimumCalls` must be positive");
+            }
+            this.minimumCalls = minimumCalls;
+            return this;
+        }
+
+        /**
+         * Sets the fraction of failed requests at which the circuit breaker opens.
+         * Defaults to 0.5.
+         *
+         * @param failureRateThreshold The fraction, which must be greater than 0
+         *                             and at most 1.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder failureRateThreshold(final double failureRateThreshold) {
+            if (!(failureRateThreshold > 0 && failureRateThreshold <= 1)) {
+                throw new IllegalArgumentException("`failureRateThreshold` must be greater than 0 and at most 1");
+            }
+            this.failureRateThreshold = failureRateThreshold;
+            return this;
+        }
+
+        /**
+         * Sets the fraction of slow requests at which the circuit breaker opens.
+         * Defaults to 1, so it only opens if every recent request was slow.
+         *
+         * @param slowCallRateThreshold The fraction, which must be greater than 0
+         *                              and at most 1.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder slowCallRateThreshold(final double slowCallRateThreshold) {
+            if (!(slowCallRateThreshold > 0 && slowCallRateThreshold <= 1)) {
+                throw new IllegalArgumentException("`slowCallRateThreshold` must be greater than 0 and at most 1");
+            }
+            this.slowCallRateThreshold = slowCallRateThreshold;
+            return this;
+        }
+
+        /**
+         * Sets how long a request can take before it counts as slow. Defaults to 30
+         * seconds.
+         *
+         * @param slowCallDuration The duration, which must be positive.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder slowCallDuration(@Nonnull final Duration slowCallDuration) {
+            if (slowCallDuration == null) {
+                throw new IllegalArgumentException("`slowCallDuration` cannot be null");
+            }
+            if (slowCallDuration.isZero() || slowCallDuration.isNegative()) {
+                throw new IllegalArgumentException("`slowCallDuration` must have positive duration");
+            }
+            this.slowCallDuration = slowCallDuration;
+            return this;
+        }
+
+        /**
+         * Sets how long the circuit breaker stays open before trial requests are
+         * let through. Defaults to 30 seconds.
+         *
+         * @param openDuration The duration, which must be positive.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder openDuration(@Nonnull final Duration openDuration) {
+            if (openDuration == null) {
+                throw new IllegalArgumentException("`openDuration` cannot be null");
+            }
+            if (openDuration.isZero() || openDuration.isNegative()) {
+                throw new IllegalArgumentException("`openDuration` must have positive duration");
+            }
+            this.openDuration = openDuration;
+            return this;
+        }
+
+        /**
+         * Sets how many trial requests are let through while half open. Defaults to
+         * 3.
+         *
+         * @param halfOpenCalls The number of requests, which must be positive.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder halfOpenCalls(final int halfOpenCalls) {
+            if (halfOpenCalls <= 0) {
+                throw new IllegalArgumentException("`halfOpenCalls` must be positive");
+            }
+            this.halfOpenCalls = halfOpenCalls;
+            return this;
+        }
+
+        /**
+         * Sets a listener to be told when a circuit breaker changes state. Defaults
+         * to null.
+         *
+         * @param listener The listener, or null for none.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder listener(@Nullable final CircuitBreakerListener listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * Creates the {@link CircuitBreakerConfig}.
+         *
+         * @return A new {@link CircuitBreakerConfig} with this builder's settings.
+         * @throws IllegalArgumentException If the minimum number of requests is
+         *                                  more than the window size.
+         */
+        @Nonnull
+        public CircuitBreakerConfig build() {
+            if (minimumCalls > windowSize) {
+                throw new IllegalArgumentException("`minimumCalls` cannot be more than `windowSize`");
+            }
+            return new CircuitBreakerConfig(this);
+        }
+    }
+
+    /**
+     * Creates a builder for a {@link CircuitBreakerConfig}.
+     *
+     * @return A new {@link Builder} with the default settings.
+     */
+    @Nonnull
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // endregion Builder
+
+    // region Fields and constructor
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    @Nonnull
+    private final Duration slowCallDuration;
+    @Nonnull
+    private final Duration openDuration;
+    private final int halfOpenCalls;
+    @Nullable
+    private final CircuitBreakerListener listener;
+
+    private CircuitBreakerConfig(@Nonnull final Builder builder) {
+        this.windowSize = builder.windowSize;
+        this.minimumCalls = builder.minimumCalls;
+        this.failureRateThreshold = builder.failureRateThreshold;
+        this.slowCallRateThreshold = builder.slowCallRateThreshold;
+        this.slowCallDuration = builder.slowCallDuration;
+        this.openDuration = builder.openDuration;
+        this.halfOpenCalls = builder.halfOpenCalls;
+        this.listener = builder.listener;
+    }
+
+    // endregion Fields and constructor
+
+    // region Getters
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public int getMinimumCalls() {
+        return minimumCalls;
+    }
+
+    public double getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public double getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+
+    @Nonnull
+    public Duration getSlowCallDuration() {
+        return slowCallDuration;
+    }
+
+    @Nonnull
+    public Duration getOpenDuration() {
+        return openDuration;
+    }
+
+    public int getHalfOpenCalls() {
+        return halfOpenCalls;
+    }
+
+    @Nullable
+    public CircuitBreakerListener getListener() {
+        return listener;
+    }
+
+    // endregion Getters
+
+    @Override
+    public String toString() {
+        return String.format(
+                "CircuitBreakerConfig(windowSize: %d, minimumCalls: %d, failureRateThreshold: %s, "
+                        + "slowCallRateThreshold: %s, slowCallDuration: %s, openDuration: %s, halfOpenCalls: %d)",
+                windowSize, minimumCalls, failureRateThreshold, slowCallRateThreshold, slowCallDuration,
+                openDuration, halfOpenCalls);
+    }
+}
@@ -0,0 +1,28 @@
+package com.draftable.api.client;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Receives changes in the state of a circuit breaker configured with
+ * {@link CircuitBreakerConfig.Builder#listener(CircuitBreakerListener)}, for
+ * example to shift traffic away from an API server that is failing.
+ *
+ * <p>
+ * Methods may be called concurrently from the client's executor and HTTP
+ * client threads, so implementations must be thread-safe and should return
+ * quickly. Exceptions thrown by a listener are ignored.
+ * </p>
+ */
+@FunctionalInterface
+public interface CircuitBreakerListener {
+
+    /**
+     * Called when a circuit breaker changes state.
+     *
+     * @param origin The API server the circuit breaker guards, as
+     *               {@code scheme://host[:port]}.
+     * @param from   The previous state.
+     * @param to     The new state.
+     */
+    void onStateChange(@Nonnull String origin, @Nonnull CircuitBreakerState from, @Nonnull CircuitBreakerState to);
+}
@@ -0,0 +1,31 @@
+package com.draftable.api.client;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+
+/**
+ * Thrown instead of sending a request while the circuit breaker for its API
+ * server is open, because too many recent requests to it failed or were slow.
+ * Requests are allowed again once the circuit breaker's open duration has
+ * passed and trial requests succeed.
+ */
+public class CircuitBreakerOpenException extends IOException {
+
+    @Nonnull
+    private final String origin;
+
+    CircuitBreakerOpenException(@Nonnull final String origin) {
+        super(String.format("The circuit breaker for '%s' is open", origin));
+        this.origin = origin;
+    }
+
+    /**
+     * Gets the API server whose circuit breaker is open.
+     *
+     * @return The server, as {@code scheme://host[:port]}.
+     */
+    @Nonnull
+    public String getOrigin() {
+        return origin;
+    }
+}
@@ -0,0 +1,17 @@
+package com.draftable.api.client;
+
+/**
+ * The states of the circuit breaker configured with
+ * {@link Comparisons.Builder#circuitBreaker(CircuitBreakerConfig)}.
+ */
+public enum CircuitBreakerState {
+
+    /** Requests are sent, and their outcomes are recorded. */
+    CLOSED,
+
+    /** Too many recent requests failed or were slow, so requests fail straight away. */
+    OPEN,
+
+    /** A few trial requests are sent, to decide whether to close or open again. */
+    HALF_OPEN
+}
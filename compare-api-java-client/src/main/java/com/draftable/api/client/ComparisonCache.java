@@ -0,0 +1,145 @@
+package com.draftable.api.client;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded, least recently used cache of comparison metadata, with a time to
+ * live for each entry that depends on whether the comparison is ready.
+ *
+ * <p>
+ * {@link Comparison} is immutable, so cached instances are handed out as-is.
+ * </p>
+ */
+final class ComparisonCache {
+
+    private static final class CachedComparison {
+        @Nonnull
+        final Comparison comparison;
+        final long expiresAtNanos;
+
+        CachedComparison(@Nonnull final Comparison comparison, final long expiresAtNanos) {
+            this.comparison = comparison;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    /** About 73 years, which is as good as forever. */
+    private static final long maxTimeToLiveNanos = Long.MAX_VALUE / 4;
+
+    private final int maxEntries;
+    private final long pendingTimeToLiveNanos;
+    @Nullable
+    private final Duration readyTimeToLive;
+
+    /** Guards {@link #entries}, which is reordered on every read. */
+    @Nonnull
+    private final ReentrantLock lock = new ReentrantLock();
+    @Nonnull
+    private final LinkedHashMap<String, CachedComparison> entries;
+
+    ComparisonCache(@Nonnull final ComparisonCacheConfig config) {
+        this.maxEntries = config.getMaxEntries();
+        this.pendingTimeToLiveNanos = toNanos(config.getPendingTimeToLive());
+        this.readyTimeToLive = config.getReadyTimeToLive();
+        this.entries = new LinkedHashMap<String, CachedComparison>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, CachedComparison> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Gets a cached comparison.
+     *
+     * @param identifier The comparison's identifier.
+     * @return The comparison, or null if it isn't cached or its entry has expired.
+     */
+    @Nullable
+    Comparison get(@Nonnull final String identifier) {
+        lock.lock();
+        try {
+            CachedComparison entry = entries.get(identifier);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAtNanos - System.nanoTime() <= 0) {
+                entries.remove(identifier);
+                return null;
+            }
+            return entry.comparison;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Caches a comparison just fetched from the server, replacing any entry for
+     * it.
+     *
+     * @param comparison The comparison.
+     * @return The same comparison, for chaining.
+     */
+    @Nonnull
+    Comparison put(@Nonnull final Comparison comparison) {
+        long now = System.nanoTime();
+        long timeToLiveNanos = getTimeToLiveNanos(comparison);
+
+        lock.lock();
+        try {
+            if (timeToLiveNanos <= 0) {
+                entries.remove(comparison.getIdentifier());
+            } else {
+                entries.put(comparison.getIdentifier(), new CachedComparison(comparison, now + timeToLiveNanos));
+            }
+        } finally {
+            lock.unlock();
+        }
+        return comparison;
+    }
+
+    /**
+     * Removes a comparison from the cache.
+     *
+     * @param identifier The comparison's identifier.
+     */
+    void evict(@Nonnull final String identifier) {
+        lock.lock();
+        try {
+            entries.remove(identifier);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long getTimeToLiveNanos(@Nonnull final Comparison comparison) {
+        if (!comparison.getReady()) {
+            return pendingTimeToLiveNanos;
+        }
+
+        long timeToLiveNanos = readyTimeToLive != null ? toNanos(readyTimeToLive) : maxTimeToLiveNanos;
+        Instant expiryTime = comparison.getExpiryTime();
+        if (expiryTime != null) {
+            Duration untilExpiry = Duration.between(Instant.now(), expiryTime);
+            if (untilExpiry.isNegative()) {
+                return 0;
+            }
+            timeToLiveNanos = Math.min(timeToLiveNanos, toNanos(untilExpiry));
+        }
+        return timeToLiveNanos;
+    }
+
+    /**
+     * Converts a time to live to nanoseconds, capped so that adding it to
+     * {@link System#nanoTime()} can't overflow.
+     */
+    private static long toNanos(@Nonnull final Duration duration) {
+        return duration.compareTo(Duration.ofNanos(maxTimeToLiveNanos)) >= 0 ? maxTimeToLiveNanos : duration.toNanos();
+    }
+}
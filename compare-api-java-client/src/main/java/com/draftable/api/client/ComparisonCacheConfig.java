@@ -0,0 +1,165 @@
+package com.draftable.api.client;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Duration;
+
+/**
+ * Configures the in-process cache in front of
+ * {@link Comparisons#getComparison(String)} and
+ * {@link Comparisons#getComparisonAsync(String)}.
+ *
+ * <p>
+ * A comparison that is ready (or has failed) no longer changes, so it is
+ * cached until it expires, or for {@link #getReadyTimeToLive()} if that is
+ * set. A comparison that is still being processed is only cached for
+ * {@link #getPendingTimeToLive()}, so that callers see it become ready soon
+ * after it does. Once the cache is full, the least recently used comparisons
+ * are evicted first.
+ * </p>
+ *
+ * <p>
+ * Instances are immutable, and are created with {@link #builder()}.
+ * </p>
+ */
+public final class ComparisonCacheConfig {
+
+    // region Builder
+
+    /**
+     * Builds a {@link ComparisonCacheConfig}. Any settings that aren't provided
+     * keep their documented defaults.
+     */
+    public static final class Builder {
+        private int maxEntries = 10000;
+        @Nonnull
+        private Duration pendingTimeToLive = Duration.ofSeconds(2);
+        @Nullable
+        private Duration readyTimeToLive = null;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the maximum number of comparisons cached. Defaults to 10,000.
+         *
+         * @param maxEntries The maximum number of comparisons, which must be
+         *                   positive.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder maxEntries(final int maxEntries) {
+            if (maxEntries <= 0) {
+                throw new IllegalArgumentException("`maxEntries` must be positive");
+            }
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        /**
+         * Sets how long a comparison that isn't ready yet is cached. Defaults to 2
+         * seconds.
+         *
+         * @param pendingTimeToLive How long to cache comparisons that aren't ready,
+         *                          which may be zero to not cache them at all.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder pendingTimeToLive(@Nonnull final Duration pendingTimeToLive) {
+            if (pendingTimeToLive == null) {
+                throw new IllegalArgumentException("`pendingTimeToLive` cannot be null");
+            }
+            if (pendingTimeToLive.isNegative()) {
+                throw new IllegalArgumentException("`pendingTimeToLive` cannot be negative");
+            }
+            this.pendingTimeToLive = pendingTimeToLive;
+            return this;
+        }
+
+        /**
+         * Sets the longest a comparison that is ready (or has failed) is cached.
+         * Comparisons are never cached beyond their expiry time. Defaults to null,
+         * meaning ready comparisons are cached until they expire or are evicted.
+         *
+         * <p>
+         * Set this if comparisons may be deleted by other clients, as only
+         * {@link Comparisons#deleteComparison(String)} on the same instance removes
+         * them from the cache.
+         * </p>
+         *
+         * @param readyTimeToLive The longest to cache ready comparisons, or null for
+         *                        no limit.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder readyTimeToLive(@Nullable final Duration readyTimeToLive) {
+            if (readyTimeToLive != null && readyTimeToLive.isNegative()) {
+                throw new IllegalArgumentException("`readyTimeToLive` cannot be negative");
+            }
+            this.readyTimeToLive = readyTimeToLive;
+            return this;
+        }
+
+        /**
+         * Creates the {@link ComparisonCacheConfig}.
+         *
+         * @return A new {@link ComparisonCacheConfig} with this builder's settings.
+         */
+        @Nonnull
+        public ComparisonCacheConfig build() {
+            return new ComparisonCacheConfig(this);
+        }
+    }
+
+    /**
+     * Creates a builder for a {@link ComparisonCacheConfig}.
+     *
+     * @return A new {@link Builder} with the default settings.
+     */
+    @Nonnull
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // endregion Builder
+
+    // region Fields and constructor
+
+    private final int maxEntries;
+    @Nonnull
+    private final Duration pendingTimeToLive;
+    @Nullable
+    private final Duration readyTimeToLive;
+
+    private ComparisonCacheConfig(@Nonnull final Builder builder) {
+        this.maxEntries = builder.maxEntries;
+        this.pendingTimeToLive = builder.pendingTimeToLive;
+        this.readyTimeToLive = builder.readyTimeToLive;
+    }
+
+    // endregion Fields and constructor
+
+    // region Getters
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    @Nonnull
+    public Duration getPendingTimeToLive() {
+        return pendingTimeToLive;
+    }
+
+    @Nullable
+    public Duration getReadyTimeToLive() {
+        return readyTimeToLive;
+    }
+
+    // endregion Getters
+
+    @Override
+    public String toString() {
+        return String.format("ComparisonCacheConfig(maxEntries: %d, pendingTimeToLive: %s, readyTimeToLive: %s)",
+                maxEntries, pendingTimeToLive, readyTimeToLive);
+    }
+}
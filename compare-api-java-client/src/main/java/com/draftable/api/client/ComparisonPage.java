@@ -0,0 +1,102 @@
+package com.draftable.api.client;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents one page of an account's comparisons, as returned by
+ * {@link Comparisons#getComparisonsPage(int, int)}.
+ */
+public final class ComparisonPage {
+
+    @Nonnull
+    private final List<Comparison> comparisons;
+    private final int offset;
+    @Nullable
+    private final Integer totalCount;
+    private final boolean hasMore;
+
+    /**
+     * Creates a page of comparisons.
+     *
+     * @param comparisons The comparisons on this page.
+     * @param offset      The offset of the first comparison on this page.
+     * @param limit       The maximum number of comparisons that were requested.
+     * @param totalCount  The total number of comparisons in the account, if the
+     *                    server reported it.
+     */
+    ComparisonPage(@Nonnull final List<Comparison> comparisons, final int offset, final int limit,
+            @Nullable final Integer totalCount) {
+        if (comparisons == null) {
+            throw new IllegalArgumentException("`comparisons` must not be null");
+        }
+        this.comparisons = Collections.unmodifiableList(comparisons);
+        this.offset = offset;
+        this.totalCount = totalCount;
+
+        if (totalCount != null) {
+            this.hasMore = offset + comparisons.size() < totalCount;
+        } else {
+            // Without a total, a full page means there may be more. If the server
+            // returned more than we asked for, it doesn't support paging and has
+            // returned everything.
+            this.hasMore = comparisons.size() == limit;
+        }
+    }
+
+    /**
+     * Gets the comparisons on this page, ordered from newest to oldest.
+     *
+     * @return An unmodifiable list of the comparisons on this page.
+     */
+    @Nonnull
+    public List<Comparison> getComparisons() {
+        return comparisons;
+    }
+
+    /**
+     * Gets the offset of the first comparison on this page.
+     *
+     * @return The offset of this page.
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Gets the offset of the page following this one.
+     *
+     * @return The offset to request the next page with.
+     */
+    public int getNextOffset() {
+        return offset + comparisons.size();
+    }
+
+    /**
+     * Gets the total number of comparisons in the account, if the server reported
+     * it.
+     *
+     * @return The total number of comparisons, or null if it is not known.
+     */
+    @Nullable
+    public Integer getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Gets whether there may be more comparisons after this page.
+     *
+     * @return true if the next page should be requested.
+     */
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ComparisonPage(offset: %d, size: %d, totalCount: %s, hasMore: %s)", offset,
+                comparisons.size(), totalCount, hasMore ? "true" : "false");
+    }
+}
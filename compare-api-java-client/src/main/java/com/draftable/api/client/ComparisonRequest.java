@@ -0,0 +1,103 @@
+package com.draftable.api.client;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Instant;
+
+/**
+ * Describes a comparison to be created, for use with
+ * {@link Comparisons#createComparisons(Iterable, BatchOptions)}. The parameters
+ * have the same meaning as those of
+ * {@link Comparisons#createComparison(Comparisons.Side, Comparisons.Side, String, boolean, Instant)}.
+ */
+public final class ComparisonRequest {
+
+    @Nonnull
+    private final Comparisons.Side left;
+    @Nonnull
+    private final Comparisons.Side right;
+    @Nullable
+    private final String identifier;
+    private final boolean isPublic;
+    @Nullable
+    private final Instant expires;
+
+    private ComparisonRequest(@Nonnull final Comparisons.Side left, @Nonnull final Comparisons.Side right,
+            @Nullable final String identifier, final boolean isPublic, @Nullable final Instant expires) {
+        if (left == null) {
+            throw new IllegalArgumentException("`left` cannot be null");
+        }
+        if (right == null) {
+            throw new IllegalArgumentException("`right` cannot be null");
+        }
+        this.left = left;
+        this.right = right;
+        this.identifier = identifier;
+        this.isPublic = isPublic;
+        this.expires = expires;
+    }
+
+    /**
+     * Describes a *private* comparison that never expires, with the given sides
+     * and an automatically generated identifier.
+     *
+     * @param left  A {@link Comparisons.Side} representing the left file.
+     * @param right A {@link Comparisons.Side} representing the right file.
+     * @return A new {@link ComparisonRequest}.
+     */
+    @Nonnull
+    public static ComparisonRequest create(@Nonnull final Comparisons.Side left,
+            @Nonnull final Comparisons.Side right) {
+        return new ComparisonRequest(left, right, null, false, null);
+    }
+
+    /**
+     * Describes a comparison with the given sides and properties.
+     *
+     * @param left       A {@link Comparisons.Side} representing the left file.
+     * @param right      A {@link Comparisons.Side} representing the right file.
+     * @param identifier The identifier to use, or null to use an automatically
+     *                   generated one.
+     * @param isPublic   Whether the comparison is publicly accessible, or requires
+     *                   authentication to view.
+     * @param expires    An {@link Instant} at which the comparison will expire and
+     *                   be automatically deleted, or null for no expiry.
+     * @return A new {@link ComparisonRequest}.
+     */
+    @Nonnull
+    public static ComparisonRequest create(@Nonnull final Comparisons.Side left,
+            @Nonnull final Comparisons.Side right, @Nullable final String identifier, final boolean isPublic,
+            @Nullable final Instant expires) {
+        return new ComparisonRequest(left, right, identifier, isPublic, expires);
+    }
+
+    @Nonnull
+    public Comparisons.Side getLeft() {
+        return left;
+    }
+
+    @Nonnull
+    public Comparisons.Side getRight() {
+        return right;
+    }
+
+    @Nullable
+    public String getIdentifier() {
+        return identifier;
+    }
+
+    public boolean getIsPublic() {
+        return isPublic;
+    }
+
+    @Nullable
+    public Instant getExpires() {
+        return expires;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ComparisonRequest(identifier: %s, isPublic: %s, expires: %s)",
+                identifier == null ? "null" : '"' + identifier + '"', isPublic ? "true" : "false", expires);
+    }
+}
@@ -1,8 +1,6 @@
 package com.draftable.api.client;
 
-import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.entity.mime.content.ContentBody;
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
@@ -12,17 +10,42 @@ import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Client for the `comparisons` endpoint in the Draftable Comparison API.
@@ -40,11 +63,13 @@ public class Comparisons implements Closeable {
 
         @Nonnull final String comparisons;
         @Nonnull final String exports;
+        @Nonnull final String comparisonViewers;
 
         public URLs(@Nonnull String apiBase) {
             this.apiBase = apiBase;
             this.comparisons = this.apiBase + "/comparisons";
             this.exports = this.apiBase + "/exports";
+            this.comparisonViewers = this.comparisons + "/viewer";
         }
 
         @Nonnull
@@ -59,14 +84,14 @@ public class Comparisons implements Closeable {
 
         @Nonnull
         String comparisonViewer(@Nonnull String accountId, @Nonnull String identifier) {
-            return comparisons + "/viewer/" + accountId + "/" + identifier;
+            return comparisonViewers + "/" + accountId + "/" + identifier;
         }
     }
 
     // endregion Private: URLs
 
     // region Public exceptions - ComparisonNotFoundException, BadRequestException,
-    // InvalidAuthenticationException, UnknownErrorException
+    // InvalidAuthenticationException, UnknownErrorException, ProcessingFailedException
 
     /**
      * Thrown when the a {@link #getComparison(String)} or
@@ -128,8 +153,42 @@ public class Comparisons implements Closeable {
         }
     }
 
+    /**
+     * Thrown by a {@link Pipeline} when the server fails to process a comparison
+     * or export. (For instance, when one of the files can't be read.)
+     */
+    public static class ProcessingFailedException extends RuntimeException {
+        @Nonnull
+        private final String identifier;
+        @Nullable
+        private final String errorMessage;
+
+        ProcessingFailedException(@Nonnull final String identifier, @Nullable final String errorMessage) {
+            super(String.format("Processing \"%s\" failed: %s", identifier,
+                    errorMessage != null ? errorMessage : "no reason was given"));
+            this.identifier = identifier;
+            this.errorMessage = errorMessage;
+        }
+
+        /**
+         * Gets the identifier of the comparison or export that failed.
+         */
+        @Nonnull
+        public String getIdentifier() {
+            return identifier;
+        }
+
+        /**
+         * Gets the reason given by the server, if any.
+         */
+        @Nullable
+        public String getErrorMessage() {
+            return errorMessage;
+        }
+    }
+
     // endregion Public exceptions - ComparisonNotFoundException,
-    // BadRequestException, InvalidAuthenticationException, UnknownErrorException
+    // BadRequestException, InvalidAuthenticationException, UnknownErrorException, ProcessingFailedException
 
     // region Private fields - accountId, authToken, client
 
@@ -141,6 +200,20 @@ public class Comparisons implements Closeable {
     private final URLs urls;
     @Nonnull
     private final RESTClient client;
+    @Nonnull
+    private final ReadinessPoller<Comparison> comparisonPoller;
+    @Nonnull
+    private final ReadinessPoller<Export> exportPoller;
+    @Nullable
+    private final ComparisonCache comparisonCache;
+    /** Decodes responses and runs batches and pipelines. */
+    @Nonnull
+    private final Executor executor;
+    /** Created on first use, as most clients never sign viewer URLs. */
+    @Nullable
+    private volatile ViewerURLSigner viewerURLSigner;
+    @Nonnull
+    private final ReentrantLock viewerURLSignerLock = new ReentrantLock();
 
     // endregion Private fields - accountId, authToken, client
 
@@ -177,32 +250,385 @@ public class Comparisons implements Closeable {
      *                   "https://api.draftable.com/v1"
      */
     public Comparisons(@Nonnull String accountId, @Nonnull String authToken, @Nullable String apiBaseUrl) {
-        Validation.validateAccountId(accountId);
-        Validation.validateAuthToken(authToken);
-
-        this.accountId = accountId;
-        this.authToken = authToken;
-        this.urls = new URLs(apiBaseUrl == null ? defaultApiBase : apiBaseUrl);
+        this(builder().accountId(accountId).authToken(authToken).apiBaseUrl(apiBaseUrl));
+    }
 
-        client = new RESTClient(authToken);
+    private Comparisons(@Nonnull Builder builder) {
+        Validation.validateAccountId(builder.accountId);
+        Validation.validateAuthToken(builder.authToken);
+
+        this.accountId = builder.accountId;
+        this.authToken = builder.authToken;
+        this.urls = new URLs(builder.apiBaseUrl == null ? defaultApiBase : builder.apiBaseUrl);
+
+        this.executor = builder.executor != null ? builder.executor : ForkJoinPool.commonPool();
+
+        client = new RESTClient(authToken, new RESTClient.Settings()
+                .poolConfig(builder.connectionPool)
+                .sharedTransport(builder.sharedTransport)
+                .transport(builder.transport)
+                .retryPolicy(builder.retryPolicy)
+                .rateLimit(builder.rateLimit)
+                .circuitBreaker(builder.circuitBreaker)
+                .hedgingPolicy(builder.hedgingPolicy)
+                .timeouts(builder.timeouts)
+                .executor(executor));
+        comparisonCache = builder.comparisonCache != null ? new ComparisonCache(builder.comparisonCache) : null;
+        comparisonPoller = new ReadinessPoller<>(this::fetchComparisonAsync, this::findComparisonsAsync,
+                Comparison::getReady);
+        exportPoller = new ReadinessPoller<>(this::getExportAsync, null, Comparisons::isExportFinished);
     }
 
     // endregion Public constructor
 
+    // region Builder
+
+    /**
+     * Builds a {@link Comparisons} instance with optional client settings. The
+     * account ID and auth token are required.
+     */
+    public static final class Builder {
+        @Nullable
+        private String accountId;
+        @Nullable
+        private String authToken;
+        @Nullable
+        private String apiBaseUrl;
+        @Nullable
+        private ConnectionPoolConfig connectionPool;
+        private boolean sharedTransport;
+        @Nullable
+        private HttpTransport transport;
+        @Nullable
+        private ComparisonCacheConfig comparisonCache;
+        @Nullable
+        private RetryPolicy retryPolicy;
+        @Nullable
+        private RateLimitConfig rateLimit;
+        @Nullable
+        private CircuitBreakerConfig circuitBreaker;
+        @Nullable
+        private HedgingPolicy hedgingPolicy;
+        @Nullable
+        private TimeoutConfig timeouts;
+        @Nullable
+        private Executor executor;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the account ID to make requests for. This is located in your
+         * <a href="https://api.draftable.com/account">account console</a>.
+         *
+         * @param accountId The account ID.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder accountId(@Nonnull String accountId) {
+            this.accountId = accountId;
+            return this;
+        }
+
+        /**
+         * Sets the auth token for the account. This is located in your
+         * <a href="https://api.draftable.com/account">account console</a>.
+         *
+         * @param authToken The auth token.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder authToken(@Nonnull String authToken) {
+            this.authToken = authToken;
+            return this;
+        }
+
+        /**
+         * Sets the base API URL. If not provided, the default Draftable cloud API URL
+         * is used.
+         *
+         * @param apiBaseUrl The base API URL, or null for the default. The URL must
+         *                   have the protocol (e.g. "https") and end in "v1" with no
+         *                   trailing slash, e.g. "https://api.draftable.com/v1"
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder apiBaseUrl(@Nullable String apiBaseUrl) {
+            this.apiBaseUrl = apiBaseUrl;
+            return this;
+        }
+
+        /**
+         * Sets the connection pool used by both the synchronous and asynchronous
+         * methods. If not provided, the system defaults of the underlying HTTP
+         * clients are used.
+         *
+         * @param connectionPool The connection pool settings, or null for the
+         *                       defaults.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder connectionPool(@Nullable ConnectionPoolConfig connectionPool) {
+            this.connectionPool = connectionPool;
+            return this;
+        }
+
+        /**
+         * Sets whether the synchronous methods are executed on the asynchronous HTTP
+         * client, blocking until the request completes. This means a single
+         * connection pool (and one set of warm TLS connections) serves both the
+         * synchronous and asynchronous methods. Defaults to false, in which case
+         * each kind of method has its own HTTP client.
+         *
+         * <p>
+         * On JDK 21 or later, calls made from virtual threads always use the
+         * asynchronous client, whatever this is set to. The synchronous HTTP client
+         * leases connections while holding a monitor, which pins the carrier thread,
+         * whereas a blocked call on the asynchronous client simply parks until the
+         * response arrives.
+         * </p>
+         *
+         * @param sharedTransport Whether to share the asynchronous HTTP client.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder sharedTransport(boolean sharedTransport) {
+            this.sharedTransport = sharedTransport;
+            return this;
+        }
+
+        /**
+         * Sets a custom HTTP transport to send all requests through, in place of the
+         * bundled Apache HTTP clients. When a transport is provided, the connection
+         * pool and shared transport settings are ignored. The transport is closed
+         * when the {@link Comparisons} instance is closed.
+         *
+         * <p>
+         * On Java 11 or later, the {@code draftable-compare-api-http2} module
+         * provides a transport built on {@code java.net.http.HttpClient}, which
+         * multiplexes concurrent requests over HTTP/2.
+         * </p>
+         *
+         * @param transport The transport to use, or null for the default.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder transport(@Nullable HttpTransport transport) {
+            this.transport = transport;
+            return this;
+        }
+
+        /**
+         * Sets up an in-process cache in front of {@link #getComparison(String)} and
+         * {@link #getComparisonAsync(String)}, so that repeated lookups of the same
+         * comparison don't each make a request. Defaults to null, meaning every
+         * lookup goes to the server.
+         *
+         * <p>
+         * {@link #awaitReady(String)} always polls the server, and
+         * {@link #deleteComparison(String)} removes the comparison from the cache.
+         * </p>
+         *
+         * @param comparisonCache The cache settings, or null for no cache.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder comparisonCache(@Nullable ComparisonCacheConfig comparisonCache) {
+            this.comparisonCache = comparisonCache;
+            return this;
+        }
+
+        /**
+         * Sets how requests that fail for transient reasons, such as connection
+         * resets and 503 responses, are retried. Defaults to null, meaning failures
+         * are reported straight away.
+         *
+         * <p>
+         * Queries, deletions and {@code createComparison} are retried.
+         * {@code createComparison} always sends an identifier (generating one if
+         * none is given), so a retry of a comparison that was in fact created
+         * returns that comparison rather than creating a duplicate. Exports aren't
+         * retried, as each request creates a new export.
+         * </p>
+         *
+         * @param retryPolicy The retry policy, or null to never retry.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder retryPolicy(@Nullable RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * Sets a client-side limit on the rate requests are sent at, so that
+         * services sharing an account stay under its rate limit. Requests beyond
+         * the limit wait their turn instead of failing, and 429 Too Many Requests
+         * responses slow the client down and are sent again once the server's
+         * {@code Retry-After} delay has passed. Defaults to null, meaning requests
+         * are sent as soon as they are made.
+         *
+         * <p>
+         * The limit applies to API requests made through this instance; file
+         * downloads aren't limited.
+         * </p>
+         *
+         * @param rateLimit The rate limit settings, or null for no limit.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder rateLimit(@Nullable RateLimitConfig rateLimit) {
+            this.rateLimit = rateLimit;
+            return this;
+        }
+
+        /**
+         * Sets a circuit breaker for the API server, so that while it is failing or
+         * very slow, requests fail straight away with a
+         * {@link CircuitBreakerOpenException} instead of each waiting out its
+         * timeout. Defaults to null, meaning requests are always sent.
+         *
+         * <p>
+         * Requests rejected by the circuit breaker aren't retried. Changes in its
+         * state are reported to the configured {@link CircuitBreakerListener}, and
+         * the current state is given by {@link #getCircuitBreakerState()}.
+         * </p>
+         *
+         * @param circuitBreaker The circuit breaker settings, or null for none.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder circuitBreaker(@Nullable CircuitBreakerConfig circuitBreaker) {
+            this.circuitBreaker = circuitBreaker;
+            return this;
+        }
+
+        /**
+         * Sets how slow reads are hedged: if {@code getComparison},
+         * {@code getAllComparisons} or {@code getExport} (or their async forms)
+         * hasn't been answered within a delay based on recent response times, an
+         * identical request is sent alongside it, and whichever responds first is
+         * used. Defaults to null, meaning reads are never hedged.
+         *
+         * <p>
+         * With the Apache clients, the hedge is sent on another pooled connection,
+         * so the connection pool should allow a few more connections than the
+         * expected concurrency. Hedged synchronous reads are sent on the
+         * asynchronous client.
+         * </p>
+         *
+         * @param hedgingPolicy The hedging policy, or null to never hedge.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder hedgingPolicy(@Nullable HedgingPolicy hedgingPolicy) {
+            this.hedgingPolicy = hedgingPolicy;
+            return this;
+        }
+
+        /**
+         * Sets how long requests and calls may take before they fail with a
+         * {@link DeadlineExceededException}, so that a server that stops
+         * responding can't block a caller indefinitely. Defaults to null, meaning
+         * the system defaults of the HTTP clients are used and calls may take as
+         * long as they need.
+         *
+         * <p>
+         * The total timeout applies to calls that aren't given a timeout of their
+         * own; {@code getComparison}, {@code getAllComparisons},
+         * {@code deleteComparison}, {@code createComparison}, {@code getExport} and
+         * {@code createExport} (and their async forms) have overloads that take
+         * one. A call's timeout covers its retries and waits for the rate limit,
+         * and each request is cut short to the time the call has left.
+         * </p>
+         *
+         * @param timeouts The timeout settings, or null for no timeouts.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder timeouts(@Nullable TimeoutConfig timeouts) {
+            this.timeouts = timeouts;
+            return this;
+        }
+
+        /**
+         * Sets the executor that responses to asynchronous requests are decoded on.
+         * The futures returned by the async methods are completed there too, so
+         * the stages a caller adds to them without an executor of their own run
+         * there as well. This keeps both off the HTTP client's I/O threads, which
+         * would otherwise stall every other request while they ran. The executor
+         * also runs the work of {@link #createComparisons} and
+         * {@link #runPipeline}. Defaults to null, meaning
+         * {@link ForkJoinPool#commonPool()}.
+         *
+         * @param executor The executor, or null to use the common pool.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder executor(@Nullable Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Creates the {@link Comparisons} instance.
+         *
+         * @return A new {@link Comparisons} instance with this builder's settings.
+         * @throws IllegalArgumentException If the account ID or auth token is missing
+         *                                  or invalid.
+         */
+        @Nonnull
+        public Comparisons build() {
+            return new Comparisons(this);
+        }
+    }
+
+    /**
+     * Creates a builder for a {@link Comparisons} instance, which allows the
+     * underlying HTTP clients to be configured.
+     *
+     * @return A new {@link Builder}.
+     */
+    @Nonnull
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // endregion Builder
+
     // region close()
 
     /**
-     * Closes any open inner HTTP clients, and ends any async event loops.
+     * Closes any open inner HTTP clients, and ends any async event loops. Any
+     * futures returned by {@link #awaitReady(String)} or
+     * {@link #awaitExportReady(Export)} that are still waiting complete with a
+     * {@link java.util.concurrent.CancellationException}.
      *
      * @throws IOException An error occurred closing an HTTP client.
      */
     @Override
     public void close() throws IOException {
+        comparisonPoller.close();
+        exportPoller.close();
         client.close();
     }
 
     // endregion close()
 
+    // region getCircuitBreakerState()
+
+    /**
+     * Gets the state of the circuit breaker for the API server.
+     *
+     * @return The state, or null if no circuit breaker is configured.
+     */
+    @Nullable
+    public CircuitBreakerState getCircuitBreakerState() {
+        return client.getCircuitBreakerState(URI.create(urls.apiBase));
+    }
+
+    // endregion getCircuitBreakerState()
+
     // region Methods - getAllComparisons[Async], getComparison[Async],
     // deleteComparison[Async], createComparison[Async]
     //region Exports
@@ -218,9 +644,34 @@ public class Comparisons implements Closeable {
      */
     @Nonnull
     public Export getExport(@Nonnull String identifier) throws ComparisonNotFoundException, IOException, InvalidAuthenticationException, UnknownErrorException {
+        return getExport(identifier, client.newDeadline(null));
+    }
+
+    /**
+     * Gets an existing export, as for {@link #getExport(String)}, within a
+     * timeout.
+     *
+     * @param identifier Export identifier (note that this is different from comparison identifier).
+     * @param timeout    The longest the call may take, in place of the configured
+     *                   total timeout.
+     * @return The object giving metadata about the existing export.
+     * @throws DeadlineExceededException If the call doesn't complete within the
+     *                                   timeout. Other exceptions are as for
+     *                                   {@link #getExport(String)}.
+     */
+    @Nonnull
+    public Export getExport(@Nonnull String identifier, @Nonnull Duration timeout)
+            throws ComparisonNotFoundException, IOException, InvalidAuthenticationException, UnknownErrorException {
+        Validation.validateTimeout(timeout);
+        return getExport(identifier, client.newDeadline(timeout));
+    }
+
+    @Nonnull
+    private Export getExport(@Nonnull String identifier, @Nullable Deadline deadline)
+            throws ComparisonNotFoundException, IOException, InvalidAuthenticationException, UnknownErrorException {
         Validation.validateIdentifier(identifier);
         try {
-            return exportFromJSONObject(new JSONObject(client.get(urls.export(identifier))));
+            return client.getHedged(urls.export(identifier), exportParser, deadline);
         } catch (RESTClient.HTTP404NotFoundException ex) {
             throw new ComparisonNotFoundException(accountId, identifier);
         } catch (IOException ex) {
@@ -232,6 +683,69 @@ public class Comparisons implements Closeable {
         }
     }
 
+    /**
+     * Asynchronously gets an existing export.
+     *
+     * @param identifier Export identifier (note that this is different from comparison identifier).
+     * @return A {@link CompletableFuture CompletableFuture&lt;Export&gt;} that will
+     *         complete with the export's metadata, or with one of the exceptions
+     *         documented in {@link #getExport(String)}.
+     */
+    @Nonnull
+    public CompletableFuture<Export> getExportAsync(@Nonnull String identifier) {
+        return getExportAsync(identifier, client.newDeadline(null));
+    }
+
+    /**
+     * Asynchronously gets an existing export, as for
+     * {@link #getExportAsync(String)}, within a timeout.
+     *
+     * @param identifier Export identifier (note that this is different from comparison identifier).
+     * @param timeout    The longest the call may take, in place of the configured
+     *                   total timeout.
+     * @return A {@link CompletableFuture CompletableFuture&lt;Export&gt;} that will
+     *         complete with the export's metadata, or with a
+     *         {@link DeadlineExceededException} if the timeout passes first, or
+     *         with one of the exceptions documented in {@link #getExport(String)}.
+     */
+    @Nonnull
+    public CompletableFuture<Export> getExportAsync(@Nonnull String identifier, @Nonnull Duration timeout) {
+        Validation.validateTimeout(timeout);
+        return getExportAsync(identifier, client.newDeadline(timeout));
+    }
+
+    @Nonnull
+    private CompletableFuture<Export> getExportAsync(@Nonnull String identifier, @Nullable Deadline deadline) {
+        Validation.validateIdentifier(identifier);
+        CompletableFuture<Export> request = client.getHedgedAsync(urls.export(identifier), exportParser, deadline);
+        return Utils.propagateCancellation(request
+                .exceptionally(error -> {
+                    if (error instanceof CompletionException) {
+                        // Errors seem to be wrapped in a CompletionException - perhaps all the time, or
+                        // perhaps only when one is thrown when
+                        // executing a callback. We check for them just to be safe, and unwrap them to
+                        // get the cause.
+                        error = error.getCause();
+                    }
+                    if (error instanceof RESTClient.HTTP404NotFoundException) {
+                        // Override error with ComparisonNotFoundException.
+                        throw new ComparisonNotFoundException(accountId, identifier);
+                    } else if (error instanceof IOException) {
+                        // Preserve the error. We wrap it in a CompletionException to make it throwable
+                        // from here.
+                        // (Note: CompletableFuture internally checks if things are already wrapped in a
+                        // CompletionException, and leaves them alone if so.)
+                        throw new CompletionException(error);
+                    } else if (error instanceof RESTClient.HTTPInvalidAuthenticationException) {
+                        // Override error with InvalidAuthenticationException.
+                        throw new InvalidAuthenticationException(error.getMessage());
+                    } else {
+                        // Unknown error. Override with our UnknownErrorException.
+                        throw new UnknownErrorException(error);
+                    }
+                }), request);
+    }
+
     /**
      * Creates a new export of given kind for given comparison
      * @param comparisonId The unique identifier of the comparison to export
@@ -246,15 +760,38 @@ public class Comparisons implements Closeable {
     @Nonnull
     public Export createExport(@Nonnull String comparisonId, @Nonnull ExportKind exportKind, boolean includeCoverPage)
         throws BadRequestException, IOException, InvalidAuthenticationException, UnknownErrorException {
+        return createExport(comparisonId, exportKind, includeCoverPage, client.newDeadline(null));
+    }
 
-        Map<String, String> postParameters = new HashMap<String, String>();
-        postParameters.put("comparison", comparisonId);
-        postParameters.put("kind", exportKind.name().toLowerCase(Locale.ROOT));
-        postParameters.put("include_cover_page", Boolean.toString(includeCoverPage));
+    /**
+     * Creates a new export of given kind for given comparison, as for
+     * {@link #createExport(String, ExportKind, boolean)}, within a timeout.
+     *
+     * @param comparisonId     The unique identifier of the comparison to export
+     * @param exportKind       Export kind. Supported values: single_page, combined, left, right.
+     * @param includeCoverPage Relevant only for combined comparison, indicates whether it should include a cover page
+     * @param timeout          The longest the call may take, in place of the
+     *                         configured total timeout.
+     * @return The object giving metadata about the newly created export.
+     * @throws DeadlineExceededException If the call doesn't complete within the
+     *                                   timeout. Other exceptions are as for
+     *                                   {@link #createExport(String, ExportKind, boolean)}.
+     */
+    @Nonnull
+    public Export createExport(@Nonnull String comparisonId, @Nonnull ExportKind exportKind, boolean includeCoverPage,
+            @Nonnull Duration timeout)
+            throws BadRequestException, IOException, InvalidAuthenticationException, UnknownErrorException {
+        Validation.validateTimeout(timeout);
+        return createExport(comparisonId, exportKind, includeCoverPage, client.newDeadline(timeout));
+    }
 
+    @Nonnull
+    private Export createExport(@Nonnull String comparisonId, @Nonnull ExportKind exportKind, boolean includeCoverPage,
+            @Nullable Deadline deadline)
+            throws BadRequestException, IOException, InvalidAuthenticationException, UnknownErrorException {
         try {
-            String response = client.post(urls.exports, postParameters, new HashMap<String, ContentBody>());
-            return exportFromJSONObject(new JSONObject(response));
+            return client.post(urls.exports, getExportsPostParameters(comparisonId, exportKind, includeCoverPage),
+                    new HashMap<String, ContentBody>(), exportParser, false, deadline);
         } catch (RESTClient.HTTP400BadRequestException ex) {
             throw new BadRequestException(ex.getMessage());
         } catch (IOException ex) {
@@ -272,38 +809,477 @@ public class Comparisons implements Closeable {
         return createExport(comparisonId, exportKind, true);
     }
 
+    /**
+     * Asynchronously creates a new export of given kind for given comparison.
+     *
+     * @param comparisonId     The unique identifier of the comparison to export
+     * @param exportKind       Export kind. Supported values: single_page, combined, left, right.
+     * @param includeCoverPage Relevant only for combined comparison, indicates whether it should include a cover page
+     * @return A {@link CompletableFuture CompletableFuture&lt;Export&gt;} that will
+     *         complete with the newly created export, or with one of the
+     *         exceptions documented in
+     *         {@link #createExport(String, ExportKind, boolean)}. The export is
+     *         usually not ready yet, so pass it to {@link #awaitExportReady(Export)}.
+     */
     @Nonnull
-    private static Export exportFromJSONObject(@Nonnull JSONObject exportJson) throws JSONException {
-        return new Export(
-            exportJson.getString("identifier"),
-            exportJson.getString("comparison"),
-            GetNullableString(exportJson, "url"),
-            ExportKind.valueOf(exportJson.getString("kind").toUpperCase(Locale.ROOT)),
-            exportJson.getBoolean("ready"),
-            exportJson.getBoolean("failed"),
-            GetNullableString(exportJson, "errorMessage")
-        );
+    public CompletableFuture<Export> createExportAsync(@Nonnull String comparisonId, @Nonnull ExportKind exportKind,
+            boolean includeCoverPage) {
+        return createExportAsync(comparisonId, exportKind, includeCoverPage, client.newDeadline(null));
     }
 
-    private static String GetNullableString(@Nonnull JSONObject jsonObject, String key){
-        if(jsonObject.isNull(key)){
-            return null;
-        }
-        return jsonObject.getString(key);
+    /**
+     * Asynchronously creates a new export of given kind for given comparison, as
+     * for {@link #createExportAsync(String, ExportKind, boolean)}, within a
+     * timeout.
+     *
+     * @param comparisonId     The unique identifier of the comparison to export
+     * @param exportKind       Export kind. Supported values: single_page, combined, left, right.
+     * @param includeCoverPage Relevant only for combined comparison, indicates whether it should include a cover page
+     * @param timeout          The longest the call may take, in place of the
+     *                         configured total timeout.
+     * @return A {@link CompletableFuture CompletableFuture&lt;Export&gt;} that will
+     *         complete with the newly created export, or with a
+     *         {@link DeadlineExceededException} if the timeout passes first, or
+     *         with one of the exceptions documented in
+     *         {@link #createExport(String, ExportKind, boolean)}.
+     */
+    @Nonnull
+    public CompletableFuture<Export> createExportAsync(@Nonnull String comparisonId, @Nonnull ExportKind exportKind,
+            boolean includeCoverPage, @Nonnull Duration timeout) {
+        Validation.validateTimeout(timeout);
+        return createExportAsync(comparisonId, exportKind, includeCoverPage, client.newDeadline(timeout));
     }
 
-    //endregion Exports
-
-    //region Methods - getAllComparisons[Async], getComparison[Async], deleteComparison[Async], createComparison[Async]
-
-    // region Private: comparisonFromJSONResponse(responseString),
-    // comparisonListFromJSONResponse(responseString)
-
     @Nonnull
-    private static Comparison.Side comparisonSideFromJSONObject(@Nonnull JSONObject side) throws JSONException {
-        return new Comparison.Side(side.getString("file_type"),
-                side.has("source_url") ? side.getString("source_url") : null,
-                side.has("display_name") ? side.getString("display_name") : null);
+    private CompletableFuture<Export> createExportAsync(@Nonnull String comparisonId, @Nonnull ExportKind exportKind,
+            boolean includeCoverPage, @Nullable Deadline deadline) {
+        CompletableFuture<Export> request = client.postAsync(urls.exports,
+                getExportsPostParameters(comparisonId, exportKind, includeCoverPage),
+                new HashMap<String, ContentBody>(), exportParser, false, deadline);
+        return Utils.propagateCancellation(request
+                .exceptionally(error -> {
+                    if (error instanceof CompletionException) {
+                        // Errors seem to be wrapped in a CompletionException - perhaps all the time, or
+                        // perhaps only when one is thrown when
+                        // executing a callback. We check for them just to be safe, and unwrap them to
+                        // get the cause.
+                        error = error.getCause();
+                    }
+                    if (error instanceof RESTClient.HTTP400BadRequestException) {
+                        // Override error with BadRequestException.
+                        throw new BadRequestException(error.getMessage());
+                    } else if (error instanceof IOException) {
+                        // Preserve the error. We wrap it in a CompletionException to make it throwable
+                        // from here.
+                        // (Note: CompletableFuture internally checks if things are already wrapped in a
+                        // CompletionException, and leaves them alone if so.)
+                        throw new CompletionException(error);
+                    } else if (error instanceof RESTClient.HTTPInvalidAuthenticationException) {
+                        // Override error with InvalidAuthenticationException.
+                        throw new InvalidAuthenticationException(error.getMessage());
+                    } else {
+                        // Unknown error. Override with our UnknownErrorException.
+                        throw new UnknownErrorException(error);
+                    }
+                }), request);
+    }
+
+    @Nonnull
+    public CompletableFuture<Export> createExportAsync(@Nonnull String comparisonId, @Nonnull ExportKind exportKind) {
+        return createExportAsync(comparisonId, exportKind, true);
+    }
+
+    @Nonnull
+    private static Map<String, String> getExportsPostParameters(@Nonnull String comparisonId,
+            @Nonnull ExportKind exportKind, boolean includeCoverPage) {
+        Map<String, String> postParameters = new HashMap<String, String>();
+        postParameters.put("comparison", comparisonId);
+        postParameters.put("kind", exportKind.name().toLowerCase(Locale.ROOT));
+        postParameters.put("include_cover_page", Boolean.toString(includeCoverPage));
+        return postParameters;
+    }
+
+    // region awaitExportReady(export, [timeout])
+
+    /**
+     * Waits for an export to be ready, however long that takes.
+     *
+     * @param export The export, as returned by {@link #createExportAsync}.
+     * @return A {@link CompletableFuture CompletableFuture&lt;Export&gt;} that will
+     *         complete with the ready export.
+     * @see #awaitExportReady(Export, Duration)
+     */
+    @Nonnull
+    public CompletableFuture<Export> awaitExportReady(@Nonnull Export export) {
+        if (export == null) {
+            throw new IllegalArgumentException("`export` cannot be null");
+        }
+        if (isExportFinished(export)) {
+            return CompletableFuture.completedFuture(export);
+        }
+        return exportPoller.await(export.getIdentifier(), null);
+    }
+
+    /**
+     * Waits for an export to be ready.
+     *
+     * <p>
+     * Exports are polled by the same kind of scheduler as
+     * {@link #awaitReady(String, Duration)}: one thread for this client, shared
+     * requests for callers waiting on the same export, and an interval that backs
+     * off from half a second to 15 seconds. No thread is blocked while waiting, so
+     * a single client can wait on any number of exports at once.
+     * </p>
+     *
+     * <p>
+     * An export that has failed is also considered ready, so check
+     * {@link Export#getFailed()} on the result.
+     * </p>
+     *
+     * @param export  The export, as returned by {@link #createExportAsync}.
+     * @param timeout The longest to wait.
+     * @return A {@link CompletableFuture CompletableFuture&lt;Export&gt;} that will
+     *         complete with the ready export, with a
+     *         {@link java.util.concurrent.TimeoutException} if it isn't ready in
+     *         time, or with one of the exceptions documented in
+     *         {@link #getExport}. Cancelling it stops waiting.
+     */
+    @Nonnull
+    public CompletableFuture<Export> awaitExportReady(@Nonnull Export export, @Nonnull Duration timeout) {
+        if (export == null) {
+            throw new IllegalArgumentException("`export` cannot be null");
+        }
+        Validation.validateTimeout(timeout);
+        if (isExportFinished(export)) {
+            return CompletableFuture.completedFuture(export);
+        }
+        return exportPoller.await(export.getIdentifier(), timeout);
+    }
+
+    private static boolean isExportFinished(@Nonnull Export export) {
+        return export.isReady() || Boolean.TRUE.equals(export.getFailed());
+    }
+
+    // endregion awaitExportReady(export, [timeout])
+
+    // region downloadExport(export, target), downloadExportAsync(export, target)
+
+    @Nonnull
+    private URI getExportDownloadURI(@Nonnull Export export) {
+        if (export == null) {
+            throw new IllegalArgumentException("`export` cannot be null");
+        }
+        if (export.getUrl() == null) {
+            throw new IllegalArgumentException("`export` has no URL yet, so it cannot be downloaded until it is ready");
+        }
+        try {
+            return new URI(urls.apiBase).resolve(new URI(export.getUrl()));
+        } catch (URISyntaxException ex) {
+            throw new IllegalArgumentException("`export` has an invalid URL", ex);
+        }
+    }
+
+    /**
+     * Maps the result of an export download, and its errors to our public
+     * exceptions. Cancelling the returned future cancels the download.
+     */
+    @Nonnull
+    private <S, T> CompletableFuture<T> withExportDownloadErrors(@Nonnull CompletableFuture<S> download,
+            @Nonnull Function<S, T> mapper, @Nonnull Export export) {
+        CompletableFuture<T> result = download.thenApply(mapper).exceptionally(error -> {
+            if (error instanceof CompletionException) {
+                // Errors seem to be wrapped in a CompletionException - perhaps all the time, or
+                // perhaps only when one is thrown when
+                // executing a callback. We check for them just to be safe, and unwrap them to
+                // get the cause.
+                error = error.getCause();
+            }
+            if (error instanceof RESTClient.HTTP404NotFoundException) {
+                // Override error with ComparisonNotFoundException.
+                throw new ComparisonNotFoundException(accountId, export.getIdentifier());
+            } else if (error instanceof IOException) {
+                // Preserve the error. We wrap it in a CompletionException to make it throwable
+                // from here.
+                throw new CompletionException(error);
+            } else if (error instanceof RESTClient.HTTPInvalidAuthenticationException) {
+                // Override error with InvalidAuthenticationException.
+                throw new InvalidAuthenticationException(error.getMessage());
+            } else {
+                // Unknown error. Override with our UnknownErrorException.
+                throw new UnknownErrorException(error);
+            }
+        });
+        return Utils.propagateCancellation(result, download);
+    }
+
+    /**
+     * Synchronously downloads a ready export, writing it to the given channel as it
+     * arrives. The export is never held in memory in its entirety, however large
+     * it is.
+     *
+     * <p>
+     * The download shares this client's connection pool. Our auth token is only
+     * sent if the export's URL is on the API server, and never to any other host
+     * it redirects to.
+     * </p>
+     *
+     * @param export The export to download, which must be ready.
+     * @param target The channel to write the export to. It is not closed.
+     * @return The number of bytes written.
+     * @throws ComparisonNotFoundException    If the export no longer exists.
+     * @throws IOException                    If an error occurs communicating with
+     *                                        the server, or writing to the target.
+     * @throws InvalidAuthenticationException If the given auth token is invalid.
+     * @throws UnknownErrorException          If an unknown error occurs internally.
+     *                                        This should never be thrown, but
+     *                                        guarantees that no other kinds of
+     *                                        exceptions are thrown.
+     */
+    public long downloadExport(@Nonnull Export export, @Nonnull WritableByteChannel target)
+            throws ComparisonNotFoundException, IOException, InvalidAuthenticationException, UnknownErrorException {
+        URI exportURI = getExportDownloadURI(export);
+        if (target == null) {
+            throw new IllegalArgumentException("`target` cannot be null");
+        }
+        try {
+            return client.download(exportURI, URI.create(urls.apiBase), target);
+        } catch (RESTClient.HTTP404NotFoundException ex) {
+            throw new ComparisonNotFoundException(accountId, export.getIdentifier());
+        } catch (IOException ex) {
+            throw ex;
+        } catch (RESTClient.HTTPInvalidAuthenticationException ex) {
+            throw new InvalidAuthenticationException(ex.getMessage());
+        } catch (Throwable ex) {
+            throw new UnknownErrorException(ex);
+        }
+    }
+
+    /**
+     * Synchronously downloads a ready export to a file, replacing the file if it
+     * exists. On the default HTTP client, the export is written to the file
+     * through a single fixed-size buffer. Exceptions are as documented in
+     * {@link #downloadExport(Export, WritableByteChannel)}.
+     *
+     * @param export The export to download, which must be ready.
+     * @param target The file to write the export to.
+     * @return The number of bytes written.
+     */
+    public long downloadExport(@Nonnull Export export, @Nonnull Path target)
+            throws ComparisonNotFoundException, IOException, InvalidAuthenticationException, UnknownErrorException {
+        getExportDownloadURI(export);
+        if (target == null) {
+            throw new IllegalArgumentException("`target` cannot be null");
+        }
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            return downloadExport(export, channel);
+        }
+    }
+
+    /**
+     * Synchronously downloads a ready export to a stream. Exceptions are as
+     * documented in {@link #downloadExport(Export, WritableByteChannel)}.
+     *
+     * @param export The export to download, which must be ready.
+     * @param target The stream to write the export to. It is not closed.
+     * @return The number of bytes written.
+     */
+    public long downloadExport(@Nonnull Export export, @Nonnull OutputStream target)
+            throws ComparisonNotFoundException, IOException, InvalidAuthenticationException, UnknownErrorException {
+        if (target == null) {
+            throw new IllegalArgumentException("`target` cannot be null");
+        }
+        return downloadExport(export, Channels.newChannel(target));
+    }
+
+    /**
+     * Asynchronously downloads a ready export, writing it to the given channel as
+     * it arrives.
+     *
+     * <p>
+     * On the default HTTP client, the export is written on the client's I/O thread
+     * as each part arrives, so writes to the target should not block for long.
+     * </p>
+     *
+     * @param export The export to download, which must be ready.
+     * @param target The channel to write the export to. It is not closed.
+     * @return A {@link CompletableFuture CompletableFuture&lt;Long&gt;} that will
+     *         complete with the number of bytes written, or with one of the
+     *         exceptions documented in
+     *         {@link #downloadExport(Export, WritableByteChannel)}. Cancelling it
+     *         cancels the download.
+     */
+    @Nonnull
+    public CompletableFuture<Long> downloadExportAsync(@Nonnull Export export, @Nonnull WritableByteChannel target) {
+        URI exportURI = getExportDownloadURI(export);
+        if (target == null) {
+            throw new IllegalArgumentException("`target` cannot be null");
+        }
+        return withExportDownloadErrors(client.downloadAsync(exportURI, URI.create(urls.apiBase), target),
+                RESTClient.DownloadResult::getBytesWritten, export);
+    }
+
+    /**
+     * Asynchronously downloads a ready export to a file, replacing the file if it
+     * exists. On the default HTTP client, the export is moved from the socket to
+     * the file without being copied through the Java heap where possible.
+     *
+     * @param export The export to download, which must be ready.
+     * @param target The file to write the export to.
+     * @return A {@link CompletableFuture CompletableFuture&lt;Long&gt;} that will
+     *         complete with the number of bytes written, or with one of the
+     *         exceptions documented in
+     *         {@link #downloadExport(Export, WritableByteChannel)}. Cancelling it
+     *         cancels the download.
+     */
+    @Nonnull
+    public CompletableFuture<Long> downloadExportAsync(@Nonnull Export export, @Nonnull Path target) {
+        getExportDownloadURI(export);
+        if (target == null) {
+            throw new IllegalArgumentException("`target` cannot be null");
+        }
+
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException ex) {
+            CompletableFuture<Long> failedFuture = new CompletableFuture<>();
+            failedFuture.completeExceptionally(ex);
+            return failedFuture;
+        }
+
+        CompletableFuture<Long> download = downloadExportAsync(export, channel);
+        download.whenComplete((bytesWritten, error) -> {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // The download has already finished, so there's nothing left to lose.
+            }
+        });
+        return download;
+    }
+
+    /**
+     * Synchronously downloads a ready export to a file, fetching parts of it in
+     * parallel. Exceptions are as documented in
+     * {@link #downloadExport(Export, WritableByteChannel)}.
+     *
+     * @param export  The export to download, which must be ready.
+     * @param target  The file to write the export to.
+     * @param options The parallel download settings.
+     * @return The length of the export in bytes.
+     * @see #downloadExportAsync(Export, Path, ParallelDownloadOptions)
+     */
+    public long downloadExport(@Nonnull Export export, @Nonnull Path target, @Nonnull ParallelDownloadOptions options)
+            throws ComparisonNotFoundException, IOException, InvalidAuthenticationException, UnknownErrorException {
+        CompletableFuture<Long> download = downloadExportAsync(export, target, options);
+        try {
+            return download.get();
+        } catch (InterruptedException ex) {
+            download.cancel(true);
+            Thread.currentThread().interrupt();
+            InterruptedIOException interruptedException = new InterruptedIOException(
+                    "Interrupted while downloading the export");
+            interruptedException.initCause(ex);
+            throw interruptedException;
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new UnknownErrorException(cause);
+        }
+    }
+
+    /**
+     * Asynchronously downloads a ready export to a file, fetching parts of it in
+     * parallel.
+     *
+     * <p>
+     * Over a single connection, a large export downloads at a fraction of the
+     * available bandwidth. This splits it into byte ranges of
+     * {@link ParallelDownloadOptions#getPartSize()}, fetches up to
+     * {@link ParallelDownloadOptions#getParallelism()} of them at once over this
+     * client's connection pool, and writes each straight to its place in the
+     * file. Each part must match the export's ETag, or else its Last-Modified
+     * date, so an export that changes mid-download fails rather than being
+     * stitched together from two versions. If the server doesn't support ranges,
+     * or gives neither of those, the export is downloaded in one piece instead.
+     * </p>
+     *
+     * <p>
+     * With {@link ParallelDownloadOptions.Builder#resume(boolean)} enabled (the
+     * default), finished parts are recorded next to the file, so a download that
+     * fails or is cancelled can be repeated with the same arguments to fetch only
+     * the parts that are missing. Until the download completes, the file's
+     * contents are incomplete.
+     * </p>
+     *
+     * @param export  The export to download, which must be ready.
+     * @param target  The file to write the export to.
+     * @param options The parallel download settings.
+     * @return A {@link CompletableFuture CompletableFuture&lt;Long&gt;} that will
+     *         complete with the length of the export, or with one of the exceptions
+     *         documented in {@link #downloadExport(Export, WritableByteChannel)}.
+     *         Cancelling it cancels the download.
+     */
+    @Nonnull
+    public CompletableFuture<Long> downloadExportAsync(@Nonnull Export export, @Nonnull Path target,
+            @Nonnull ParallelDownloadOptions options) {
+        URI exportURI = getExportDownloadURI(export);
+        if (target == null) {
+            throw new IllegalArgumentException("`target` cannot be null");
+        }
+        if (options == null) {
+            throw new IllegalArgumentException("`options` cannot be null");
+        }
+        CompletableFuture<Long> download = new RangedDownload(client, exportURI, URI.create(urls.apiBase), target,
+                options).start();
+        return withExportDownloadErrors(download, Function.identity(), export);
+    }
+
+    // endregion downloadExport(export, target), downloadExportAsync(export, target)
+
+    @Nonnull
+    private static Export exportFromJSONObject(@Nonnull JSONObject exportJson) throws JSONException {
+        return new Export(
+            exportJson.getString("identifier"),
+            exportJson.getString("comparison"),
+            GetNullableString(exportJson, "url"),
+            ExportKind.valueOf(exportJson.getString("kind").toUpperCase(Locale.ROOT)),
+            exportJson.getBoolean("ready"),
+            exportJson.isNull("failed") ? null : exportJson.getBoolean("failed"),
+            GetNullableString(exportJson, "errorMessage")
+        );
+    }
+
+    @Nonnull
+    private static Export exportFromJSONResponse(@Nonnull Reader response) throws JSONException {
+        return exportFromJSONObject(new JSONStreamReader(response).readObject());
+    }
+
+    private static String GetNullableString(@Nonnull JSONObject jsonObject, String key){
+        if(jsonObject.isNull(key)){
+            return null;
+        }
+        return jsonObject.getString(key);
+    }
+
+    //endregion Exports
+
+    //region Methods - getAllComparisons[Async], getComparison[Async], deleteComparison[Async], createComparison[Async]
+
+    // region Private: comparisonFromJSONResponse(response),
+    // comparisonListFromJSONResponse(response)
+
+    @Nonnull
+    private static Comparison.Side comparisonSideFromJSONObject(@Nonnull JSONObject side) throws JSONException {
+        return new Comparison.Side(side.getString("file_type"),
+                side.has("source_url") ? side.getString("source_url") : null,
+                side.has("display_name") ? side.getString("display_name") : null);
     }
 
     @Nonnull
@@ -321,26 +1297,46 @@ public class Comparisons implements Closeable {
                 failed ? comparison.getString("error_message") : null);
     }
 
+    /**
+     * The parsers for single comparisons, the comparison list and exports. Each is
+     * shared by the sync and async methods, so that concurrent requests for the
+     * same resource are joined by {@link RESTClient}, and response times for the
+     * same kind of read are tracked together for hedging. Comparisons and exports
+     * are immutable, and callers get their own copy of the list.
+     */
+    @Nonnull
+    private static final RESTClient.ResponseParser<Comparison> comparisonParser =
+            Comparisons::comparisonFromJSONResponse;
+    @Nonnull
+    private static final RESTClient.ResponseParser<List<Comparison>> comparisonListParser =
+            Comparisons::comparisonListFromJSONResponse;
+    @Nonnull
+    private static final RESTClient.ResponseParser<Export> exportParser = Comparisons::exportFromJSONResponse;
+
     @Nonnull
-    private static Comparison comparisonFromJSONResponse(@Nonnull String responseString) throws JSONException {
-        return comparisonFromJSONObject(new JSONObject(responseString));
+    private static Comparison comparisonFromJSONResponse(@Nonnull Reader response) throws JSONException {
+        return comparisonFromJSONObject(new JSONStreamReader(response).readObject());
     }
 
     @Nonnull
-    private static List<Comparison> comparisonListFromJSONResponse(@Nonnull String responseString)
-            throws JSONException {
-        JSONObject response = new JSONObject(responseString);
-        JSONArray results = response.getJSONArray("results");
+    private static List<Comparison> comparisonListFromJSONResponse(@Nonnull Reader response) throws JSONException {
+        // The results are decoded one at a time, so only the Comparison objects
+        // themselves (and never the whole response) are held in memory.
+        JSONStreamReader reader = new JSONStreamReader(response);
+        if (!reader.seekField("results")) {
+            throw new JSONException("JSONObject[\"results\"] not found.");
+        }
 
         List<Comparison> comparisons = new ArrayList<>();
-        for (int i = 0; i < results.length(); ++i) {
-            comparisons.add(comparisonFromJSONObject(results.getJSONObject(i)));
+        reader.beginArray();
+        while (reader.hasNextElement()) {
+            comparisons.add(comparisonFromJSONObject(reader.readObject()));
         }
         return comparisons;
     }
 
-    // endregion Private: comparisonFromJSONResponse(responseString),
-    // comparisonListFromJSONResponse(responseString)
+    // endregion Private: comparisonFromJSONResponse(response),
+    // comparisonListFromJSONResponse(response)
 
     // region getAllComparisons(), getAllComparisonsAsync()
 
@@ -360,8 +1356,35 @@ public class Comparisons implements Closeable {
     @Nonnull
     public List<Comparison> getAllComparisons()
             throws IOException, InvalidAuthenticationException, UnknownErrorException {
+        return getAllComparisons(client.newDeadline(null));
+    }
+
+    /**
+     * Synchronously gets a list of all of the account's comparisons, as for
+     * {@link #getAllComparisons()}, within a timeout.
+     *
+     * @param timeout The longest the call may take, in place of the configured
+     *                total timeout.
+     * @return A {@link List List&lt;Comparison&gt;} giving all of the account's
+     *         comparisons.
+     * @throws DeadlineExceededException If the call doesn't complete within the
+     *                                   timeout. Other exceptions are as for
+     *                                   {@link #getAllComparisons()}.
+     */
+    @Nonnull
+    public List<Comparison> getAllComparisons(@Nonnull Duration timeout)
+            throws IOException, InvalidAuthenticationException, UnknownErrorException {
+        Validation.validateTimeout(timeout);
+        return getAllComparisons(client.newDeadline(timeout));
+    }
+
+    @Nonnull
+    private List<Comparison> getAllComparisons(@Nullable Deadline deadline)
+            throws IOException, InvalidAuthenticationException, UnknownErrorException {
         try {
-            return comparisonListFromJSONResponse(client.get(urls.comparisons));
+            // Concurrent identical requests share a response, so each caller gets its
+            // own copy of the list.
+            return new ArrayList<>(client.getHedged(urls.comparisons, comparisonListParser, deadline));
         } catch (IOException ex) {
             throw ex;
         } catch (RESTClient.HTTPInvalidAuthenticationException ex) {
@@ -372,41 +1395,304 @@ public class Comparisons implements Closeable {
     }
 
     /**
-     * Asynchronously gets a list of all of the account's comparisons.
+     * Asynchronously gets a list of all of the account's comparisons.
+     *
+     * @return A {@link CompletableFuture
+     *         CompletableFuture&lt;List&lt;Comparison&gt;&gt;} that will complete
+     *         with a list all of the account's comparisons, or with one of the
+     *         exceptions documented in {@link #getAllComparisons()}.
+     */
+    @Nonnull
+    public CompletableFuture<List<Comparison>> getAllComparisonsAsync() {
+        return getAllComparisonsAsync(client.newDeadline(null));
+    }
+
+    /**
+     * Asynchronously gets a list of all of the account's comparisons, as for
+     * {@link #getAllComparisonsAsync()}, within a timeout.
+     *
+     * @param timeout The longest the call may take, in place of the configured
+     *                total timeout.
+     * @return A {@link CompletableFuture
+     *         CompletableFuture&lt;List&lt;Comparison&gt;&gt;} that will complete
+     *         with a list all of the account's comparisons, or with a
+     *         {@link DeadlineExceededException} if the timeout passes first, or
+     *         with one of the exceptions documented in
+     *         {@link #getAllComparisons()}.
+     */
+    @Nonnull
+    public CompletableFuture<List<Comparison>> getAllComparisonsAsync(@Nonnull Duration timeout) {
+        Validation.validateTimeout(timeout);
+        return getAllComparisonsAsync(client.newDeadline(timeout));
+    }
+
+    @Nonnull
+    private CompletableFuture<List<Comparison>> getAllComparisonsAsync(@Nullable Deadline deadline) {
+        CompletableFuture<List<Comparison>> request = client.getHedgedAsync(urls.comparisons, comparisonListParser,
+                deadline);
+        return Utils.propagateCancellation(request
+                .<List<Comparison>>thenApply(ArrayList::new)
+                .exceptionally(error -> {
+                    if (error instanceof CompletionException) {
+                        // Errors seem to be wrapped in a CompletionException - perhaps all the time, or
+                        // perhaps only when one is thrown when
+                        // executing a callback. We check for them just to be safe, and unwrap them to
+                        // get the cause.
+                        error = error.getCause();
+                    }
+                    if (error instanceof IOException) {
+                        // Preserve the error. We wrap it in a CompletionException to make it throwable
+                        // from here.
+                        // (Note: CompletableFuture internally checks if things are already wrapped in a
+                        // CompletionException, and leaves them alone if so.)
+                        throw new CompletionException(error);
+                    } else if (error instanceof RESTClient.HTTPInvalidAuthenticationException) {
+                        // Override error with InvalidAuthenticationException.
+                        throw new InvalidAuthenticationException(error.getMessage());
+                    } else {
+                        // Unknown error. Override with our UnknownErrorException.
+                        throw new UnknownErrorException(error);
+                    }
+                }), request);
+    }
+
+    // endregion getAllComparisons(), getAllComparisonsAsync()
+
+    // region getComparisonsPage(offset, limit), getComparisonsPageAsync(offset,
+    // limit), streamAllComparisons([pageSize])
+
+    /** The number of comparisons fetched per request by {@link #streamAllComparisons()}. */
+    private static final int defaultPageSize = 100;
+
+    @Nonnull
+    private static Map<String, String> getPageParameters(int offset, int limit) {
+        Validation.validatePageOffset(offset);
+        Validation.validatePageLimit(limit);
+
+        Map<String, String> parameters = new HashMap<>();
+        parameters.put("offset", Integer.toString(offset));
+        parameters.put("limit", Integer.toString(limit));
+        return parameters;
+    }
+
+    @Nonnull
+    private static ComparisonPage comparisonPageFromJSONResponse(@Nonnull Reader response, int offset, int limit)
+            throws JSONException {
+        JSONStreamReader reader = new JSONStreamReader(response);
+        List<Comparison> comparisons = null;
+        Integer totalCount = null;
+
+        String field;
+        while ((field = reader.nextField()) != null) {
+            if (field.equals("results")) {
+                comparisons = new ArrayList<>();
+                reader.beginArray();
+                while (reader.hasNextElement()) {
+                    comparisons.add(comparisonFromJSONObject(reader.readObject()));
+                }
+            } else if (field.equals("count")) {
+                Object count = reader.readValue();
+                if (count instanceof Number) {
+                    totalCount = ((Number) count).intValue();
+                }
+            } else {
+                reader.readValue();
+            }
+        }
+
+        if (comparisons == null) {
+            throw new JSONException("JSONObject[\"results\"] not found.");
+        }
+        return new ComparisonPage(comparisons, offset, limit, totalCount);
+    }
+
+    /**
+     * Synchronously gets one page of the account's comparisons, ordered from
+     * newest to oldest.
+     *
+     * @param offset The number of comparisons to skip.
+     * @param limit  The maximum number of comparisons to return.
+     * @return A {@link ComparisonPage} giving the comparisons, and whether there
+     *         are more to fetch.
+     * @throws IllegalArgumentException       If the offset is negative or the
+     *                                        limit is not positive.
+     * @throws IOException                    If an error occurs communicating with
+     *                                        the server.
+     * @throws InvalidAuthenticationException If the given auth token is invalid.
+     * @throws UnknownErrorException          If an unknown error occurs internally.
+     *                                        This should never be thrown, but
+     *                                        guarantees that no other kinds of
+     *                                        exceptions are thrown.
+     */
+    @Nonnull
+    public ComparisonPage getComparisonsPage(int offset, int limit)
+            throws IOException, InvalidAuthenticationException, UnknownErrorException {
+        Map<String, String> parameters = getPageParameters(offset, limit);
+        try {
+            return client.get(urls.comparisons, parameters,
+                    response -> comparisonPageFromJSONResponse(response, offset, limit));
+        } catch (IOException ex) {
+            throw ex;
+        } catch (RESTClient.HTTPInvalidAuthenticationException ex) {
+            throw new InvalidAuthenticationException(ex.getMessage());
+        } catch (Throwable ex) {
+            throw new UnknownErrorException(ex);
+        }
+    }
+
+    /**
+     * Asynchronously gets one page of the account's comparisons, ordered from
+     * newest to oldest. To fetch every comparison, request the next page at
+     * {@link ComparisonPage#getNextOffset()} while
+     * {@link ComparisonPage#hasMore()} is true.
+     *
+     * @param offset The number of comparisons to skip.
+     * @param limit  The maximum number of comparisons to return.
+     * @return A {@link CompletableFuture CompletableFuture&lt;ComparisonPage&gt;}
+     *         that will complete with the page, or with one of the exceptions
+     *         documented in {@link #getComparisonsPage(int, int)}.
+     */
+    @Nonnull
+    public CompletableFuture<ComparisonPage> getComparisonsPageAsync(int offset, int limit) {
+        Map<String, String> parameters = getPageParameters(offset, limit);
+        CompletableFuture<ComparisonPage> request = client.getAsync(urls.comparisons, parameters,
+                response -> comparisonPageFromJSONResponse(response, offset, limit));
+        return Utils.propagateCancellation(request
+                .exceptionally(error -> {
+                    if (error instanceof CompletionException) {
+                        // Errors seem to be wrapped in a CompletionException - perhaps all the time, or
+                        // perhaps only when one is thrown when
+                        // executing a callback. We check for them just to be safe, and unwrap them to
+                        // get the cause.
+                        error = error.getCause();
+                    }
+                    if (error instanceof IOException) {
+                        // Preserve the error. We wrap it in a CompletionException to make it throwable
+                        // from here.
+                        throw new CompletionException(error);
+                    } else if (error instanceof RESTClient.HTTPInvalidAuthenticationException) {
+                        // Override error with InvalidAuthenticationException.
+                        throw new InvalidAuthenticationException(error.getMessage());
+                    } else {
+                        // Unknown error. Override with our UnknownErrorException.
+                        throw new UnknownErrorException(error);
+                    }
+                }), request);
+    }
+
+    /**
+     * Fetches pages of comparisons on demand, as the stream is consumed.
+     *
+     * <p>
+     * Pages are fetched by offset from a list ordered newest first, so each
+     * comparison created while streaming pushes one that was already given onto
+     * the next page. Since the stream has got as far back as the oldest
+     * comparison it has given, any comparison newer than that (or as old, and
+     * already given) is skipped.
+     * </p>
+     */
+    private final class ComparisonPageSpliterator extends Spliterators.AbstractSpliterator<Comparison> {
+        private final int pageSize;
+        @Nullable
+        private ComparisonPage page;
+        @Nonnull
+        private Iterator<Comparison> pageIterator = Collections.emptyIterator();
+        @Nullable
+        private Instant oldestCreationTime;
+        /** The identifiers given so far with the oldest creation time. */
+        @Nonnull
+        private final Set<String> oldestIdentifiers = new HashSet<>();
+
+        ComparisonPageSpliterator(int pageSize) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.DISTINCT);
+            this.pageSize = pageSize;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Comparison> action) {
+            while (true) {
+                while (!pageIterator.hasNext()) {
+                    if (page != null && !page.hasMore()) {
+                        return false;
+                    }
+                    try {
+                        page = getComparisonsPage(page == null ? 0 : page.getNextOffset(), pageSize);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                    if (page.getComparisons().isEmpty()) {
+                        return false;
+                    }
+                    pageIterator = page.getComparisons().iterator();
+                }
+
+                Comparison comparison = pageIterator.next();
+                if (isNew(comparison)) {
+                    action.accept(comparison);
+                    return true;
+                }
+            }
+        }
+
+        /** Tests whether a comparison hasn't been given yet, and records it if not. */
+        private boolean isNew(@Nonnull Comparison comparison) {
+            Instant creationTime = comparison.getCreationTime();
+            if (oldestCreationTime == null || creationTime.isBefore(oldestCreationTime)) {
+                oldestCreationTime = creationTime;
+                oldestIdentifiers.clear();
+            } else if (creationTime.isAfter(oldestCreationTime)) {
+                return false;
+            }
+            return oldestIdentifiers.add(comparison.getIdentifier());
+        }
+    }
+
+    /**
+     * Lazily streams all of the account's comparisons, ordered from newest to
+     * oldest, fetching them 100 at a time.
+     *
+     * @return A sequential {@link Stream Stream&lt;Comparison&gt;} of the
+     *         account's comparisons.
+     * @see #streamAllComparisons(int)
+     */
+    @Nonnull
+    public Stream<Comparison> streamAllComparisons() {
+        return streamAllComparisons(defaultPageSize);
+    }
+
+    /**
+     * Lazily streams all of the account's comparisons, ordered from newest to
+     * oldest. Each page is requested only when the stream reaches it, so only one
+     * page is held in memory at a time and the first comparisons can be processed
+     * before the rest have been fetched.
      *
-     * @return A {@link CompletableFuture
-     *         CompletableFuture&lt;List&lt;Comparison&gt;&gt;} that will complete
-     *         with a list all of the account's comparisons, or with one of the
-     *         exceptions documented in {@link #getAllComparisons()}.
+     * <p>
+     * Pages are requested synchronously by the thread consuming the stream. Any
+     * {@link IOException} is rethrown as an {@link UncheckedIOException}, and other
+     * failures as documented in {@link #getComparisonsPage(int, int)}.
+     * </p>
+     *
+     * <p>
+     * The stream is not a snapshot. Comparisons created while it is consumed are
+     * left out, and no comparison is given twice. However, a comparison deleted
+     * while the stream is consumed moves older ones onto earlier pages, so an
+     * older comparison may be missed. If every comparison must be seen, stream
+     * again until a pass finds nothing new.
+     * </p>
+     *
+     * @param pageSize The number of comparisons to fetch per request.
+     * @return A sequential {@link Stream Stream&lt;Comparison&gt;} of the
+     *         account's comparisons.
+     * @throws IllegalArgumentException If the page size is not positive.
      */
     @Nonnull
-    public CompletableFuture<List<Comparison>> getAllComparisonsAsync() {
-        return client.getAsync(urls.comparisons).thenApply(Comparisons::comparisonListFromJSONResponse)
-                .exceptionally(error -> {
-                    if (error instanceof CompletionException) {
-                        // Errors seem to be wrapped in a CompletionException - perhaps all the time, or
-                        // perhaps only when one is thrown when
-                        // executing a callback. We check for them just to be safe, and unwrap them to
-                        // get the cause.
-                        error = error.getCause();
-                    }
-                    if (error instanceof IOException) {
-                        // Preserve the error. We wrap it in a CompletionException to make it throwable
-                        // from here.
-                        // (Note: CompletableFuture internally checks if things are already wrapped in a
-                        // CompletionException, and leaves them alone if so.)
-                        throw new CompletionException(error);
-                    } else if (error instanceof RESTClient.HTTPInvalidAuthenticationException) {
-                        // Override error with InvalidAuthenticationException.
-                        throw new InvalidAuthenticationException(error.getMessage());
-                    } else {
-                        // Unknown error. Override with our UnknownErrorException.
-                        throw new UnknownErrorException(error);
-                    }
-                });
+    public Stream<Comparison> streamAllComparisons(int pageSize) {
+        Validation.validatePageLimit(pageSize);
+        return StreamSupport.stream(new ComparisonPageSpliterator(pageSize), false);
     }
 
-    // endregion getAllComparisons(), getAllComparisonsAsync()
+    // endregion getComparisonsPage(offset, limit), getComparisonsPageAsync(offset,
+    // limit), streamAllComparisons([pageSize])
 
     // region getComparison(identifier), getComparisonAsync(identifier)
 
@@ -428,9 +1714,39 @@ public class Comparisons implements Closeable {
     @Nonnull
     public Comparison getComparison(@Nonnull String identifier)
             throws ComparisonNotFoundException, IOException, InvalidAuthenticationException, UnknownErrorException {
+        return getComparison(identifier, client.newDeadline(null));
+    }
+
+    /**
+     * Synchronously gets metadata for a given comparison, as for
+     * {@link #getComparison(String)}, within a timeout.
+     *
+     * @param identifier The comparison's identifier.
+     * @param timeout    The longest the call may take, in place of the configured
+     *                   total timeout.
+     * @return A {@link Comparison} giving the comparison's metadata.
+     * @throws DeadlineExceededException If the call doesn't complete within the
+     *                                   timeout. Other exceptions are as for
+     *                                   {@link #getComparison(String)}.
+     */
+    @Nonnull
+    public Comparison getComparison(@Nonnull String identifier, @Nonnull Duration timeout)
+            throws ComparisonNotFoundException, IOException, InvalidAuthenticationException, UnknownErrorException {
+        Validation.validateTimeout(timeout);
+        return getComparison(identifier, client.newDeadline(timeout));
+    }
+
+    @Nonnull
+    private Comparison getComparison(@Nonnull String identifier, @Nullable Deadline deadline)
+            throws ComparisonNotFoundException, IOException, InvalidAuthenticationException, UnknownErrorException {
         Validation.validateIdentifier(identifier);
+        Comparison cached = getCachedComparison(identifier);
+        if (cached != null) {
+            return cached;
+        }
         try {
-            return comparisonFromJSONResponse(client.get(urls.comparison(identifier)));
+            return cacheComparison(
+                    client.getHedged(urls.comparison(identifier), comparisonParser, deadline));
         } catch (RESTClient.HTTP404NotFoundException ex) {
             throw new ComparisonNotFoundException(accountId, identifier);
         } catch (IOException ex) {
@@ -452,8 +1768,53 @@ public class Comparisons implements Closeable {
      */
     @Nonnull
     public CompletableFuture<Comparison> getComparisonAsync(@Nonnull String identifier) {
+        return getComparisonAsync(identifier, client.newDeadline(null));
+    }
+
+    /**
+     * Asynchronously gets metadata for a given comparison, as for
+     * {@link #getComparisonAsync(String)}, within a timeout.
+     *
+     * @param identifier The comparison's identifier.
+     * @param timeout    The longest the call may take, in place of the configured
+     *                   total timeout.
+     * @return A {@link CompletableFuture CompletableFuture&lt;Comparison&gt;} that
+     *         will complete with a {@link Comparison} giving the metadata, or with
+     *         a {@link DeadlineExceededException} if the timeout passes first, or
+     *         with one of the exceptions documented in {@link #getComparison}.
+     */
+    @Nonnull
+    public CompletableFuture<Comparison> getComparisonAsync(@Nonnull String identifier, @Nonnull Duration timeout) {
+        Validation.validateTimeout(timeout);
+        return getComparisonAsync(identifier, client.newDeadline(timeout));
+    }
+
+    @Nonnull
+    private CompletableFuture<Comparison> getComparisonAsync(@Nonnull String identifier,
+            @Nullable Deadline deadline) {
         Validation.validateIdentifier(identifier);
-        return client.getAsync(urls.comparison(identifier)).thenApply(Comparisons::comparisonFromJSONResponse)
+        Comparison cached = getCachedComparison(identifier);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return fetchComparisonAsync(identifier, deadline);
+    }
+
+    /**
+     * Gets a comparison from the server, bypassing (but updating) the cache.
+     */
+    @Nonnull
+    private CompletableFuture<Comparison> fetchComparisonAsync(@Nonnull String identifier) {
+        return fetchComparisonAsync(identifier, client.newDeadline(null));
+    }
+
+    @Nonnull
+    private CompletableFuture<Comparison> fetchComparisonAsync(@Nonnull String identifier,
+            @Nullable Deadline deadline) {
+        CompletableFuture<Comparison> request = client.getHedgedAsync(urls.comparison(identifier), comparisonParser,
+                deadline);
+        return Utils.propagateCancellation(request
+                .thenApply(this::cacheComparison)
                 .exceptionally(error -> {
                     if (error instanceof CompletionException) {
                         // Errors seem to be wrapped in a CompletionException - perhaps all the time, or
@@ -478,7 +1839,23 @@ public class Comparisons implements Closeable {
                         // Unknown error. Override with our UnknownErrorException.
                         throw new UnknownErrorException(error);
                     }
-                });
+                }), request);
+    }
+
+    @Nullable
+    private Comparison getCachedComparison(@Nonnull String identifier) {
+        return comparisonCache != null ? comparisonCache.get(identifier) : null;
+    }
+
+    @Nonnull
+    private Comparison cacheComparison(@Nonnull Comparison comparison) {
+        return comparisonCache != null ? comparisonCache.put(comparison) : comparison;
+    }
+
+    private void evictComparison(@Nonnull String identifier) {
+        if (comparisonCache != null) {
+            comparisonCache.evict(identifier);
+        }
     }
 
     // endregion getComparison(identifier), getComparisonAsync(identifier)
@@ -488,6 +1865,14 @@ public class Comparisons implements Closeable {
     /**
      * Synchronously deletes a given comparison.
      *
+     * <p>
+     * If the delete is retried, and an earlier attempt may have deleted the
+     * comparison (its response timed out or the connection dropped, say), a 404
+     * from a later attempt is taken to mean it did. After an attempt that never
+     * reached the server, or was turned away with a 502 or 503, the 404 is
+     * reported, and it is for the caller to decide whether that matters.
+     * </p>
+     *
      * @param identifier The comparison's identifier.
      * @throws ComparisonNotFoundException    If no comparison with the given
      *                                        identifier exists.
@@ -501,9 +1886,34 @@ public class Comparisons implements Closeable {
      */
     public void deleteComparison(@Nonnull String identifier)
             throws ComparisonNotFoundException, IOException, InvalidAuthenticationException, UnknownErrorException {
+        deleteComparison(identifier, client.newDeadline(null));
+    }
+
+    /**
+     * Synchronously deletes a given comparison, as for
+     * {@link #deleteComparison(String)}, within a timeout.
+     *
+     * @param identifier The comparison's identifier.
+     * @param timeout    The longest the call may take, in place of the configured
+     *                   total timeout.
+     * @throws DeadlineExceededException If the call doesn't complete within the
+     *                                   timeout. Other exceptions are as for
+     *                                   {@link #deleteComparison(String)}.
+     */
+    public void deleteComparison(@Nonnull String identifier, @Nonnull Duration timeout)
+            throws ComparisonNotFoundException, IOException, InvalidAuthenticationException, UnknownErrorException {
+        Validation.validateTimeout(timeout);
+        deleteComparison(identifier, client.newDeadline(timeout));
+    }
+
+    private void deleteComparison(@Nonnull String identifier, @Nullable Deadline deadline)
+            throws ComparisonNotFoundException, IOException, InvalidAuthenticationException, UnknownErrorException {
         Validation.validateIdentifier(identifier);
+        evictComparison(identifier);
         try {
-            client.delete(urls.comparison(identifier));
+            client.delete(urls.comparison(identifier), deadline);
+            // Drop anything cached by a lookup that raced with the delete.
+            evictComparison(identifier);
         } catch (RESTClient.HTTP404NotFoundException ex) {
             throw new ComparisonNotFoundException(accountId, identifier);
         } catch (IOException ex) {
@@ -525,8 +1935,36 @@ public class Comparisons implements Closeable {
      */
     @Nonnull
     public CompletableFuture<Void> deleteComparisonAsync(@Nonnull String identifier) {
+        return deleteComparisonAsync(identifier, client.newDeadline(null));
+    }
+
+    /**
+     * Asynchronously deletes a given comparison, as for
+     * {@link #deleteComparisonAsync(String)}, within a timeout.
+     *
+     * @param identifier The comparison's identifier.
+     * @param timeout    The longest the call may take, in place of the configured
+     *                   total timeout.
+     * @return A {@link CompletableFuture} that will complete with {@link Void} if
+     *         the comparison is successfully deleted, or with a
+     *         {@link DeadlineExceededException} if the timeout passes first, or
+     *         with one of the exceptions documented in {@link #deleteComparison}.
+     */
+    @Nonnull
+    public CompletableFuture<Void> deleteComparisonAsync(@Nonnull String identifier, @Nonnull Duration timeout) {
+        Validation.validateTimeout(timeout);
+        return deleteComparisonAsync(identifier, client.newDeadline(timeout));
+    }
+
+    @Nonnull
+    private CompletableFuture<Void> deleteComparisonAsync(@Nonnull String identifier, @Nullable Deadline deadline) {
         Validation.validateIdentifier(identifier);
-        return client.deleteAsync(urls.comparison(identifier)).exceptionally(error -> {
+        evictComparison(identifier);
+        CompletableFuture<Void> request = client.deleteAsync(urls.comparison(identifier), deadline);
+        return Utils.propagateCancellation(request.whenComplete((result, error) -> {
+            // Drop anything cached by a lookup that raced with the delete.
+            evictComparison(identifier);
+        }).exceptionally(error -> {
             if (error instanceof CompletionException) {
                 // Errors seem to be wrapped in a CompletionException - perhaps all the time, or
                 // perhaps only when one is thrown when
@@ -550,7 +1988,7 @@ public class Comparisons implements Closeable {
                 // Unknown error. Override with our UnknownErrorException.
                 throw new UnknownErrorException(error);
             }
-        });
+        }), request);
     }
 
     // endregion deleteComparison(identifier), deleteComparisonAsync(identifier)
@@ -845,6 +2283,11 @@ public class Comparisons implements Closeable {
         /**
          * Creates a {@link Side} for a file provided by as an {@link InputStream}.
          *
+         * <p>
+         * The stream is read as the comparison is uploaded, so its length isn't known
+         * up front and the upload can't be retried if it fails part-way.
+         * </p>
+         *
          * @param fileStream  The {@link InputStream} providing the file's content.
          * @param fileType    The file's extension. This must be one of the API's
          *                    supported file extensions (PDF, Word, PowerPoint).
@@ -975,6 +2418,16 @@ public class Comparisons implements Closeable {
     /**
      * Synchronously creates a comparison with the given sides and properties.
      *
+     * <p>
+     * If the request is retried after an attempt whose response was lost, and a
+     * later attempt finds the identifier in use, the comparison with that
+     * identifier is returned if this call must have created it. That is always
+     * so for a generated identifier. For one you provide, it is only taken to be
+     * so if you also gave an expiry, and the comparison has that expiry and
+     * visibility; otherwise a {@link BadRequestException} is thrown, as the
+     * comparison may have existed already.
+     * </p>
+     *
      * @param left       A {@link Side} representing the left file.
      * @param right      A {@link Side} representing the right file.
      * @param identifier The identifier to use, or null to use an automatically
@@ -1003,6 +2456,42 @@ public class Comparisons implements Closeable {
     public Comparison createComparison(@Nonnull Side left, @Nonnull Side right, @Nullable String identifier,
             boolean isPublic, @Nullable Instant expires)
             throws BadRequestException, IOException, InvalidAuthenticationException, UnknownErrorException {
+        return createComparison(left, right, identifier, isPublic, expires, client.newDeadline(null));
+    }
+
+    /**
+     * Synchronously creates a comparison with the given sides and properties, as
+     * for {@link #createComparison(Side, Side, String, boolean, Instant)}, within
+     * a timeout.
+     *
+     * @param left       A {@link Side} representing the left file.
+     * @param right      A {@link Side} representing the right file.
+     * @param identifier The identifier to use, or null to use an automatically
+     *                   generated one.
+     * @param isPublic   Whether the comparison is publicly accessible, or requires
+     *                   authentication to view.
+     * @param expires    An {@link Instant} at which the comparison will expire and
+     *                   be automatically deleted, or null for no expiry.
+     * @param timeout    The longest the call may take, in place of the configured
+     *                   total timeout. This includes uploading the files.
+     * @return A {@link Comparison} instance representing the newly created
+     *         comparison.
+     * @throws DeadlineExceededException If the call doesn't complete within the
+     *                                   timeout. Other exceptions are as for
+     *                                   {@link #createComparison(Side, Side, String, boolean, Instant)}.
+     */
+    @Nonnull
+    public Comparison createComparison(@Nonnull Side left, @Nonnull Side right, @Nullable String identifier,
+            boolean isPublic, @Nullable Instant expires, @Nonnull Duration timeout)
+            throws BadRequestException, IOException, InvalidAuthenticationException, UnknownErrorException {
+        Validation.validateTimeout(timeout);
+        return createComparison(left, right, identifier, isPublic, expires, client.newDeadline(timeout));
+    }
+
+    @Nonnull
+    private Comparison createComparison(@Nonnull Side left, @Nonnull Side right, @Nullable String identifier,
+            boolean isPublic, @Nullable Instant expires, @Nullable Deadline deadline)
+            throws BadRequestException, IOException, InvalidAuthenticationException, UnknownErrorException {
 
         if (identifier != null) {
             Validation.validateIdentifier(identifier);
@@ -1011,11 +2500,20 @@ public class Comparisons implements Closeable {
             Validation.validateExpires(expires);
         }
 
+        // Always sending an identifier makes the request safe to retry.
+        String requestIdentifier = identifier != null ? identifier : generateIdentifier();
         try {
-            return comparisonFromJSONResponse(client.post(urls.comparisons,
-                    getComparisonsPostParameters(left, right, identifier, isPublic, expires),
-                    getComparisonsPostContent(left, right)));
+            return client.post(urls.comparisons,
+                    getComparisonsPostParameters(left, right, requestIdentifier, isPublic, expires),
+                    getComparisonsPostContent(left, right), comparisonParser, true, deadline);
         } catch (RESTClient.HTTP400BadRequestException ex) {
+            if (isIdentifierInUseOnRetry(ex)) {
+                // An earlier attempt may have created the comparison, but its response was lost.
+                Comparison comparison = getComparison(requestIdentifier, deadline);
+                if (identifier == null || isCreatedByThisCall(comparison, isPublic, expires)) {
+                    return comparison;
+                }
+            }
             throw new BadRequestException(ex.getMessage());
         } catch (IOException ex) {
             throw ex;
@@ -1042,7 +2540,9 @@ public class Comparisons implements Closeable {
     }
 
     /**
-     * Asynchronously creates a comparison with the given sides and properties.
+     * Asynchronously creates a comparison with the given sides and properties. A
+     * retry that finds the identifier in use is handled as for
+     * {@link #createComparison(Side, Side, String, boolean, Instant)}.
      *
      * @param left       A {@link Side} representing the left file.
      * @param right      A {@link Side} representing the right file.
@@ -1063,6 +2563,40 @@ public class Comparisons implements Closeable {
     @Nonnull
     public CompletableFuture<Comparison> createComparisonAsync(@Nonnull Side left, @Nonnull Side right,
             @Nullable String identifier, boolean isPublic, @Nullable Instant expires) {
+        return createComparisonAsync(left, right, identifier, isPublic, expires, client.newDeadline(null));
+    }
+
+    /**
+     * Asynchronously creates a comparison with the given sides and properties, as
+     * for {@link #createComparisonAsync(Side, Side, String, boolean, Instant)},
+     * within a timeout.
+     *
+     * @param left       A {@link Side} representing the left file.
+     * @param right      A {@link Side} representing the right file.
+     * @param identifier The identifier to use, or null to use an automatically
+     *                   generated one.
+     * @param isPublic   Whether the comparison is publicly accessible, or requires
+     *                   authentication to view.
+     * @param expires    An {@link Instant} at which the comparison will expire and
+     *                   be automatically deleted, or null for no expiry.
+     * @param timeout    The longest the call may take, in place of the configured
+     *                   total timeout. This includes uploading the files.
+     * @return A {@link CompletableFuture CompletableFuture&lt;Comparison&gt;} that
+     *         will complete with the newly created comparison, or with a
+     *         {@link DeadlineExceededException} if the timeout passes first, or
+     *         with one of the exceptions documented in
+     *         {@link #createComparison(Side, Side, String, boolean, Instant)}.
+     */
+    @Nonnull
+    public CompletableFuture<Comparison> createComparisonAsync(@Nonnull Side left, @Nonnull Side right,
+            @Nullable String identifier, boolean isPublic, @Nullable Instant expires, @Nonnull Duration timeout) {
+        Validation.validateTimeout(timeout);
+        return createComparisonAsync(left, right, identifier, isPublic, expires, client.newDeadline(timeout));
+    }
+
+    @Nonnull
+    private CompletableFuture<Comparison> createComparisonAsync(@Nonnull Side left, @Nonnull Side right,
+            @Nullable String identifier, boolean isPublic, @Nullable Instant expires, @Nullable Deadline deadline) {
 
         if (identifier != null) {
             Validation.validateIdentifier(identifier);
@@ -1071,10 +2605,14 @@ public class Comparisons implements Closeable {
             Validation.validateExpires(expires);
         }
 
-        return client
-                .postAsync(urls.comparisons, getComparisonsPostParameters(left, right, identifier, isPublic, expires),
-                        getComparisonsPostContent(left, right))
-                .thenApply(Comparisons::comparisonFromJSONResponse).exceptionally(error -> {
+        // Always sending an identifier makes the request safe to retry.
+        String requestIdentifier = identifier != null ? identifier : generateIdentifier();
+        CompletableFuture<Comparison> request = client.postAsync(urls.comparisons,
+                getComparisonsPostParameters(left, right, requestIdentifier, isPublic, expires),
+                getComparisonsPostContent(left, right), comparisonParser, true, deadline);
+        return Utils.propagateCancellation(request
+                .thenApply(CompletableFuture::completedFuture)
+                .exceptionally(error -> {
                     if (error instanceof CompletionException) {
                         // Errors seem to be wrapped in a CompletionException - perhaps all the time, or
                         // perhaps only when one is thrown when
@@ -1082,7 +2620,16 @@ public class Comparisons implements Closeable {
                         // get the cause.
                         error = error.getCause();
                     }
-                    if (error instanceof RESTClient.HTTP400BadRequestException) {
+                    if (isIdentifierInUseOnRetry(error)) {
+                        // An earlier attempt may have created the comparison, but its response was lost.
+                        String details = error.getMessage();
+                        return getComparisonAsync(requestIdentifier, deadline).thenApply(comparison -> {
+                            if (identifier == null || isCreatedByThisCall(comparison, isPublic, expires)) {
+                                return comparison;
+                            }
+                            throw new BadRequestException(details);
+                        });
+                    } else if (error instanceof RESTClient.HTTP400BadRequestException) {
                         // Override error with BadRequestException.
                         throw new BadRequestException(error.getMessage());
                     } else if (error instanceof IOException) {
@@ -1098,16 +2645,260 @@ public class Comparisons implements Closeable {
                         // Unknown error. Override with our UnknownErrorException.
                         throw new UnknownErrorException(error);
                     }
-                });
+                }).thenCompose(Function.identity()), request);
+    }
+
+    /**
+     * Tests whether creating a comparison failed because its identifier was
+     * already in use, on a retry. The API reports this against the
+     * {@code identifier} field of the 400 response body. Since comparisons are
+     * always created with an identifier, this usually means an earlier attempt
+     * succeeded on the server.
+     */
+    private static boolean isIdentifierInUseOnRetry(@Nullable final Throwable error) {
+        if (!(error instanceof RESTClient.HTTP400BadRequestException)
+                || !((RESTClient.HTTP400BadRequestException) error).earlierAttemptMayHaveSucceeded()) {
+            return false;
+        }
+        try {
+            return new JSONObject(error.getMessage()).has("identifier");
+        } catch (JSONException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Tests whether a comparison found under an identifier given by the caller
+     * was created by this call, rather than already existing. A generated
+     * identifier can't clash with an existing comparison, but a given one can.
+     *
+     * <p>
+     * Only what the call sent is compared, as the server's creation time can't
+     * be compared with the client's clock. Without an expiry, nothing the call
+     * sent tells its comparison apart from an older one, so it is not taken to be
+     * this call's. The expiry is compared to the second, in case the server
+     * stores it less precisely.
+     * </p>
+     */
+    private static boolean isCreatedByThisCall(@Nonnull final Comparison comparison, final boolean isPublic,
+            @Nullable final Instant expires) {
+        Instant expiryTime = comparison.getExpiryTime();
+        return expires != null && expiryTime != null && comparison.getIsPublic() == isPublic
+                && expiryTime.truncatedTo(ChronoUnit.SECONDS).equals(expires.truncatedTo(ChronoUnit.SECONDS));
     }
 
     // endregion createComparison(...), createComparisonAsync(...)
 
+    // region createComparisons(requests, [options])
+
+    /**
+     * Creates a batch of comparisons, uploading up to 8 at once.
+     *
+     * @param requests The comparisons to create.
+     * @return A {@link CompletableFuture CompletableFuture&lt;BatchSummary&gt;}
+     *         that will complete once every comparison has finished.
+     * @see #createComparisons(Iterable, BatchOptions)
+     */
+    @Nonnull
+    public CompletableFuture<BatchSummary> createComparisons(@Nonnull Iterable<? extends ComparisonRequest> requests) {
+        return createComparisons(requests, BatchOptions.builder().build());
+    }
+
+    /**
+     * Creates a batch of comparisons, with a bounded number of uploads in flight.
+     *
+     * <p>
+     * Requests are taken from the {@link Iterable} only when there is room for
+     * another upload, so a lazily produced batch (for instance, one that opens
+     * each file as it is reached) never holds more than
+     * {@link BatchOptions#getMaxInFlight()} request bodies in memory. The result
+     * of each request is passed to the {@link BatchListener} as soon as it
+     * finishes. A failed request does not stop the rest of the batch. A null
+     * element fails only its own position, with an
+     * {@link IllegalArgumentException} in {@link BatchSummary#getFailures()}, and
+     * isn't passed to the listener.
+     * </p>
+     *
+     * @param requests The comparisons to create.
+     * @param options  The batch settings.
+     * @return A {@link CompletableFuture CompletableFuture&lt;BatchSummary&gt;}
+     *         that will complete once every comparison has finished. It completes
+     *         exceptionally only if iterating the requests fails. Cancelling it
+     *         stops further requests from being submitted.
+     */
+    @Nonnull
+    public CompletableFuture<BatchSummary> createComparisons(@Nonnull Iterable<? extends ComparisonRequest> requests,
+            @Nonnull BatchOptions options) {
+        if (requests == null) {
+            throw new IllegalArgumentException("`requests` cannot be null");
+        }
+        if (options == null) {
+            throw new IllegalArgumentException("`options` cannot be null");
+        }
+
+        return new BatchSubmission(requests.iterator(),
+                request -> createComparisonAsync(request.getLeft(), request.getRight(), request.getIdentifier(),
+                        request.getIsPublic(), request.getExpires()),
+                options, executor).start();
+    }
+
+    // endregion createComparisons(requests, [options])
+
+    // region runPipeline(requests, targets, [options])
+
+    /**
+     * Runs every step from upload to downloaded export for each of a stream of
+     * comparison requests, with the default {@link PipelineOptions}.
+     *
+     * @param requests The comparisons to create.
+     * @param targets  Gives the file each comparison's export is downloaded to.
+     * @return The running {@link Pipeline}.
+     * @see #runPipeline(Iterable, Function, PipelineOptions)
+     */
+    @Nonnull
+    public Pipeline runPipeline(@Nonnull Iterable<? extends ComparisonRequest> requests,
+            @Nonnull Function<? super Comparison, ? extends Path> targets) {
+        return runPipeline(requests, targets, PipelineOptions.builder().build());
+    }
+
+    /**
+     * Runs every step from upload to downloaded export for each of a stream of
+     * comparison requests.
+     *
+     * <p>
+     * Each comparison is created, waited on until ready, exported (as
+     * {@link PipelineOptions#getExportKind()}), waited on until the export is
+     * ready, and then downloaded to the file given by {@code targets}. The stages
+     * overlap, each with its own concurrency limit, so uploads continue while
+     * earlier comparisons are still being processed by the server. Waiting uses
+     * the same shared pollers as {@link #awaitReady(String)} and
+     * {@link #awaitExportReady(Export)}, so it doesn't block any threads.
+     * </p>
+     *
+     * <p>
+     * As with {@link #createComparisons(Iterable, BatchOptions)}, requests are
+     * taken from the {@link Iterable} only when there is room for another upload.
+     * A comparison that fails at any stage is reported to the
+     * {@link PipelineListener} and does not stop the rest. A null element fails
+     * at the {@link PipelineStage#UPLOAD} stage with an
+     * {@link IllegalArgumentException}.
+     * </p>
+     *
+     * @param requests The comparisons to create.
+     * @param targets  Gives the file each comparison's export is downloaded to.
+     *                 Called once per comparison, on a client thread, just
+     *                 before the download starts.
+     * @param options  The pipeline settings.
+     * @return The running {@link Pipeline}, giving the overall result and live
+     *         counters for each stage.
+     */
+    @Nonnull
+    public Pipeline runPipeline(@Nonnull Iterable<? extends ComparisonRequest> requests,
+            @Nonnull Function<? super Comparison, ? extends Path> targets, @Nonnull PipelineOptions options) {
+        if (requests == null) {
+            throw new IllegalArgumentException("`requests` cannot be null");
+        }
+        if (targets == null) {
+            throw new IllegalArgumentException("`targets` cannot be null");
+        }
+        if (options == null) {
+            throw new IllegalArgumentException("`options` cannot be null");
+        }
+
+        return new Pipeline(this, requests.iterator(), targets, options, executor).start();
+    }
+
+    // endregion runPipeline(requests, targets, [options])
+
+    // region awaitReady(identifier, [timeout])
+
+    /**
+     * The most pages of recent comparisons we look through when polling in bulk,
+     * beyond the number needed to hold every pending comparison.
+     */
+    private static final int bulkPollExtraPages = 2;
+
+    /**
+     * Waits for a comparison to be ready, however long that takes.
+     *
+     * @param identifier The comparison's identifier.
+     * @return A {@link CompletableFuture CompletableFuture&lt;Comparison&gt;} that
+     *         will complete with the ready comparison.
+     * @see #awaitReady(String, Duration)
+     */
+    @Nonnull
+    public CompletableFuture<Comparison> awaitReady(@Nonnull String identifier) {
+        Validation.validateIdentifier(identifier);
+        return comparisonPoller.await(identifier, null);
+    }
+
+    /**
+     * Waits for a comparison to be ready.
+     *
+     * <p>
+     * Rather than each caller polling {@link #getComparison(String)} on a fixed
+     * interval, every pending comparison is tracked by a single scheduler for this
+     * client. Callers waiting on the same comparison share its requests, and each
+     * comparison is polled less often the longer it takes, starting at half a
+     * second and backing off to 15 seconds. While many comparisons are pending,
+     * they are checked together by listing the account's most recent comparisons,
+     * so the number of requests no longer grows with the number being waited on.
+     * </p>
+     *
+     * <p>
+     * A comparison that has failed is also considered ready, so check
+     * {@link Comparison#getFailed()} on the result.
+     * </p>
+     *
+     * @param identifier The comparison's identifier.
+     * @param timeout    The longest to wait.
+     * @return A {@link CompletableFuture CompletableFuture&lt;Comparison&gt;} that
+     *         will complete with the ready comparison, with a
+     *         {@link java.util.concurrent.TimeoutException} if it isn't ready in
+     *         time, or with one of the exceptions documented in
+     *         {@link #getComparison}. Cancelling it stops waiting.
+     */
+    @Nonnull
+    public CompletableFuture<Comparison> awaitReady(@Nonnull String identifier, @Nonnull Duration timeout) {
+        Validation.validateIdentifier(identifier);
+        Validation.validateTimeout(timeout);
+        return comparisonPoller.await(identifier, timeout);
+    }
+
+    /**
+     * Looks for the given comparisons among the account's most recent ones, a page
+     * at a time. Pending comparisons were almost always created recently, so this
+     * usually finds them all in the first page or two.
+     */
+    @Nonnull
+    private CompletableFuture<Map<String, Comparison>> findComparisonsAsync(@Nonnull Set<String> identifiers) {
+        int maxPages = (identifiers.size() + defaultPageSize - 1) / defaultPageSize + bulkPollExtraPages;
+        return findComparisonsAsync(identifiers, new HashMap<>(), 0, maxPages);
+    }
+
+    @Nonnull
+    private CompletableFuture<Map<String, Comparison>> findComparisonsAsync(@Nonnull Set<String> identifiers,
+            @Nonnull Map<String, Comparison> found, int offset, int pagesLeft) {
+        return getComparisonsPageAsync(offset, defaultPageSize).thenCompose(page -> {
+            for (Comparison comparison : page.getComparisons()) {
+                if (identifiers.contains(comparison.getIdentifier())) {
+                    found.put(comparison.getIdentifier(), cacheComparison(comparison));
+                }
+            }
+            if (found.size() == identifiers.size() || !page.hasMore() || pagesLeft <= 1) {
+                return CompletableFuture.completedFuture(found);
+            }
+            return findComparisonsAsync(identifiers, found, page.getNextOffset(), pagesLeft - 1);
+        });
+    }
+
+    // endregion awaitReady(identifier, [timeout])
+
     // endregion Methods - getAllComparisons[Async], getComparison[Async],
     // deleteComparison[Async], createComparison[Async]
 
     // region Viewer URLs - publicViewerURL(identifier, [wait]),
-    // signedViewerURL(identifier, [validUntil, wait])
+    // signedViewerURL(identifier, [validUntil, wait]), signedViewerURLs(identifiers, validUntil)
 
     @Nonnull
     public String publicViewerURL(@Nonnull final String identifier) {
@@ -1133,26 +2924,52 @@ public class Comparisons implements Closeable {
 
     @Nonnull
     public String signedViewerURL(@Nonnull final String identifier, @Nonnull final Instant validUntil, boolean wait) {
-        Validation.validateIdentifier(identifier);
-        Validation.validateValidUntil(validUntil);
+        return getViewerURLSigner().signedViewerURL(identifier, validUntil, wait);
+    }
 
-        try {
-            return new URIBuilder(urls.comparisonViewer(accountId, identifier))
-                    .addParameter("valid_until", Long.toString(validUntil.getEpochSecond()))
-                    .addParameter("signature",
-                            Utils.getViewerURLSignature(accountId, authToken, identifier, validUntil))
-                    .toString() + (wait ? "&wait" : "");
-        } catch (URISyntaxException ex) {
-            // This should never happen - in this case the base URL for the comparison
-            // viewer was invalid.
-            throw new RuntimeException(ex);
+    /**
+     * Generates signed viewer URLs for many comparisons, all valid until the same
+     * time. This is much faster than calling
+     * {@link #signedViewerURL(String, Instant, boolean)} for each.
+     *
+     * @param identifiers The comparisons' identifiers.
+     * @param validUntil  The time at which the URLs expire, which must be in the
+     *                    future.
+     * @return The signed viewer URLs, in the same order as the identifiers.
+     */
+    @Nonnull
+    public List<String> signedViewerURLs(@Nonnull final Collection<String> identifiers,
+            @Nonnull final Instant validUntil) {
+        return getViewerURLSigner().signedViewerURLs(identifiers, validUntil);
+    }
+
+    /**
+     * Gets the signer used for this account's viewer URLs, which can be held on to
+     * and shared between threads.
+     *
+     * @return The account's {@link ViewerURLSigner}.
+     */
+    @Nonnull
+    public ViewerURLSigner getViewerURLSigner() {
+        ViewerURLSigner signer = viewerURLSigner;
+        if (signer == null) {
+            viewerURLSignerLock.lock();
+            try {
+                signer = viewerURLSigner;
+                if (signer == null) {
+                    signer = viewerURLSigner = new ViewerURLSigner(urls.comparisonViewers, accountId, authToken);
+                }
+            } finally {
+                viewerURLSignerLock.unlock();
+            }
         }
+        return signer;
     }
 
     // endregion Viewer URLs - publicViewerURL(identifier, [wait]),
-    // signedViewerURL(identifier, [validUntil, wait])
+    // signedViewerURL(identifier, [validUntil, wait]), signedViewerURLs(identifiers, validUntil)
 
-    // region Helpers - generateIdentifier()
+    // region Helpers - generateIdentifier(), generateTimeOrderedIdentifier()
 
     @Nonnull
     private static final String randomIdentifierCharacters = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
@@ -1160,11 +2977,44 @@ public class Comparisons implements Closeable {
     // Sufficiently long to guarantee we never experience clashes in practice.
     private static final int randomIdentifierLength = 12;
 
+    /**
+     * The characters of time-ordered identifiers' timestamps, in ASCII order so
+     * that the identifiers sort by time.
+     */
+    @Nonnull
+    private static final String timestampCharacters =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+
+    // Enough base 62 digits for milliseconds since the epoch until the year 8000.
+    private static final int timestampLength = 8;
+
     @Nonnull
     public static String generateIdentifier() {
         return Utils.getRandomString(randomIdentifierCharacters, randomIdentifierLength);
     }
 
-    // endregion Helpers - generateIdentifier()
+    /**
+     * Generates a random identifier that starts with its creation time, so that
+     * identifiers sort in the order they were generated (to the millisecond).
+     * This keeps recently created comparisons together in indexes keyed by
+     * identifier.
+     *
+     * @return A new identifier, which is longer than those from
+     *         {@link #generateIdentifier()}.
+     */
+    @Nonnull
+    public static String generateTimeOrderedIdentifier() {
+        char[] timestamp = new char[timestampLength];
+        long millis = System.currentTimeMillis();
+        for (int i = timestampLength - 1; i >= 0; --i) {
+            timestamp[i] = timestampCharacters.charAt((int) (millis % timestampCharacters.length()));
+            millis /= timestampCharacters.length();
+        }
+
+        StringBuilder builder = new StringBuilder(timestampLength + randomIdentifierLength).append(timestamp);
+        return Utils.appendRandomString(builder, randomIdentifierCharacters, randomIdentifierLength).toString();
+    }
+
+    // endregion Helpers - generateIdentifier(), generateTimeOrderedIdentifier()
 
 }
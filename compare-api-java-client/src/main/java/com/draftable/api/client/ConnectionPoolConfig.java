@@ -0,0 +1,270 @@
+package com.draftable.api.client;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Duration;
+
+/**
+ * Configures the pool of HTTP connections used by a {@link Comparisons}
+ * instance. The same settings are applied to both the synchronous and
+ * asynchronous HTTP clients.
+ *
+ * <p>
+ * Instances are immutable, and are created with {@link #builder()}.
+ * </p>
+ */
+public final class ConnectionPoolConfig {
+
+    // region Builder
+
+    /**
+     * Builds a {@link ConnectionPoolConfig}. Any settings that aren't provided
+     * keep their documented defaults.
+     */
+    public static final class Builder {
+        private int maxTotal = 20;
+        private int maxPerRoute = 20;
+        @Nullable
+        private Duration timeToLive = null;
+        @Nonnull
+        private Duration validateAfterInactivity = Duration.ofSeconds(2);
+        @Nullable
+        private Duration idleEvictionInterval = null;
+        private boolean tcpNoDelay = true;
+        private int sendBufferSize = 0;
+        private int receiveBufferSize = 0;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the maximum number of connections in the pool. Defaults to 20.
+         *
+         * @param maxTotal The maximum number of connections, which must be positive.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder maxTotal(final int maxTotal) {
+            if (maxTotal <= 0) {
+                throw new IllegalArgumentException("`maxTotal` must be positive");
+            }
+            this.maxTotal = maxTotal;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of connections to a single host. Defaults to 20.
+         *
+         * @param maxPerRoute The maximum number of connections per host, which must
+         *                    be positive.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder maxPerRoute(final int maxPerRoute) {
+            if (maxPerRoute <= 0) {
+                throw new IllegalArgumentException("`maxPerRoute` must be positive");
+            }
+            this.maxPerRoute = maxPerRoute;
+            return this;
+        }
+
+        /**
+         * Sets the maximum lifetime of a pooled connection, after which it will not
+         * be reused. Defaults to null, meaning connections may be reused
+         * indefinitely.
+         *
+         * @param timeToLive The maximum connection lifetime, or null for no limit.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder timeToLive(@Nullable final Duration timeToLive) {
+            if (timeToLive != null && (timeToLive.isZero() || timeToLive.isNegative())) {
+                throw new IllegalArgumentException("`timeToLive` must have positive duration");
+            }
+            this.timeToLive = timeToLive;
+            return this;
+        }
+
+        /**
+         * Sets how long a connection may be idle before it is checked for staleness
+         * prior to reuse. Defaults to 2 seconds. Only applies to the synchronous
+         * client.
+         *
+         * @param validateAfterInactivity The period of inactivity after which a
+         *                                connection is validated.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder validateAfterInactivity(@Nonnull final Duration validateAfterInactivity) {
+            if (validateAfterInactivity == null) {
+                throw new IllegalArgumentException("`validateAfterInactivity` cannot be null");
+            }
+            if (validateAfterInactivity.isNegative()) {
+                throw new IllegalArgumentException("`validateAfterInactivity` cannot be negative");
+            }
+            this.validateAfterInactivity = validateAfterInactivity;
+            return this;
+        }
+
+        /**
+         * Sets the interval at which idle and expired connections are evicted from
+         * the pool. Connections idle for longer than this interval are closed.
+         * Defaults to null, meaning connections are never evicted in the
+         * background.
+         *
+         * @param idleEvictionInterval The eviction interval, or null to disable
+         *                             background eviction.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder idleEvictionInterval(@Nullable final Duration idleEvictionInterval) {
+            if (idleEvictionInterval != null && (idleEvictionInterval.isZero() || idleEvictionInterval.isNegative())) {
+                throw new IllegalArgumentException("`idleEvictionInterval` must have positive duration");
+            }
+            this.idleEvictionInterval = idleEvictionInterval;
+            return this;
+        }
+
+        /**
+         * Sets whether TCP_NODELAY is enabled on new connections. Defaults to true.
+         *
+         * @param tcpNoDelay Whether to disable Nagle's algorithm.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder tcpNoDelay(final boolean tcpNoDelay) {
+            this.tcpNoDelay = tcpNoDelay;
+            return this;
+        }
+
+        /**
+         * Sets the socket send buffer size (SO_SNDBUF). Defaults to 0, meaning the
+         * system default is used.
+         *
+         * @param sendBufferSize The buffer size in bytes, or 0 for the system
+         *                       default.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder sendBufferSize(final int sendBufferSize) {
+            if (sendBufferSize < 0) {
+                throw new IllegalArgumentException("`sendBufferSize` cannot be negative");
+            }
+            this.sendBufferSize = sendBufferSize;
+            return this;
+        }
+
+        /**
+         * Sets the socket receive buffer size (SO_RCVBUF). Defaults to 0, meaning
+         * the system default is used.
+         *
+         * @param receiveBufferSize The buffer size in bytes, or 0 for the system
+         *                          default.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder receiveBufferSize(final int receiveBufferSize) {
+            if (receiveBufferSize < 0) {
+                throw new IllegalArgumentException("`receiveBufferSize` cannot be negative");
+            }
+            this.receiveBufferSize = receiveBufferSize;
+            return this;
+        }
+
+        /**
+         * Creates the {@link ConnectionPoolConfig}.
+         *
+         * @return A new {@link ConnectionPoolConfig} with this builder's settings.
+         */
+        @Nonnull
+        public ConnectionPoolConfig build() {
+            return new ConnectionPoolConfig(this);
+        }
+    }
+
+    /**
+     * Creates a builder for a {@link ConnectionPoolConfig}.
+     *
+     * @return A new {@link Builder} with the default settings.
+     */
+    @Nonnull
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // endregion Builder
+
+    // region Fields and constructor
+
+    private final int maxTotal;
+    private final int maxPerRoute;
+    @Nullable
+    private final Duration timeToLive;
+    @Nonnull
+    private final Duration validateAfterInactivity;
+    @Nullable
+    private final Duration idleEvictionInterval;
+    private final boolean tcpNoDelay;
+    private final int sendBufferSize;
+    private final int receiveBufferSize;
+
+    private ConnectionPoolConfig(@Nonnull final Builder builder) {
+        this.maxTotal = builder.maxTotal;
+        this.maxPerRoute = builder.maxPerRoute;
+        this.timeToLive = builder.timeToLive;
+        this.validateAfterInactivity = builder.validateAfterInactivity;
+        this.idleEvictionInterval = builder.idleEvictionInterval;
+        this.tcpNoDelay = builder.tcpNoDelay;
+        this.sendBufferSize = builder.sendBufferSize;
+        this.receiveBufferSize = builder.receiveBufferSize;
+    }
+
+    // endregion Fields and constructor
+
+    // region Getters
+
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    public int getMaxPerRoute() {
+        return maxPerRoute;
+    }
+
+    @Nullable
+    public Duration getTimeToLive() {
+        return timeToLive;
+    }
+
+    @Nonnull
+    public Duration getValidateAfterInactivity() {
+        return validateAfterInactivity;
+    }
+
+    @Nullable
+    public Duration getIdleEvictionInterval() {
+        return idleEvictionInterval;
+    }
+
+    public boolean getTcpNoDelay() {
+        return tcpNoDelay;
+    }
+
+    public int getSendBufferSize() {
+        return sendBufferSize;
+    }
+
+    public int getReceiveBufferSize() {
+        return receiveBufferSize;
+    }
+
+    // endregion Getters
+
+    @Override
+    public String toString() {
+        return String.format(
+                "ConnectionPoolConfig(maxTotal: %d, maxPerRoute: %d, timeToLive: %s, validateAfterInactivity: %s, idleEvictionInterval: %s, tcpNoDelay: %s, sendBufferSize: %d, receiveBufferSize: %d)",
+                maxTotal, maxPerRoute, timeToLive, validateAfterInactivity, idleEvictionInterval,
+                tcpNoDelay ? "true" : "false", sendBufferSize, receiveBufferSize);
+    }
+}
@@ -0,0 +1,58 @@
+package com.draftable.api.client;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+
+/**
+ * The point in time by which a call must complete. A deadline is taken once
+ * when a call is made, and then passed down through its retries, waits and
+ * requests, so that each of them gets only the time that is left.
+ */
+final class Deadline {
+
+    @Nonnull
+    private final Duration timeout;
+
+    /** When the deadline passes, from {@link System#nanoTime()}. */
+    private final long deadlineNanos;
+
+    private Deadline(@Nonnull final Duration timeout) {
+        this.timeout = timeout;
+        this.deadlineNanos = System.nanoTime() + timeout.toNanos();
+    }
+
+    /**
+     * Creates a deadline that passes after the given timeout.
+     *
+     * @param timeout The time allowed from now.
+     * @return The new deadline.
+     */
+    @Nonnull
+    static Deadline after(@Nonnull final Duration timeout) {
+        return new Deadline(timeout);
+    }
+
+    /**
+     * Gets the time left before the deadline passes.
+     *
+     * @return The time left in nanoseconds, which is zero or negative once the
+     *         deadline has passed.
+     */
+    long remainingNanos() {
+        return deadlineNanos - System.nanoTime();
+    }
+
+    boolean isExpired() {
+        return remainingNanos() <= 0;
+    }
+
+    /**
+     * Creates the exception to fail the call with once the deadline has passed.
+     *
+     * @return A new {@link DeadlineExceededException}.
+     */
+    @Nonnull
+    DeadlineExceededException exceeded() {
+        return new DeadlineExceededException(timeout);
+    }
+}
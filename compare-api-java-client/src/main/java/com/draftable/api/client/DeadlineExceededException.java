@@ -0,0 +1,33 @@
+package com.draftable.api.client;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Thrown when a call doesn't complete within its timeout, which is either the
+ * one passed to the call or the client's
+ * {@link TimeoutConfig#getTotalTimeout() total timeout}. The call is abandoned
+ * when this is thrown, including any request still being sent and any retries
+ * that were due.
+ */
+public class DeadlineExceededException extends IOException {
+
+    @Nonnull
+    private final Duration timeout;
+
+    DeadlineExceededException(@Nonnull final Duration timeout) {
+        super(String.format("The call did not complete within its timeout of %s", timeout));
+        this.timeout = timeout;
+    }
+
+    /**
+     * Gets the timeout the call didn't complete within.
+     *
+     * @return The timeout, measured from when the call was made.
+     */
+    @Nonnull
+    public Duration getTimeout() {
+        return timeout;
+    }
+}
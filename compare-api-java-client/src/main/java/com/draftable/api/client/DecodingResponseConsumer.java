@@ -0,0 +1,379 @@
+package com.draftable.api.client;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.protocol.AbstractAsyncResponseConsumer;
+import org.apache.http.protocol.HttpContext;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Consumes an asynchronous response by decoding its body as it arrives, rather
+ * than buffering the whole body first.
+ *
+ * <p>
+ * If the response has the expected status code, its body is fed through a
+ * bounded pipe to the parser, which runs on the executor. Once the pipe is
+ * full, the I/O reactor stops reading from the connection until the parser has
+ * caught up, so a large response (such as a list of every comparison) never
+ * has to fit in memory as bytes. Any other response has its body kept (up to a
+ * limit) so that the error can be reported.
+ * </p>
+ *
+ * <p>
+ * An executor that runs tasks in place, or rejects them, would run the parser
+ * on the I/O thread, where it would wait forever for data that only that thread
+ * can deliver. In that case the body is buffered in full and decoded once it
+ * has arrived, as it would have been before.
+ * </p>
+ *
+ * <p>
+ * The result is the response itself, with the error body attached as its
+ * entity if there was one. The decoded body is given by {@link #getDecoded()}.
+ * </p>
+ */
+final class DecodingResponseConsumer<T> extends AbstractAsyncResponseConsumer<HttpResponse> {
+
+    /** The most of an error response body we keep for the exception message. */
+    private static final int maxErrorBodySize = 64 * 1024;
+
+    /** The most of the body that is buffered ahead of the parser. */
+    private static final int pipeCapacity = 4 * BufferPool.bufferSize;
+
+    private final int expectedStatusCode;
+    @Nonnull
+    private final RESTClient.ResponseParser<T> parser;
+    @Nonnull
+    private final Executor executor;
+    @Nonnull
+    private final CompletableFuture<T> decoded = new CompletableFuture<>();
+
+    @Nullable
+    private HttpResponse response;
+    @Nullable
+    private Pipe pipe;
+    @Nullable
+    private ByteBuffer buffer;
+    @Nullable
+    private ByteArrayOutputStream errorBody;
+
+    /**
+     * Creates a consumer.
+     *
+     * @param expectedStatusCode The status code whose body is decoded.
+     * @param parser             The parser to decode the body with.
+     * @param executor           The executor to run the parser on.
+     */
+    DecodingResponseConsumer(final int expectedStatusCode, @Nonnull final RESTClient.ResponseParser<T> parser,
+            @Nonnull final Executor executor) {
+        this.expectedStatusCode = expectedStatusCode;
+        this.parser = parser;
+        this.executor = executor;
+    }
+
+    /**
+     * Gets whether the body of the response is being decoded, which is the case
+     * once a response with the expected status code has been received.
+     *
+     * @return true if {@link #getDecoded()} will give the decoded body.
+     */
+    boolean isDecoding() {
+        return pipe != null;
+    }
+
+    /**
+     * Gets the decoded body of the response.
+     *
+     * @return A future which completes with the decoded body, or with the error
+     *         the parser or the exchange failed with.
+     */
+    @Nonnull
+    CompletableFuture<T> getDecoded() {
+        return decoded;
+    }
+
+    @Override
+    protected void onResponseReceived(@Nonnull final HttpResponse response) {
+        this.response = response;
+        if (response.getStatusLine().getStatusCode() != expectedStatusCode) {
+            errorBody = new ByteArrayOutputStream();
+            return;
+        }
+
+        Pipe currentPipe = new Pipe();
+        pipe = currentPipe;
+        Thread ioThread = Thread.currentThread();
+        try {
+            executor.execute(() -> {
+                if (Thread.currentThread() == ioThread) {
+                    currentPipe.setUnbounded();
+                } else {
+                    decode(currentPipe);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            currentPipe.setUnbounded();
+        }
+    }
+
+    @Override
+    protected void onEntityEnclosed(@Nonnull final HttpEntity entity, @Nullable final ContentType contentType) {
+        // Nothing to do - the body is handled as it arrives.
+    }
+
+    @Override
+    protected void onContentReceived(@Nonnull final ContentDecoder decoder, @Nonnull final IOControl ioControl)
+            throws IOException {
+        if (buffer == null) {
+            buffer = BufferPool.shared.acquire();
+        }
+        Pipe currentPipe = pipe;
+        while (currentPipe == null || !currentPipe.suspendIfFull(ioControl)) {
+            int bytesRead = decoder.read(buffer);
+            if (bytesRead <= 0) {
+                break;
+            }
+            buffer.flip();
+            if (currentPipe != null) {
+                currentPipe.write(buffer);
+            } else if (errorBody != null && errorBody.size() < maxErrorBodySize) {
+                errorBody.write(buffer.array(), buffer.arrayOffset() + buffer.position(),
+                        Math.min(buffer.remaining(), maxErrorBodySize - errorBody.size()));
+            }
+            buffer.clear();
+        }
+        if (currentPipe != null && decoder.isCompleted()) {
+            currentPipe.finish(null);
+        }
+    }
+
+    @Nullable
+    @Override
+    protected HttpResponse buildResult(@Nonnull final HttpContext context) {
+        Pipe currentPipe = pipe;
+        if (currentPipe != null) {
+            // A response without a body never reaches onContentReceived.
+            currentPipe.finish(null);
+            if (currentPipe.isUnbounded()) {
+                // The whole body has arrived, so decoding it can't wait on this thread.
+                decode(currentPipe);
+            }
+        }
+        if (response != null && errorBody != null) {
+            response.setEntity(new ByteArrayEntity(errorBody.toByteArray()));
+        }
+        return response;
+    }
+
+    @Override
+    protected void releaseResources() {
+        if (pipe != null) {
+            // Stops the parser if the exchange failed or was cancelled part way.
+            pipe.finish(new IOException("The response was not completed"));
+        }
+        if (buffer != null) {
+            BufferPool.shared.release(buffer);
+            buffer = null;
+        }
+    }
+
+    private void decode(@Nonnull final Pipe currentPipe) {
+        try (Reader reader = new InputStreamReader(currentPipe, StandardCharsets.UTF_8)) {
+            decoded.complete(parser.parse(reader));
+        } catch (Exception ex) {
+            decoded.completeExceptionally(ex);
+        }
+    }
+
+    /**
+     * Passes the body from the I/O thread to the parser. Only the I/O thread
+     * writes, and only the parser reads.
+     */
+    private static final class Pipe extends InputStream {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition readable = lock.newCondition();
+        private final ArrayDeque<byte[]> chunks = new ArrayDeque<>();
+        @Nullable
+        private byte[] current;
+        private int position;
+        private int buffered;
+        private boolean unbounded;
+        private boolean finished;
+        @Nullable
+        private IOException failure;
+        private boolean closed;
+        @Nullable
+        private IOControl suspended;
+
+        void setUnbounded() {
+            lock.lock();
+            try {
+                unbounded = true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean isUnbounded() {
+            lock.lock();
+            try {
+                return unbounded;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Stops the connection being read from if the pipe is full. The parser
+         * asks for it to be read from again once it has made room.
+         */
+        boolean suspendIfFull(@Nonnull final IOControl ioControl) {
+            lock.lock();
+            try {
+                if (unbounded || closed || buffered < pipeCapacity) {
+                    return false;
+                }
+                ioControl.suspendInput();
+                suspended = ioControl;
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void write(@Nonnull final ByteBuffer data) {
+            byte[] chunk = new byte[data.remaining()];
+            data.get(chunk);
+            lock.lock();
+            try {
+                if (closed || finished) {
+                    // Nobody is left to read it.
+                    return;
+                }
+                chunks.add(chunk);
+                buffered += chunk.length;
+                readable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Marks the end of the body.
+         *
+         * @param error The error the body ended with, or null if it is complete.
+         */
+        void finish(@Nullable final IOException error) {
+            lock.lock();
+            try {
+                if (!finished) {
+                    finished = true;
+                    failure = error;
+                    readable.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(@Nonnull final byte[] target, final int offset, final int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            IOControl resume = null;
+            int count;
+            lock.lock();
+            try {
+                while (current == null) {
+                    current = chunks.poll();
+                    position = 0;
+                    if (current != null) {
+                        break;
+                    }
+                    if (failure != null) {
+                        throw failure;
+                    }
+                    if (finished || closed) {
+                        return -1;
+                    }
+                    try {
+                        readable.await();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException();
+                    }
+                }
+                count = Math.min(length, current.length - position);
+                System.arraycopy(current, position, target, offset, count);
+                position += count;
+                if (position == current.length) {
+                    buffered -= current.length;
+                    current = null;
+                    resume = takeSuspended();
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (resume != null) {
+                resume.requestInput();
+            }
+            return count;
+        }
+
+        @Override
+        public void close() {
+            IOControl resume;
+            lock.lock();
+            try {
+                closed = true;
+                chunks.clear();
+                current = null;
+                buffered = 0;
+                resume = takeSuspended();
+            } finally {
+                lock.unlock();
+            }
+            if (resume != null) {
+                // The rest of the body is discarded as it arrives.
+                resume.requestInput();
+            }
+        }
+
+        /** Takes the suspended connection, once there is room for more of the body. */
+        @Nullable
+        private IOControl takeSuspended() {
+            IOControl resume = null;
+            if (suspended != null && buffered <= pipeCapacity / 2) {
+                resume = suspended;
+                suspended = null;
+            }
+            return resume;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.draftable.api.client;
+
+import org.apache.http.nio.FileContentDecoder;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writes to one region of a file, using positional writes so that several
+ * regions of the same {@link FileChannel} can be written concurrently. The
+ * file's own position is never changed, and closing this channel leaves the
+ * file open.
+ */
+final class FileRegionChannel implements WritableByteChannel {
+
+    @Nonnull
+    private final FileChannel file;
+    private long position;
+    private final long end;
+
+    /**
+     * Creates a channel for a region of a file.
+     *
+     * @param file  The file to write to.
+     * @param start The position of the first byte of the region.
+     * @param end   The position just after the last byte of the region, or
+     *              {@link Long#MAX_VALUE} if it has no fixed end.
+     */
+    FileRegionChannel(@Nonnull final FileChannel file, final long start, final long end) {
+        this.file = file;
+        this.position = start;
+        this.end = end;
+    }
+
+    /**
+     * Gets the position the next byte will be written at.
+     *
+     * @return The current position in the file.
+     */
+    long getPosition() {
+        return position;
+    }
+
+    @Override
+    public int write(@Nonnull final ByteBuffer source) throws IOException {
+        int length = source.remaining();
+        if (length > end - position) {
+            throw new IOException("Received more data than was requested for this part of the file");
+        }
+        while (source.hasRemaining()) {
+            position += file.write(source, position);
+        }
+        return length;
+    }
+
+    /**
+     * Moves the next part of a response body straight from the socket to this
+     * region of the file.
+     *
+     * @param decoder The decoder for the response body.
+     * @return The number of bytes transferred.
+     */
+    long transferFrom(@Nonnull final FileContentDecoder decoder) throws IOException {
+        if (position >= end) {
+            throw new IOException("Received more data than was requested for this part of the file");
+        }
+        long transferred = decoder.transfer(file, position, end - position);
+        if (transferred > 0) {
+            position += transferred;
+        }
+        return transferred;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return file.isOpen();
+    }
+
+    @Override
+    public void close() {
+        // The file is shared with the other regions, so is closed by its owner.
+    }
+}
@@ -0,0 +1,222 @@
+package com.draftable.api.client;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+
+/**
+ * Configures hedging of reads, which cuts the tail latency caused by the odd
+ * slow connection. If a read hasn't been answered within a delay, an identical
+ * request is sent alongside it, the first response is used, and the other
+ * request is cancelled.
+ *
+ * <p>
+ * Only {@code getComparison}, {@code getAllComparisons} and {@code getExport}
+ * (and their async forms) are hedged, as they are safe to send twice. The delay
+ * is the {@link #getPercentile()} of recent response times for the same kind
+ * of read, kept between {@link #getMinDelay()} and {@link #getMaxDelay()}.
+ * Until enough responses have been timed, the maximum delay is used.
+ * </p>
+ *
+ * <p>
+ * The extra load is capped by a budget, as for retries: each read adds
+ * {@link #getHedgeBudgetRatio()} of a hedge to it, up to
+ * {@link #getHedgeBudgetReserve()} hedges, and each hedge spends one.
+ * </p>
+ *
+ * <p>
+ * Instances are immutable, and are created with {@link #builder()}.
+ * </p>
+ */
+public final class HedgingPolicy {
+
+    // region Builder
+
+    /**
+     * Builds a {@link HedgingPolicy}. Any settings that aren't provided keep their
+     * documented defaults.
+     */
+    public static final class Builder {
+        private double percentile = 0.95;
+        @Nonnull
+        private Duration minDelay = Duration.ofMillis(10);
+        @Nonnull
+        private Duration maxDelay = Duration.ofSeconds(1);
+        private double hedgeBudgetRatio = 0.05;
+        private int hedgeBudgetReserve = 10;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the percentile of recent response times to wait for before sending a
+         * hedge. Defaults to 0.95, so about one read in twenty is hedged.
+         *
+         * @param percentile The percentile, which must be greater than 0 and less
+         *                   than 1.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder percentile(final double percentile) {
+            if (!(percentile > 0 && percentile < 1)) {
+                throw new IllegalArgumentException("`percentile` must be greater than 0 and less than 1");
+            }
+            this.percentile = percentile;
+            return this;
+        }
+
+        /**
+         * Sets the shortest wait before sending a hedge. Defaults to 10
+         * milliseconds.
+         *
+         * @param minDelay The shortest delay, which must not be negative.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder minDelay(@Nonnull final Duration minDelay) {
+            if (minDelay == null) {
+                throw new IllegalArgumentException("`minDelay` cannot be null");
+            }
+            if (minDelay.isNegative()) {
+                throw new IllegalArgumentException("`minDelay` cannot be negative");
+            }
+            this.minDelay = minDelay;
+            return this;
+        }
+
+        /**
+         * Sets the longest wait before sending a hedge, which is also the wait used
+         * until enough responses have been timed. Defaults to 1 second.
+         *
+         * @param maxDelay The longest delay, which must be positive and no less
+         *                 than the shortest delay.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder maxDelay(@Nonnull final Duration maxDelay) {
+            if (maxDelay == null) {
+                throw new IllegalArgumentException("`maxDelay` cannot be null");
+            }
+            if (maxDelay.isZero() || maxDelay.isNegative()) {
+                throw new IllegalArgumentException("`maxDelay` must have positive duration");
+            }
+            this.maxDelay = maxDelay;
+            return this;
+        }
+
+        /**
+         * Sets the fraction of a hedge that each read adds to the hedge budget.
+         * Defaults to 0.05, meaning that hedging adds at most one request in twenty
+         * once the reserve is spent.
+         *
+         * @param hedgeBudgetRatio The hedges earned per read, which must be from 0
+         *                         to 1.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder hedgeBudgetRatio(final double hedgeBudgetRatio) {
+            if (!(hedgeBudgetRatio >= 0 && hedgeBudgetRatio <= 1)) {
+                throw new IllegalArgumentException("`hedgeBudgetRatio` must be from 0 to 1");
+            }
+            this.hedgeBudgetRatio = hedgeBudgetRatio;
+            return this;
+        }
+
+        /**
+         * Sets the number of hedges the budget starts with, which is also the most
+         * it can save up. Defaults to 10.
+         *
+         * @param hedgeBudgetReserve The size of the hedge budget, which must not be
+         *                           negative.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder hedgeBudgetReserve(final int hedgeBudgetReserve) {
+            if (hedgeBudgetReserve < 0) {
+                throw new IllegalArgumentException("`hedgeBudgetReserve` cannot be negative");
+            }
+            this.hedgeBudgetReserve = hedgeBudgetReserve;
+            return this;
+        }
+
+        /**
+         * Creates the {@link HedgingPolicy}.
+         *
+         * @return A new {@link HedgingPolicy} with this builder's settings.
+         * @throws IllegalArgumentException If the shortest delay is longer than the
+         *                                  longest.
+         */
+        @Nonnull
+        public HedgingPolicy build() {
+            if (minDelay.compareTo(maxDelay) > 0) {
+                throw new IllegalArgumentException("`minDelay` cannot be longer than `maxDelay`");
+            }
+            return new HedgingPolicy(this);
+        }
+    }
+
+    /**
+     * Creates a builder for a {@link HedgingPolicy}.
+     *
+     * @return A new {@link Builder} with the default settings.
+     */
+    @Nonnull
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // endregion Builder
+
+    // region Fields and constructor
+
+    private final double percentile;
+    @Nonnull
+    private final Duration minDelay;
+    @Nonnull
+    private final Duration maxDelay;
+    private final double hedgeBudgetRatio;
+    private final int hedgeBudgetReserve;
+
+    private HedgingPolicy(@Nonnull final Builder builder) {
+        this.percentile = builder.percentile;
+        this.minDelay = builder.minDelay;
+        this.maxDelay = builder.maxDelay;
+        this.hedgeBudgetRatio = builder.hedgeBudgetRatio;
+        this.hedgeBudgetReserve = builder.hedgeBudgetReserve;
+    }
+
+    // endregion Fields and constructor
+
+    // region Getters
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    @Nonnull
+    public Duration getMinDelay() {
+        return minDelay;
+    }
+
+    @Nonnull
+    public Duration getMaxDelay() {
+        return maxDelay;
+    }
+
+    public double getHedgeBudgetRatio() {
+        return hedgeBudgetRatio;
+    }
+
+    public int getHedgeBudgetReserve() {
+        return hedgeBudgetReserve;
+    }
+
+    // endregion Getters
+
+    @Override
+    public String toString() {
+        return String.format(
+                "HedgingPolicy(percentile: %s, minDelay: %s, maxDelay: %s, hedgeBudgetRatio: %s, "
+                        + "hedgeBudgetReserve: %d)",
+                percentile, minDelay, maxDelay, hedgeBudgetRatio, hedgeBudgetReserve);
+    }
+}
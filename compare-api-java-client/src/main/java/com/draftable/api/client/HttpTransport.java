@@ -0,0 +1,259 @@
+package com.draftable.api.client;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A pluggable HTTP transport used to send requests to the Draftable API.
+ *
+ * <p>
+ * By default, {@link Comparisons} sends requests with Apache HttpClient. An
+ * alternative transport can be provided with
+ * {@link Comparisons.Builder#transport(HttpTransport)}, in which case every
+ * request (synchronous or asynchronous) is sent through it. Status code
+ * handling, response decoding and error mapping are done by the library, so a
+ * transport only has to move bytes.
+ * </p>
+ *
+ * <p>
+ * Implementations must be thread-safe.
+ * </p>
+ */
+public interface HttpTransport extends Closeable {
+
+    /**
+     * A request to be sent by a transport.
+     */
+    final class Request {
+        @Nonnull
+        private final String method;
+        @Nonnull
+        private final URI uri;
+        @Nonnull
+        private final Map<String, String> headers;
+        @Nullable
+        private final Body body;
+        @Nullable
+        private final Duration connectTimeout;
+        @Nullable
+        private final Duration socketTimeout;
+
+        /**
+         * Creates a request with no timeouts.
+         *
+         * @param method  The HTTP method, e.g. "GET", "DELETE" or "POST".
+         * @param uri     The URI to send the request to.
+         * @param headers The request headers. These never include framing headers
+         *                such as Content-Length.
+         * @param body    The request body, or null if the request has no body.
+         */
+        public Request(@Nonnull final String method, @Nonnull final URI uri,
+                @Nonnull final Map<String, String> headers, @Nullable final Body body) {
+            this(method, uri, headers, body, null, null);
+        }
+
+        /**
+         * Creates a request.
+         *
+         * @param method         The HTTP method, e.g. "GET", "DELETE" or "POST".
+         * @param uri            The URI to send the request to.
+         * @param headers        The request headers. These never include framing
+         *                       headers such as Content-Length.
+         * @param body           The request body, or null if the request has no
+         *                       body.
+         * @param connectTimeout The longest to wait for a connection, as described
+         *                       by {@link #getConnectTimeout()}, or null for no
+         *                       limit.
+         * @param socketTimeout  The longest to wait without progress, as described
+         *                       by {@link #getSocketTimeout()}, or null for no
+         *                       limit.
+         */
+        @SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "The body is streamed, so cannot be copied")
+        public Request(@Nonnull final String method, @Nonnull final URI uri,
+                @Nonnull final Map<String, String> headers, @Nullable final Body body,
+                @Nullable final Duration connectTimeout, @Nullable final Duration socketTimeout) {
+            if (method == null) {
+                throw new IllegalArgumentException("`method` cannot be null");
+            }
+            if (uri == null) {
+                throw new IllegalArgumentException("`uri` cannot be null");
+            }
+            if (headers == null) {
+                throw new IllegalArgumentException("`headers` cannot be null");
+            }
+            checkPositive(connectTimeout, "connectTimeout");
+            checkPositive(socketTimeout, "socketTimeout");
+            this.method = method;
+            this.uri = uri;
+            this.headers = Collections.unmodifiableMap(new LinkedHashMap<>(headers));
+            this.body = body;
+            this.connectTimeout = connectTimeout;
+            this.socketTimeout = socketTimeout;
+        }
+
+        private static void checkPositive(@Nullable final Duration timeout, @Nonnull final String name) {
+            if (timeout != null && (timeout.isZero() || timeout.isNegative())) {
+                throw new IllegalArgumentException(String.format("`%s` must have positive duration", name));
+            }
+        }
+
+        @Nonnull
+        public String getMethod() {
+            return method;
+        }
+
+        @Nonnull
+        public URI getUri() {
+            return uri;
+        }
+
+        @Nonnull
+        public Map<String, String> getHeaders() {
+            return headers;
+        }
+
+        @Nullable
+        @SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "The body is streamed, so cannot be copied")
+        public Body getBody() {
+            return body;
+        }
+
+        /**
+         * Gets the longest to wait for a connection to the server, including for
+         * one to become free if the transport pools them. This comes from the
+         * connect and lease timeouts of the client's {@link TimeoutConfig}, cut
+         * short to the time the call has left.
+         *
+         * @return The timeout, or null for no limit.
+         */
+        @Nullable
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        /**
+         * Gets the longest the server may go without accepting more of the body or
+         * starting to respond. This comes from the socket timeout of the client's
+         * {@link TimeoutConfig}, cut short to the time the call has left. A
+         * request that times out should fail with an {@link IOException}.
+         *
+         * @return The timeout, or null for no limit.
+         */
+        @Nullable
+        public Duration getSocketTimeout() {
+            return socketTimeout;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Request(%s %s)", method, uri);
+        }
+    }
+
+    /**
+     * The body of a request. For comparison uploads this is a streamed
+     * multipart/form-data body, so it should be sent as it is read rather than
+     * buffered.
+     */
+    interface Body {
+        /**
+         * Gets the value of the Content-Type header for this body.
+         *
+         * @return The content type, including any parameters such as the multipart
+         *         boundary.
+         */
+        @Nonnull
+        String getContentType();
+
+        /**
+         * Gets the length of the body in bytes.
+         *
+         * @return The length of the body, or a negative number if it is unknown.
+         */
+        long getContentLength();
+
+        /**
+         * Gets whether the body can be read more than once.
+         *
+         * @return true if {@link #getContent()} may be called more than once.
+         */
+        boolean isRepeatable();
+
+        /**
+         * Opens a stream giving the content of the body.
+         *
+         * @return A stream giving the content, which the caller must close.
+         * @throws IOException Unable to read the content.
+         */
+        @Nonnull
+        InputStream getContent() throws IOException;
+
+        /**
+         * Writes the content of the body to the given stream.
+         *
+         * @param outputStream The stream to write to.
+         * @throws IOException Unable to read or write the content.
+         */
+        void writeTo(@Nonnull OutputStream outputStream) throws IOException;
+    }
+
+    /**
+     * A response received by a transport. The body is streamed, and the response
+     * must be closed once it has been read.
+     */
+    interface Response extends Closeable {
+        /**
+         * Gets the HTTP status code of the response.
+         *
+         * @return The status code.
+         */
+        int getStatusCode();
+
+        /**
+         * Gets the response headers.
+         *
+         * @return A map of header names to their values.
+         */
+        @Nonnull
+        Map<String, List<String>> getHeaders();
+
+        /**
+         * Gets the response body.
+         *
+         * @return A stream giving the response body, or null if there is none.
+         * @throws IOException Unable to read the response.
+         */
+        @Nullable
+        InputStream getBody() throws IOException;
+    }
+
+    /**
+     * Asynchronously sends a request. Synchronous API methods block on the returned
+     * future.
+     *
+     * <p>
+     * The returned future should complete exceptionally with an
+     * {@link IOException} if the request could not be sent or the response could
+     * not be received. Cancelling the future should abort the exchange.
+     * </p>
+     *
+     * @param request The request to send.
+     * @return A future which completes with the response once its headers have
+     *         been received.
+     */
+    @Nonnull
+    CompletableFuture<Response> execute(@Nonnull Request request);
+}
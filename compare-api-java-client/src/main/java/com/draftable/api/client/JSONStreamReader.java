@@ -0,0 +1,187 @@
+package com.draftable.api.client;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.Reader;
+
+/**
+ * Reads JSON incrementally from a stream of characters. Only the values that
+ * are asked for are materialised, so a large array of results can be decoded
+ * one element at a time without the whole response being held in memory.
+ */
+final class JSONStreamReader {
+
+    @Nonnull
+    private final JSONTokener tokener;
+
+    /** Whether the opening brace of the top-level object has been read. */
+    private boolean inObject;
+
+    /** Whether the closing brace of the top-level object has been read. */
+    private boolean objectEnded;
+
+    /** Whether we are inside an array, and more elements may follow. */
+    private boolean inArray;
+
+    /** Whether an element of the current array has already been read. */
+    private boolean readArrayElement;
+
+    JSONStreamReader(@Nonnull final Reader reader) {
+        this.tokener = new JSONTokener(reader);
+    }
+
+    /**
+     * Reads a complete JSON object from the current position.
+     *
+     * @return The object.
+     * @throws JSONException The input is not a JSON object.
+     */
+    @Nonnull
+    JSONObject readObject() throws JSONException {
+        Object value = tokener.nextValue();
+        if (!(value instanceof JSONObject)) {
+            throw tokener.syntaxError("Expected a JSON object");
+        }
+        return (JSONObject) value;
+    }
+
+    /**
+     * Reads the name of the next field of the top-level object. The caller must
+     * then read the field's value, with {@link #readValue()}, {@link #readObject()}
+     * or {@link #beginArray()}, before reading the next field.
+     *
+     * @return The name of the field, or null if there are no more fields.
+     * @throws JSONException The input is not a JSON object.
+     */
+    @Nullable
+    String nextField() throws JSONException {
+        if (objectEnded) {
+            return null;
+        }
+
+        char c;
+        if (!inObject) {
+            if (tokener.nextClean() != '{') {
+                throw tokener.syntaxError("A JSONObject text must begin with '{'");
+            }
+            inObject = true;
+            c = tokener.nextClean();
+        } else {
+            if (!skipSeparator('}')) {
+                objectEnded = true;
+                return null;
+            }
+            c = tokener.nextClean();
+        }
+
+        if (c == '}') {
+            objectEnded = true;
+            return null;
+        }
+        if (c == 0) {
+            throw tokener.syntaxError("A JSONObject text must end with '}'");
+        }
+        tokener.back();
+
+        String key = tokener.nextValue().toString();
+        if (tokener.nextClean() != ':') {
+            throw tokener.syntaxError("Expected a ':' after a key");
+        }
+        return key;
+    }
+
+    /**
+     * Advances through the top-level object to the value of the given field,
+     * skipping over any fields that precede it.
+     *
+     * @param name The name of the field.
+     * @return true if the reader is positioned at the field's value, or false if
+     *         the object has no such field.
+     * @throws JSONException The input is not a JSON object.
+     */
+    boolean seekField(@Nonnull final String name) throws JSONException {
+        String field;
+        while ((field = nextField()) != null) {
+            if (field.equals(name)) {
+                return true;
+            }
+            // Not the field we're looking for, so decode and discard its value.
+            readValue();
+        }
+        return false;
+    }
+
+    /**
+     * Reads a complete JSON value of any type from the current position.
+     *
+     * @return The value, as decoded by {@link JSONTokener#nextValue()}.
+     * @throws JSONException The input is malformed.
+     */
+    @Nonnull
+    Object readValue() throws JSONException {
+        return tokener.nextValue();
+    }
+
+    /**
+     * Reads the opening bracket of an array at the current position.
+     *
+     * @throws JSONException The next value is not an array.
+     */
+    void beginArray() throws JSONException {
+        if (tokener.nextClean() != '[') {
+            throw tokener.syntaxError("A JSONArray text must start with '['");
+        }
+        inArray = true;
+        readArrayElement = false;
+    }
+
+    /**
+     * Checks whether the current array has another element, consuming the
+     * separator or closing bracket as appropriate.
+     *
+     * @return true if another element can be read with {@link #readObject()}.
+     * @throws JSONException The array is malformed.
+     */
+    boolean hasNextElement() throws JSONException {
+        if (!inArray) {
+            return false;
+        }
+
+        if (readArrayElement) {
+            if (!skipSeparator(']')) {
+                inArray = false;
+                return false;
+            }
+        } else {
+            char c = tokener.nextClean();
+            if (c == ']') {
+                inArray = false;
+                return false;
+            }
+            tokener.back();
+        }
+
+        readArrayElement = true;
+        return true;
+    }
+
+    /**
+     * Reads either a ',' or the given closing character.
+     *
+     * @return true if a ',' was read, or false if the closing character was read.
+     */
+    private boolean skipSeparator(final char closing) throws JSONException {
+        char c = tokener.nextClean();
+        if (c == ',') {
+            return true;
+        }
+        if (c == closing) {
+            return false;
+        }
+        throw tokener.syntaxError("Expected a ',' or '" + closing + "'");
+    }
+}
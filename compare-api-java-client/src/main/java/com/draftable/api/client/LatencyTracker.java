@@ -0,0 +1,76 @@
+package com.draftable.api.client;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the response times of recent requests of one kind, and estimates a
+ * percentile of them. The percentile is recomputed every few samples rather
+ * than on every read, so reading it is just a volatile load.
+ */
+final class LatencyTracker {
+
+    /** The number of recent response times kept. */
+    private static final int capacity = 256;
+
+    /** The fewest response times a percentile is estimated from. */
+    private static final int minSamples = 20;
+
+    /** How many new response times are recorded before the percentile is recomputed. */
+    private static final int recomputeInterval = 16;
+
+    private final double percentile;
+
+    /** Guards all of the fields below, except {@link #percentileNanos}. */
+    @Nonnull
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Nonnull
+    private final long[] samples = new long[capacity];
+    private int nextSample;
+    private int sampleCount;
+    private int sinceRecompute;
+
+    /** The latest estimate, or -1 if there are too few samples. */
+    private volatile long percentileNanos = -1;
+
+    LatencyTracker(final double percentile) {
+        this.percentile = percentile;
+    }
+
+    /**
+     * Records the response time of a request.
+     *
+     * @param nanos The response time, in nanoseconds.
+     */
+    void record(final long nanos) {
+        lock.lock();
+        try {
+            samples[nextSample] = nanos;
+            nextSample = (nextSample + 1) % capacity;
+            sampleCount = Math.min(sampleCount + 1, capacity);
+            ++sinceRecompute;
+
+            if (sampleCount >= minSamples && (sinceRecompute >= recomputeInterval || percentileNanos < 0)) {
+                sinceRecompute = 0;
+                long[] sorted = Arrays.copyOf(samples, sampleCount);
+                Arrays.sort(sorted);
+                int index = (int) Math.ceil(percentile * sampleCount) - 1;
+                percentileNanos = sorted[Math.max(0, Math.min(sampleCount - 1, index))];
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the estimated percentile of recent response times.
+     *
+     * @return The percentile, in nanoseconds, or -1 if too few response times have
+     *         been recorded.
+     */
+    long getPercentileNanos() {
+        return percentileNanos;
+    }
+}
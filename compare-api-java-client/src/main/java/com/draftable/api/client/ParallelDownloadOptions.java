@@ -0,0 +1,139 @@
+package com.draftable.api.client;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Configures a parallel export download started with
+ * {@link Comparisons#downloadExportAsync(Export, java.nio.file.Path, ParallelDownloadOptions)}.
+ *
+ * <p>
+ * Instances are immutable, and are created with {@link #builder()}.
+ * </p>
+ */
+public final class ParallelDownloadOptions {
+
+    // region Builder
+
+    /**
+     * Builds a {@link ParallelDownloadOptions}. Any settings that aren't provided
+     * keep their documented defaults.
+     */
+    public static final class Builder {
+        private int parallelism = 4;
+        private long partSize = 8 * 1024 * 1024;
+        private boolean resume = true;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the maximum number of parts downloaded at once. Each part uses its own
+         * connection, so this is also limited by the connection pool's maximum
+         * connections per route (see {@link ConnectionPoolConfig}). Defaults to 4.
+         *
+         * @param parallelism The maximum number of concurrent requests, which must
+         *                    be positive.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder parallelism(final int parallelism) {
+            if (parallelism <= 0) {
+                throw new IllegalArgumentException("`parallelism` must be positive");
+            }
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * Sets the size of each part of the file. Smaller parts lose less progress
+         * when a download is interrupted, at the cost of more requests. Defaults to
+         * 8 MiB.
+         *
+         * @param partSize The size of each part in bytes, which must be positive.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder partSize(final long partSize) {
+            if (partSize <= 0) {
+                throw new IllegalArgumentException("`partSize` must be positive");
+            }
+            this.partSize = partSize;
+            return this;
+        }
+
+        /**
+         * Sets whether an interrupted download is resumed. If true, the finished
+         * parts are recorded in a file next to the target, named after it with a
+         * {@code .parts} suffix. A later download of the same export to the same
+         * target then only fetches the missing parts, and the record is deleted once
+         * the download completes. If false, the whole file is always downloaded.
+         * Defaults to true.
+         *
+         * @param resume Whether to resume interrupted downloads.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder resume(final boolean resume) {
+            this.resume = resume;
+            return this;
+        }
+
+        /**
+         * Creates the {@link ParallelDownloadOptions}.
+         *
+         * @return A new {@link ParallelDownloadOptions} with this builder's settings.
+         */
+        @Nonnull
+        public ParallelDownloadOptions build() {
+            return new ParallelDownloadOptions(this);
+        }
+    }
+
+    /**
+     * Creates a builder for a {@link ParallelDownloadOptions}.
+     *
+     * @return A new {@link Builder} with the default settings.
+     */
+    @Nonnull
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // endregion Builder
+
+    // region Fields and constructor
+
+    private final int parallelism;
+    private final long partSize;
+    private final boolean resume;
+
+    private ParallelDownloadOptions(@Nonnull final Builder builder) {
+        this.parallelism = builder.parallelism;
+        this.partSize = builder.partSize;
+        this.resume = builder.resume;
+    }
+
+    // endregion Fields and constructor
+
+    // region Getters
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public long getPartSize() {
+        return partSize;
+    }
+
+    public boolean getResume() {
+        return resume;
+    }
+
+    // endregion Getters
+
+    @Override
+    public String toString() {
+        return String.format("ParallelDownloadOptions(parallelism: %d, partSize: %d, resume: %s)", parallelism,
+                partSize, resume);
+    }
+}
@@ -0,0 +1,514 @@
+package com.draftable.api.client;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Takes each comparison request through every step from upload to downloaded
+ * export, as started by
+ * {@link Comparisons#runPipeline(Iterable, Function, PipelineOptions)}.
+ *
+ * <p>
+ * Each comparison moves through the {@link PipelineStage stages} on its own, so
+ * the stages overlap: new comparisons are uploaded while earlier ones are still
+ * being processed by the server, and finished exports are downloaded while
+ * later ones are still rendering. Each stage has its own limit on how many
+ * comparisons it works on at once (see {@link PipelineOptions}). Comparisons
+ * that finish a stage while the next one is full wait in a bounded queue, and
+ * once that queue is full, the earlier stages pause too, so a fast input can't
+ * run ahead of a slow stage.
+ * </p>
+ *
+ * <p>
+ * The counters for each stage can be read at any time with
+ * {@link #getStats(PipelineStage)}, for instance to see which stage is the
+ * bottleneck while the pipeline is running.
+ * </p>
+ */
+public final class Pipeline {
+
+    /** One request on its way through the pipeline. */
+    private static final class Item {
+        final int index;
+        /** Dropped once uploaded, so that any file contents it holds can be collected. */
+        @Nullable
+        ComparisonRequest request;
+        @Nullable
+        Comparison comparison;
+        @Nullable
+        Export export;
+        /** The operation currently in progress for this item, cancelled if the pipeline is. */
+        @Nullable
+        volatile CompletableFuture<?> current;
+
+        Item(final int index, @Nullable final ComparisonRequest request) {
+            this.index = index;
+            this.request = request;
+        }
+    }
+
+    /** The running counters for one stage. */
+    private static final class StageCounters {
+        final AtomicLong started = new AtomicLong();
+        final AtomicLong succeeded = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final AtomicLong totalLatencyNanos = new AtomicLong();
+        final AtomicLong maxLatencyNanos = new AtomicLong();
+
+        long begin() {
+            started.incrementAndGet();
+            return System.nanoTime();
+        }
+
+        void end(final long startNanos, final boolean success) {
+            long latency = System.nanoTime() - startNanos;
+            totalLatencyNanos.addAndGet(latency);
+            maxLatencyNanos.accumulateAndGet(latency, Math::max);
+            (success ? succeeded : failed).incrementAndGet();
+        }
+
+        @Nonnull
+        StageStats snapshot(@Nonnull final PipelineStage stage, @Nonnull final Duration elapsed) {
+            // Read the finished counts first, so that a snapshot taken mid-update
+            // never shows more finished than started.
+            long succeededCount = succeeded.get();
+            long failedCount = failed.get();
+            return new StageStats(stage, started.get(), succeededCount, failedCount, totalLatencyNanos.get(),
+                    maxLatencyNanos.get(), elapsed);
+        }
+    }
+
+    // region Fields and constructor
+
+    @Nonnull
+    private final Comparisons comparisons;
+    @Nonnull
+    private final Iterator<? extends ComparisonRequest> requests;
+    @Nonnull
+    private final Function<? super Comparison, ? extends Path> targets;
+    @Nonnull
+    private final PipelineOptions options;
+    @Nonnull
+    private final Executor executor;
+
+    @Nonnull
+    private final CompletableFuture<PipelineSummary> result = new CompletableFuture<>();
+    @Nonnull
+    private final Map<PipelineStage, StageCounters> counters = new EnumMap<>(PipelineStage.class);
+
+    /** Guards every field below, and the iterator. */
+    @Nonnull
+    private final ReentrantLock lock = new ReentrantLock();
+    @Nonnull
+    private final ArrayDeque<Item> awaitingProcessing = new ArrayDeque<>();
+    @Nonnull
+    private final ArrayDeque<Item> awaitingDownload = new ArrayDeque<>();
+    @Nonnull
+    private final Set<Item> active = new HashSet<>();
+    private int uploading;
+    private int processing;
+    private int downloading;
+    private int nextIndex;
+    private boolean exhausted;
+
+    @Nonnull
+    private final AtomicInteger succeeded = new AtomicInteger();
+    @Nonnull
+    private final Map<Integer, Throwable> failures = new ConcurrentHashMap<>();
+    @Nonnull
+    private final Map<Integer, PipelineStage> failedStages = new ConcurrentHashMap<>();
+    private volatile long startNanos;
+    private volatile long endNanos;
+
+    Pipeline(@Nonnull final Comparisons comparisons, @Nonnull final Iterator<? extends ComparisonRequest> requests,
+            @Nonnull final Function<? super Comparison, ? extends Path> targets,
+            @Nonnull final PipelineOptions options, @Nonnull final Executor executor) {
+        this.comparisons = comparisons;
+        this.requests = requests;
+        this.targets = targets;
+        this.options = options;
+        this.executor = executor;
+        for (PipelineStage stage : PipelineStage.values()) {
+            counters.put(stage, new StageCounters());
+        }
+    }
+
+    // endregion Fields and constructor
+
+    // region Public methods - getResult(), getStats([stage])
+
+    /**
+     * Gets the overall result of the pipeline.
+     *
+     * @return A future that completes once every comparison has finished, whether
+     *         or not it succeeded. It completes exceptionally only if iterating the
+     *         requests fails. Cancelling it stops further requests from being
+     *         taken, and cancels the work in progress for the rest.
+     */
+    @Nonnull
+    @SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "Callers cancel the pipeline through this future")
+    public CompletableFuture<PipelineSummary> getResult() {
+        return result;
+    }
+
+    /**
+     * Gets the current counters for a stage.
+     *
+     * @param stage The stage.
+     * @return A snapshot of the stage's counters.
+     */
+    @Nonnull
+    public StageStats getStats(@Nonnull final PipelineStage stage) {
+        if (stage == null) {
+            throw new IllegalArgumentException("`stage` cannot be null");
+        }
+        return counters.get(stage).snapshot(stage, getElapsed());
+    }
+
+    /**
+     * Gets the current counters for every stage.
+     *
+     * @return A map from each stage to a snapshot of its counters, in stage order.
+     */
+    @Nonnull
+    public Map<PipelineStage, StageStats> getStats() {
+        Duration elapsed = getElapsed();
+        Map<PipelineStage, StageStats> stats = new EnumMap<>(PipelineStage.class);
+        for (PipelineStage stage : PipelineStage.values()) {
+            stats.put(stage, counters.get(stage).snapshot(stage, elapsed));
+        }
+        return stats;
+    }
+
+    // endregion Public methods - getResult(), getStats([stage])
+
+    @Nonnull
+    private Duration getElapsed() {
+        long end = endNanos != 0 ? endNanos : System.nanoTime();
+        return Duration.ofNanos(end - startNanos);
+    }
+
+    /**
+     * Starts the pipeline. The first requests are taken and submitted on the
+     * calling thread.
+     *
+     * @return This pipeline.
+     */
+    @Nonnull
+    Pipeline start() {
+        startNanos = System.nanoTime();
+        result.whenComplete((summary, error) -> {
+            if (error != null) {
+                cancelActive();
+            }
+        });
+        pump();
+        return this;
+    }
+
+    // region Scheduling - pump(), upload(item), process(item), download(item)
+
+    /**
+     * Starts as much work as the limits allow, later stages first, so that
+     * comparisons already in the pipeline are favoured over taking new ones.
+     */
+    private void pump() {
+        List<Runnable> work = new ArrayList<>();
+
+        lock.lock();
+        try {
+            if (result.isDone()) {
+                return;
+            }
+
+            while (downloading < options.getMaxDownloads() && !awaitingDownload.isEmpty()) {
+                Item item = awaitingDownload.poll();
+                downloading++;
+                work.add(() -> download(item));
+            }
+
+            while (processing < options.getMaxPolling() && !awaitingProcessing.isEmpty()
+                    && awaitingDownload.size() < options.getMaxPolling()) {
+                Item item = awaitingProcessing.poll();
+                processing++;
+                work.add(() -> process(item));
+            }
+
+            while (!exhausted && uploading < options.getMaxUploads()
+                    && awaitingProcessing.size() < options.getMaxPolling()) {
+                ComparisonRequest request;
+                try {
+                    if (!requests.hasNext()) {
+                        exhausted = true;
+                        break;
+                    }
+                    request = requests.next();
+                } catch (RuntimeException ex) {
+                    // We can't tell which items remain, so fail the whole pipeline.
+                    exhausted = true;
+                    result.completeExceptionally(ex);
+                    return;
+                }
+
+                Item item = new Item(nextIndex++, request);
+                active.add(item);
+                if (request == null) {
+                    // Only this item is invalid, so fail it and carry on with the rest.
+                    work.add(() -> {
+                        fail(item, PipelineStage.UPLOAD, new IllegalArgumentException("`requests` cannot contain null"));
+                        executor.execute(this::pump);
+                    });
+                    continue;
+                }
+                uploading++;
+                work.add(() -> upload(item));
+            }
+
+            if (exhausted && active.isEmpty()) {
+                endNanos = System.nanoTime();
+                result.complete(new PipelineSummary(succeeded.get(), failures, failedStages, getStats(),
+                        getElapsed()));
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        for (Runnable task : work) {
+            task.run();
+        }
+    }
+
+    private void upload(@Nonnull final Item item) {
+        StageCounters stage = counters.get(PipelineStage.UPLOAD);
+        long start = stage.begin();
+        ComparisonRequest request = item.request;
+
+        CompletableFuture<Comparison> upload = track(item, () -> comparisons.createComparisonAsync(request.getLeft(),
+                request.getRight(), request.getIdentifier(), request.getIsPublic(), request.getExpires()));
+        upload.whenComplete((comparison, error) -> {
+            stage.end(start, error == null);
+            lock.lock();
+            try {
+                uploading--;
+                item.request = null;
+                if (error == null) {
+                    item.comparison = comparison;
+                    awaitingProcessing.add(item);
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (error != null) {
+                fail(item, PipelineStage.UPLOAD, error);
+            }
+            executor.execute(this::pump);
+        });
+    }
+
+    private void process(@Nonnull final Item item) {
+        StageCounters stage = counters.get(PipelineStage.COMPARE);
+        long start = stage.begin();
+        Comparison created = item.comparison;
+
+        CompletableFuture<Comparison> ready = track(item, () -> {
+            if (created.getReady()) {
+                return CompletableFuture.completedFuture(created);
+            }
+            Duration timeout = options.getReadyTimeout();
+            return timeout == null ? comparisons.awaitReady(created.getIdentifier())
+                    : comparisons.awaitReady(created.getIdentifier(), timeout);
+        });
+        ready.whenComplete((comparison, error) -> {
+            if (error == null && Boolean.TRUE.equals(comparison.getFailed())) {
+                error = new Comparisons.ProcessingFailedException(comparison.getIdentifier(),
+                        comparison.getErrorMessage());
+            }
+            stage.end(start, error == null);
+            if (error != null) {
+                finishProcessing(item, PipelineStage.COMPARE, error);
+            } else {
+                item.comparison = comparison;
+                export(item);
+            }
+        });
+    }
+
+    private void export(@Nonnull final Item item) {
+        StageCounters stage = counters.get(PipelineStage.EXPORT);
+        long start = stage.begin();
+        String identifier = item.comparison.getIdentifier();
+
+        CompletableFuture<Export> created = track(item,
+                () -> comparisons.createExportAsync(identifier, options.getExportKind(), options.getIncludeCoverPage()));
+        CompletableFuture<Export> ready = created.thenCompose(export -> track(item, () -> {
+            Duration timeout = options.getReadyTimeout();
+            return timeout == null ? comparisons.awaitExportReady(export)
+                    : comparisons.awaitExportReady(export, timeout);
+        }));
+        ready.whenComplete((export, error) -> {
+            if (error == null && Boolean.TRUE.equals(export.getFailed())) {
+                error = new Comparisons.ProcessingFailedException(export.getIdentifier(), export.getErrorMessage());
+            }
+            stage.end(start, error == null);
+            if (error == null) {
+                item.export = export;
+            }
+            finishProcessing(item, PipelineStage.EXPORT, error);
+        });
+    }
+
+    private void finishProcessing(@Nonnull final Item item, @Nonnull final PipelineStage stage,
+            @Nullable final Throwable error) {
+        lock.lock();
+        try {
+            processing--;
+            if (error == null) {
+                awaitingDownload.add(item);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (error != null) {
+            fail(item, stage, error);
+        }
+        executor.execute(this::pump);
+    }
+
+    private void download(@Nonnull final Item item) {
+        StageCounters stage = counters.get(PipelineStage.DOWNLOAD);
+        long start = stage.begin();
+        Path[] target = new Path[1];
+
+        CompletableFuture<Long> download = track(item, () -> {
+            target[0] = targets.apply(item.comparison);
+            if (target[0] == null) {
+                throw new IllegalArgumentException(String.format("No target was given for comparison \"%s\"",
+                        item.comparison.getIdentifier()));
+            }
+            return comparisons.downloadExportAsync(item.export, target[0]);
+        });
+        download.whenComplete((bytesWritten, error) -> {
+            stage.end(start, error == null);
+            lock.lock();
+            try {
+                downloading--;
+                active.remove(item);
+            } finally {
+                lock.unlock();
+            }
+            if (error != null) {
+                fail(item, PipelineStage.DOWNLOAD, error);
+            } else {
+                succeeded.incrementAndGet();
+                notifySuccess(item, target[0]);
+            }
+            executor.execute(this::pump);
+        });
+    }
+
+    // endregion Scheduling - pump(), upload(item), process(item), download(item)
+
+    // region Helpers
+
+    /**
+     * Starts an operation for an item, recording it so that it can be cancelled.
+     * An operation that throws is turned into a failed future.
+     */
+    @Nonnull
+    private <T> CompletableFuture<T> track(@Nonnull final Item item,
+            @Nonnull final Supplier<CompletableFuture<T>> operation) {
+        CompletableFuture<T> future;
+        try {
+            future = operation.get();
+        } catch (RuntimeException ex) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(ex);
+        }
+        item.current = future;
+        if (result.isCompletedExceptionally()) {
+            // The pipeline was cancelled while this was being started.
+            future.cancel(true);
+        }
+        return future;
+    }
+
+    private void cancelActive() {
+        List<Item> remaining;
+        lock.lock();
+        try {
+            remaining = new ArrayList<>(active);
+        } finally {
+            lock.unlock();
+        }
+        for (Item item : remaining) {
+            CompletableFuture<?> current = item.current;
+            if (current != null) {
+                current.cancel(true);
+            }
+        }
+    }
+
+    private void fail(@Nonnull final Item item, @Nonnull final PipelineStage stage, @Nonnull Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        failures.put(item.index, error);
+        failedStages.put(item.index, stage);
+
+        lock.lock();
+        try {
+            active.remove(item);
+        } finally {
+            lock.unlock();
+        }
+
+        PipelineListener listener = options.getListener();
+        if (listener != null) {
+            try {
+                listener.onFailure(item.index, stage, item.comparison, error);
+            } catch (RuntimeException ignored) {
+                // A misbehaving listener must not stall the pipeline.
+            }
+        }
+    }
+
+    private void notifySuccess(@Nonnull final Item item, @Nonnull final Path target) {
+        PipelineListener listener = options.getListener();
+        if (listener != null) {
+            try {
+                listener.onSuccess(item.index, item.comparison, item.export, target);
+            } catch (RuntimeException ignored) {
+                // A misbehaving listener must not stall the pipeline.
+            }
+        }
+    }
+
+    // endregion Helpers
+
+    @Override
+    public String toString() {
+        return String.format("Pipeline(options: %s, done: %s)", options, result.isDone());
+    }
+}
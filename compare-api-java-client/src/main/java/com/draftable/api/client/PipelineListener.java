@@ -0,0 +1,47 @@
+package com.draftable.api.client;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.nio.file.Path;
+
+/**
+ * Receives the result of each comparison in a {@link Pipeline}, as soon as it
+ * finishes.
+ *
+ * <p>
+ * Methods may be called concurrently from the client's executor and HTTP
+ * client threads, so implementations must be thread-safe and should return
+ * quickly. Exceptions thrown by a listener are ignored.
+ * </p>
+ */
+public interface PipelineListener {
+
+    /**
+     * Called when a comparison's export has been downloaded.
+     *
+     * @param index      The position of the request in the pipeline's input, from
+     *                   zero.
+     * @param comparison The comparison.
+     * @param export     The export that was downloaded.
+     * @param target     The file the export was downloaded to.
+     */
+    default void onSuccess(int index, @Nonnull Comparison comparison, @Nonnull Export export, @Nonnull Path target) {
+    }
+
+    /**
+     * Called when a comparison could not make it through the pipeline. The rest of
+     * the pipeline continues.
+     *
+     * @param index      The position of the request in the pipeline's input, from
+     *                   zero.
+     * @param stage      The stage that failed.
+     * @param comparison The comparison, or null if it failed to be created.
+     * @param error      The error, as documented for the {@link Comparisons}
+     *                   method behind the stage, or a
+     *                   {@link Comparisons.ProcessingFailedException} if the server
+     *                   failed to process the comparison or export.
+     */
+    default void onFailure(int index, @Nonnull PipelineStage stage, @Nullable Comparison comparison,
+            @Nonnull Throwable error) {
+    }
+}
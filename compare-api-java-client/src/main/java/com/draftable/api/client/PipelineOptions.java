@@ -0,0 +1,245 @@
+package com.draftable.api.client;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Duration;
+
+/**
+ * Configures a {@link Pipeline} started with
+ * {@link Comparisons#runPipeline(Iterable, java.util.function.Function, PipelineOptions)}.
+ *
+ * <p>
+ * Instances are immutable, and are created with {@link #builder()}.
+ * </p>
+ */
+public final class PipelineOptions {
+
+    // region Builder
+
+    /**
+     * Builds a {@link PipelineOptions}. Any settings that aren't provided keep
+     * their documented defaults.
+     */
+    public static final class Builder {
+        private int maxUploads = 8;
+        private int maxPolling = 64;
+        private int maxDownloads = 4;
+        @Nonnull
+        private ExportKind exportKind = ExportKind.COMBINED;
+        private boolean includeCoverPage = true;
+        @Nullable
+        private Duration readyTimeout = null;
+        @Nullable
+        private PipelineListener listener = null;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the maximum number of comparisons being uploaded at once. Requests
+         * are only taken from the pipeline's {@link Iterable} when there is room for
+         * them, so at most this many request bodies are held by the HTTP client.
+         * Defaults to 8.
+         *
+         * @param maxUploads The maximum number of concurrent uploads, which must be
+         *                   positive.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder maxUploads(final int maxUploads) {
+            if (maxUploads <= 0) {
+                throw new IllegalArgumentException("`maxUploads` must be positive");
+            }
+            this.maxUploads = maxUploads;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of comparisons being processed by the server at
+         * once, counting from when the comparison is created to when its export is
+         * ready. Waiting doesn't use a thread, so this can be much larger than the
+         * other limits. It also bounds the number of comparisons queued between
+         * stages: uploads pause while this many are waiting for a slot. Defaults to
+         * 64.
+         *
+         * @param maxPolling The maximum number of comparisons being waited on, which
+         *                   must be positive.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder maxPolling(final int maxPolling) {
+            if (maxPolling <= 0) {
+                throw new IllegalArgumentException("`maxPolling` must be positive");
+            }
+            this.maxPolling = maxPolling;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of exports being downloaded at once. Defaults to
+         * 4.
+         *
+         * @param maxDownloads The maximum number of concurrent downloads, which must
+         *                     be positive.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder maxDownloads(final int maxDownloads) {
+            if (maxDownloads <= 0) {
+                throw new IllegalArgumentException("`maxDownloads` must be positive");
+            }
+            this.maxDownloads = maxDownloads;
+            return this;
+        }
+
+        /**
+         * Sets the kind of export to create for each comparison. Defaults to
+         * {@link ExportKind#COMBINED}.
+         *
+         * @param exportKind The kind of export.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder exportKind(@Nonnull final ExportKind exportKind) {
+            if (exportKind == null) {
+                throw new IllegalArgumentException("`exportKind` cannot be null");
+            }
+            this.exportKind = exportKind;
+            return this;
+        }
+
+        /**
+         * Sets whether combined exports include a cover page. Defaults to true.
+         *
+         * @param includeCoverPage Whether to include a cover page.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder includeCoverPage(final boolean includeCoverPage) {
+            this.includeCoverPage = includeCoverPage;
+            return this;
+        }
+
+        /**
+         * Sets the longest to wait for a comparison, and then its export, to be
+         * ready. A comparison that takes longer fails with a
+         * {@link java.util.concurrent.TimeoutException}. Defaults to null, meaning
+         * no limit.
+         *
+         * @param readyTimeout The longest to wait for each, or null for no limit.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder readyTimeout(@Nullable final Duration readyTimeout) {
+            if (readyTimeout != null && (readyTimeout.isZero() || readyTimeout.isNegative())) {
+                throw new IllegalArgumentException("`readyTimeout` must have positive duration");
+            }
+            this.readyTimeout = readyTimeout;
+            return this;
+        }
+
+        /**
+         * Sets a listener to receive the result of each comparison as it finishes.
+         * Defaults to null, meaning only the overall {@link PipelineSummary} is
+         * reported.
+         *
+         * @param listener The listener, or null for none.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder listener(@Nullable final PipelineListener listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * Creates the {@link PipelineOptions}.
+         *
+         * @return A new {@link PipelineOptions} with this builder's settings.
+         */
+        @Nonnull
+        public PipelineOptions build() {
+            return new PipelineOptions(this);
+        }
+    }
+
+    /**
+     * Creates a builder for a {@link PipelineOptions}.
+     *
+     * @return A new {@link Builder} with the default settings.
+     */
+    @Nonnull
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // endregion Builder
+
+    // region Fields and constructor
+
+    private final int maxUploads;
+    private final int maxPolling;
+    private final int maxDownloads;
+    @Nonnull
+    private final ExportKind exportKind;
+    private final boolean includeCoverPage;
+    @Nullable
+    private final Duration readyTimeout;
+    @Nullable
+    private final PipelineListener listener;
+
+    private PipelineOptions(@Nonnull final Builder builder) {
+        this.maxUploads = builder.maxUploads;
+        this.maxPolling = builder.maxPolling;
+        this.maxDownloads = builder.maxDownloads;
+        this.exportKind = builder.exportKind;
+        this.includeCoverPage = builder.includeCoverPage;
+        this.readyTimeout = builder.readyTimeout;
+        this.listener = builder.listener;
+    }
+
+    // endregion Fields and constructor
+
+    // region Getters
+
+    public int getMaxUploads() {
+        return maxUploads;
+    }
+
+    public int getMaxPolling() {
+        return maxPolling;
+    }
+
+    public int getMaxDownloads() {
+        return maxDownloads;
+    }
+
+    @Nonnull
+    public ExportKind getExportKind() {
+        return exportKind;
+    }
+
+    public boolean getIncludeCoverPage() {
+        return includeCoverPage;
+    }
+
+    @Nullable
+    public Duration getReadyTimeout() {
+        return readyTimeout;
+    }
+
+    @Nullable
+    public PipelineListener getListener() {
+        return listener;
+    }
+
+    // endregion Getters
+
+    @Override
+    public String toString() {
+        return String.format(
+                "PipelineOptions(maxUploads: %d, maxPolling: %d, maxDownloads: %d, exportKind: %s, "
+                        + "includeCoverPage: %s, readyTimeout: %s, listener: %s)",
+                maxUploads, maxPolling, maxDownloads, exportKind, includeCoverPage, readyTimeout, listener);
+    }
+}
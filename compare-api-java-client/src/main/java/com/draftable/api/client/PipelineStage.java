@@ -0,0 +1,19 @@
+package com.draftable.api.client;
+
+/**
+ * The stages each comparison goes through in a {@link Pipeline}, in order.
+ */
+public enum PipelineStage {
+
+    /** Uploading the files and creating the comparison. */
+    UPLOAD,
+
+    /** Waiting for the server to finish the comparison. */
+    COMPARE,
+
+    /** Creating an export of the comparison, and waiting for it to be ready. */
+    EXPORT,
+
+    /** Downloading the export. */
+    DOWNLOAD
+}
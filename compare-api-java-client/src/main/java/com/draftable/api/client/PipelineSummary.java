@@ -0,0 +1,121 @@
+package com.draftable.api.client;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Summarises a completed {@link Pipeline}.
+ */
+public final class PipelineSummary {
+
+    private final int succeeded;
+    @Nonnull
+    private final Map<Integer, Throwable> failures;
+    @Nonnull
+    private final Map<Integer, PipelineStage> failedStages;
+    @Nonnull
+    private final Map<PipelineStage, StageStats> stats;
+    @Nonnull
+    private final Duration elapsed;
+
+    PipelineSummary(final int succeeded, @Nonnull final Map<Integer, Throwable> failures,
+            @Nonnull final Map<Integer, PipelineStage> failedStages, @Nonnull final Map<PipelineStage, StageStats> stats,
+            @Nonnull final Duration elapsed) {
+        this.succeeded = succeeded;
+        this.failures = Collections.unmodifiableMap(new TreeMap<>(failures));
+        this.failedStages = Collections.unmodifiableMap(new TreeMap<>(failedStages));
+        this.stats = Collections.unmodifiableMap(new EnumMap<>(stats));
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * Gets the number of requests taken from the pipeline's input.
+     *
+     * @return The number of comparisons that were attempted.
+     */
+    public int getSubmitted() {
+        return succeeded + failures.size();
+    }
+
+    /**
+     * Gets the number of comparisons whose export was downloaded.
+     *
+     * @return The number of comparisons that made it through every stage.
+     */
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    /**
+     * Gets the number of comparisons that failed at some stage.
+     *
+     * @return The number of failed comparisons.
+     */
+    public int getFailed() {
+        return failures.size();
+    }
+
+    /**
+     * Gets the errors for the comparisons that failed.
+     *
+     * @return An unmodifiable map from the position of each failed request in the
+     *         input to its error, ordered by position.
+     */
+    @Nonnull
+    public Map<Integer, Throwable> getFailures() {
+        return failures;
+    }
+
+    /**
+     * Gets the stage at which a comparison failed.
+     *
+     * @param index The position of the request in the input.
+     * @return The stage that failed, or null if the comparison didn't fail.
+     */
+    @Nullable
+    public PipelineStage getFailedStage(final int index) {
+        return failedStages.get(index);
+    }
+
+    /**
+     * Gets the final counters for each stage.
+     *
+     * @return An unmodifiable map from each stage to its counters, in stage order.
+     */
+    @Nonnull
+    public Map<PipelineStage, StageStats> getStats() {
+        return stats;
+    }
+
+    /**
+     * Gets the time taken to run the pipeline.
+     *
+     * @return The time from starting the pipeline to the last comparison finishing.
+     */
+    @Nonnull
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * Gets the average number of comparisons completed per second, whether or not
+     * they succeeded.
+     *
+     * @return The throughput of the pipeline, in comparisons per second.
+     */
+    public double getThroughput() {
+        long elapsedNanos = elapsed.toNanos();
+        return elapsedNanos <= 0 ? 0 : getSubmitted() * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PipelineSummary(succeeded: %d, failed: %d, elapsed: %s, throughput: %.2f/s)",
+                succeeded, failures.size(), elapsed, getThroughput());
+    }
+}
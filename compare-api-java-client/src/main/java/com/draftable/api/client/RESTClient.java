@@ -1,8 +1,9 @@
 package com.draftable.api.client;
 
-import org.apache.commons.codec.Charsets;
 import org.apache.http.*;
+import org.apache.http.client.ClientProtocolException;
 import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.entity.EntityBuilder;
 import org.apache.http.client.methods.HttpDelete;
 import org.apache.http.client.methods.HttpGet;
@@ -10,24 +11,39 @@ import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.SchemePortResolver;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.conn.ssl.TrustSelfSignedStrategy;
-import org.apache.http.entity.BufferedHttpEntity;
 import org.apache.http.entity.ContentType;
-import org.apache.http.entity.mime.HttpMultipartMode;
-import org.apache.http.entity.mime.MultipartEntityBuilder;
-import org.apache.http.entity.mime.content.ByteArrayBody;
+import org.apache.http.entity.InputStreamEntity;
 import org.apache.http.entity.mime.content.ContentBody;
 import org.apache.http.entity.mime.content.FileBody;
 import org.apache.http.entity.mime.content.InputStreamBody;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
 import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.message.BasicHttpResponse;
 import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.message.BasicStatusLine;
 import org.apache.http.nio.client.HttpAsyncClient;
+import org.apache.http.nio.client.methods.HttpAsyncMethods;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
 import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.reactor.IOReactorException;
 import org.apache.http.ssl.SSLContextBuilder;
 import org.apache.http.util.EntityUtils;
 
@@ -36,14 +52,43 @@ import javax.annotation.Nullable;
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLContext;
 import java.io.*;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 /**
  * A simplified client for our REST endpoints that supports synchronous and
@@ -54,15 +99,34 @@ import java.util.concurrent.Future;
 class RESTClient implements Closeable {
 
     // region Exceptions - HTTP404NotFoundException, HTTP400BadRequestException,
-    // HTTPInvalidAuthenticationException, UnknownResponseException
+    // HTTPInvalidAuthenticationException, UnknownResponseException, HTTP429TooManyRequestsException
 
     static class ClientException extends Exception {
+        /** Whether an earlier attempt at the request may have been carried out. */
+        private boolean earlierAttemptMayHaveSucceeded;
+
         ClientException() {
         }
 
         ClientException(@Nonnull String details) {
             super(details);
         }
+
+        /**
+         * Gets whether this failure came from a retry of an attempt that may have
+         * succeeded on the server even though its response was lost, such as one
+         * whose response timed out. A retry after an attempt that the server
+         * refused, or that never reached it, doesn't count.
+         *
+         * @return Whether an earlier attempt at the request may have succeeded.
+         */
+        boolean earlierAttemptMayHaveSucceeded() {
+            return earlierAttemptMayHaveSucceeded;
+        }
+
+        void setEarlierAttemptMayHaveSucceeded() {
+            this.earlierAttemptMayHaveSucceeded = true;
+        }
     }
 
     static class HTTP404NotFoundException extends ClientException {
@@ -81,33 +145,331 @@ class RESTClient implements Closeable {
     }
 
     static class UnknownResponseException extends ClientException {
+        private final int statusCode;
+
         UnknownResponseException(final int statusCode, @Nullable final String details) {
             super(String.format("Unknown response with status code '%d':%n%s", statusCode, details));
+            this.statusCode = statusCode;
+        }
+
+        int getStatusCode() {
+            return statusCode;
+        }
+    }
+
+    static class HTTP429TooManyRequestsException extends UnknownResponseException {
+        @Nullable
+        private final Duration retryAfter;
+
+        HTTP429TooManyRequestsException(@Nullable final Duration retryAfter, @Nullable final String details) {
+            super(SC_TOO_MANY_REQUESTS, details);
+            this.retryAfter = retryAfter;
+        }
+
+        /**
+         * Gets how long the server asked the client to wait before sending more
+         * requests, from the response's {@code Retry-After} header.
+         *
+         * @return The delay, or null if the server didn't give one.
+         */
+        @Nullable
+        Duration getRetryAfter() {
+            return retryAfter;
         }
     }
 
     // endregion Exceptions - HTTP404NotFoundException, HTTP400BadRequestException,
-    // HTTPInvalidAuthenticationException, UnknownResponseException
+    // HTTPInvalidAuthenticationException, UnknownResponseException, HTTP429TooManyRequestsException
+
+    /** The status code for responses to requests that exceeded the rate limit. */
+    private static final int SC_TOO_MANY_REQUESTS = 429;
+
+    // region ResponseParser
+
+    /**
+     * Decodes the body of a successful response. The body is read straight from
+     * the response stream, so that it never needs to be copied into a byte array
+     * or String first.
+     *
+     * @param <T> The type of the decoded response.
+     */
+    @FunctionalInterface
+    interface ResponseParser<T> {
+        /**
+         * Decodes a response body.
+         *
+         * @param reader A reader giving the UTF-8 decoded response body. It is
+         *               closed by the caller.
+         * @return The decoded response.
+         * @throws IOException Unable to read the response.
+         */
+        @Nullable
+        T parse(@Nonnull Reader reader) throws IOException;
+    }
+
+    /**
+     * Reads the whole response body into a String. Shared by the plain GET
+     * methods, so that identical requests made through them can be joined.
+     */
+    @Nonnull
+    private static final ResponseParser<String> stringParser = RESTClient::readString;
+
+    /**
+     * Reads the whole response body into a String.
+     */
+    @Nonnull
+    private static String readString(@Nonnull final Reader reader) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        char[] buffer = new char[2048];
+
+        int charsRead;
+        while ((charsRead = reader.read(buffer, 0, buffer.length)) != -1) {
+            builder.append(buffer, 0, charsRead);
+        }
+        return builder.toString();
+    }
 
-    // region Fields - authToken
+    // endregion ResponseParser
+
+    // region Fields - authToken, poolConfig, sharedTransport, transport, retryPolicy, rateLimiter,
+    // circuitBreakers, hedgingPolicy, timeouts, executor
 
     @Nonnull
     private final String authToken;
 
-    // endregion Fields - authToken
+    @Nullable
+    private final ConnectionPoolConfig poolConfig;
+
+    /** Whether synchronous requests are executed on the asynchronous client. */
+    private final boolean sharedTransport;
+
+    /** A custom transport which all requests are sent through, if provided. */
+    @Nullable
+    private final HttpTransport transport;
+
+    /** How failed requests are retried, or null to never retry them. */
+    @Nullable
+    private final RetryPolicy retryPolicy;
+
+    /** Limits retries to a fraction of requests, if they are retried. */
+    @Nullable
+    private final RetryBudget retryBudget;
+
+    /** Spaces out requests to stay under the account's rate limit, if configured. */
+    @Nullable
+    private final RateLimiter rateLimiter;
+
+    /** How many times a request that received a 429 response is sent again. */
+    private final int maxThrottledRetries;
+
+    /** How requests to a failing server are cut off, or null to always send them. */
+    @Nullable
+    private final CircuitBreakerConfig circuitBreakerConfig;
+
+    /** The circuit breaker for each server requests have been sent to, by origin. */
+    @Nonnull
+    private final ConcurrentMap<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    /** How slow reads are hedged, or null to never hedge them. */
+    @Nullable
+    private final HedgingPolicy hedgingPolicy;
+
+    /** Limits hedges to a fraction of reads, if they are hedged. */
+    @Nullable
+    private final RetryBudget hedgeBudget;
+
+    /** The response times of each kind of hedged read, by the parser used for it. */
+    @Nonnull
+    private final ConcurrentMap<ResponseParser<?>, LatencyTracker> latencyTrackers = new ConcurrentHashMap<>();
+
+    /** Guards {@link #inFlightGets}. */
+    @Nonnull
+    private final ReentrantLock inFlightGetsLock = new ReentrantLock();
+
+    /** The GET requests currently being sent, which identical requests join. */
+    @Nonnull
+    private final Map<InFlightGetKey, InFlightGet<?>> inFlightGets = new HashMap<>();
+
+    /** How long requests and calls may take, or null to wait indefinitely. */
+    @Nullable
+    private final TimeoutConfig timeouts;
+
+    /** Decodes the responses to asynchronous requests, off the HTTP client's I/O threads. */
+    @Nonnull
+    private final Executor executor;
+
+    // endregion Fields - authToken, poolConfig, sharedTransport, transport, retryPolicy, rateLimiter,
+    // circuitBreakers, hedgingPolicy, timeouts, executor
 
     // region Constructor
 
+    /**
+     * The optional settings of a {@link RESTClient}. Every setting defaults to
+     * null (or false), meaning the feature it configures is disabled or the
+     * system defaults of the underlying HTTP clients are used.
+     */
+    static final class Settings {
+        @Nullable
+        private ConnectionPoolConfig poolConfig;
+        private boolean sharedTransport;
+        @Nullable
+        private HttpTransport transport;
+        @Nullable
+        private RetryPolicy retryPolicy;
+        @Nullable
+        private RateLimitConfig rateLimit;
+        @Nullable
+        private CircuitBreakerConfig circuitBreaker;
+        @Nullable
+        private HedgingPolicy hedgingPolicy;
+        @Nullable
+        private TimeoutConfig timeouts;
+        @Nullable
+        private Executor executor;
+
+        /**
+         * @param poolConfig The connection pool settings, or null to use the system
+         *                   defaults of the underlying HTTP clients.
+         */
+        @Nonnull
+        Settings poolConfig(@Nullable final ConnectionPoolConfig poolConfig) {
+            this.poolConfig = poolConfig;
+            return this;
+        }
+
+        /**
+         * @param sharedTransport If true, synchronous requests are executed on the
+         *                        asynchronous client, so that a single connection
+         *                        pool serves both kinds of request.
+         */
+        @Nonnull
+        Settings sharedTransport(final boolean sharedTransport) {
+            this.sharedTransport = sharedTransport;
+            return this;
+        }
+
+        /**
+         * @param transport A custom transport to send all requests through, or null
+         *                  to use the Apache HTTP clients. If provided, the other
+         *                  HTTP client settings are ignored, and the transport is
+         *                  closed when the client is closed.
+         */
+        @Nonnull
+        Settings transport(@Nullable final HttpTransport transport) {
+            this.transport = transport;
+            return this;
+        }
+
+        /**
+         * @param retryPolicy How to retry requests that fail for transient reasons,
+         *                    or null to never retry them.
+         */
+        @Nonnull
+        Settings retryPolicy(@Nullable final RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * @param rateLimit How to limit the rate requests are sent at, or null to
+         *                  send them as soon as they are made.
+         */
+        @Nonnull
+        Settings rateLimit(@Nullable final RateLimitConfig rateLimit) {
+            this.rateLimit = rateLimit;
+            return this;
+        }
+
+        /**
+         * @param circuitBreaker How to cut off requests to a failing server, or null
+         *                       to always send them.
+         */
+        @Nonnull
+        Settings circuitBreaker(@Nullable final CircuitBreakerConfig circuitBreaker) {
+            this.circuitBreaker = circuitBreaker;
+            return this;
+        }
+
+        /**
+         * @param hedgingPolicy How to hedge slow reads made with
+         *                      {@link #getHedged(String, ResponseParser, Deadline)},
+         *                      or null to never hedge them.
+         */
+        @Nonnull
+        Settings hedgingPolicy(@Nullable final HedgingPolicy hedgingPolicy) {
+            this.hedgingPolicy = hedgingPolicy;
+            return this;
+        }
+
+        /**
+         * @param timeouts How long requests and calls may take, or null to use the
+         *                 system defaults of the underlying HTTP clients and never
+         *                 time out calls.
+         */
+        @Nonnull
+        Settings timeouts(@Nullable final TimeoutConfig timeouts) {
+            this.timeouts = timeouts;
+            return this;
+        }
+
+        /**
+         * @param executor The executor to decode the responses to asynchronous
+         *                 requests on, and so to complete their futures on, or null
+         *                 to use {@link ForkJoinPool#commonPool()}.
+         */
+        @Nonnull
+        Settings executor(@Nullable final Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+    }
+
     /**
      * Creates and sets up a new RESTClient with the given authorization token.
      *
      * @param authToken The authorization token to pass in the request headers.
      */
     RESTClient(@Nonnull final String authToken) {
+        this(authToken, new Settings());
+    }
+
+    /**
+     * Creates and sets up a new RESTClient with the given authorization token and
+     * settings.
+     *
+     * @param authToken The authorization token to pass in the request headers.
+     * @param settings  The client's settings. Later changes to them have no effect
+     *                  on the client.
+     */
+    RESTClient(@Nonnull final String authToken, @Nonnull final Settings settings) {
         if (authToken == null) {
             throw new IllegalArgumentException("`authToken` cannot be null");
         }
+        if (settings == null) {
+            throw new IllegalArgumentException("`settings` cannot be null");
+        }
         this.authToken = authToken;
+        this.poolConfig = settings.poolConfig;
+        this.sharedTransport = settings.sharedTransport;
+        this.transport = settings.transport;
+        this.retryPolicy = settings.retryPolicy;
+        this.retryBudget = retryPolicy != null
+                ? new RetryBudget(retryPolicy.getRetryBudgetRatio(), retryPolicy.getRetryBudgetReserve())
+                : null;
+        RateLimitConfig rateLimit = settings.rateLimit;
+        this.rateLimiter = rateLimit != null ? new RateLimiter(rateLimit) : null;
+        this.maxThrottledRetries = rateLimit != null ? rateLimit.getMaxThrottledRetries() : 0;
+        this.circuitBreakerConfig = settings.circuitBreaker;
+        this.hedgingPolicy = settings.hedgingPolicy;
+        this.hedgeBudget = hedgingPolicy != null
+                ? new RetryBudget(hedgingPolicy.getHedgeBudgetRatio(), hedgingPolicy.getHedgeBudgetReserve())
+                : null;
+        this.timeouts = settings.timeouts;
+        this.executor = settings.executor != null ? settings.executor : ForkJoinPool.commonPool();
+
+        // Look up Thread.isVirtual() now rather than on the first request. Virtual
+        // threads waiting for a class to be initialized pin their carrier threads.
+        VirtualThreads.isVirtual(Thread.currentThread());
     }
 
     // endregion Constructor
@@ -120,16 +482,38 @@ class RESTClient implements Closeable {
     @Nullable
     private volatile CloseableHttpAsyncClient asyncClient;
 
+    @Nullable
+    private volatile ScheduledExecutorService asyncEvictor;
+
+    /** Runs asynchronous retries and rate limited requests once their delay has passed. */
+    @Nullable
+    private volatile ScheduledExecutorService scheduler;
+
+    /**
+     * Guards creation and closing of the inner clients. This is a lock rather than
+     * a monitor so that virtual threads waiting on it unmount from their carrier
+     * thread instead of pinning it.
+     */
     @Nonnull
-    private static CloseableHttpClient createClient() {
-        CloseableHttpClient client = null;
+    private final ReentrantLock clientsLock = new ReentrantLock();
 
+    private static boolean allowSelfSignedCerts() {
         String allowSelfSignedCerts = System.getProperty("draftable.allowSelfSignedCerts", "0");
-        if (allowSelfSignedCerts.equals("1") || allowSelfSignedCerts.equals("true")) {
+        return allowSelfSignedCerts.equals("1") || allowSelfSignedCerts.equals("true");
+    }
+
+    private static long toMillis(@Nullable final Duration duration) {
+        return duration == null ? -1 : duration.toMillis();
+    }
+
+    @Nonnull
+    private static CloseableHttpClient createClient(@Nullable final ConnectionPoolConfig poolConfig) {
+        SSLConnectionSocketFactory sslCsf = null;
+
+        if (allowSelfSignedCerts()) {
             System.err.println("[!] Creating insecure HttpClient ...");
 
             SSLContext sslCtx = null;
-            SSLConnectionSocketFactory sslCsf = null;
             HostnameVerifier allowAllHosts = new NoopHostnameVerifier();
 
             try {
@@ -138,25 +522,44 @@ class RESTClient implements Closeable {
             } catch (Exception ex) {
                 throw new RuntimeException(ex);
             }
+        }
 
-            client = HttpClients.custom().setSSLSocketFactory(sslCsf).build();
-        } else {
-            client = HttpClients.createSystem();
+        if (poolConfig == null) {
+            return sslCsf != null ? HttpClients.custom().setSSLSocketFactory(sslCsf).build()
+                    : HttpClients.createSystem();
         }
 
-        return client;
+        Registry<ConnectionSocketFactory> socketFactoryRegistry = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", sslCsf != null ? sslCsf : SSLConnectionSocketFactory.getSystemSocketFactory())
+                .build();
+
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
+                socketFactoryRegistry, null, null, null, toMillis(poolConfig.getTimeToLive()), TimeUnit.MILLISECONDS);
+        connectionManager.setMaxTotal(poolConfig.getMaxTotal());
+        connectionManager.setDefaultMaxPerRoute(poolConfig.getMaxPerRoute());
+        connectionManager.setValidateAfterInactivity((int) poolConfig.getValidateAfterInactivity().toMillis());
+        connectionManager.setDefaultSocketConfig(SocketConfig.custom().setTcpNoDelay(poolConfig.getTcpNoDelay())
+                .setSndBufSize(poolConfig.getSendBufferSize()).setRcvBufSize(poolConfig.getReceiveBufferSize())
+                .build());
+
+        HttpClientBuilder builder = HttpClients.custom().useSystemProperties().setConnectionManager(connectionManager);
+        if (poolConfig.getIdleEvictionInterval() != null) {
+            builder.evictExpiredConnections().evictIdleConnections(poolConfig.getIdleEvictionInterval().toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+        return builder.build();
     }
 
     @Nonnull
-    private static CloseableHttpAsyncClient createAsyncClient() {
+    private CloseableHttpAsyncClient createAsyncClient() {
         CloseableHttpAsyncClient asyncClient = null;
+        SSLIOSessionStrategy sslIoss = null;
 
-        String allowSelfSignedCerts = System.getProperty("draftable.allowSelfSignedCerts", "0");
-        if (allowSelfSignedCerts.equals("1") || allowSelfSignedCerts.equals("true")) {
+        if (allowSelfSignedCerts()) {
             System.err.println("[!] Creating insecure HttpAsyncClient ...");
 
             SSLContext sslCtx = null;
-            SSLIOSessionStrategy sslIoss = null;
             HostnameVerifier allowAllHosts = new NoopHostnameVerifier();
 
             try {
@@ -165,10 +568,49 @@ class RESTClient implements Closeable {
             } catch (Exception ex) {
                 throw new RuntimeException(ex);
             }
+        }
 
-            asyncClient = HttpAsyncClients.custom().setSSLStrategy(sslIoss).build();
+        if (poolConfig == null) {
+            asyncClient = sslIoss != null ? HttpAsyncClients.custom().setSSLStrategy(sslIoss).build()
+                    : HttpAsyncClients.createSystem();
         } else {
-            asyncClient = HttpAsyncClients.createSystem();
+            Registry<SchemeIOSessionStrategy> sessionStrategyRegistry = RegistryBuilder
+                    .<SchemeIOSessionStrategy>create().register("http", NoopIOSessionStrategy.INSTANCE)
+                    .register("https", sslIoss != null ? sslIoss : SSLIOSessionStrategy.getSystemDefaultStrategy())
+                    .build();
+
+            IOReactorConfig ioReactorConfig = IOReactorConfig.custom().setTcpNoDelay(poolConfig.getTcpNoDelay())
+                    .setSndBufSize(poolConfig.getSendBufferSize()).setRcvBufSize(poolConfig.getReceiveBufferSize())
+                    .build();
+
+            PoolingNHttpClientConnectionManager connectionManager;
+            try {
+                connectionManager = new PoolingNHttpClientConnectionManager(
+                        new DefaultConnectingIOReactor(ioReactorConfig), null, sessionStrategyRegistry,
+                        (SchemePortResolver) null, null, toMillis(poolConfig.getTimeToLive()), TimeUnit.MILLISECONDS);
+            } catch (IOReactorException ex) {
+                throw new RuntimeException(ex);
+            }
+            connectionManager.setMaxTotal(poolConfig.getMaxTotal());
+            connectionManager.setDefaultMaxPerRoute(poolConfig.getMaxPerRoute());
+
+            asyncClient = HttpAsyncClients.custom().useSystemProperties().setConnectionManager(connectionManager)
+                    .build();
+
+            // HttpAsyncClient has no built-in eviction, so we run it ourselves.
+            if (poolConfig.getIdleEvictionInterval() != null) {
+                long intervalMillis = poolConfig.getIdleEvictionInterval().toMillis();
+                ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "draftable-connection-evictor");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                evictor.scheduleWithFixedDelay(() -> {
+                    connectionManager.closeExpiredConnections();
+                    connectionManager.closeIdleConnections(intervalMillis, TimeUnit.MILLISECONDS);
+                }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+                asyncEvictor = evictor;
+            }
         }
 
         asyncClient.start();
@@ -179,11 +621,14 @@ class RESTClient implements Closeable {
     private HttpClient getClient() {
         HttpClient currentClient = client;
         if (currentClient == null) {
-            synchronized (this) {
+            clientsLock.lock();
+            try {
                 currentClient = client;
                 if (currentClient == null) {
-                    currentClient = client = createClient();
+                    currentClient = client = createClient(poolConfig);
                 }
+            } finally {
+                clientsLock.unlock();
             }
         }
         return currentClient;
@@ -193,16 +638,55 @@ class RESTClient implements Closeable {
     private HttpAsyncClient getAsyncClient() {
         HttpAsyncClient currentAsyncClient = asyncClient;
         if (currentAsyncClient == null) {
-            synchronized (this) {
+            clientsLock.lock();
+            try {
                 currentAsyncClient = asyncClient;
                 if (currentAsyncClient == null) {
                     currentAsyncClient = asyncClient = createAsyncClient();
                 }
+            } finally {
+                clientsLock.unlock();
             }
         }
         return currentAsyncClient;
     }
 
+    @Nonnull
+    private ScheduledExecutorService getScheduler() {
+        ScheduledExecutorService currentScheduler = scheduler;
+        if (currentScheduler == null) {
+            clientsLock.lock();
+            try {
+                currentScheduler = scheduler;
+                if (currentScheduler == null) {
+                    currentScheduler = scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                        Thread thread = new Thread(runnable, "draftable-request-scheduler");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            } finally {
+                clientsLock.unlock();
+            }
+        }
+        return currentScheduler;
+    }
+
+    /**
+     * Whether synchronous requests from the calling thread are sent on the
+     * asynchronous client (or the custom transport), parking the thread until the
+     * response arrives, rather than on the blocking client.
+     *
+     * <p>
+     * Requests from virtual threads always are. The blocking client's connection
+     * pool waits for a free connection inside a monitor, which pins a virtual
+     * thread to its carrier thread, whereas parking on a future unmounts it.
+     * </p>
+     */
+    private boolean sendsOnAsyncClient() {
+        return sharedTransport || transport != null || VirtualThreads.isVirtual(Thread.currentThread());
+    }
+
     /**
      * Closes any open inner HTTP clients, and ends any async event loops.
      *
@@ -211,20 +695,64 @@ class RESTClient implements Closeable {
     public void close() throws IOException {
         if (client != null) {
             CloseableHttpClient currentClient;
-            synchronized (this) {
+            clientsLock.lock();
+            try {
                 currentClient = client;
                 client = null;
+            } finally {
+                clientsLock.unlock();
+            }
+            if (currentClient != null) {
+                currentClient.close();
             }
-            currentClient.close();
         }
 
         if (asyncClient != null) {
             CloseableHttpAsyncClient currentAsyncClient;
-            synchronized (this) {
+            clientsLock.lock();
+            try {
                 currentAsyncClient = asyncClient;
                 asyncClient = null;
+            } finally {
+                clientsLock.unlock();
+            }
+            if (currentAsyncClient != null) {
+                currentAsyncClient.close();
+            }
+        }
+
+        if (asyncEvictor != null) {
+            ScheduledExecutorService currentAsyncEvictor;
+            clientsLock.lock();
+            try {
+                currentAsyncEvictor = asyncEvictor;
+                asyncEvictor = null;
+            } finally {
+                clientsLock.unlock();
+            }
+            if (currentAsyncEvictor != null) {
+                currentAsyncEvictor.shutdownNow();
+            }
+        }
+
+        if (scheduler != null) {
+            ScheduledExecutorService currentScheduler;
+            clientsLock.lock();
+            try {
+                currentScheduler = scheduler;
+                scheduler = null;
+            } finally {
+                clientsLock.unlock();
             }
-            currentAsyncClient.close();
+            if (currentScheduler != null) {
+                // Requests that are already scheduled still run, so their callers get
+                // a result, but no more are accepted.
+                currentScheduler.shutdown();
+            }
+        }
+
+        if (transport != null) {
+            transport.close();
         }
     }
 
@@ -247,6 +775,113 @@ class RESTClient implements Closeable {
 
     // endregion setupRequestHeaders(request), getHostForRequest(request)
 
+    // region Deadlines - newDeadline(timeout), applyTimeouts(request, deadline),
+    // withDeadline(future, deadline)
+
+    /**
+     * Takes the deadline for a call that is being made now.
+     *
+     * @param timeout The time allowed for the call, or null to use the configured
+     *                total timeout.
+     * @return The deadline, or null if the call may take as long as it needs.
+     */
+    @Nullable
+    Deadline newDeadline(@Nullable final Duration timeout) {
+        if (timeout != null) {
+            return Deadline.after(timeout);
+        }
+        TimeoutConfig currentTimeouts = timeouts;
+        return currentTimeouts != null && currentTimeouts.getTotalTimeout() != null
+                ? Deadline.after(currentTimeouts.getTotalTimeout())
+                : null;
+    }
+
+    /**
+     * Sets the configured timeouts on a request, each cut short to the time its
+     * call has left. Any other settings the request already has, such as for
+     * redirects, are kept.
+     */
+    private void applyTimeouts(@Nonnull final HttpRequestBase request, @Nullable final Deadline deadline) {
+        TimeoutConfig currentTimeouts = timeouts;
+        if (currentTimeouts == null && deadline == null) {
+            return;
+        }
+
+        long remainingMillis = deadline != null
+                ? Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline.remainingNanos()))
+                : -1;
+        RequestConfig config = request.getConfig();
+        request.setConfig((config != null ? RequestConfig.copy(config) : RequestConfig.custom())
+                .setConnectTimeout(toTimeoutMillis(
+                        currentTimeouts != null ? currentTimeouts.getConnectTimeout() : null, remainingMillis))
+                .setConnectionRequestTimeout(toTimeoutMillis(
+                        currentTimeouts != null ? currentTimeouts.getLeaseTimeout() : null, remainingMillis))
+                .setSocketTimeout(toTimeoutMillis(
+                        currentTimeouts != null ? currentTimeouts.getSocketTimeout() : null, remainingMillis))
+                .build());
+    }
+
+    /**
+     * Converts a timeout to the form RequestConfig takes, where -1 means no limit.
+     */
+    private static int toTimeoutMillis(@Nullable final Duration timeout, final long remainingMillis) {
+        long millis = toMillis(timeout);
+        if (remainingMillis >= 0 && (millis < 0 || remainingMillis < millis)) {
+            millis = remainingMillis;
+        }
+        return (int) Math.min(millis, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Bounds a future by a deadline. If the deadline passes first, the returned
+     * future fails with a {@link DeadlineExceededException} and the given future
+     * is cancelled.
+     *
+     * @param future   The future to bound.
+     * @param deadline The deadline, or null to return the future unchanged.
+     * @return A future that completes as the given one does, or at the deadline.
+     *         Cancelling it cancels the given future.
+     */
+    @Nonnull
+    private <T> CompletableFuture<T> withDeadline(@Nonnull final CompletableFuture<T> future,
+            @Nullable final Deadline deadline) {
+        if (deadline == null || future.isDone()) {
+            return future;
+        }
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        future.whenComplete((response, error) -> {
+            if (error != null) {
+                result.completeExceptionally(
+                        error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            } else {
+                result.complete(response);
+            }
+        });
+
+        ScheduledFuture<?> expiry;
+        try {
+            expiry = getScheduler().schedule(() -> {
+                if (result.completeExceptionally(deadline.exceeded())) {
+                    future.cancel(true);
+                }
+            }, deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException ex) {
+            // The client was closed, so the request will fail by itself.
+            return result;
+        }
+        result.whenComplete((response, error) -> {
+            expiry.cancel(false);
+            if (result.isCancelled()) {
+                future.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    // endregion Deadlines - newDeadline(timeout), applyTimeouts(request, deadline),
+    // withDeadline(future, deadline)
+
     // region consumeResponse(HttpResponse)
 
     @Nullable
@@ -264,8 +899,9 @@ class RESTClient implements Closeable {
 
         if (responseStream instanceof ByteArrayInputStream) {
             int size = responseStream.available();
-            byte[] bytes = new byte[responseStream.available()];
-            int length = responseStream.read(bytes, 0, size);
+            byte[] bytes = new byte[size];
+            // An empty stream reads -1 rather than 0.
+            int length = size > 0 ? responseStream.read(bytes, 0, size) : 0;
             assert size == length;
             responseStream.close();
             return bytes;
@@ -296,10 +932,39 @@ class RESTClient implements Closeable {
         return new String(responseBytes, StandardCharsets.UTF_8);
     }
 
+    /**
+     * Reads the delay from a response's {@code Retry-After} header, which is either
+     * a number of seconds or an HTTP date.
+     *
+     * @return The delay, or null if there is no valid header.
+     */
     @Nullable
-    private static String consumeResponse(@Nonnull final HttpResponse response, final int expectedStatusCode)
-            throws HTTP404NotFoundException, HTTP400BadRequestException, HTTPInvalidAuthenticationException,
-            UnknownResponseException, IOException {
+    private static Duration getRetryAfter(@Nonnull final HttpResponse response) {
+        Header header = response.getFirstHeader("Retry-After");
+        if (header == null || header.getValue() == null) {
+            return null;
+        }
+
+        String value = header.getValue().trim();
+        try {
+            long seconds = Long.parseLong(value);
+            return seconds >= 0 ? Duration.ofSeconds(seconds) : null;
+        } catch (NumberFormatException ex) {
+            // Not a number of seconds, so it should be a date.
+        }
+        try {
+            Duration delay = Duration.between(Instant.now(),
+                    ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME));
+            return delay.isNegative() ? Duration.ZERO : delay;
+        } catch (DateTimeParseException ex) {
+            return null;
+        }
+    }
+
+    @Nullable
+    private static <T> T consumeResponse(@Nonnull final HttpResponse response, final int expectedStatusCode,
+            @Nonnull final ResponseParser<T> parser) throws HTTP404NotFoundException, HTTP400BadRequestException,
+            HTTPInvalidAuthenticationException, UnknownResponseException, IOException {
 
         int statusCode = response.getStatusLine().getStatusCode();
 
@@ -320,71 +985,189 @@ class RESTClient implements Closeable {
                 // This means that the client's auth token is invalid.
                 throw new HTTPInvalidAuthenticationException(getResponseString(response));
 
+            } else if (statusCode == SC_TOO_MANY_REQUESTS) {
+                // The account's rate limit was exceeded, and the request wasn't processed.
+                throw new HTTP429TooManyRequestsException(getRetryAfter(response), getResponseString(response));
+
             } else {
                 // An unknown kind of response.
                 throw new UnknownResponseException(statusCode, getResponseString(response));
             }
         }
 
-        return getResponseString(response);
+        HttpEntity responseEntity = response.getEntity();
+        InputStream responseStream = responseEntity != null ? responseEntity.getContent() : null;
+        if (responseStream == null) {
+            // Parse an empty body, so the parser decides whether that's valid.
+            return parser.parse(new StringReader(""));
+        }
+
+        try (Reader reader = new InputStreamReader(responseStream, StandardCharsets.UTF_8)) {
+            return parser.parse(reader);
+        }
     }
 
     // endregion consumeResponse(HttpResponse)
 
-    // region execute(request, expectedStatusCode)
+    // region send(request, expectedStatusCode)
 
     /**
-     * Synchronously executes and consumes a given request, returning the String
-     * response. Throws an exception upon an unexpected status code.
+     * Synchronously sends and consumes a given request on the calling thread,
+     * returning the decoded response. Throws an exception upon an unexpected
+     * status code.
      *
      * @param request            A HttpRequestBase giving the request to execute.
      *                           This request object is modified and consumed.
      * @param expectedStatusCode The expected response status code. Should be e.g.
      *                           200, 201, 204. Must not be 404, 400, or other error
      *                           codes.
-     * @return A String giving the response from the server.
+     * @param parser             The parser to decode the response body with.
+     * @param deadline           The deadline of the call, or null if it has none.
+     *                           If it passes while the request is being sent, the
+     *                           request is aborted.
+     * @return The decoded response from the server.
      */
     @Nullable
-    private String execute(@Nonnull final HttpRequestBase request, final int expectedStatusCode)
+    private <T> T send(@Nonnull final HttpRequestBase request, final int expectedStatusCode,
+            @Nonnull final ResponseParser<T> parser, @Nullable final Deadline deadline)
             throws HTTP404NotFoundException, HTTP400BadRequestException, HTTPInvalidAuthenticationException,
             UnknownResponseException, IOException {
-
         setupRequestHeaders(request);
+        applyTimeouts(request, deadline);
 
         HttpClient httpClient = getClient();
+        ScheduledFuture<?> abort = null;
         try {
+            if (deadline != null) {
+                if (deadline.isExpired()) {
+                    throw deadline.exceeded();
+                }
+                // The socket timeout only bounds each read, so a server that responds
+                // slowly enough could otherwise hold the request past its deadline.
+                try {
+                    abort = getScheduler().schedule(request::abort, deadline.remainingNanos(),
+                            TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException ex) {
+                    // The client is being closed, which aborts the request anyway.
+                }
+            }
             HttpResponse response = httpClient.execute(getHostForRequest(request), request);
-            return consumeResponse(response, expectedStatusCode);
+            return consumeResponse(response, expectedStatusCode, parser);
+        } catch (IOException ex) {
+            if (deadline != null && deadline.isExpired() && !(ex instanceof DeadlineExceededException)) {
+                DeadlineExceededException deadlineException = deadline.exceeded();
+                deadlineException.initCause(ex);
+                throw deadlineException;
+            }
+            throw ex;
         } finally {
+            if (abort != null) {
+                abort.cancel(false);
+            }
             request.releaseConnection();
         }
     }
 
-    // endregion execute(request, expectedStatusCode)
+    /**
+     * Blocks until the given asynchronous request completes, rethrowing any failure
+     * as the exception the synchronous methods would have thrown.
+     *
+     * @param future The asynchronous request to wait on.
+     * @return The result of the request.
+     */
+    @Nullable
+    private static <T> T await(@Nonnull final CompletableFuture<T> future) throws HTTP404NotFoundException,
+            HTTP400BadRequestException, HTTPInvalidAuthenticationException, UnknownResponseException, IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            InterruptedIOException interruptedException = new InterruptedIOException(
+                    "Interrupted while waiting for the request to complete");
+            interruptedException.initCause(ex);
+            throw interruptedException;
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof HTTP404NotFoundException) {
+                throw (HTTP404NotFoundException) cause;
+            } else if (cause instanceof HTTP400BadRequestException) {
+                throw (HTTP400BadRequestException) cause;
+            } else if (cause instanceof HTTPInvalidAuthenticationException) {
+                throw (HTTPInvalidAuthenticationException) cause;
+            } else if (cause instanceof UnknownResponseException) {
+                throw (UnknownResponseException) cause;
+            } else if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    // endregion send(request, expectedStatusCode)
 
-    // region executeAsync(request, expectedStatusCode)
+    // region sendAsync(request, expectedStatusCode)
 
-    private static class AsyncHTTPOperation extends CompletableFuture<String> {
+    private static class AsyncHTTPOperation<T> extends CompletableFuture<T> {
 
         @Nonnull
         final Future innerFuture;
 
+        @Nonnull
+        private final Executor executor;
+
         AsyncHTTPOperation(@Nonnull HttpAsyncClient asyncClient, @Nonnull HttpRequestBase request,
-                int expectedStatusCode) {
+                int expectedStatusCode, @Nonnull ResponseParser<T> parser, @Nonnull Executor executor) {
             super();
 
-            AsyncHTTPOperation outerFuture = this;
+            this.executor = executor;
+
+            AsyncHTTPOperation<T> outerFuture = this;
 
-            innerFuture = asyncClient.execute(getHostForRequest(request), request, new FutureCallback<HttpResponse>() {
+            // The body is decoded on the executor as it arrives, rather than being
+            // buffered in full first.
+            DecodingResponseConsumer<T> consumer = new DecodingResponseConsumer<>(expectedStatusCode, parser, executor);
+            FutureCallback<HttpResponse> callback = new FutureCallback<HttpResponse>() {
                 @Override
                 public void completed(@Nonnull HttpResponse response) {
-                    try {
-                        outerFuture.completeInternal(consumeResponse(response, expectedStatusCode));
-                    } catch (Exception ex) {
-                        outerFuture.completeExceptionallyInternal(ex);
-                    } finally {
-                        request.releaseConnection();
+                    if (consumer.isDecoding()) {
+                        // The parser may have finished already, in which case this would run on
+                        // the I/O thread, so the completion is dispatched either way.
+                        consumer.getDecoded().whenComplete((result, error) -> outerFuture.dispatch(() -> {
+                            // Release the connection before completing, as completing may send this
+                            // request again, which releasing it afterwards would abort.
+                            request.releaseConnection();
+                            if (error != null) {
+                                outerFuture.completeExceptionallyInternal(error);
+                            } else {
+                                outerFuture.completeInternal(result);
+                            }
+                        }));
+                        return;
                     }
+
+                    // Only the error body has been kept, which can be decoded on the executor
+                    // while the I/O thread gets on with other requests.
+                    outerFuture.dispatch(() -> {
+                        T result = null;
+                        Exception error = null;
+                        try {
+                            result = consumeResponse(response, expectedStatusCode, parser);
+                        } catch (Exception ex) {
+                            error = ex;
+                        } finally {
+                            request.releaseConnection();
+                        }
+                        if (error != null) {
+                            outerFuture.completeExceptionallyInternal(error);
+                        } else {
+                            outerFuture.completeInternal(result);
+                        }
+                    });
                 }
 
                 @Override
@@ -393,19 +1176,36 @@ class RESTClient implements Closeable {
                     // If more than an IOException is possible, we should document them or update
                     // the logic accordingly.
                     // ~ James
-                    outerFuture.completeExceptionallyInternal(ex);
+                    outerFuture.dispatch(() -> outerFuture.completeExceptionallyInternal(ex));
                 }
 
                 @Override
                 public void cancelled() {
-                    // Nothing to do. It was the outer future that triggered cancellation.
+                    // Usually the outer future triggered cancellation and is already cancelled,
+                    // but the client may also cancel the exchange, e.g. when it's closed.
+                    outerFuture.cancelInternal();
                 }
-            });
+            };
+            innerFuture = asyncClient.execute(HttpAsyncMethods.create(getHostForRequest(request), request), consumer,
+                    callback);
+        }
+
+        /**
+         * Completes this future on the executor, so that neither the completion nor
+         * the stages that depend on it run on the HTTP client's I/O thread. If the
+         * executor rejects it, it runs on the current thread instead.
+         */
+        private void dispatch(@Nonnull Runnable completion) {
+            try {
+                executor.execute(completion);
+            } catch (RejectedExecutionException ex) {
+                completion.run();
+            }
         }
 
         // Internal methods for setting completion.
 
-        private boolean completeInternal(@Nullable String response) {
+        private boolean completeInternal(@Nullable T response) {
             return super.complete(response);
         }
 
@@ -413,11 +1213,15 @@ class RESTClient implements Closeable {
             return super.completeExceptionally(throwable);
         }
 
+        private boolean cancelInternal() {
+            return super.cancel(false);
+        }
+
         // Public interface. We allow cancellation by passing on to the inner future. We
         // do not allow the outside world to set completion.
 
         @Override
-        public boolean complete(@Nullable String response) {
+        public boolean complete(@Nullable T response) {
             throw new UnsupportedOperationException("This CompletableFuture cannot have its completion manually set.");
         }
 
@@ -428,12 +1232,16 @@ class RESTClient implements Closeable {
 
         @Override
         public boolean cancel(boolean mayInterruptIfRunning) {
-            return innerFuture.cancel(mayInterruptIfRunning);
+            // Cancelling the inner future aborts the exchange, closing its connection
+            // so that any upload in progress stops and the pool slot is freed. This
+            // future is then cancelled too, so that the stages waiting on it move on.
+            innerFuture.cancel(mayInterruptIfRunning);
+            return cancelInternal();
         }
     }
 
     /**
-     * Asynchronously executes and consumes a given request, returning the String
+     * Asynchronously sends and consumes a given request, returning the decoded
      * response. Completes exceptionally upon an unexpected status code or other
      * failure. Exceptions are as
      *
@@ -442,35 +1250,740 @@ class RESTClient implements Closeable {
      * @param expectedStatusCode The expected response status code. Should be e.g.
      *                           200, 201, 204. Must not be 404, 400, or other error
      *                           codes.
-     * @return A CompletionStage that will give the String response from the server,
-     *         or the error as encountered.
+     * @param parser             The parser to decode the response body with.
+     * @param deadline           The deadline of the call, which the request's
+     *                           timeouts are cut short to, or null if it has none.
+     * @return A CompletionStage that will give the decoded response from the
+     *         server, or the error as encountered.
      */
     @Nonnull
-    private CompletableFuture<String> executeAsync(@Nonnull final HttpRequestBase request,
-            final int expectedStatusCode) {
+    private <T> CompletableFuture<T> sendAsync(@Nonnull final HttpRequestBase request,
+            final int expectedStatusCode, @Nonnull final ResponseParser<T> parser, @Nullable final Deadline deadline) {
         setupRequestHeaders(request);
-        return new AsyncHTTPOperation(getAsyncClient(), request, expectedStatusCode);
+        applyTimeouts(request, deadline);
+        if (transport != null) {
+            return executeOnTransport(transport, request, expectedStatusCode, parser, executor);
+        }
+        return new AsyncHTTPOperation<>(getAsyncClient(), request, expectedStatusCode, parser, executor);
     }
 
-    // endregion executeAsync(request, expectedStatusCode)
+    // endregion sendAsync(request, expectedStatusCode)
 
-    // endregion execute(request), executeAsync(request)
+    // region executeOnTransport(transport, request, expectedStatusCode)
 
-    // region Static ContentBody builders - buildContentBody(File | byte[] |
-    // InputStream)
+    /**
+     * Adapts a request entity to the body type used by {@link HttpTransport}.
+     */
+    private static final class EntityBody implements HttpTransport.Body {
+        @Nonnull
+        private final HttpEntity entity;
 
-    @Nonnull
-    static ContentBody buildContentBody(@Nonnull File file) {
-        return new FileBody(file, ContentType.APPLICATION_OCTET_STREAM);
-    }
+        EntityBody(@Nonnull final HttpEntity entity) {
+            this.entity = entity;
+        }
 
-    @Nonnull
-    static ContentBody buildContentBody(@Nonnull byte[] data) {
-        // Note: We have to give a file name as the third parameter, but for our
-        // purposes it doesn't matter what the name is.
+        @Nonnull
+        @Override
+        public String getContentType() {
+            Header contentType = entity.getContentType();
+            return contentType != null ? contentType.getValue() : ContentType.APPLICATION_OCTET_STREAM.toString();
+        }
+
+        @Override
+        public long getContentLength() {
+            return entity.getContentLength();
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return entity.isRepeatable();
+        }
+
+        @Nonnull
+        @Override
+        public InputStream getContent() throws IOException {
+            return entity.getContent();
+        }
+
+        @Override
+        public void writeTo(@Nonnull final OutputStream outputStream) throws IOException {
+            entity.writeTo(outputStream);
+        }
+    }
+
+    @Nonnull
+    private static HttpTransport.Request toTransportRequest(@Nonnull final HttpRequestBase request) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (Header header : request.getAllHeaders()) {
+            headers.put(header.getName(), header.getValue());
+        }
+
+        HttpTransport.Body body = null;
+        if (request instanceof HttpEntityEnclosingRequest) {
+            HttpEntity entity = ((HttpEntityEnclosingRequest) request).getEntity();
+            if (entity != null) {
+                body = new EntityBody(entity);
+            }
+        }
+
+        // The timeouts set by applyTimeouts, which are already cut short to the
+        // time the call has left.
+        RequestConfig config = request.getConfig();
+        Duration connectTimeout = null;
+        Duration socketTimeout = null;
+        if (config != null) {
+            connectTimeout = fromTimeoutMillis(config.getConnectionRequestTimeout(), config.getConnectTimeout());
+            socketTimeout = fromTimeoutMillis(config.getSocketTimeout(), 0);
+        }
+        return new HttpTransport.Request(request.getMethod(), request.getURI(), headers, body, connectTimeout,
+                socketTimeout);
+    }
+
+    /**
+     * Converts timeouts in the form RequestConfig takes, where a value of zero or
+     * less means no limit, to the sum of the limited ones.
+     */
+    @Nullable
+    private static Duration fromTimeoutMillis(final int first, final int second) {
+        long millis = Math.max(first, 0) + (long) Math.max(second, 0);
+        return millis > 0 ? Duration.ofMillis(millis) : null;
+    }
+
+    @Nonnull
+    private static HttpResponse toHttpResponse(@Nonnull final HttpTransport.Response response) throws IOException {
+        HttpResponse httpResponse = new BasicHttpResponse(
+                new BasicStatusLine(HttpVersion.HTTP_1_1, response.getStatusCode(), null));
+        for (Map.Entry<String, List<String>> header : response.getHeaders().entrySet()) {
+            for (String value : header.getValue()) {
+                httpResponse.addHeader(header.getKey(), value);
+            }
+        }
+
+        InputStream body = response.getBody();
+        if (body != null) {
+            httpResponse.setEntity(new InputStreamEntity(body));
+        }
+        return httpResponse;
+    }
+
+    /**
+     * Asynchronously executes and consumes a given request on a custom transport.
+     * The response is consumed exactly as it would be for the Apache clients, so
+     * status code handling and error mapping are unchanged.
+     *
+     * @param transport          The transport to send the request with.
+     * @param request            A HttpRequestBase giving the request to execute.
+     * @param expectedStatusCode The expected response status code.
+     * @param parser             The parser to decode the response body with.
+     * @param executor           The executor to decode the response on.
+     * @return A CompletableFuture that will give the decoded response from the
+     *         server, or the error as encountered. Cancelling it cancels the
+     *         exchange on the transport, and closes its response if one has
+     *         arrived.
+     */
+    @Nonnull
+    private static <T> CompletableFuture<T> executeOnTransport(@Nonnull final HttpTransport transport,
+            @Nonnull final HttpRequestBase request, final int expectedStatusCode,
+            @Nonnull final ResponseParser<T> parser, @Nonnull final Executor executor) {
+        CompletableFuture<HttpTransport.Response> responseFuture = transport.execute(toTransportRequest(request));
+
+        CompletableFuture<T> result = responseFuture.thenApplyAsync(response -> {
+            try (HttpTransport.Response currentResponse = response) {
+                return consumeResponse(toHttpResponse(currentResponse), expectedStatusCode, parser);
+            } catch (Exception ex) {
+                throw new CompletionException(ex);
+            }
+        }, executor);
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                // If the response arrived before the decoding task ran, the task skips
+                // it, so nothing else would close it.
+                responseFuture.thenAccept(RESTClient::closeQuietly);
+            }
+        });
+
+        return Utils.propagateCancellation(result, responseFuture);
+    }
+
+    private static void closeQuietly(@Nonnull final HttpTransport.Response response) {
+        try {
+            response.close();
+        } catch (IOException ex) {
+            // The response was abandoned, so there is nobody to tell.
+        }
+    }
+
+    // endregion executeOnTransport(transport, request, expectedStatusCode)
+
+    // region Circuit breakers - sendGuarded(request, expectedStatusCode),
+    // sendGuardedAsync(request, expectedStatusCode)
+
+    /**
+     * Gets the circuit breaker for the server a request is sent to.
+     *
+     * @return The circuit breaker, or null if none is configured.
+     */
+    @Nullable
+    private CircuitBreaker getCircuitBreaker(@Nonnull final HttpRequestBase request) {
+        CircuitBreakerConfig config = circuitBreakerConfig;
+        if (config == null) {
+            return null;
+        }
+        return circuitBreakers.computeIfAbsent(getHostForRequest(request).toURI(),
+                origin -> new CircuitBreaker(origin, config));
+    }
+
+    /**
+     * Gets the state of the circuit breaker for a server.
+     *
+     * @param uri Any URI on the server.
+     * @return The state, which is {@link CircuitBreakerState#CLOSED} if no
+     *         requests have been sent to the server, or null if no circuit breaker
+     *         is configured.
+     */
+    @Nullable
+    CircuitBreakerState getCircuitBreakerState(@Nonnull final URI uri) {
+        if (circuitBreakerConfig == null) {
+            return null;
+        }
+        CircuitBreaker breaker = circuitBreakers.get(new HttpHost(uri.getHost(), uri.getPort(), uri.getScheme())
+                .toURI());
+        return breaker != null ? breaker.getState() : CircuitBreakerState.CLOSED;
+    }
+
+    /**
+     * Gets whether a failed request counts against the server's circuit breaker:
+     * if it couldn't be sent or its response couldn't be read, or the server
+     * responded with a 5xx status code. Other error responses show that the
+     * server is up, and a request cut off by its caller's deadline may only have
+     * been given a little time.
+     */
+    private static boolean isServerFailure(@Nonnull final Throwable error) {
+        if (error instanceof UnknownResponseException) {
+            return ((UnknownResponseException) error).getStatusCode() >= HttpStatus.SC_INTERNAL_SERVER_ERROR;
+        }
+        return error instanceof IOException && !(error instanceof CircuitBreakerOpenException)
+                && !(error instanceof DeadlineExceededException);
+    }
+
+    /**
+     * Synchronously sends a request, unless the circuit breaker for its server is
+     * open, in which case a {@link CircuitBreakerOpenException} is thrown. The
+     * outcome and duration of the request are recorded by the circuit breaker.
+     */
+    @Nullable
+    private <T> T sendGuarded(@Nonnull final HttpRequestBase request, final int expectedStatusCode,
+            @Nonnull final ResponseParser<T> parser, @Nullable final Deadline deadline)
+            throws HTTP404NotFoundException, HTTP400BadRequestException, HTTPInvalidAuthenticationException,
+            UnknownResponseException, IOException {
+        CircuitBreaker breaker = getCircuitBreaker(request);
+        if (breaker == null) {
+            return send(request, expectedStatusCode, parser, deadline);
+        }
+
+        long permit = breaker.tryAcquire();
+        if (permit < 0) {
+            throw new CircuitBreakerOpenException(breaker.getOrigin());
+        }
+        long startNanos = System.nanoTime();
+        boolean failed = false;
+        try {
+            return send(request, expectedStatusCode, parser, deadline);
+        } catch (ClientException | IOException ex) {
+            failed = isServerFailure(ex);
+            throw ex;
+        } finally {
+            breaker.onResult(permit, failed, System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Asynchronously sends a request, unless the circuit breaker for its server is
+     * open, in which case the returned future fails straight away with a
+     * {@link CircuitBreakerOpenException}. The outcome and duration of the request
+     * are recorded by the circuit breaker, unless it is cancelled.
+     */
+    @Nonnull
+    private <T> CompletableFuture<T> sendGuardedAsync(@Nonnull final HttpRequestBase request,
+            final int expectedStatusCode, @Nonnull final ResponseParser<T> parser, @Nullable final Deadline deadline) {
+        CircuitBreaker breaker = getCircuitBreaker(request);
+        if (breaker == null) {
+            return sendAsync(request, expectedStatusCode, parser, deadline);
+        }
+
+        long permit = breaker.tryAcquire();
+        if (permit < 0) {
+            CompletableFuture<T> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(new CircuitBreakerOpenException(breaker.getOrigin()));
+            return rejected;
+        }
+        long startNanos = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = sendAsync(request, expectedStatusCode, parser, deadline);
+        } catch (RuntimeException ex) {
+            breaker.release(permit);
+            throw ex;
+        }
+
+        // The outcome is recorded before the caller sees it, so that its next request
+        // is judged by the updated state.
+        CompletableFuture<T> result = new CompletableFuture<>();
+        result.whenComplete((response, error) -> {
+            if (result.isCancelled()) {
+                future.cancel(true);
+            }
+        });
+        future.whenComplete((response, error) -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause()
+                    : error;
+            if (cause instanceof CancellationException) {
+                breaker.release(permit);
+            } else {
+                breaker.onResult(permit, cause != null && isServerFailure(cause), System.nanoTime() - startNanos);
+            }
+            if (cause != null) {
+                result.completeExceptionally(cause);
+            } else {
+                result.complete(response);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Fails a request straight away if the circuit breaker for its server is open,
+     * before it waits for its turn to be sent.
+     */
+    private void checkCircuitBreaker(@Nonnull final HttpRequestBase request) throws CircuitBreakerOpenException {
+        CircuitBreaker breaker = getCircuitBreaker(request);
+        if (breaker != null && breaker.isOpen()) {
+            throw new CircuitBreakerOpenException(breaker.getOrigin());
+        }
+    }
+
+    // endregion Circuit breakers - sendGuarded(request, expectedStatusCode),
+    // sendGuardedAsync(request, expectedStatusCode)
+
+    // region execute(request, expectedStatusCode), executeAsync(request,
+    // expectedStatusCode)
+
+    /**
+     * Gets whether a request can be sent again. Multipart bodies can unless a side
+     * was given as an InputStream, which is streamed as it is sent and can only be
+     * read once.
+     */
+    private static boolean isRepeatable(@Nonnull final HttpRequestBase request) {
+        if (request instanceof HttpEntityEnclosingRequest) {
+            HttpEntity entity = ((HttpEntityEnclosingRequest) request).getEntity();
+            return entity == null || entity.isRepeatable();
+        }
+        return true;
+    }
+
+    /**
+     * Synchronously executes and consumes a given request, returning the decoded
+     * response. Throws an exception upon an unexpected status code.
+     *
+     * <p>
+     * If a rate limit is configured, this first waits for the request's turn, and
+     * if the server responds with 429 Too Many Requests, slows down and sends the
+     * request again, up to the configured number of times. A 429 isn't processed
+     * by the server, so this is safe for any request.
+     * </p>
+     *
+     * <p>
+     * If the request's turn wouldn't come before the deadline, this fails with a
+     * {@link DeadlineExceededException} straight away rather than waiting.
+     * </p>
+     *
+     * @param request            A HttpRequestBase giving the request to execute.
+     *                           This request object is modified and consumed.
+     * @param expectedStatusCode The expected response status code. Should be e.g.
+     *                           200, 201, 204. Must not be 404, 400, or other error
+     *                           codes.
+     * @param parser             The parser to decode the response body with.
+     * @param deadline           The deadline of the call, or null if it has none.
+     * @return The decoded response from the server.
+     */
+    @Nullable
+    private <T> T execute(@Nonnull final HttpRequestBase request, final int expectedStatusCode,
+            @Nonnull final ResponseParser<T> parser, @Nullable final Deadline deadline)
+            throws HTTP404NotFoundException, HTTP400BadRequestException, HTTPInvalidAuthenticationException,
+            UnknownResponseException, IOException {
+
+        if (sendsOnAsyncClient()) {
+            return await(executeAsync(request, expectedStatusCode, parser, deadline));
+        }
+
+        checkCircuitBreaker(request);
+        if (rateLimiter == null) {
+            return sendGuarded(request, expectedStatusCode, parser, deadline);
+        }
+
+        for (int throttledRetries = 0;; ++throttledRetries) {
+            long delayNanos = rateLimiter.reserve();
+            if (deadline != null && delayNanos >= deadline.remainingNanos()) {
+                throw deadline.exceeded();
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(delayNanos);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                InterruptedIOException interruptedException = new InterruptedIOException(
+                        "Interrupted while waiting to send the request");
+                interruptedException.initCause(ex);
+                throw interruptedException;
+            }
+
+            try {
+                T response = sendGuarded(request, expectedStatusCode, parser, deadline);
+                rateLimiter.onSuccess();
+                return response;
+            } catch (HTTP429TooManyRequestsException ex) {
+                rateLimiter.onThrottled(ex.getRetryAfter());
+                if (throttledRetries >= maxThrottledRetries || !isRepeatable(request)) {
+                    throw ex;
+                }
+            }
+            request.reset();
+        }
+    }
+
+    /**
+     * Asynchronously executes and consumes a given request, returning the decoded
+     * response. Completes exceptionally upon an unexpected status code or other
+     * failure. Rate limiting is as for
+     * {@link #execute(HttpRequestBase, int, ResponseParser, Deadline)}, except
+     * that waiting requests are scheduled rather than blocking a thread.
+     *
+     * @param request            A HttpRequestBase giving the request to execute.
+     *                           This request object is modified and consumed.
+     * @param expectedStatusCode The expected response status code. Should be e.g.
+     *                           200, 201, 204. Must not be 404, 400, or other error
+     *                           codes.
+     * @param parser             The parser to decode the response body with.
+     * @param deadline           The deadline of the call, or null if it has none.
+     * @return A CompletableFuture that will give the decoded response from the
+     *         server, or the error as encountered. Cancelling it cancels the
+     *         request, whether it is waiting or has been sent. If the deadline
+     *         passes first, it fails with a {@link DeadlineExceededException} and
+     *         the request is cancelled.
+     */
+    @Nonnull
+    private <T> CompletableFuture<T> executeAsync(@Nonnull final HttpRequestBase request,
+            final int expectedStatusCode, @Nonnull final ResponseParser<T> parser, @Nullable final Deadline deadline) {
+        try {
+            checkCircuitBreaker(request);
+        } catch (CircuitBreakerOpenException ex) {
+            CompletableFuture<T> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(ex);
+            return rejected;
+        }
+        if (deadline != null && deadline.isExpired()) {
+            CompletableFuture<T> expired = new CompletableFuture<>();
+            expired.completeExceptionally(deadline.exceeded());
+            return expired;
+        }
+        if (rateLimiter == null) {
+            return withDeadline(sendGuardedAsync(request, expectedStatusCode, parser, deadline), deadline);
+        }
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        scheduleLimitedAsync(result, request, expectedStatusCode, parser, deadline, 0);
+        return withDeadline(result, deadline);
+    }
+
+    /**
+     * Reserves a turn for a request from the rate limiter, and sends it once that
+     * turn comes.
+     */
+    private <T> void scheduleLimitedAsync(@Nonnull final CompletableFuture<T> result,
+            @Nonnull final HttpRequestBase request, final int expectedStatusCode,
+            @Nonnull final ResponseParser<T> parser, @Nullable final Deadline deadline, final int throttledRetries) {
+        long delayNanos = rateLimiter.reserve();
+        if (delayNanos <= 0) {
+            sendLimitedAsync(result, request, expectedStatusCode, parser, deadline, throttledRetries);
+            return;
+        }
+        if (deadline != null && delayNanos >= deadline.remainingNanos()) {
+            result.completeExceptionally(deadline.exceeded());
+            return;
+        }
+
+        ScheduledFuture<?> scheduled;
+        try {
+            scheduled = getScheduler().schedule(
+                    () -> sendLimitedAsync(result, request, expectedStatusCode, parser, deadline, throttledRetries),
+                    delayNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException ex) {
+            result.completeExceptionally(new IOException("The client was closed before the request was sent", ex));
+            return;
+        }
+        result.whenComplete((response, error) -> {
+            if (result.isCancelled()) {
+                scheduled.cancel(false);
+            }
+        });
+    }
+
+    private <T> void sendLimitedAsync(@Nonnull final CompletableFuture<T> result,
+            @Nonnull final HttpRequestBase request, final int expectedStatusCode,
+            @Nonnull final ResponseParser<T> parser, @Nullable final Deadline deadline, final int throttledRetries) {
+        if (result.isDone()) {
+            return;
+        }
+
+        CompletableFuture<T> sendFuture;
+        try {
+            sendFuture = sendGuardedAsync(request, expectedStatusCode, parser, deadline);
+        } catch (RuntimeException ex) {
+            result.completeExceptionally(ex);
+            return;
+        }
+        result.whenComplete((response, error) -> {
+            if (result.isCancelled()) {
+                sendFuture.cancel(true);
+            }
+        });
+
+        sendFuture.whenComplete((response, error) -> {
+            if (error == null) {
+                rateLimiter.onSuccess();
+                result.complete(response);
+                return;
+            }
+
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause()
+                    : error;
+            if (cause instanceof HTTP429TooManyRequestsException) {
+                rateLimiter.onThrottled(((HTTP429TooManyRequestsException) cause).getRetryAfter());
+                if (!result.isDone() && throttledRetries < maxThrottledRetries && isRepeatable(request)) {
+                    request.reset();
+                    scheduleLimitedAsync(result, request, expectedStatusCode, parser, deadline, throttledRetries + 1);
+                    return;
+                }
+            }
+            result.completeExceptionally(cause);
+        });
+    }
+
+    // endregion execute(request, expectedStatusCode), executeAsync(request,
+    // expectedStatusCode)
+
+    // region executeWithRetries(request, expectedStatusCode),
+    // executeWithRetriesAsync(request, expectedStatusCode)
+
+    /**
+     * Decides whether a failed attempt at a request should be retried, and if so,
+     * spends a retry from the budget.
+     *
+     * @param request       The request, which must be safe to repeat.
+     * @param error         The reason the attempt failed.
+     * @param attempt       The number of attempts made so far.
+     * @param backoffMillis How long the retry would wait before being sent.
+     * @param deadline      The deadline of the call, or null if it has none.
+     * @return Whether to retry the request.
+     */
+    private boolean shouldRetry(@Nonnull final HttpRequestBase request, @Nonnull final Throwable error,
+            final int attempt, final long backoffMillis, @Nullable final Deadline deadline) {
+        RetryPolicy policy = retryPolicy;
+        if (policy == null || retryBudget == null || attempt >= policy.getMaxAttempts()) {
+            return false;
+        }
+
+        if (error instanceof UnknownResponseException) {
+            if (!policy.getRetryableStatusCodes().contains(((UnknownResponseException) error).getStatusCode())) {
+                return false;
+            }
+        } else if (!(error instanceof IOException) || error instanceof CircuitBreakerOpenException
+                || error instanceof DeadlineExceededException || Thread.currentThread().isInterrupted()) {
+            // A retry while the circuit breaker is open would only be rejected again.
+            return false;
+        }
+
+        if (deadline != null && TimeUnit.MILLISECONDS.toNanos(backoffMillis) >= deadline.remainingNanos()) {
+            // The retry couldn't be sent in time, so report why this attempt failed.
+            return false;
+        }
+        return isRepeatable(request) && retryBudget.tryAcquireRetry();
+    }
+
+    /**
+     * Tests whether a failed attempt may have been carried out by the server even
+     * so. It may if its response was lost, or if the server failed part-way
+     * through. It can't have been if it never reached the server, or the server
+     * turned it away as busy or unavailable.
+     *
+     * @param error The reason the attempt failed.
+     * @return Whether the attempt may have succeeded.
+     */
+    private static boolean mayHaveSucceeded(@Nonnull final Throwable error) {
+        if (error instanceof UnknownResponseException) {
+            int statusCode = ((UnknownResponseException) error).getStatusCode();
+            return statusCode == HttpStatus.SC_INTERNAL_SERVER_ERROR || statusCode == HttpStatus.SC_GATEWAY_TIMEOUT;
+        }
+        return error instanceof IOException && !(error instanceof ConnectException
+                || error instanceof NoRouteToHostException || error instanceof UnknownHostException
+                || error instanceof ConnectTimeoutException || error instanceof CircuitBreakerOpenException);
+    }
+
+    /**
+     * Synchronously executes a request that is safe to repeat, retrying it as
+     * configured by the retry policy. If the last attempt fails with a
+     * {@link ClientException}, it is marked if
+     * {@link ClientException#earlierAttemptMayHaveSucceeded() an earlier attempt
+     * may have succeeded}.
+     *
+     * @param request            The request to execute. It must be safe to send
+     *                           more than once.
+     * @param expectedStatusCode The expected response status code.
+     * @param parser             The parser to decode the response body with.
+     * @param deadline           The deadline of the call, or null if it has none.
+     *                           No retry is made that couldn't be sent before it.
+     * @return The decoded response from the server.
+     */
+    @Nullable
+    private <T> T executeWithRetries(@Nonnull final HttpRequestBase request, final int expectedStatusCode,
+            @Nonnull final ResponseParser<T> parser, @Nullable final Deadline deadline)
+            throws HTTP404NotFoundException, HTTP400BadRequestException, HTTPInvalidAuthenticationException,
+            UnknownResponseException, IOException {
+        if (retryPolicy == null || retryBudget == null) {
+            return execute(request, expectedStatusCode, parser, deadline);
+        }
+
+        retryBudget.recordRequest();
+        boolean earlierAttemptMayHaveSucceeded = false;
+        for (int attempt = 1;; ++attempt) {
+            long backoffMillis = retryPolicy.getBackoffMillis(attempt);
+            try {
+                return execute(request, expectedStatusCode, parser, deadline);
+            } catch (ClientException ex) {
+                if (!shouldRetry(request, ex, attempt, backoffMillis, deadline)) {
+                    if (earlierAttemptMayHaveSucceeded) {
+                        ex.setEarlierAttemptMayHaveSucceeded();
+                    }
+                    throw ex;
+                }
+                earlierAttemptMayHaveSucceeded |= mayHaveSucceeded(ex);
+            } catch (IOException ex) {
+                if (!shouldRetry(request, ex, attempt, backoffMillis, deadline)) {
+                    throw ex;
+                }
+                earlierAttemptMayHaveSucceeded |= mayHaveSucceeded(ex);
+            }
+
+            try {
+                Thread.sleep(backoffMillis);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                InterruptedIOException interruptedException = new InterruptedIOException(
+                        "Interrupted while waiting to retry the request");
+                interruptedException.initCause(ex);
+                throw interruptedException;
+            }
+            request.reset();
+        }
+    }
+
+    /**
+     * Asynchronously executes a request that is safe to repeat, retrying it as
+     * configured by the retry policy. Failures are as for
+     * {@link #executeWithRetries(HttpRequestBase, int, ResponseParser, Deadline)}.
+     *
+     * @param request            The request to execute. It must be safe to send
+     *                           more than once.
+     * @param expectedStatusCode The expected response status code.
+     * @param parser             The parser to decode the response body with.
+     * @param deadline           The deadline of the call, or null if it has none.
+     * @return A CompletableFuture that will give the decoded response from the
+     *         server. Cancelling it cancels the current attempt, and any retries.
+     */
+    @Nonnull
+    private <T> CompletableFuture<T> executeWithRetriesAsync(@Nonnull final HttpRequestBase request,
+            final int expectedStatusCode, @Nonnull final ResponseParser<T> parser, @Nullable final Deadline deadline) {
+        if (retryPolicy == null || retryBudget == null) {
+            return executeAsync(request, expectedStatusCode, parser, deadline);
+        }
+
+        retryBudget.recordRequest();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        executeAttemptAsync(result, request, expectedStatusCode, parser, deadline, 1, false);
+        return result;
+    }
+
+    private <T> void executeAttemptAsync(@Nonnull final CompletableFuture<T> result,
+            @Nonnull final HttpRequestBase request, final int expectedStatusCode,
+            @Nonnull final ResponseParser<T> parser, @Nullable final Deadline deadline, final int attempt,
+            final boolean earlierAttemptMayHaveSucceeded) {
+        if (result.isDone()) {
+            return;
+        }
+
+        CompletableFuture<T> attemptFuture;
+        try {
+            attemptFuture = executeAsync(request, expectedStatusCode, parser, deadline);
+        } catch (RuntimeException ex) {
+            result.completeExceptionally(ex);
+            return;
+        }
+        result.whenComplete((response, error) -> {
+            if (result.isCancelled()) {
+                attemptFuture.cancel(true);
+            }
+        });
+
+        attemptFuture.whenComplete((response, error) -> {
+            if (error == null) {
+                result.complete(response);
+                return;
+            }
+
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause()
+                    : error;
+            long backoffMillis = retryPolicy.getBackoffMillis(attempt);
+            if (!result.isDone() && shouldRetry(request, cause, attempt, backoffMillis, deadline)) {
+                request.reset();
+                boolean mayHaveSucceeded = earlierAttemptMayHaveSucceeded || mayHaveSucceeded(cause);
+                try {
+                    getScheduler().schedule(
+                            () -> executeAttemptAsync(result, request, expectedStatusCode, parser, deadline,
+                                    attempt + 1, mayHaveSucceeded),
+                            backoffMillis, TimeUnit.MILLISECONDS);
+                    return;
+                } catch (RejectedExecutionException ex) {
+                    // The client was closed while the request was failing; report the failure.
+                }
+            }
+
+            if (earlierAttemptMayHaveSucceeded && cause instanceof ClientException) {
+                ((ClientException) cause).setEarlierAttemptMayHaveSucceeded();
+            }
+            result.completeExceptionally(cause);
+        });
+    }
+
+    // endregion executeWithRetries(request, expectedStatusCode),
+    // executeWithRetriesAsync(request, expectedStatusCode)
+
+    // endregion execute(request), executeAsync(request)
+
+    // region Static ContentBody builders - buildContentBody(File | byte[] |
+    // InputStream)
+
+    @Nonnull
+    static ContentBody buildContentBody(@Nonnull File file) {
+        return new FileBody(file, ContentType.APPLICATION_OCTET_STREAM);
+    }
+
+    @Nonnull
+    static ContentBody buildContentBody(@Nonnull byte[] data) {
+        // Note: We have to give a file name as the third parameter, but for our
+        // purposes it doesn't matter what the name is.
         // (Django Rest Framework doesn't seem to like it if we don't give a file name,
         // we need to pass one in here.) ~ James
-        return new ByteArrayBody(data, ContentType.APPLICATION_OCTET_STREAM, "filename");
+        return new StreamingMultipartEntity.ByteArrayContentBody(data, ContentType.APPLICATION_OCTET_STREAM,
+                "filename");
     }
 
     @Nonnull
@@ -591,95 +2104,405 @@ class RESTClient implements Closeable {
         final HttpPost request = new HttpPost(endpoint);
 
         if (content != null) {
-            final MultipartEntityBuilder builder = MultipartEntityBuilder.create();
+            // The multipart body is streamed as the request is sent, so that large files
+            // are never held in memory in their entirety.
+            request.setEntity(StreamingMultipartEntity.create(parameters, content));
+
+        } else {
+            final EntityBuilder builder = EntityBuilder.create();
 
-            builder.setMode(HttpMultipartMode.BROWSER_COMPATIBLE);
-            builder.setCharset(Charsets.UTF_8);
+            final List<NameValuePair> parameterCollection = new ArrayList<>();
 
             if (parameters != null) {
                 for (final Map.Entry<String, String> entry : parameters.entrySet()) {
-                    builder.addTextBody(entry.getKey(), entry.getValue());
+                    parameterCollection.add(new BasicNameValuePair(entry.getKey(), entry.getValue()));
                 }
             }
 
-            for (final Map.Entry<String, ContentBody> entry : content.entrySet()) {
-                builder.addPart(entry.getKey(), entry.getValue());
+            builder.setParameters(parameterCollection);
+
+            request.setEntity(builder.build());
+        }
+
+        return request;
+    }
+
+    // endregion Request builders: buildGetRequest(endpoint, parameters),
+    // buildDeleteRequest(endpoint), buildPostRequest(endpoint, parameters, files)
+
+    // region Single-flight GETs - coalesceGet(request, parser, deadline, execute, resend)
+
+    /**
+     * Identifies GET requests whose responses are interchangeable: those for the
+     * same URI, decoded by the same parser. Parsers are compared by identity, so
+     * callers that want their requests shared should pass the same parser
+     * instance, such as one held in a constant.
+     */
+    private static final class InFlightGetKey {
+        @Nonnull
+        private final URI uri;
+        @Nonnull
+        private final ResponseParser<?> parser;
+
+        InFlightGetKey(@Nonnull final URI uri, @Nonnull final ResponseParser<?> parser) {
+            this.uri = uri;
+            this.parser = parser;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (this == other) {
+                return true;
             }
+            if (!(other instanceof InFlightGetKey)) {
+                return false;
+            }
+            InFlightGetKey key = (InFlightGetKey) other;
+            return uri.equals(key.uri) && parser == key.parser;
+        }
 
-            // Unfortunately we can't use the MultipartEntityBuilder's entity straight out
-            // of the box with HttpAsyncClient...
-            // Instead we buffer the whole thing. It's quite sad, but there isn't source
-            // available that does it without the buffering.
-            final HttpEntity multipartEntity = builder.build();
-            // This ugly wrapper is to force BufferedHttpEntity to actually buffer the
-            // entity - we need to make it claim to be not streamable...
-            request.setEntity(new BufferedHttpEntity(new HttpEntity() {
-                @Override
-                public boolean isRepeatable() {
-                    return false;
-                }
+        @Override
+        public int hashCode() {
+            return 31 * uri.hashCode() + System.identityHashCode(parser);
+        }
+    }
 
-                @Override
-                public boolean isChunked() {
-                    return multipartEntity.isChunked();
-                }
+    /**
+     * A GET request being sent on behalf of one or more callers, each of which is
+     * given its own future so that cancelling it doesn't affect the others.
+     */
+    private static final class InFlightGet<T> {
+        @Nonnull
+        final InFlightGetKey key;
 
-                @Override
-                public long getContentLength() {
-                    return multipartEntity.getContentLength();
-                }
+        /** The deadline of the caller that sent the request, or null if it has none. */
+        @Nullable
+        final Deadline deadline;
 
-                @Override
-                public Header getContentType() {
-                    return multipartEntity.getContentType();
-                }
+        /** Completed with the response, then passed on to each waiter. */
+        @Nonnull
+        final CompletableFuture<T> result = new CompletableFuture<>();
 
-                @Override
-                public Header getContentEncoding() {
-                    return multipartEntity.getContentEncoding();
-                }
+        /** The request itself, once it has been started. */
+        @Nullable
+        volatile CompletableFuture<T> request;
 
-                @Override
-                public InputStream getContent() throws IOException, UnsupportedOperationException {
-                    return multipartEntity.getContent();
-                }
+        /** The number of callers still waiting. Guarded by inFlightGetsLock. */
+        int waiters;
 
-                @Override
-                public void writeTo(OutputStream outputStream) throws IOException {
-                    multipartEntity.writeTo(outputStream);
-                }
+        InFlightGet(@Nonnull final InFlightGetKey key, @Nullable final Deadline deadline) {
+            this.key = key;
+            this.deadline = deadline;
+        }
+    }
 
-                @Override
-                public boolean isStreaming() {
-                    return multipartEntity.isStreaming();
-                }
+    /**
+     * Sends a GET request, unless an identical one is already being sent, in which
+     * case the caller waits for its response instead. This spares the server a
+     * burst of identical requests when many callers ask for the same resource at
+     * once.
+     *
+     * <p>
+     * Only requests that are in flight are shared; a request made after another
+     * has completed is always sent. Every caller receives the same decoded
+     * object, so this is only suitable for parsers of immutable values. The
+     * request is cancelled if every caller waiting on it cancels its future.
+     * </p>
+     *
+     * <p>
+     * The request is sent within the deadline of the caller that started it, and
+     * a synchronous request on that caller's thread. If it fails because that
+     * deadline passed or that thread was interrupted, each other caller that
+     * still has time sends the request again itself (sharing it with the others
+     * that do), rather than failing with an error that isn't its own.
+     * </p>
+     *
+     * @param request  The GET request.
+     * @param parser   The parser to decode the response with.
+     * @param deadline The deadline of this caller, or null if it has none.
+     * @param execute  Starts the request, if it isn't already being sent. It may
+     *                 instead send it synchronously and return a completed future.
+     * @param resend   Starts the request asynchronously, if the request this
+     *                 caller joined failed for the caller that sent it.
+     * @return A future for this caller, giving the decoded response.
+     */
+    @Nonnull
+    private <T> CompletableFuture<T> coalesceGet(@Nonnull final HttpGet request,
+            @Nonnull final ResponseParser<T> parser, @Nullable final Deadline deadline,
+            @Nonnull final Supplier<CompletableFuture<T>> execute,
+            @Nonnull final Supplier<CompletableFuture<T>> resend) {
+        InFlightGetKey key = new InFlightGetKey(request.getURI(), parser);
+        InFlightGet<T> inFlight;
+        boolean leader = false;
+
+        inFlightGetsLock.lock();
+        try {
+            @SuppressWarnings("unchecked")
+            InFlightGet<T> existing = (InFlightGet<T>) inFlightGets.get(key);
+            if (existing == null) {
+                existing = new InFlightGet<>(key, deadline);
+                inFlightGets.put(key, existing);
+                leader = true;
+            }
+            existing.waiters++;
+            inFlight = existing;
+        } finally {
+            inFlightGetsLock.unlock();
+        }
 
-                @Deprecated
-                public void consumeContent() throws IOException {
-                }
-            }));
+        CompletableFuture<T> waiter = new CompletableFuture<>();
+        boolean follower = !leader;
+        inFlight.result.whenComplete((result, error) -> {
+            if (error == null) {
+                waiter.complete(result);
+            } else if (follower && isSendersFailure(error, inFlight.deadline)
+                    && (deadline == null || !deadline.isExpired()) && !waiter.isDone()) {
+                CompletableFuture<T> again = coalesceGet(request, parser, deadline, resend, resend);
+                again.whenComplete((retried, retryError) -> {
+                    if (retryError != null) {
+                        waiter.completeExceptionally(retryError);
+                    } else {
+                        waiter.complete(retried);
+                    }
+                });
+                waiter.whenComplete((retried, retryError) -> {
+                    if (waiter.isCancelled()) {
+                        again.cancel(true);
+                    }
+                });
+            } else {
+                waiter.completeExceptionally(error);
+            }
+        });
+        waiter.whenComplete((result, error) -> {
+            if (waiter.isCancelled()) {
+                leaveInFlightGet(inFlight);
+            }
+        });
 
-        } else {
-            final EntityBuilder builder = EntityBuilder.create();
+        if (leader) {
+            startInFlightGet(inFlight, execute);
+        }
+        return waiter;
+    }
 
-            final List<NameValuePair> parameterCollection = new ArrayList<>();
+    /**
+     * Tests whether a shared request failed because of the caller that sent it:
+     * because its deadline passed (which also cuts short the socket timeout), or
+     * because its thread was interrupted.
+     */
+    private static boolean isSendersFailure(@Nonnull final Throwable error, @Nullable final Deadline deadline) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof DeadlineExceededException) {
+            return true;
+        }
+        if (cause instanceof SocketTimeoutException) {
+            return deadline != null && deadline.isExpired();
+        }
+        return cause instanceof InterruptedIOException;
+    }
 
-            if (parameters != null) {
-                for (final Map.Entry<String, String> entry : parameters.entrySet()) {
-                    parameterCollection.add(new BasicNameValuePair(entry.getKey(), entry.getValue()));
-                }
+    private <T> void startInFlightGet(@Nonnull final InFlightGet<T> inFlight,
+            @Nonnull final Supplier<CompletableFuture<T>> execute) {
+        CompletableFuture<T> request;
+        try {
+            request = execute.get();
+        } catch (Throwable ex) {
+            request = new CompletableFuture<>();
+            request.completeExceptionally(ex);
+        }
+        inFlight.request = request;
+
+        request.whenComplete((result, error) -> {
+            inFlightGetsLock.lock();
+            try {
+                inFlightGets.remove(inFlight.key, inFlight);
+            } finally {
+                inFlightGetsLock.unlock();
             }
+            if (error != null) {
+                inFlight.result.completeExceptionally(error);
+            } else {
+                inFlight.result.complete(result);
+            }
+        });
 
-            builder.setParameters(parameterCollection);
+        // Every waiter may have cancelled before the request was started.
+        if (inFlight.result.isCancelled()) {
+            request.cancel(true);
+        }
+    }
 
-            request.setEntity(builder.build());
+    private void leaveInFlightGet(@Nonnull final InFlightGet<?> inFlight) {
+        inFlightGetsLock.lock();
+        try {
+            if (--inFlight.waiters > 0 || inFlight.result.isDone()) {
+                return;
+            }
+            inFlightGets.remove(inFlight.key, inFlight);
+        } finally {
+            inFlightGetsLock.unlock();
         }
 
-        return request;
+        inFlight.result.cancel(true);
+        CompletableFuture<?> request = inFlight.request;
+        if (request != null) {
+            request.cancel(true);
+        }
     }
 
-    // endregion Request builders: buildGetRequest(endpoint, parameters),
-    // buildDeleteRequest(endpoint), buildPostRequest(endpoint, parameters, files)
+    /**
+     * Sends a GET request for a synchronous caller. The request is sent on the
+     * calling thread unless requests are always sent asynchronously.
+     */
+    @Nonnull
+    private <T> CompletableFuture<T> executeGet(@Nonnull final HttpGet request,
+            @Nonnull final ResponseParser<T> parser, @Nullable final Deadline deadline) {
+        if (sendsOnAsyncClient()) {
+            return executeWithRetriesAsync(request, HttpStatus.SC_OK, parser, deadline);
+        }
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            future.complete(executeWithRetries(request, HttpStatus.SC_OK, parser, deadline));
+        } catch (ClientException | IOException | RuntimeException ex) {
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+
+    // endregion Single-flight GETs - coalesceGet(request, parser, deadline, execute, resend)
+
+    // region Hedged GETs - executeHedgedAsync(request, parser)
+
+    /**
+     * Sends a GET request, and if no response has arrived within the hedging
+     * delay, sends an identical request alongside it. The first successful
+     * response is used, and the other request is cancelled. If a request fails
+     * because the server couldn't be reached or responded with a 5xx status code,
+     * the other request is still waited for; any other failure is final, as the
+     * other request would fail the same way.
+     *
+     * <p>
+     * Each request is sent and retried as by
+     * {@link #executeWithRetriesAsync(HttpRequestBase, int, ResponseParser, Deadline)},
+     * with the same deadline. The Apache client sends the hedge on another
+     * pooled connection.
+     * </p>
+     *
+     * @param request  The GET request.
+     * @param parser   The parser to decode the response with, which also selects
+     *                 the response times the delay is estimated from.
+     * @param deadline The deadline of the call, or null if it has none.
+     * @return A CompletableFuture that will give the decoded response from the
+     *         server. Cancelling it cancels both requests.
+     */
+    @Nonnull
+    private <T> CompletableFuture<T> executeHedgedAsync(@Nonnull final HttpGet request,
+            @Nonnull final ResponseParser<T> parser, @Nullable final Deadline deadline) {
+        HedgingPolicy policy = hedgingPolicy;
+        RetryBudget budget = hedgeBudget;
+        if (policy == null || budget == null) {
+            return executeWithRetriesAsync(request, HttpStatus.SC_OK, parser, deadline);
+        }
+
+        LatencyTracker tracker = latencyTrackers.computeIfAbsent(parser,
+                key -> new LatencyTracker(policy.getPercentile()));
+        budget.recordRequest();
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        // The requests that may still succeed. Once this reaches zero, every request
+        // has failed, and no hedge may be started.
+        AtomicInteger pending = new AtomicInteger(1);
+        long startNanos = System.nanoTime();
+
+        CompletableFuture<T> primary = startHedgedRequest(result, pending, request, parser, deadline);
+        primary.whenComplete((response, error) -> {
+            if (error == null) {
+                tracker.record(System.nanoTime() - startNanos);
+            }
+        });
+
+        long percentileNanos = tracker.getPercentileNanos();
+        long delayNanos = percentileNanos < 0 ? policy.getMaxDelay().toNanos()
+                : Math.max(policy.getMinDelay().toNanos(), Math.min(policy.getMaxDelay().toNanos(), percentileNanos));
+
+        ScheduledFuture<?> scheduledHedge;
+        try {
+            scheduledHedge = getScheduler().schedule(() -> {
+                if (result.isDone() || !budget.tryAcquireRetry() || !incrementIfPositive(pending)) {
+                    return;
+                }
+                HttpGet hedgeRequest = new HttpGet(request.getURI());
+                CompletableFuture<T> hedge = startHedgedRequest(result, pending, hedgeRequest, parser, deadline);
+                result.whenComplete((response, error) -> hedge.cancel(true));
+            }, delayNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException ex) {
+            // The client is being closed, so just wait for the first request.
+            scheduledHedge = null;
+        }
+
+        ScheduledFuture<?> currentScheduledHedge = scheduledHedge;
+        result.whenComplete((response, error) -> {
+            if (currentScheduledHedge != null) {
+                currentScheduledHedge.cancel(false);
+            }
+            if (!primary.isDone()) {
+                // The hedge won. The time so far is a lower bound for the first request,
+                // and recording it keeps slow responses in the estimate.
+                tracker.record(System.nanoTime() - startNanos);
+                primary.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Sends one of the requests for
+     * {@link #executeHedgedAsync(HttpGet, ResponseParser, Deadline)}, completing
+     * the result with its response, or with its failure if that is final.
+     */
+    @Nonnull
+    private <T> CompletableFuture<T> startHedgedRequest(@Nonnull final CompletableFuture<T> result,
+            @Nonnull final AtomicInteger pending, @Nonnull final HttpGet request,
+            @Nonnull final ResponseParser<T> parser, @Nullable final Deadline deadline) {
+        CompletableFuture<T> future;
+        try {
+            future = executeWithRetriesAsync(request, HttpStatus.SC_OK, parser, deadline);
+        } catch (RuntimeException ex) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(ex);
+        }
+
+        future.whenComplete((response, error) -> {
+            if (error == null) {
+                result.complete(response);
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause()
+                    : error;
+            if (cause instanceof CancellationException) {
+                return;
+            }
+            if (pending.decrementAndGet() == 0 || !isServerFailure(cause)) {
+                result.completeExceptionally(cause);
+            }
+        });
+        return future;
+    }
+
+    private static boolean incrementIfPositive(@Nonnull final AtomicInteger counter) {
+        int current;
+        do {
+            current = counter.get();
+            if (current <= 0) {
+                return false;
+            }
+        } while (!counter.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    // endregion Hedged GETs - executeHedgedAsync(request, parser)
 
     // region get(endpoint, [parameters]), getAsync(endpoint, [parameters])
 
@@ -728,7 +2551,29 @@ class RESTClient implements Closeable {
     String get(@Nonnull final URI endpoint, @Nullable final Map<String, String> parameters)
             throws HTTP404NotFoundException, HTTP400BadRequestException, HTTPInvalidAuthenticationException,
             UnknownResponseException, IOException {
-        return execute(buildGetRequest(endpoint, parameters), HttpStatus.SC_OK);
+        return get(endpoint, parameters, stringParser);
+    }
+
+    /**
+     * Synchronously queries a given endpoint with a GET request, decoding the
+     * response as it is read. Exceptions are as documented in
+     * {@link #get(URI, Map)}. An identical request that is already being sent is
+     * joined rather than repeated.
+     *
+     * @param endpoint   The URI to query.
+     * @param parameters The GET parameters to pass in the query.
+     * @param parser     The parser to decode the response with.
+     * @return The decoded response from the server.
+     */
+    @Nullable
+    <T> T get(@Nonnull final URI endpoint, @Nullable final Map<String, String> parameters,
+            @Nonnull final ResponseParser<T> parser) throws HTTP404NotFoundException, HTTP400BadRequestException,
+            HTTPInvalidAuthenticationException, UnknownResponseException, IOException {
+        HttpGet request = buildGetRequest(endpoint, parameters);
+        Deadline deadline = newDeadline(null);
+        return await(withDeadline(coalesceGet(request, parser, deadline, () -> executeGet(request, parser, deadline),
+                () -> executeWithRetriesAsync(request, HttpStatus.SC_OK, parser, deadline)),
+                deadline));
     }
 
     /**
@@ -780,7 +2625,49 @@ class RESTClient implements Closeable {
     String get(@Nonnull final String endpoint, @Nullable final Map<String, String> parameters)
             throws IllegalArgumentException, HTTP404NotFoundException, HTTP400BadRequestException,
             HTTPInvalidAuthenticationException, UnknownResponseException, IOException {
-        return execute(buildGetRequest(endpoint, parameters), HttpStatus.SC_OK);
+        return get(endpoint, parameters, stringParser);
+    }
+
+    /**
+     * Synchronously queries a given endpoint with a GET request, decoding the
+     * response as it is read. Exceptions are as documented in
+     * {@link #get(String, Map)}. An identical request that is already being sent
+     * is joined rather than repeated.
+     *
+     * @param endpoint   The URI to query.
+     * @param parameters The GET parameters to pass in the query.
+     * @param parser     The parser to decode the response with.
+     * @return The decoded response from the server.
+     */
+    @Nullable
+    <T> T get(@Nonnull final String endpoint, @Nullable final Map<String, String> parameters,
+            @Nonnull final ResponseParser<T> parser) throws IllegalArgumentException, HTTP404NotFoundException,
+            HTTP400BadRequestException, HTTPInvalidAuthenticationException, UnknownResponseException, IOException {
+        return get(endpoint, parameters, parser, newDeadline(null));
+    }
+
+    /**
+     * Synchronously queries a given endpoint with a GET request, as for
+     * {@link #get(String, Map, ResponseParser)}, within a deadline. If the
+     * deadline passes first, a {@link DeadlineExceededException} is thrown. When
+     * an identical request is joined, it is sent again if it fails because the
+     * deadline of the caller that started it passed first.
+     *
+     * @param endpoint   The URI to query.
+     * @param parameters The GET parameters to pass in the query.
+     * @param parser     The parser to decode the response with.
+     * @param deadline   The deadline of the call, or null if it has none.
+     * @return The decoded response from the server.
+     */
+    @Nullable
+    <T> T get(@Nonnull final String endpoint, @Nullable final Map<String, String> parameters,
+            @Nonnull final ResponseParser<T> parser, @Nullable final Deadline deadline)
+            throws IllegalArgumentException, HTTP404NotFoundException, HTTP400BadRequestException,
+            HTTPInvalidAuthenticationException, UnknownResponseException, IOException {
+        HttpGet request = buildGetRequest(endpoint, parameters);
+        return await(withDeadline(coalesceGet(request, parser, deadline, () -> executeGet(request, parser, deadline),
+                () -> executeWithRetriesAsync(request, HttpStatus.SC_OK, parser, deadline)),
+                deadline));
     }
 
     /**
@@ -807,7 +2694,29 @@ class RESTClient implements Closeable {
      */
     @Nonnull
     CompletableFuture<String> getAsync(@Nonnull final URI endpoint, @Nullable final Map<String, String> parameters) {
-        return executeAsync(buildGetRequest(endpoint, parameters), HttpStatus.SC_OK);
+        return getAsync(endpoint, parameters, stringParser);
+    }
+
+    /**
+     * Asynchronously queries a given endpoint with a GET request, decoding the
+     * response as it is read. An identical request that is already being sent is
+     * joined rather than repeated.
+     *
+     * @param endpoint   The URI to query.
+     * @param parameters The GET parameters to pass in the query.
+     * @param parser     The parser to decode the response with.
+     * @return A CompletableFuture giving the decoded response from the server.
+     *         Exceptional completions as documented in the synchronous get()
+     *         methods are possible.
+     */
+    @Nonnull
+    <T> CompletableFuture<T> getAsync(@Nonnull final URI endpoint, @Nullable final Map<String, String> parameters,
+            @Nonnull final ResponseParser<T> parser) {
+        HttpGet request = buildGetRequest(endpoint, parameters);
+        Deadline deadline = newDeadline(null);
+        Supplier<CompletableFuture<T>> send = () -> executeWithRetriesAsync(request, HttpStatus.SC_OK, parser,
+                deadline);
+        return withDeadline(coalesceGet(request, parser, deadline, send, send), deadline);
     }
 
     /**
@@ -825,19 +2734,113 @@ class RESTClient implements Closeable {
     }
 
     /**
-     * Asynchronously queries a given endpoint with a GET request.
+     * Asynchronously queries a given endpoint with a GET request.
+     *
+     * @param endpoint   The URI to query.
+     * @param parameters The GET parameters to pass in the query.
+     * @return A CompletableFuture giving the response from the server, as a String.
+     *         Exceptional completions as documented in the synchronous get()
+     *         methods are possible.
+     * @throws IllegalArgumentException The given endpoint is not a valid URI.
+     */
+    @Nonnull
+    CompletableFuture<String> getAsync(@Nonnull final String endpoint, @Nullable final Map<String, String> parameters)
+            throws IllegalArgumentException {
+        return getAsync(endpoint, parameters, stringParser);
+    }
+
+    /**
+     * Asynchronously queries a given endpoint with a GET request, decoding the
+     * response as it is read. An identical request that is already being sent is
+     * joined rather than repeated.
+     *
+     * @param endpoint   The URI to query.
+     * @param parameters The GET parameters to pass in the query.
+     * @param parser     The parser to decode the response with.
+     * @return A CompletableFuture giving the decoded response from the server.
+     *         Exceptional completions as documented in the synchronous get()
+     *         methods are possible.
+     * @throws IllegalArgumentException The given endpoint is not a valid URI.
+     */
+    @Nonnull
+    <T> CompletableFuture<T> getAsync(@Nonnull final String endpoint, @Nullable final Map<String, String> parameters,
+            @Nonnull final ResponseParser<T> parser) throws IllegalArgumentException {
+        return getAsync(endpoint, parameters, parser, newDeadline(null));
+    }
+
+    /**
+     * Asynchronously queries a given endpoint with a GET request, as for
+     * {@link #getAsync(String, Map, ResponseParser)}, within a deadline. If the
+     * deadline passes first, the future fails with a
+     * {@link DeadlineExceededException}.
+     *
+     * @param endpoint   The URI to query.
+     * @param parameters The GET parameters to pass in the query.
+     * @param parser     The parser to decode the response with.
+     * @param deadline   The deadline of the call, or null if it has none.
+     * @return A CompletableFuture giving the decoded response from the server.
+     *         Exceptional completions as documented in the synchronous get()
+     *         methods are possible.
+     * @throws IllegalArgumentException The given endpoint is not a valid URI.
+     */
+    @Nonnull
+    <T> CompletableFuture<T> getAsync(@Nonnull final String endpoint, @Nullable final Map<String, String> parameters,
+            @Nonnull final ResponseParser<T> parser, @Nullable final Deadline deadline)
+            throws IllegalArgumentException {
+        HttpGet request = buildGetRequest(endpoint, parameters);
+        Supplier<CompletableFuture<T>> send = () -> executeWithRetriesAsync(request, HttpStatus.SC_OK, parser,
+                deadline);
+        return withDeadline(coalesceGet(request, parser, deadline, send, send), deadline);
+    }
+
+    /**
+     * Synchronously reads a given endpoint with a GET request, hedging it if it is
+     * slow as configured by the hedging policy. The request is otherwise as for
+     * {@link #get(String, Map, ResponseParser)}. A hedged request is sent on the
+     * asynchronous client, and the calling thread waits for the response.
+     *
+     * @param endpoint The URI to query.
+     * @param parser   The parser to decode the response with. Reads of the same
+     *                 kind must share a parser, so that their response times are
+     *                 tracked together.
+     * @param deadline The deadline of the call, or null if it has none.
+     * @return The decoded response from the server.
+     */
+    @Nullable
+    <T> T getHedged(@Nonnull final String endpoint, @Nonnull final ResponseParser<T> parser,
+            @Nullable final Deadline deadline) throws IllegalArgumentException, HTTP404NotFoundException,
+            HTTP400BadRequestException, HTTPInvalidAuthenticationException, UnknownResponseException, IOException {
+        if (hedgingPolicy == null) {
+            return get(endpoint, null, parser, deadline);
+        }
+        HttpGet request = buildGetRequest(endpoint, null);
+        Supplier<CompletableFuture<T>> send = () -> executeHedgedAsync(request, parser, deadline);
+        return await(withDeadline(coalesceGet(request, parser, deadline, send, send), deadline));
+    }
+
+    /**
+     * Asynchronously reads a given endpoint with a GET request, hedging it if it
+     * is slow as configured by the hedging policy. The request is otherwise as for
+     * {@link #getAsync(String, Map, ResponseParser)}.
      *
-     * @param endpoint   The URI to query.
-     * @param parameters The GET parameters to pass in the query.
-     * @return A CompletableFuture giving the response from the server, as a String.
+     * @param endpoint The URI to query.
+     * @param parser   The parser to decode the response with. Reads of the same
+     *                 kind must share a parser, so that their response times are
+     *                 tracked together.
+     * @param deadline The deadline of the call, or null if it has none.
+     * @return A CompletableFuture giving the decoded response from the server.
      *         Exceptional completions as documented in the synchronous get()
      *         methods are possible.
-     * @throws IllegalArgumentException The given endpoint is not a valid URI.
      */
     @Nonnull
-    CompletableFuture<String> getAsync(@Nonnull final String endpoint, @Nullable final Map<String, String> parameters)
-            throws IllegalArgumentException {
-        return executeAsync(buildGetRequest(endpoint, parameters), HttpStatus.SC_OK);
+    <T> CompletableFuture<T> getHedgedAsync(@Nonnull final String endpoint, @Nonnull final ResponseParser<T> parser,
+            @Nullable final Deadline deadline) throws IllegalArgumentException {
+        if (hedgingPolicy == null) {
+            return getAsync(endpoint, null, parser, deadline);
+        }
+        HttpGet request = buildGetRequest(endpoint, null);
+        Supplier<CompletableFuture<T>> send = () -> executeHedgedAsync(request, parser, deadline);
+        return withDeadline(coalesceGet(request, parser, deadline, send, send), deadline);
     }
 
     // endregion get(endpoint), getAsync(endpoint)
@@ -863,7 +2866,15 @@ class RESTClient implements Closeable {
      */
     void delete(@Nonnull final URI endpoint) throws HTTP404NotFoundException, HTTP400BadRequestException,
             HTTPInvalidAuthenticationException, UnknownResponseException, IOException {
-        execute(buildDeleteRequest(endpoint), HttpStatus.SC_NO_CONTENT);
+        try {
+            executeWithRetries(buildDeleteRequest(endpoint), HttpStatus.SC_NO_CONTENT, RESTClient::readString,
+                    newDeadline(null));
+        } catch (HTTP404NotFoundException ex) {
+            if (!ex.earlierAttemptMayHaveSucceeded()) {
+                throw ex;
+            }
+            // An earlier attempt deleted it, but its response was lost.
+        }
     }
 
     /**
@@ -887,7 +2898,29 @@ class RESTClient implements Closeable {
      */
     void delete(@Nonnull final String endpoint) throws IllegalArgumentException, HTTP404NotFoundException,
             HTTP400BadRequestException, HTTPInvalidAuthenticationException, UnknownResponseException, IOException {
-        execute(buildDeleteRequest(endpoint), HttpStatus.SC_NO_CONTENT);
+        delete(endpoint, newDeadline(null));
+    }
+
+    /**
+     * Synchronously submits a DELETE request to a given endpoint, as for
+     * {@link #delete(String)}, within a deadline. If the deadline passes first, a
+     * {@link DeadlineExceededException} is thrown.
+     *
+     * @param endpoint The URI to submit the DELETE request to.
+     * @param deadline The deadline of the call, or null if it has none.
+     */
+    void delete(@Nonnull final String endpoint, @Nullable final Deadline deadline) throws IllegalArgumentException,
+            HTTP404NotFoundException, HTTP400BadRequestException, HTTPInvalidAuthenticationException,
+            UnknownResponseException, IOException {
+        try {
+            executeWithRetries(buildDeleteRequest(endpoint), HttpStatus.SC_NO_CONTENT, RESTClient::readString,
+                    deadline);
+        } catch (HTTP404NotFoundException ex) {
+            if (!ex.earlierAttemptMayHaveSucceeded()) {
+                throw ex;
+            }
+            // An earlier attempt deleted it, but its response was lost.
+        }
     }
 
     /**
@@ -898,8 +2931,7 @@ class RESTClient implements Closeable {
      */
     @Nonnull
     CompletableFuture<Void> deleteAsync(@Nonnull final URI endpoint) {
-        // Execute, then consume the result.
-        return executeAsync(buildDeleteRequest(endpoint), HttpStatus.SC_NO_CONTENT).thenApply(result -> null);
+        return executeDeleteAsync(buildDeleteRequest(endpoint), newDeadline(null));
     }
 
     /**
@@ -911,8 +2943,45 @@ class RESTClient implements Closeable {
      */
     @Nonnull
     CompletableFuture<Void> deleteAsync(@Nonnull final String endpoint) throws IllegalArgumentException {
+        return deleteAsync(endpoint, newDeadline(null));
+    }
+
+    /**
+     * Asynchronously submits a DELETE request to a given endpoint, as for
+     * {@link #deleteAsync(String)}, within a deadline. If the deadline passes
+     * first, the future fails with a {@link DeadlineExceededException}.
+     *
+     * @param endpoint The URI to submit the DELETE request to.
+     * @param deadline The deadline of the call, or null if it has none.
+     * @throws IllegalArgumentException The given endpoint is not a valid URI.
+     */
+    @Nonnull
+    CompletableFuture<Void> deleteAsync(@Nonnull final String endpoint, @Nullable final Deadline deadline)
+            throws IllegalArgumentException {
+        return executeDeleteAsync(buildDeleteRequest(endpoint), deadline);
+    }
+
+    @Nonnull
+    private CompletableFuture<Void> executeDeleteAsync(@Nonnull final HttpDelete request,
+            @Nullable final Deadline deadline) {
         // Execute, then consume the result.
-        return executeAsync(buildDeleteRequest(endpoint), HttpStatus.SC_NO_CONTENT).thenApply(result -> null);
+        CompletableFuture<String> response = executeWithRetriesAsync(request, HttpStatus.SC_NO_CONTENT,
+                RESTClient::readString, deadline);
+        return Utils.propagateCancellation(response.handle(RESTClient::ignoreRetriedNotFound), response);
+    }
+
+    /**
+     * Completes an asynchronous DELETE, treating a 404 as success if an earlier
+     * attempt may have deleted the resource even though its response was lost.
+     */
+    @Nullable
+    private static Void ignoreRetriedNotFound(@Nullable final String result, @Nullable final Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause == null || (cause instanceof HTTP404NotFoundException
+                && ((HTTP404NotFoundException) cause).earlierAttemptMayHaveSucceeded())) {
+            return null;
+        }
+        throw new CompletionException(cause);
     }
 
     // endregion delete(endpoint), deleteAsync(endpoint)
@@ -944,7 +3013,32 @@ class RESTClient implements Closeable {
     String post(@Nonnull final URI endpoint, @Nullable final Map<String, String> parameters,
             @Nullable final Map<String, ContentBody> content) throws HTTP404NotFoundException,
             HTTP400BadRequestException, HTTPInvalidAuthenticationException, UnknownResponseException, IOException {
-        return execute(buildPostRequest(endpoint, parameters, content), HttpStatus.SC_CREATED);
+        return post(endpoint, parameters, content, RESTClient::readString, false);
+    }
+
+    /**
+     * Synchronously submits a POST request to a given endpoint, decoding the
+     * response as it is read. Exceptions are as documented in
+     * {@link #post(URI, Map, Map)}.
+     *
+     * @param endpoint   The URI to submit the POST request to.
+     * @param parameters Parameters to include in the POST request body.
+     * @param content    Other content (including files) to include in the POST
+     *                   request body.
+     * @param parser     The parser to decode the response with.
+     * @param idempotent Whether the request is safe to send more than once, so
+     *                   that it may be retried.
+     * @return The decoded response from the server.
+     */
+    @Nullable
+    <T> T post(@Nonnull final URI endpoint, @Nullable final Map<String, String> parameters,
+            @Nullable final Map<String, ContentBody> content, @Nonnull final ResponseParser<T> parser,
+            final boolean idempotent) throws HTTP404NotFoundException, HTTP400BadRequestException,
+            HTTPInvalidAuthenticationException, UnknownResponseException, IOException {
+        HttpPost request = buildPostRequest(endpoint, parameters, content);
+        Deadline deadline = newDeadline(null);
+        return idempotent ? executeWithRetries(request, HttpStatus.SC_CREATED, parser, deadline)
+                : execute(request, HttpStatus.SC_CREATED, parser, deadline);
     }
 
     /**
@@ -973,7 +3067,56 @@ class RESTClient implements Closeable {
     String post(@Nonnull final String endpoint, @Nullable final Map<String, String> parameters,
             @Nullable final Map<String, ContentBody> content) throws IllegalArgumentException, HTTP404NotFoundException,
             HTTP400BadRequestException, HTTPInvalidAuthenticationException, UnknownResponseException, IOException {
-        return execute(buildPostRequest(endpoint, parameters, content), HttpStatus.SC_CREATED);
+        return post(endpoint, parameters, content, RESTClient::readString, false);
+    }
+
+    /**
+     * Synchronously submits a POST request to a given endpoint, decoding the
+     * response as it is read. Exceptions are as documented in
+     * {@link #post(String, Map, Map)}.
+     *
+     * @param endpoint   The URI to submit the POST request to.
+     * @param parameters Parameters to include in the POST request body.
+     * @param content    Other content (including files) to include in the POST
+     *                   request body.
+     * @param parser     The parser to decode the response with.
+     * @param idempotent Whether the request is safe to send more than once, so
+     *                   that it may be retried.
+     * @return The decoded response from the server.
+     */
+    @Nullable
+    <T> T post(@Nonnull final String endpoint, @Nullable final Map<String, String> parameters,
+            @Nullable final Map<String, ContentBody> content, @Nonnull final ResponseParser<T> parser,
+            final boolean idempotent) throws IllegalArgumentException, HTTP404NotFoundException,
+            HTTP400BadRequestException, HTTPInvalidAuthenticationException, UnknownResponseException, IOException {
+        return post(endpoint, parameters, content, parser, idempotent, newDeadline(null));
+    }
+
+    /**
+     * Synchronously submits a POST request to a given endpoint, as for
+     * {@link #post(String, Map, Map, ResponseParser, boolean)}, within a deadline.
+     * If the deadline passes first, a {@link DeadlineExceededException} is
+     * thrown.
+     *
+     * @param endpoint   The URI to submit the POST request to.
+     * @param parameters Parameters to include in the POST request body.
+     * @param content    Other content (including files) to include in the POST
+     *                   request body.
+     * @param parser     The parser to decode the response with.
+     * @param idempotent Whether the request is safe to send more than once, so
+     *                   that it may be retried.
+     * @param deadline   The deadline of the call, or null if it has none.
+     * @return The decoded response from the server.
+     */
+    @Nullable
+    <T> T post(@Nonnull final String endpoint, @Nullable final Map<String, String> parameters,
+            @Nullable final Map<String, ContentBody> content, @Nonnull final ResponseParser<T> parser,
+            final boolean idempotent, @Nullable final Deadline deadline) throws IllegalArgumentException,
+            HTTP404NotFoundException, HTTP400BadRequestException, HTTPInvalidAuthenticationException,
+            UnknownResponseException, IOException {
+        HttpPost request = buildPostRequest(endpoint, parameters, content);
+        return idempotent ? executeWithRetries(request, HttpStatus.SC_CREATED, parser, deadline)
+                : execute(request, HttpStatus.SC_CREATED, parser, deadline);
     }
 
     /**
@@ -990,10 +3133,35 @@ class RESTClient implements Closeable {
     @Nonnull
     CompletableFuture<String> postAsync(@Nonnull final URI endpoint, @Nullable final Map<String, String> parameters,
             @Nullable final Map<String, ContentBody> content) {
+        return postAsync(endpoint, parameters, content, RESTClient::readString, false);
+    }
+
+    /**
+     * Asynchronously submits a POST request to a given endpoint, decoding the
+     * response as it is read.
+     *
+     * @param endpoint   The URI to submit the POST request to.
+     * @param parameters Parameters to include in the POST request body.
+     * @param content    Other content (including files) to include in the POST
+     *                   request body.
+     * @param parser     The parser to decode the response with.
+     * @param idempotent Whether the request is safe to send more than once, so
+     *                   that it may be retried.
+     * @return A CompletableFuture giving the decoded response from the server.
+     *         Exceptional completions as documented in the synchronous post()
+     *         methods are possible.
+     */
+    @Nonnull
+    <T> CompletableFuture<T> postAsync(@Nonnull final URI endpoint, @Nullable final Map<String, String> parameters,
+            @Nullable final Map<String, ContentBody> content, @Nonnull final ResponseParser<T> parser,
+            final boolean idempotent) {
         try {
-            return executeAsync(buildPostRequest(endpoint, parameters, content), HttpStatus.SC_CREATED);
+            HttpPost request = buildPostRequest(endpoint, parameters, content);
+            Deadline deadline = newDeadline(null);
+            return idempotent ? executeWithRetriesAsync(request, HttpStatus.SC_CREATED, parser, deadline)
+                    : executeAsync(request, HttpStatus.SC_CREATED, parser, deadline);
         } catch (IOException ex) {
-            CompletableFuture<String> failedFuture = new CompletableFuture<>();
+            CompletableFuture<T> failedFuture = new CompletableFuture<>();
             failedFuture.completeExceptionally(ex);
             return failedFuture;
         }
@@ -1014,10 +3182,61 @@ class RESTClient implements Closeable {
     @Nonnull
     CompletableFuture<String> postAsync(@Nonnull final String endpoint, @Nullable final Map<String, String> parameters,
             @Nullable final Map<String, ContentBody> content) throws IllegalArgumentException {
+        return postAsync(endpoint, parameters, content, RESTClient::readString, false);
+    }
+
+    /**
+     * Asynchronously submits a POST request to a given endpoint, decoding the
+     * response as it is read.
+     *
+     * @param endpoint   The URI to submit the POST request to.
+     * @param parameters Parameters to include in the POST request body.
+     * @param content    Other content (including files) to include in the POST
+     *                   request body.
+     * @param parser     The parser to decode the response with.
+     * @param idempotent Whether the request is safe to send more than once, so
+     *                   that it may be retried.
+     * @return A CompletableFuture giving the decoded response from the server.
+     *         Exceptional completions as documented in the synchronous post()
+     *         methods are possible.
+     * @throws IllegalArgumentException The given endpoint is not a valid URI.
+     */
+    @Nonnull
+    <T> CompletableFuture<T> postAsync(@Nonnull final String endpoint, @Nullable final Map<String, String> parameters,
+            @Nullable final Map<String, ContentBody> content, @Nonnull final ResponseParser<T> parser,
+            final boolean idempotent) throws IllegalArgumentException {
+        return postAsync(endpoint, parameters, content, parser, idempotent, newDeadline(null));
+    }
+
+    /**
+     * Asynchronously submits a POST request to a given endpoint, as for
+     * {@link #postAsync(String, Map, Map, ResponseParser, boolean)}, within a
+     * deadline. If the deadline passes first, the future fails with a
+     * {@link DeadlineExceededException}.
+     *
+     * @param endpoint   The URI to submit the POST request to.
+     * @param parameters Parameters to include in the POST request body.
+     * @param content    Other content (including files) to include in the POST
+     *                   request body.
+     * @param parser     The parser to decode the response with.
+     * @param idempotent Whether the request is safe to send more than once, so
+     *                   that it may be retried.
+     * @param deadline   The deadline of the call, or null if it has none.
+     * @return A CompletableFuture giving the decoded response from the server.
+     *         Exceptional completions as documented in the synchronous post()
+     *         methods are possible.
+     * @throws IllegalArgumentException The given endpoint is not a valid URI.
+     */
+    @Nonnull
+    <T> CompletableFuture<T> postAsync(@Nonnull final String endpoint, @Nullable final Map<String, String> parameters,
+            @Nullable final Map<String, ContentBody> content, @Nonnull final ResponseParser<T> parser,
+            final boolean idempotent, @Nullable final Deadline deadline) throws IllegalArgumentException {
         try {
-            return executeAsync(buildPostRequest(endpoint, parameters, content), HttpStatus.SC_CREATED);
+            HttpPost request = buildPostRequest(endpoint, parameters, content);
+            return idempotent ? executeWithRetriesAsync(request, HttpStatus.SC_CREATED, parser, deadline)
+                    : executeAsync(request, HttpStatus.SC_CREATED, parser, deadline);
         } catch (IOException ex) {
-            CompletableFuture<String> failedFuture = new CompletableFuture<>();
+            CompletableFuture<T> failedFuture = new CompletableFuture<>();
             failedFuture.completeExceptionally(ex);
             return failedFuture;
         }
@@ -1025,6 +3244,423 @@ class RESTClient implements Closeable {
 
     // endregion post(endpoint, data, files), postAsync(endpoint, data, files)
 
+    // region download(endpoint, authorizedOrigin, target),
+    // downloadAsync(endpoint, authorizedOrigin, target)
+
+    /** The most redirects we follow when downloading a file. */
+    private static final int maxDownloadRedirects = 5;
+
+    /**
+     * Tests whether two URIs have the same scheme, host and port.
+     */
+    static boolean isSameOrigin(@Nonnull final URI uri, @Nullable final URI origin) {
+        return origin != null && uri.getScheme() != null && uri.getHost() != null
+                && uri.getScheme().equalsIgnoreCase(origin.getScheme())
+                && uri.getHost().equalsIgnoreCase(origin.getHost())
+                && getEffectivePort(uri) == getEffectivePort(origin);
+    }
+
+    private static int getEffectivePort(@Nonnull final URI uri) {
+        if (uri.getPort() != -1) {
+            return uri.getPort();
+        }
+        return "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+    }
+
+    /**
+     * Builds a GET request for a file download. Redirects are followed by us
+     * rather than the HTTP client, since the Apache clients copy every header
+     * (including our auth token) to the redirect target, wherever it is.
+     */
+    @Nonnull
+    private HttpGet buildDownloadRequest(@Nonnull final URI endpoint, @Nullable final URI authorizedOrigin) {
+        HttpGet request = new HttpGet(endpoint);
+        request.setConfig(RequestConfig.custom().setRedirectsEnabled(false).build());
+        // A download takes as long as the export's size requires, so only the
+        // per-request timeouts apply, not a deadline.
+        applyTimeouts(request, null);
+        if (isSameOrigin(endpoint, authorizedOrigin)) {
+            request.setHeader("Authorization", "Token " + authToken);
+        }
+        return request;
+    }
+
+    /**
+     * Gets where a response redirects to, if anywhere.
+     *
+     * @return The absolute redirect target, or null if the response isn't a
+     *         redirect.
+     */
+    @Nullable
+    private static URI getRedirectLocation(@Nonnull final URI endpoint, @Nonnull final HttpResponse response)
+            throws IOException {
+        int statusCode = response.getStatusLine().getStatusCode();
+        if (statusCode != HttpStatus.SC_MOVED_PERMANENTLY && statusCode != HttpStatus.SC_MOVED_TEMPORARILY
+                && statusCode != HttpStatus.SC_SEE_OTHER && statusCode != HttpStatus.SC_TEMPORARY_REDIRECT
+                && statusCode != 308) {
+            return null;
+        }
+
+        Header location = response.getFirstHeader("Location");
+        if (location == null) {
+            return null;
+        }
+        try {
+            return endpoint.resolve(new URI(location.getValue()));
+        } catch (URISyntaxException ex) {
+            throw new ClientProtocolException("Invalid redirect location: " + location.getValue(), ex);
+        }
+    }
+
+    @Nonnull
+    private static URI nextRedirect(@Nonnull final URI location, final int redirects) throws IOException {
+        if (redirects >= maxDownloadRedirects) {
+            throw new ClientProtocolException(
+                    String.format("Too many redirects (more than %d) while downloading", maxDownloadRedirects));
+        }
+        return location;
+    }
+
+    /**
+     * Copies a response body to the target, through a pooled buffer.
+     *
+     * @return The number of bytes copied.
+     */
+    private static long copy(@Nonnull final InputStream source, @Nonnull final WritableByteChannel target)
+            throws IOException {
+        return copy(source, target, null);
+    }
+
+    /**
+     * Copies a response body to the target, through a pooled buffer, until the
+     * given future is done. This stops a cancelled download from reading the rest
+     * of the body.
+     *
+     * @return The number of bytes copied.
+     */
+    private static long copy(@Nonnull final InputStream source, @Nonnull final WritableByteChannel target,
+            @Nullable final Future<?> until) throws IOException {
+        ByteBuffer buffer = BufferPool.shared.acquire();
+        try (InputStream input = source) {
+            long total = 0;
+            int bytesRead;
+            while ((until == null || !until.isDone())
+                    && (bytesRead = input.read(buffer.array(), buffer.arrayOffset(), buffer.capacity())) != -1) {
+                buffer.limit(bytesRead);
+                while (buffer.hasRemaining()) {
+                    target.write(buffer);
+                }
+                buffer.clear();
+                total += bytesRead;
+            }
+            return total;
+        } finally {
+            BufferPool.shared.release(buffer);
+        }
+    }
+
+    /**
+     * Synchronously downloads a file, writing its body to the given channel as it
+     * arrives. The body is never held in memory in its entirety.
+     *
+     * @param endpoint         The URI of the file.
+     * @param authorizedOrigin The origin our auth token may be sent to, or null to
+     *                         never send it. Redirects to any other origin are
+     *                         followed without it.
+     * @param target           The channel to write the body to. It is not closed.
+     * @return The number of bytes written.
+     * @throws HTTP404NotFoundException           The response code was 404 NOT
+     *                                            FOUND.
+     * @throws HTTP400BadRequestException         The response code was 400 BAD
+     *                                            REQUEST.
+     * @throws HTTPInvalidAuthenticationException The response code indicated that
+     *                                            the given authentication was
+     *                                            invalid.
+     * @throws UnknownResponseException           The server returned an unknown
+     *                                            response. (We expect 200 OK.)
+     * @throws IOException                        Unable to communicate with the
+     *                                            server, or to write to the target.
+     */
+    long download(@Nonnull final URI endpoint, @Nullable final URI authorizedOrigin,
+            @Nonnull final WritableByteChannel target) throws HTTP404NotFoundException, HTTP400BadRequestException,
+            HTTPInvalidAuthenticationException, UnknownResponseException, IOException {
+        if (sendsOnAsyncClient()) {
+            return await(downloadAsync(endpoint, authorizedOrigin, target)).getBytesWritten();
+        }
+
+        HttpClient httpClient = getClient();
+        URI current = endpoint;
+        for (int redirects = 0;; redirects++) {
+            HttpGet request = buildDownloadRequest(current, authorizedOrigin);
+            try {
+                HttpResponse response = httpClient.execute(getHostForRequest(request), request);
+                URI location = getRedirectLocation(current, response);
+                if (location == null) {
+                    if (response.getStatusLine().getStatusCode() != HttpStatus.SC_OK) {
+                        // Throws the appropriate exception for the status code.
+                        consumeResponse(response, HttpStatus.SC_OK, RESTClient::readString);
+                    }
+                    HttpEntity entity = response.getEntity();
+                    return entity == null ? 0 : copy(entity.getContent(), target);
+                }
+                EntityUtils.consumeQuietly(response.getEntity());
+                current = nextRedirect(location, redirects);
+            } finally {
+                request.releaseConnection();
+            }
+        }
+    }
+
+    /**
+     * The outcome of a successful asynchronous download.
+     */
+    static final class DownloadResult {
+        private final int statusCode;
+        private final long bytesWritten;
+        @Nullable
+        private final String contentRange;
+        @Nullable
+        private final String entityTag;
+        @Nullable
+        private final String lastModified;
+
+        DownloadResult(final int statusCode, final long bytesWritten, @Nullable final String contentRange,
+                @Nullable final String entityTag, @Nullable final String lastModified) {
+            this.statusCode = statusCode;
+            this.bytesWritten = bytesWritten;
+            this.contentRange = contentRange;
+            this.entityTag = entityTag;
+            this.lastModified = lastModified;
+        }
+
+        /** Gets the response status code: 200, or 206 for a partial response. */
+        int getStatusCode() {
+            return statusCode;
+        }
+
+        /** Gets the number of body bytes written to the target. */
+        long getBytesWritten() {
+            return bytesWritten;
+        }
+
+        /** Gets the Content-Range header of a partial response. */
+        @Nullable
+        String getContentRange() {
+            return contentRange;
+        }
+
+        /** Gets the ETag header, if the server gave one. */
+        @Nullable
+        String getEntityTag() {
+            return entityTag;
+        }
+
+        /** Gets the Last-Modified header, if the server gave one. */
+        @Nullable
+        String getLastModified() {
+            return lastModified;
+        }
+
+        @Nonnull
+        static DownloadResult of(@Nonnull final HttpResponse response, final long bytesWritten) {
+            Header contentRange = response.getFirstHeader("Content-Range");
+            Header entityTag = response.getFirstHeader("ETag");
+            Header lastModified = response.getFirstHeader("Last-Modified");
+            return new DownloadResult(response.getStatusLine().getStatusCode(), bytesWritten,
+                    contentRange != null ? contentRange.getValue() : null,
+                    entityTag != null ? entityTag.getValue() : null,
+                    lastModified != null ? lastModified.getValue() : null);
+        }
+    }
+
+    /**
+     * Tracks an asynchronous download across redirects, so that cancelling it
+     * cancels whichever request is currently running.
+     */
+    private final class AsyncDownload {
+        @Nullable
+        private final URI authorizedOrigin;
+        @Nonnull
+        private final WritableByteChannel target;
+        @Nonnull
+        private final Map<String, String> headers;
+        @Nonnull
+        private final int[] successStatusCodes;
+        @Nonnull
+        private final CompletableFuture<DownloadResult> result = new CompletableFuture<>();
+        @Nullable
+        private volatile Future<?> current;
+
+        AsyncDownload(@Nullable final URI authorizedOrigin, @Nonnull final WritableByteChannel target,
+                @Nonnull final Map<String, String> headers, @Nonnull final int... successStatusCodes) {
+            this.authorizedOrigin = authorizedOrigin;
+            this.target = target;
+            this.headers = headers;
+            this.successStatusCodes = successStatusCodes;
+            result.whenComplete((download, error) -> {
+                Future<?> currentRequest = current;
+                if (result.isCancelled() && currentRequest != null) {
+                    currentRequest.cancel(true);
+                }
+            });
+        }
+
+        private boolean isSuccess(final int statusCode) {
+            for (int successStatusCode : successStatusCodes) {
+                if (statusCode == successStatusCode) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Nonnull
+        private HttpGet buildRequest(@Nonnull final URI endpoint) {
+            HttpGet request = buildDownloadRequest(endpoint, authorizedOrigin);
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                request.setHeader(header.getKey(), header.getValue());
+            }
+            return request;
+        }
+
+        void step(@Nonnull final URI endpoint, final int redirects) {
+            if (result.isDone()) {
+                return;
+            }
+            HttpGet request = buildRequest(endpoint);
+            if (transport != null) {
+                stepOnTransport(transport, request, endpoint, redirects);
+                return;
+            }
+
+            ChannelResponseConsumer consumer = new ChannelResponseConsumer(target, successStatusCodes);
+            current = getAsyncClient().execute(HttpAsyncMethods.create(getHostForRequest(request), request),
+                    consumer, new FutureCallback<HttpResponse>() {
+                        @Override
+                        public void completed(@Nonnull HttpResponse response) {
+                            try {
+                                URI location = getRedirectLocation(endpoint, response);
+                                if (location != null) {
+                                    step(nextRedirect(location, redirects), redirects + 1);
+                                } else if (!isSuccess(response.getStatusLine().getStatusCode())) {
+                                    // Throws the appropriate exception for the status code.
+                                    consumeResponse(response, -1, RESTClient::readString);
+                                } else {
+                                    result.complete(DownloadResult.of(response, consumer.getBytesWritten()));
+                                }
+                            } catch (Exception ex) {
+                                result.completeExceptionally(ex);
+                            }
+                        }
+
+                        @Override
+                        public void failed(@Nonnull Exception ex) {
+                            result.completeExceptionally(ex);
+                        }
+
+                        @Override
+                        public void cancelled() {
+                            // Nothing to do. It was the outer future that triggered cancellation.
+                        }
+                    });
+        }
+
+        private void stepOnTransport(@Nonnull final HttpTransport transport, @Nonnull final HttpGet request,
+                @Nonnull final URI endpoint, final int redirects) {
+            CompletableFuture<HttpTransport.Response> responseFuture = transport.execute(toTransportRequest(request));
+            current = responseFuture;
+            responseFuture.whenComplete((response, error) -> {
+                if (error != null) {
+                    result.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause()
+                            : error);
+                    return;
+                }
+                try (HttpTransport.Response currentResponse = response) {
+                    HttpResponse httpResponse = toHttpResponse(currentResponse);
+                    URI location = getRedirectLocation(endpoint, httpResponse);
+                    if (location != null) {
+                        step(nextRedirect(location, redirects), redirects + 1);
+                    } else if (!isSuccess(currentResponse.getStatusCode())) {
+                        // Throws the appropriate exception for the status code.
+                        consumeResponse(httpResponse, -1, RESTClient::readString);
+                    } else {
+                        InputStream body = currentResponse.getBody();
+                        result.complete(
+                                DownloadResult.of(httpResponse, body == null ? 0 : copy(body, target, result)));
+                    }
+                } catch (Exception ex) {
+                    result.completeExceptionally(ex);
+                }
+            });
+        }
+    }
+
+    /**
+     * Asynchronously downloads a file, writing its body to the given channel as it
+     * arrives. On the Apache asynchronous client, the body is written on the I/O
+     * reactor thread; a {@link java.nio.channels.FileChannel} target receives it
+     * without copying through the Java heap where possible.
+     *
+     * @param endpoint         The URI of the file.
+     * @param authorizedOrigin The origin our auth token may be sent to, or null to
+     *                         never send it.
+     * @param target           The channel to write the body to. It is not closed.
+     * @return A CompletableFuture giving the result of the download. Exceptional
+     *         completions as documented in
+     *         {@link #download(URI, URI, WritableByteChannel)} are possible.
+     *         Cancelling it cancels the download.
+     */
+    @Nonnull
+    CompletableFuture<DownloadResult> downloadAsync(@Nonnull final URI endpoint, @Nullable final URI authorizedOrigin,
+            @Nonnull final WritableByteChannel target) {
+        AsyncDownload download = new AsyncDownload(authorizedOrigin, target, Collections.emptyMap(),
+                HttpStatus.SC_OK);
+        download.step(endpoint, 0);
+        return download.result;
+    }
+
+    /**
+     * Asynchronously downloads part of a file with a Range request, writing the
+     * body to the given channel as it arrives.
+     *
+     * @param endpoint         The URI of the file.
+     * @param authorizedOrigin The origin our auth token may be sent to, or null to
+     *                         never send it.
+     * @param target           The channel to write the body to. It is not closed.
+     * @param first            The position of the first byte to download.
+     * @param last             The position of the last byte to download.
+     * @param ifRange          The entity tag or Last-Modified date the file must
+     *                         still have for a partial response to be given, or
+     *                         null for none.
+     * @param allowFull        Whether a 200 OK response giving the whole file is
+     *                         acceptable, for servers which don't support ranges.
+     *                         If false, such a response fails with an
+     *                         {@link UnknownResponseException}.
+     * @return A CompletableFuture giving the result of the download. Exceptional
+     *         completions as documented in
+     *         {@link #download(URI, URI, WritableByteChannel)} are possible.
+     *         Cancelling it cancels the download.
+     */
+    @Nonnull
+    CompletableFuture<DownloadResult> downloadRangeAsync(@Nonnull final URI endpoint,
+            @Nullable final URI authorizedOrigin, @Nonnull final WritableByteChannel target, final long first,
+            final long last, @Nullable final String ifRange, final boolean allowFull) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("Range", "bytes=" + first + "-" + last);
+        if (ifRange != null) {
+            headers.put("If-Range", ifRange);
+        }
+        AsyncDownload download = allowFull
+                ? new AsyncDownload(authorizedOrigin, target, headers, HttpStatus.SC_PARTIAL_CONTENT, HttpStatus.SC_OK)
+                : new AsyncDownload(authorizedOrigin, target, headers, HttpStatus.SC_PARTIAL_CONTENT);
+        download.step(endpoint, 0);
+        return download.result;
+    }
+
+    // endregion download(endpoint, authorizedOrigin, target),
+    // downloadAsync(endpoint, authorizedOrigin, target)
+
     // endregion HTTP operations: get(endpoint), getAsync(endpoint),
     // delete(endpoint), deleteAsync(endpoint), post(endpoint, data, files),
     // postAsync(endpoint, data, files)
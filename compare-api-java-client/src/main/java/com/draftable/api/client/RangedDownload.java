@@ -0,0 +1,422 @@
+package com.draftable.api.client;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Downloads a file as byte ranges fetched in parallel, each written straight to
+ * its place in a pre-sized file with positional writes.
+ *
+ * <p>
+ * A first request for the first byte of the file gives its length and a
+ * validator: its entity tag if it is strong, or else its Last-Modified date.
+ * The file is then split into parts, which are requested with up to
+ * {@link ParallelDownloadOptions#getParallelism()} in flight. Each part is sent
+ * with the validator in an {@code If-Range} header, so a file that changes
+ * mid-download fails rather than being stitched together from two versions.
+ * Without a validator, that can't be detected, so the file is downloaded with
+ * a single request instead. Servers that don't support ranges answer the first
+ * request with the whole file, which is then simply written out.
+ * </p>
+ *
+ * <p>
+ * When resuming, finished parts are appended to a sidecar file as they
+ * complete. A later download of the same file (same length, part size and
+ * validator) skips them.
+ * </p>
+ */
+final class RangedDownload {
+
+    /** Parses the Content-Range header of a partial response. */
+    private static final Pattern contentRangePattern = Pattern.compile("^bytes\\s+(\\d+)-(\\d+)/(\\d+|\\*)$");
+
+    private static final String partsHeaderPrefix = "draftable-parts-v1";
+
+    @Nonnull
+    private final RESTClient client;
+    @Nonnull
+    private final URI endpoint;
+    @Nullable
+    private final URI authorizedOrigin;
+    @Nonnull
+    private final Path target;
+    @Nonnull
+    private final Path partsFile;
+    private final int parallelism;
+    private final long partSize;
+    private final boolean resume;
+
+    @Nonnull
+    private final CompletableFuture<Long> result = new CompletableFuture<>();
+
+    /** Guards every field below. */
+    @Nonnull
+    private final ReentrantLock lock = new ReentrantLock();
+    @Nullable
+    private FileChannel file;
+    @Nullable
+    private FileChannel parts;
+    @Nonnull
+    private final List<CompletableFuture<?>> inFlight = new ArrayList<>();
+    private long length;
+    /** The entity tag or Last-Modified date that each part must match. */
+    @Nullable
+    private String validator;
+    private int partCount;
+    private int nextPart;
+    private int finishedParts;
+    @Nonnull
+    private BitSet finished = new BitSet();
+
+    RangedDownload(@Nonnull final RESTClient client, @Nonnull final URI endpoint, @Nullable final URI authorizedOrigin,
+            @Nonnull final Path target, @Nonnull final ParallelDownloadOptions options) {
+        this.client = client;
+        this.endpoint = endpoint;
+        this.authorizedOrigin = authorizedOrigin;
+        this.target = target;
+        this.partsFile = getPartsFile(target);
+        this.parallelism = options.getParallelism();
+        this.partSize = options.getPartSize();
+        this.resume = options.getResume();
+    }
+
+    /**
+     * Gets the sidecar file recording the finished parts of a download.
+     */
+    @Nonnull
+    static Path getPartsFile(@Nonnull final Path target) {
+        return target.resolveSibling(target.getFileName() + ".parts");
+    }
+
+    /**
+     * Starts the download.
+     *
+     * @return A future that completes with the length of the file once it has been
+     *         downloaded. Cancelling it cancels every request in flight, leaving
+     *         the finished parts recorded for a later download to resume.
+     */
+    @Nonnull
+    CompletableFuture<Long> start() {
+        result.whenComplete((downloaded, error) -> finish(error == null));
+
+        CompletableFuture<RESTClient.DownloadResult> probe;
+        lock.lock();
+        try {
+            file = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            probe = client.downloadRangeAsync(endpoint, authorizedOrigin,
+                    new FileRegionChannel(file, 0, Long.MAX_VALUE), 0, 0, null, true);
+            inFlight.add(probe);
+        } catch (IOException ex) {
+            result.completeExceptionally(ex);
+            return result;
+        } finally {
+            lock.unlock();
+        }
+
+        probe.whenComplete((response, error) -> {
+            removeInFlight(probe);
+            try {
+                if (error != null) {
+                    fail(error);
+                } else if (response.getStatusCode() != 206) {
+                    // The server ignored the range and sent the whole file.
+                    completeWhole(response.getBytesWritten());
+                } else {
+                    startParts(response);
+                }
+            } catch (IOException | RuntimeException ex) {
+                fail(ex);
+            }
+        });
+        return result;
+    }
+
+    private void completeWhole(final long bytesWritten) throws IOException {
+        lock.lock();
+        try {
+            if (file != null) {
+                file.truncate(bytesWritten);
+            }
+        } finally {
+            lock.unlock();
+        }
+        Files.deleteIfExists(partsFile);
+        result.complete(bytesWritten);
+    }
+
+    private void startParts(@Nonnull final RESTClient.DownloadResult probe) throws IOException {
+        Matcher contentRange = contentRangePattern
+                .matcher(probe.getContentRange() != null ? probe.getContentRange().trim() : "");
+        String partValidator = getValidator(probe);
+        if (!contentRange.matches() || contentRange.group(3).equals("*") || partValidator == null) {
+            // We can't split a file of unknown length. Nor can we split one we can't
+            // tell has changed between parts, as it could then be stitched together
+            // from two versions. Download it in one go.
+            downloadWhole();
+            return;
+        }
+
+        lock.lock();
+        try {
+            if (result.isDone()) {
+                return;
+            }
+            length = Long.parseLong(contentRange.group(3));
+            validator = partValidator;
+            long requiredParts = (length + partSize - 1) / partSize;
+            if (requiredParts > Integer.MAX_VALUE) {
+                throw new IOException("The file is too large to split into parts of " + partSize + " bytes");
+            }
+            partCount = (int) requiredParts;
+
+            finished = resume ? readFinishedParts() : new BitSet();
+            finishedParts = finished.cardinality();
+            if (finishedParts == 0 || file.size() != length) {
+                finished.clear();
+                finishedParts = 0;
+                file.truncate(0);
+            }
+            if (file.size() < length) {
+                // Pre-size the file, so that parts can be written anywhere in it.
+                file.write(ByteBuffer.wrap(new byte[1]), length - 1);
+            }
+
+            if (resume) {
+                openPartsFile(finishedParts == 0);
+            }
+        } finally {
+            lock.unlock();
+        }
+        fill();
+    }
+
+    /**
+     * Gets the validator to send in {@code If-Range}: the entity tag if it's
+     * strong, since a weak one can't be used there, or else the Last-Modified date.
+     *
+     * @return The validator, or null if the server gave neither.
+     */
+    @Nullable
+    private static String getValidator(@Nonnull final RESTClient.DownloadResult probe) {
+        String entityTag = probe.getEntityTag();
+        if (entityTag != null && !entityTag.startsWith("W/")) {
+            return entityTag;
+        }
+        return probe.getLastModified();
+    }
+
+    private void downloadWhole() {
+        CompletableFuture<RESTClient.DownloadResult> whole;
+        lock.lock();
+        try {
+            if (result.isDone()) {
+                return;
+            }
+            whole = client.downloadAsync(endpoint, authorizedOrigin, new FileRegionChannel(file, 0, Long.MAX_VALUE));
+            inFlight.add(whole);
+        } finally {
+            lock.unlock();
+        }
+        whole.whenComplete((response, error) -> {
+            removeInFlight(whole);
+            try {
+                if (error != null) {
+                    fail(error);
+                } else {
+                    completeWhole(response.getBytesWritten());
+                }
+            } catch (IOException | RuntimeException ex) {
+                fail(ex);
+            }
+        });
+    }
+
+    /**
+     * Reads the parts finished by an earlier download, if it was of the same file.
+     */
+    @Nonnull
+    private BitSet readFinishedParts() throws IOException {
+        BitSet previous = new BitSet();
+        try (BufferedReader reader = Files.newBufferedReader(partsFile, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (header == null || !header.equals(getPartsHeader())) {
+                return previous;
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                try {
+                    int index = Integer.parseInt(line.trim());
+                    if (index >= 0 && index < partCount) {
+                        previous.set(index);
+                    }
+                } catch (NumberFormatException ignored) {
+                    // A partly written last line, from a download that was killed.
+                }
+            }
+        } catch (NoSuchFileException ex) {
+            return previous;
+        }
+        return previous;
+    }
+
+    @Nonnull
+    private String getPartsHeader() {
+        return String.format("%s %d %d %s", partsHeaderPrefix, length, partSize, validator);
+    }
+
+    private void openPartsFile(final boolean fresh) throws IOException {
+        // Called with the lock held.
+        if (fresh) {
+            Files.write(partsFile, (getPartsHeader() + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        parts = FileChannel.open(partsFile, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void fill() {
+        while (true) {
+            int index;
+            long first;
+            long last;
+            CompletableFuture<RESTClient.DownloadResult> part;
+
+            lock.lock();
+            try {
+                if (result.isDone()) {
+                    return;
+                }
+                if (finishedParts == partCount) {
+                    result.complete(length);
+                    return;
+                }
+                if (inFlight.size() >= parallelism) {
+                    return;
+                }
+                nextPart = finished.nextClearBit(nextPart);
+                if (nextPart >= partCount) {
+                    // Every remaining part is in flight.
+                    return;
+                }
+
+                index = nextPart++;
+                first = index * partSize;
+                last = Math.min(length, first + partSize) - 1;
+                part = client.downloadRangeAsync(endpoint, authorizedOrigin,
+                        new FileRegionChannel(file, first, last + 1), first, last, validator, false);
+                inFlight.add(part);
+            } finally {
+                lock.unlock();
+            }
+
+            part.whenComplete((response, error) -> {
+                try {
+                    if (error != null) {
+                        fail(error);
+                    } else if (response.getBytesWritten() != last - first + 1) {
+                        fail(new IOException(String.format("Part %d ended after %d of %d bytes", index,
+                                response.getBytesWritten(), last - first + 1)));
+                    } else {
+                        partFinished(index, part);
+                        fill();
+                    }
+                } catch (IOException | RuntimeException ex) {
+                    fail(ex);
+                }
+            });
+        }
+    }
+
+    private void removeInFlight(@Nonnull final CompletableFuture<?> request) {
+        lock.lock();
+        try {
+            inFlight.remove(request);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void partFinished(final int index, @Nonnull final CompletableFuture<?> part) throws IOException {
+        lock.lock();
+        try {
+            inFlight.remove(part);
+            finished.set(index);
+            finishedParts++;
+            if (parts != null) {
+                parts.write(ByteBuffer.wrap((index + "\n").getBytes(StandardCharsets.UTF_8)));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void fail(@Nonnull Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        result.completeExceptionally(error);
+    }
+
+    /**
+     * Cancels any requests still in flight, and closes the files. The record of
+     * finished parts is deleted on success, and kept otherwise.
+     */
+    private void finish(final boolean succeeded) {
+        List<CompletableFuture<?>> remaining;
+        lock.lock();
+        try {
+            remaining = new ArrayList<>(inFlight);
+            inFlight.clear();
+        } finally {
+            lock.unlock();
+        }
+        for (CompletableFuture<?> request : remaining) {
+            request.cancel(true);
+        }
+
+        lock.lock();
+        try {
+            closeQuietly(parts);
+            parts = null;
+            closeQuietly(file);
+            file = null;
+        } finally {
+            lock.unlock();
+        }
+
+        if (succeeded) {
+            try {
+                Files.deleteIfExists(partsFile);
+            } catch (IOException ignored) {
+                // The download itself succeeded, and a stale record is ignored next time.
+            }
+        }
+    }
+
+    private static void closeQuietly(@Nullable final FileChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Nothing useful can be done about this.
+            }
+        }
+    }
+}
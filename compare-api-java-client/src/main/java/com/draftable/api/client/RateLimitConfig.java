@@ -0,0 +1,228 @@
+package com.draftable.api.client;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Configures the client-side rate limiter, which spaces out requests so that
+ * clients sharing an account stay under its rate limit instead of bursting past
+ * it and failing.
+ *
+ * <p>
+ * Requests are let through at up to {@link #getRate()} per second, with bursts
+ * of up to {@link #getBurst()}. Requests beyond that wait their turn rather than
+ * failing. When the server responds with 429 Too Many Requests, the limiter
+ * multiplies its rate by {@link #getDecreaseFactor()} (but not below
+ * {@link #getMinRate()}), pauses for as long as the response's
+ * {@code Retry-After} header asks, and sends the request again. For every
+ * second after that without a 429, the rate grows by
+ * {@link #getRecoveryStep()} until it is back to {@link #getRate()}.
+ * </p>
+ *
+ * <p>
+ * Instances are immutable, and are created with {@link #builder()}.
+ * </p>
+ */
+public final class RateLimitConfig {
+
+    // region Builder
+
+    /**
+     * Builds a {@link RateLimitConfig}. Any settings that aren't provided keep
+     * their documented defaults.
+     */
+    public static final class Builder {
+        private double rate = 10;
+        private double minRate = 1;
+        private int burst = 10;
+        private double decreaseFactor = 0.5;
+        private double recoveryStep = 1;
+        private int maxThrottledRetries = 5;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the most requests sent per second, which the limiter recovers to
+         * after being slowed down. Set this just under the account's rate limit,
+         * divided between the clients sharing it. Defaults to 10.
+         *
+         * @param rate The maximum rate, in requests per second, which must be
+         *             positive.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder rate(final double rate) {
+            if (!(rate > 0) || Double.isInfinite(rate)) {
+                throw new IllegalArgumentException("`rate` must be positive");
+            }
+            this.rate = rate;
+            return this;
+        }
+
+        /**
+         * Sets the slowest the limiter goes, however many 429 responses it sees.
+         * Defaults to 1.
+         *
+         * @param minRate The minimum rate, in requests per second, which must be
+         *                positive and no more than the rate.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder minRate(final double minRate) {
+            if (!(minRate > 0) || Double.isInfinite(minRate)) {
+                throw new IllegalArgumentException("`minRate` must be positive");
+            }
+            this.minRate = minRate;
+            return this;
+        }
+
+        /**
+         * Sets the most requests sent at once after the client has been idle.
+         * Defaults to 10.
+         *
+         * @param burst The burst size, which must be positive.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder burst(final int burst) {
+            if (burst <= 0) {
+                throw new IllegalArgumentException("`burst` must be positive");
+            }
+            this.burst = burst;
+            return this;
+        }
+
+        /**
+         * Sets how much the rate is cut on a 429 response. Defaults to 0.5, halving
+         * it.
+         *
+         * @param decreaseFactor The factor to multiply the rate by, which must be
+         *                       greater than 0 and less than 1.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder decreaseFactor(final double decreaseFactor) {
+            if (!(decreaseFactor > 0 && decreaseFactor < 1)) {
+                throw new IllegalArgumentException("`decreaseFactor` must be greater than 0 and less than 1");
+            }
+            this.decreaseFactor = decreaseFactor;
+            return this;
+        }
+
+        /**
+         * Sets how quickly the rate recovers after a 429 response. Defaults to 1.
+         *
+         * @param recoveryStep The requests per second added to the rate for each
+         *                     second without a 429, which must be positive.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder recoveryStep(final double recoveryStep) {
+            if (!(recoveryStep > 0) || Double.isInfinite(recoveryStep)) {
+                throw new IllegalArgumentException("`recoveryStep` must be positive");
+            }
+            this.recoveryStep = recoveryStep;
+            return this;
+        }
+
+        /**
+         * Sets how many times a request that received a 429 response is sent
+         * again before the 429 is reported to the caller. Defaults to 5.
+         *
+         * @param maxThrottledRetries The maximum number of times to resend a
+         *                            throttled request, which may be zero.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder maxThrottledRetries(final int maxThrottledRetries) {
+            if (maxThrottledRetries < 0) {
+                throw new IllegalArgumentException("`maxThrottledRetries` cannot be negative");
+            }
+            this.maxThrottledRetries = maxThrottledRetries;
+            return this;
+        }
+
+        /**
+         * Creates the {@link RateLimitConfig}.
+         *
+         * @return A new {@link RateLimitConfig} with this builder's settings.
+         * @throws IllegalArgumentException If the minimum rate is more than the
+         *                                  rate.
+         */
+        @Nonnull
+        public RateLimitConfig build() {
+            if (minRate > rate) {
+                throw new IllegalArgumentException("`minRate` cannot be more than `rate`");
+            }
+            return new RateLimitConfig(this);
+        }
+    }
+
+    /**
+     * Creates a builder for a {@link RateLimitConfig}.
+     *
+     * @return A new {@link Builder} with the default settings.
+     */
+    @Nonnull
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // endregion Builder
+
+    // region Fields and constructor
+
+    private final double rate;
+    private final double minRate;
+    private final int burst;
+    private final double decreaseFactor;
+    private final double recoveryStep;
+    private final int maxThrottledRetries;
+
+    private RateLimitConfig(@Nonnull final Builder builder) {
+        this.rate = builder.rate;
+        this.minRate = builder.minRate;
+        this.burst = builder.burst;
+        this.decreaseFactor = builder.decreaseFactor;
+        this.recoveryStep = builder.recoveryStep;
+        this.maxThrottledRetries = builder.maxThrottledRetries;
+    }
+
+    // endregion Fields and constructor
+
+    // region Getters
+
+    public double getRate() {
+        return rate;
+    }
+
+    public double getMinRate() {
+        return minRate;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    public double getDecreaseFactor() {
+        return decreaseFactor;
+    }
+
+    public double getRecoveryStep() {
+        return recoveryStep;
+    }
+
+    public int getMaxThrottledRetries() {
+        return maxThrottledRetries;
+    }
+
+    // endregion Getters
+
+    @Override
+    public String toString() {
+        return String.format(
+                "RateLimitConfig(rate: %s, minRate: %s, burst: %d, decreaseFactor: %s, recoveryStep: %s, "
+                        + "maxThrottledRetries: %d)",
+                rate, minRate, burst, decreaseFactor, recoveryStep, maxThrottledRetries);
+    }
+}
@@ -0,0 +1,139 @@
+package com.draftable.api.client;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A token bucket whose rate adapts to 429 responses, as configured by a
+ * {@link RateLimitConfig}: the rate is cut multiplicatively on each 429, and
+ * grows back additively while requests succeed.
+ *
+ * <p>
+ * Callers reserve a slot with {@link #reserve()}, which returns how long to wait
+ * before sending. Reservations are handed out in order, so waiting requests are
+ * sent first come, first served, without a queue of waiters to manage.
+ * </p>
+ */
+final class RateLimiter {
+
+    private static final long nanosPerSecond = TimeUnit.SECONDS.toNanos(1);
+
+    private final double maxRate;
+    private final double minRate;
+    private final double maxStoredPermits;
+    private final double decreaseFactor;
+    private final double recoveryStep;
+
+    /** Guards all of the fields below. */
+    @Nonnull
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** The current rate, in requests per second. */
+    private double rate;
+
+    /** Slots saved up while idle, which can be used without waiting. */
+    private double storedPermits;
+
+    /** The time at which the next request may be sent, from {@link System#nanoTime()}. */
+    private long nextFreeNanos;
+
+    /** The last time the rate was changed, from {@link System#nanoTime()}. */
+    private long lastAdjustedNanos;
+
+    RateLimiter(@Nonnull final RateLimitConfig config) {
+        this.maxRate = config.getRate();
+        this.minRate = config.getMinRate();
+        this.maxStoredPermits = config.getBurst();
+        this.decreaseFactor = config.getDecreaseFactor();
+        this.recoveryStep = config.getRecoveryStep();
+
+        long now = System.nanoTime();
+        this.rate = maxRate;
+        this.storedPermits = maxStoredPermits;
+        this.nextFreeNanos = now;
+        this.lastAdjustedNanos = now;
+    }
+
+    /**
+     * Reserves a slot for one request.
+     *
+     * @return How long to wait before sending the request, in nanoseconds, which
+     *         may be zero.
+     */
+    long reserve() {
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            if (now - nextFreeNanos > 0) {
+                // Save up the slots that went unused while idle, up to the burst size.
+                storedPermits = Math.min(maxStoredPermits,
+                        storedPermits + (double) (now - nextFreeNanos) * rate / nanosPerSecond);
+                nextFreeNanos = now;
+            }
+
+            // Use a saved up slot if there is one, otherwise wait for the next slot.
+            double fromStored = Math.min(1, storedPermits);
+            storedPermits -= fromStored;
+            nextFreeNanos += (long) ((1 - fromStored) * nanosPerSecond / rate);
+            return Math.max(0, nextFreeNanos - now);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Slows down after a 429 response: cuts the rate, drops any saved up slots,
+     * and sends nothing more until the server's requested delay has passed.
+     *
+     * @param retryAfter The delay the server asked for, or null if it didn't say.
+     */
+    void onThrottled(@Nullable final Duration retryAfter) {
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            rate = Math.max(minRate, rate * decreaseFactor);
+            storedPermits = 0;
+            lastAdjustedNanos = now;
+
+            long slotNanos = (long) (nanosPerSecond / rate);
+            long pauseNanos = retryAfter != null && !retryAfter.isNegative() ? toNanos(retryAfter) : slotNanos;
+            // A reservation waits for the slot after nextFreeNanos, so this lets the
+            // first request through as soon as the pause is over.
+            long resumeNanos = now + pauseNanos - slotNanos;
+            if (resumeNanos - nextFreeNanos > 0) {
+                nextFreeNanos = resumeNanos;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Speeds back up after a request that wasn't throttled, by one recovery step
+     * for each full second since the rate was last changed.
+     */
+    void onSuccess() {
+        lock.lock();
+        try {
+            if (rate >= maxRate) {
+                return;
+            }
+            long now = System.nanoTime();
+            long seconds = (now - lastAdjustedNanos) / nanosPerSecond;
+            if (seconds > 0) {
+                rate = Math.min(maxRate, rate + seconds * recoveryStep);
+                lastAdjustedNanos += seconds * nanosPerSecond;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Converts a delay to nanoseconds, capped at a day so a bad header can't stall the client forever. */
+    private static long toNanos(@Nonnull final Duration duration) {
+        return duration.compareTo(Duration.ofDays(1)) > 0 ? TimeUnit.DAYS.toNanos(1) : duration.toNanos();
+    }
+}
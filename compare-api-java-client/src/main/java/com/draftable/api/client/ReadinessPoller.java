@@ -0,0 +1,420 @@
+package com.draftable.api.client;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Polls resources (such as comparisons) until they are ready, on behalf of any
+ * number of waiters.
+ *
+ * <p>
+ * All pending identifiers are tracked by one scheduler thread. Waiters for the
+ * same identifier share a single poll, and each identifier backs off
+ * exponentially (with jitter, so that identifiers created together don't poll
+ * in lockstep). When many identifiers are pending and a bulk fetcher is
+ * available, each round checks all of them with a few list requests instead of
+ * one request per identifier.
+ * </p>
+ *
+ * @param <T> The type of resource being polled.
+ */
+final class ReadinessPoller<T> implements Closeable {
+
+    /**
+     * Fetches the current state of several resources at once.
+     *
+     * @param <T> The type of resource being polled.
+     */
+    @FunctionalInterface
+    interface BulkFetcher<T> {
+        /**
+         * Fetches the given resources.
+         *
+         * @param identifiers The identifiers to look for.
+         * @return A future giving the resources that were found, by identifier. Any
+         *         that weren't found are polled individually.
+         */
+        @Nonnull
+        CompletableFuture<Map<String, T>> fetch(@Nonnull Set<String> identifiers);
+    }
+
+    // region Backoff settings
+
+    private static final long initialDelayNanos = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final long maxDelayNanos = TimeUnit.SECONDS.toNanos(15);
+    private static final double backoffMultiplier = 1.6;
+    private static final double jitterFraction = 0.2;
+
+    /** The number of pending identifiers at which we switch to bulk polling. */
+    static final int bulkThreshold = 10;
+
+    // endregion Backoff settings
+
+    // region Fields and constructor
+
+    @Nonnull
+    private final Function<String, CompletableFuture<T>> fetcher;
+    @Nullable
+    private final BulkFetcher<T> bulkFetcher;
+    @Nonnull
+    private final Predicate<T> isReady;
+
+    /** Guards every field below, and the mutable state of each {@link Entry}. */
+    @Nonnull
+    private final ReentrantLock lock = new ReentrantLock();
+    @Nonnull
+    private final Map<String, Entry> entries = new HashMap<>();
+    @Nullable
+    private ScheduledExecutorService scheduler;
+    @Nullable
+    private ScheduledFuture<?> nextTick;
+    private long nextTickNanos;
+    private boolean closed;
+
+    /**
+     * Creates a poller.
+     *
+     * @param fetcher     Fetches the current state of a single resource.
+     * @param bulkFetcher Fetches the current state of several resources at once,
+     *                    or null if this isn't possible.
+     * @param isReady     Tests whether a resource has finished.
+     */
+    ReadinessPoller(@Nonnull final Function<String, CompletableFuture<T>> fetcher,
+            @Nullable final BulkFetcher<T> bulkFetcher, @Nonnull final Predicate<T> isReady) {
+        this.fetcher = fetcher;
+        this.bulkFetcher = bulkFetcher;
+        this.isReady = isReady;
+    }
+
+    private final class Entry {
+        @Nonnull
+        final String identifier;
+        @Nonnull
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        int waiters;
+        int attempt;
+        long nextPollNanos;
+        boolean inFlight;
+
+        Entry(@Nonnull final String identifier, final long nextPollNanos) {
+            this.identifier = identifier;
+            this.nextPollNanos = nextPollNanos;
+        }
+    }
+
+    // endregion Fields and constructor
+
+    // region await(identifier, timeout)
+
+    /**
+     * Waits for the given resource to be ready.
+     *
+     * @param identifier The identifier of the resource.
+     * @param timeout    The maximum time to wait, or null to wait indefinitely.
+     * @return A future that completes with the resource once it is ready, or
+     *         exceptionally with the error from fetching it, or a
+     *         {@link TimeoutException} if the timeout passes first. Cancelling it
+     *         stops this waiter from waiting.
+     */
+    @Nonnull
+    CompletableFuture<T> await(@Nonnull final String identifier, @Nullable final Duration timeout) {
+        CompletableFuture<T> waiter = new CompletableFuture<>();
+        Entry entry;
+
+        lock.lock();
+        try {
+            if (closed) {
+                waiter.completeExceptionally(new CancellationException("The client has been closed"));
+                return waiter;
+            }
+
+            entry = entries.get(identifier);
+            if (entry == null) {
+                // Poll straight away, in case the resource is already ready.
+                entry = new Entry(identifier, System.nanoTime());
+                entries.put(identifier, entry);
+                scheduleTick(entry.nextPollNanos);
+            }
+            entry.waiters++;
+
+            if (timeout != null) {
+                ScheduledFuture<?> timeoutTask = getScheduler().schedule(
+                        () -> waiter.completeExceptionally(new TimeoutException(String.format(
+                                "Timed out after %s waiting for \"%s\" to be ready", timeout, identifier))),
+                        timeout.toNanos(), TimeUnit.NANOSECONDS);
+                waiter.whenComplete((result, error) -> timeoutTask.cancel(false));
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        Entry waitedEntry = entry;
+        entry.result.whenComplete((result, error) -> {
+            if (error != null) {
+                waiter.completeExceptionally(error);
+            } else {
+                waiter.complete(result);
+            }
+        });
+        waiter.whenComplete((result, error) -> {
+            if (!waitedEntry.result.isDone()) {
+                // This waiter timed out or was cancelled.
+                release(waitedEntry);
+            }
+        });
+        return waiter;
+    }
+
+    private void release(@Nonnull final Entry entry) {
+        lock.lock();
+        try {
+            entry.waiters--;
+            if (entry.waiters == 0 && entries.get(entry.identifier) == entry) {
+                // Nobody is waiting any more, so stop polling.
+                entries.remove(entry.identifier);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // endregion await(identifier, timeout)
+
+    // region Scheduling - tick(), poll(entry), handle(entry, result, error)
+
+    @Nonnull
+    private ScheduledExecutorService getScheduler() {
+        // Called with the lock held.
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "draftable-poller");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return scheduler;
+    }
+
+    private void scheduleTick(final long whenNanos) {
+        // Called with the lock held.
+        if (nextTick != null && whenNanos - nextTickNanos >= 0) {
+            return;
+        }
+        if (nextTick != null) {
+            nextTick.cancel(false);
+        }
+        nextTickNanos = whenNanos;
+        nextTick = getScheduler().schedule(this::tick, Math.max(0, whenNanos - System.nanoTime()),
+                TimeUnit.NANOSECONDS);
+    }
+
+    private void scheduleNextTick() {
+        // Called with the lock held.
+        Long earliest = null;
+        for (Entry entry : entries.values()) {
+            if (!entry.inFlight && (earliest == null || entry.nextPollNanos - earliest < 0)) {
+                earliest = entry.nextPollNanos;
+            }
+        }
+        if (earliest != null) {
+            scheduleTick(earliest);
+        }
+    }
+
+    private void tick() {
+        List<Entry> due = new ArrayList<>();
+        List<Entry> batch = new ArrayList<>();
+
+        lock.lock();
+        try {
+            nextTick = null;
+            if (closed) {
+                return;
+            }
+
+            long now = System.nanoTime();
+            for (Entry entry : entries.values()) {
+                if (!entry.inFlight) {
+                    if (entry.nextPollNanos - now <= 0) {
+                        due.add(entry);
+                    }
+                    batch.add(entry);
+                }
+            }
+
+            if (due.isEmpty()) {
+                scheduleNextTick();
+                return;
+            }
+
+            // A bulk request costs the same however many identifiers it checks, so
+            // once we make one we check every pending identifier, not just those
+            // that are due.
+            if (bulkFetcher == null || entries.size() < bulkThreshold) {
+                batch = due;
+            }
+            for (Entry entry : batch) {
+                entry.inFlight = true;
+            }
+            scheduleNextTick();
+        } finally {
+            lock.unlock();
+        }
+
+        if (batch == due) {
+            for (Entry entry : due) {
+                poll(entry);
+            }
+        } else {
+            pollInBulk(batch, due);
+        }
+    }
+
+    private void pollInBulk(@Nonnull final List<Entry> batch, @Nonnull final List<Entry> due) {
+        Set<String> identifiers = new HashSet<>();
+        for (Entry entry : batch) {
+            identifiers.add(entry.identifier);
+        }
+
+        CompletableFuture<Map<String, T>> results;
+        try {
+            results = bulkFetcher.fetch(identifiers);
+        } catch (RuntimeException ex) {
+            results = new CompletableFuture<>();
+            results.completeExceptionally(ex);
+        }
+
+        Set<Entry> dueEntries = new HashSet<>(due);
+        results.whenComplete((found, error) -> {
+            for (Entry entry : batch) {
+                T result = error == null ? found.get(entry.identifier) : null;
+                if (result != null) {
+                    handle(entry, result, null);
+                } else if (dueEntries.contains(entry)) {
+                    // Either it wasn't in the bulk results (perhaps because it's older
+                    // than the pages we looked at), or the bulk request failed. Poll it
+                    // individually, so that any error is reported to its waiters.
+                    poll(entry);
+                } else {
+                    // It isn't due yet, so it waits for its own turn as usual. Polling it
+                    // now would send a request per missing identifier on every tick.
+                    lock.lock();
+                    try {
+                        entry.inFlight = false;
+                        scheduleNextTick();
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            }
+        });
+    }
+
+    private void poll(@Nonnull final Entry entry) {
+        CompletableFuture<T> result;
+        try {
+            result = fetcher.apply(entry.identifier);
+        } catch (RuntimeException ex) {
+            result = new CompletableFuture<>();
+            result.completeExceptionally(ex);
+        }
+        result.whenComplete((value, error) -> handle(entry, value, error));
+    }
+
+    private void handle(@Nonnull final Entry entry, @Nullable final T value, @Nullable Throwable error) {
+        if (error == null && value != null && !isReady.test(value)) {
+            lock.lock();
+            try {
+                entry.inFlight = false;
+                if (closed || entries.get(entry.identifier) != entry) {
+                    return;
+                }
+                entry.attempt++;
+                entry.nextPollNanos = System.nanoTime() + backoffNanos(entry.attempt);
+                scheduleNextTick();
+            } finally {
+                lock.unlock();
+            }
+            return;
+        }
+
+        lock.lock();
+        try {
+            entry.inFlight = false;
+            if (entries.get(entry.identifier) == entry) {
+                entries.remove(entry.identifier);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (error != null) {
+            if (error instanceof CompletionException && error.getCause() != null) {
+                error = error.getCause();
+            }
+            entry.result.completeExceptionally(error);
+        } else {
+            entry.result.complete(value);
+        }
+    }
+
+    private static long backoffNanos(final int attempt) {
+        double delay = Math.min(maxDelayNanos, initialDelayNanos * Math.pow(backoffMultiplier, attempt - 1));
+        double jitter = 1 + jitterFraction * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+        return (long) (delay * jitter);
+    }
+
+    // endregion Scheduling - tick(), poll(entry), handle(entry, result, error)
+
+    // region close()
+
+    /**
+     * Stops polling, and completes every outstanding waiter with a
+     * {@link CancellationException}.
+     */
+    @Override
+    public void close() {
+        List<Entry> remaining;
+        ScheduledExecutorService currentScheduler;
+
+        lock.lock();
+        try {
+            closed = true;
+            remaining = new ArrayList<>(entries.values());
+            entries.clear();
+            currentScheduler = scheduler;
+            scheduler = null;
+        } finally {
+            lock.unlock();
+        }
+
+        for (Entry entry : remaining) {
+            entry.result.completeExceptionally(new CancellationException("The client has been closed"));
+        }
+        if (currentScheduler != null) {
+            currentScheduler.shutdownNow();
+        }
+    }
+
+    // endregion close()
+}
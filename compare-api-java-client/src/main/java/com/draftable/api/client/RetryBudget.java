@@ -0,0 +1,66 @@
+package com.draftable.api.client;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits retries to a fraction of requests, as configured by a
+ * {@link RetryPolicy}. Each request deposits a fraction of a retry, and each
+ * retry withdraws a whole one, so when most requests are failing, retries stop
+ * once the reserve is spent instead of adding to the load on the server. Hedged
+ * requests, configured by a {@link HedgingPolicy}, are limited the same way.
+ */
+final class RetryBudget {
+
+    /** Retries are counted in thousandths, so that fractional deposits are exact enough. */
+    private static final long scale = 1000;
+
+    private final long deposit;
+    private final long capacity;
+
+    /** The retries available, in thousandths. */
+    @Nonnull
+    private final AtomicLong balance;
+
+    /**
+     * Creates a budget.
+     *
+     * @param ratio   The fraction of a retry each request adds.
+     * @param reserve The retries the budget starts with, and the most it holds.
+     */
+    RetryBudget(final double ratio, final int reserve) {
+        this.deposit = Math.round(ratio * scale);
+        this.capacity = reserve * scale;
+        this.balance = new AtomicLong(capacity);
+    }
+
+    /** Records that a request is being made, adding to the budget. */
+    void recordRequest() {
+        if (deposit == 0) {
+            return;
+        }
+        long current;
+        do {
+            current = balance.get();
+            if (current >= capacity) {
+                return;
+            }
+        } while (!balance.compareAndSet(current, Math.min(capacity, current + deposit)));
+    }
+
+    /**
+     * Withdraws one retry from the budget, if there is one.
+     *
+     * @return Whether the retry may be made.
+     */
+    boolean tryAcquireRetry() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < scale) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - scale));
+        return true;
+    }
+}
@@ -0,0 +1,277 @@
+package com.draftable.api.client;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Configures how requests that fail for transient reasons are retried. A
+ * request is retried if it couldn't be sent or its response couldn't be read
+ * (an {@link java.io.IOException}, such as a connection reset or timeout), or
+ * if the server responded with one of {@link #getRetryableStatusCodes()}.
+ *
+ * <p>
+ * Only requests that are safe to repeat are retried: queries, deletions, and
+ * comparison creation, which always sends an identifier so that the server can
+ * tell a retry from a new comparison. Requests whose body can't be read twice,
+ * such as comparisons of {@link java.io.InputStream} sides, are never retried.
+ * </p>
+ *
+ * <p>
+ * Retries wait for a random time between zero and an exponentially growing
+ * limit ("full jitter"), so that clients that failed together don't retry
+ * together. Retries are also limited by a budget: each request adds
+ * {@link #getRetryBudgetRatio()} of a retry to it, up to
+ * {@link #getRetryBudgetReserve()} retries, and each retry spends one. While the
+ * server is failing most requests, this keeps retries to a small fraction of
+ * the traffic instead of multiplying it.
+ * </p>
+ *
+ * <p>
+ * Instances are immutable, and are created with {@link #builder()}.
+ * </p>
+ */
+public final class RetryPolicy {
+
+    // region Builder
+
+    /**
+     * Builds a {@link RetryPolicy}. Any settings that aren't provided keep their
+     * documented defaults.
+     */
+    public static final class Builder {
+        private int maxAttempts = 3;
+        @Nonnull
+        private Duration initialBackoff = Duration.ofMillis(200);
+        @Nonnull
+        private Duration maxBackoff = Duration.ofSeconds(10);
+        @Nonnull
+        private Set<Integer> retryableStatusCodes = new TreeSet<>(Arrays.asList(502, 503, 504));
+        private double retryBudgetRatio = 0.1;
+        private int retryBudgetReserve = 10;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the most times a request is sent, including the first. Defaults to
+         * 3.
+         *
+         * @param maxAttempts The maximum number of attempts, which must be
+         *                    positive. 1 disables retries.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder maxAttempts(final int maxAttempts) {
+            if (maxAttempts <= 0) {
+                throw new IllegalArgumentException("`maxAttempts` must be positive");
+            }
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * Sets the longest wait before the first retry. The limit doubles for each
+         * further retry, up to {@link #maxBackoff(Duration)}. Defaults to 200
+         * milliseconds.
+         *
+         * @param initialBackoff The limit for the first retry, which must be
+         *                       positive.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder initialBackoff(@Nonnull final Duration initialBackoff) {
+            if (initialBackoff == null) {
+                throw new IllegalArgumentException("`initialBackoff` cannot be null");
+            }
+            if (initialBackoff.isZero() || initialBackoff.isNegative()) {
+                throw new IllegalArgumentException("`initialBackoff` must have positive duration");
+            }
+            this.initialBackoff = initialBackoff;
+            return this;
+        }
+
+        /**
+         * Sets the longest wait before any retry. Defaults to 10 seconds.
+         *
+         * @param maxBackoff The limit for every retry, which must be positive.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder maxBackoff(@Nonnull final Duration maxBackoff) {
+            if (maxBackoff == null) {
+                throw new IllegalArgumentException("`maxBackoff` cannot be null");
+            }
+            if (maxBackoff.isZero() || maxBackoff.isNegative()) {
+                throw new IllegalArgumentException("`maxBackoff` must have positive duration");
+            }
+            this.maxBackoff = maxBackoff;
+            return this;
+        }
+
+        /**
+         * Sets the response status codes that are retried. Defaults to 502, 503 and
+         * 504, which gateways and load balancers return while the API is briefly
+         * unavailable.
+         *
+         * @param retryableStatusCodes The status codes to retry, which may be empty
+         *                             to only retry I/O failures.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder retryableStatusCodes(@Nonnull final Collection<Integer> retryableStatusCodes) {
+            if (retryableStatusCodes == null) {
+                throw new IllegalArgumentException("`retryableStatusCodes` cannot be null");
+            }
+            for (Integer statusCode : retryableStatusCodes) {
+                if (statusCode == null || statusCode < 100 || statusCode > 599) {
+                    throw new IllegalArgumentException("`retryableStatusCodes` must be valid HTTP status codes");
+                }
+            }
+            this.retryableStatusCodes = new TreeSet<>(retryableStatusCodes);
+            return this;
+        }
+
+        /**
+         * Sets the fraction of a retry that each request adds to the retry budget.
+         * Defaults to 0.1, meaning that once the reserve is spent, at most one
+         * request in ten is retried.
+         *
+         * @param retryBudgetRatio The retries earned per request, which must be
+         *                         from 0 to 1.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder retryBudgetRatio(final double retryBudgetRatio) {
+            if (!(retryBudgetRatio >= 0 && retryBudgetRatio <= 1)) {
+                throw new IllegalArgumentException("`retryBudgetRatio` must be from 0 to 1");
+            }
+            this.retryBudgetRatio = retryBudgetRatio;
+            return this;
+        }
+
+        /**
+         * Sets the number of retries the budget starts with, which is also the most
+         * it can save up. This lets occasional failures be retried even when few
+         * requests are made. Defaults to 10.
+         *
+         * @param retryBudgetReserve The size of the retry budget, which must not be
+         *                           negative.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder retryBudgetReserve(final int retryBudgetReserve) {
+            if (retryBudgetReserve < 0) {
+                throw new IllegalArgumentException("`retryBudgetReserve` cannot be negative");
+            }
+            this.retryBudgetReserve = retryBudgetReserve;
+            return this;
+        }
+
+        /**
+         * Creates the {@link RetryPolicy}.
+         *
+         * @return A new {@link RetryPolicy} with this builder's settings.
+         */
+        @Nonnull
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+    }
+
+    /**
+     * Creates a builder for a {@link RetryPolicy}.
+     *
+     * @return A new {@link Builder} with the default settings.
+     */
+    @Nonnull
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // endregion Builder
+
+    // region Fields and constructor
+
+    private final int maxAttempts;
+    @Nonnull
+    private final Duration initialBackoff;
+    @Nonnull
+    private final Duration maxBackoff;
+    @Nonnull
+    private final Set<Integer> retryableStatusCodes;
+    private final double retryBudgetRatio;
+    private final int retryBudgetReserve;
+
+    private RetryPolicy(@Nonnull final Builder builder) {
+        this.maxAttempts = builder.maxAttempts;
+        this.initialBackoff = builder.initialBackoff;
+        this.maxBackoff = builder.maxBackoff;
+        this.retryableStatusCodes = Collections.unmodifiableSet(new TreeSet<>(builder.retryableStatusCodes));
+        this.retryBudgetRatio = builder.retryBudgetRatio;
+        this.retryBudgetReserve = builder.retryBudgetReserve;
+    }
+
+    // endregion Fields and constructor
+
+    // region Getters
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    @Nonnull
+    public Duration getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    @Nonnull
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    @Nonnull
+    public Set<Integer> getRetryableStatusCodes() {
+        return retryableStatusCodes;
+    }
+
+    public double getRetryBudgetRatio() {
+        return retryBudgetRatio;
+    }
+
+    public int getRetryBudgetReserve() {
+        return retryBudgetReserve;
+    }
+
+    // endregion Getters
+
+    /**
+     * Picks how long to wait before a retry: a random time up to the initial
+     * backoff doubled for each earlier retry, capped at the maximum backoff.
+     *
+     * @param retry The number of the retry, starting from 1.
+     * @return The time to wait, in milliseconds.
+     */
+    long getBackoffMillis(final int retry) {
+        long maxMillis = maxBackoff.toMillis();
+        long limitMillis = initialBackoff.toMillis();
+        for (int i = 1; i < retry && limitMillis < maxMillis; ++i) {
+            limitMillis *= 2;
+        }
+        limitMillis = Math.min(limitMillis, maxMillis);
+        return ThreadLocalRandom.current().nextLong(limitMillis + 1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "RetryPolicy(maxAttempts: %d, initialBackoff: %s, maxBackoff: %s, retryableStatusCodes: %s, "
+                        + "retryBudgetRatio: %s, retryBudgetReserve: %d)",
+                maxAttempts, initialBackoff, maxBackoff, retryableStatusCodes, retryBudgetRatio, retryBudgetReserve);
+    }
+}
@@ -0,0 +1,114 @@
+package com.draftable.api.client;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+
+/**
+ * A snapshot of the counters for one stage of a {@link Pipeline}.
+ */
+public final class StageStats {
+
+    @Nonnull
+    private final PipelineStage stage;
+    private final long started;
+    private final long succeeded;
+    private final long failed;
+    private final long totalLatencyNanos;
+    private final long maxLatencyNanos;
+    @Nonnull
+    private final Duration elapsed;
+
+    StageStats(@Nonnull final PipelineStage stage, final long started, final long succeeded, final long failed,
+            final long totalLatencyNanos, final long maxLatencyNanos, @Nonnull final Duration elapsed) {
+        this.stage = stage;
+        this.started = started;
+        this.succeeded = succeeded;
+        this.failed = failed;
+        this.totalLatencyNanos = totalLatencyNanos;
+        this.maxLatencyNanos = maxLatencyNanos;
+        this.elapsed = elapsed;
+    }
+
+    @Nonnull
+    public PipelineStage getStage() {
+        return stage;
+    }
+
+    /**
+     * Gets the number of comparisons that have entered this stage.
+     *
+     * @return The number of comparisons started.
+     */
+    public long getStarted() {
+        return started;
+    }
+
+    /**
+     * Gets the number of comparisons that have passed this stage.
+     *
+     * @return The number of comparisons that succeeded.
+     */
+    public long getSucceeded() {
+        return succeeded;
+    }
+
+    /**
+     * Gets the number of comparisons that failed at this stage.
+     *
+     * @return The number of comparisons that failed.
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * Gets the number of comparisons currently in this stage.
+     *
+     * @return The number of comparisons started but not yet finished.
+     */
+    public long getInFlight() {
+        return started - succeeded - failed;
+    }
+
+    /**
+     * Gets the average time comparisons spent in this stage, whether or not they
+     * succeeded.
+     *
+     * @return The mean latency of the stage, or zero if nothing has finished it.
+     */
+    @Nonnull
+    public Duration getAverageLatency() {
+        long finished = succeeded + failed;
+        return finished == 0 ? Duration.ZERO : Duration.ofNanos(totalLatencyNanos / finished);
+    }
+
+    /**
+     * Gets the longest time a comparison spent in this stage.
+     *
+     * @return The maximum latency of the stage, or zero if nothing has finished it.
+     */
+    @Nonnull
+    public Duration getMaxLatency() {
+        return Duration.ofNanos(maxLatencyNanos);
+    }
+
+    /**
+     * Gets the average number of comparisons that finished this stage per second,
+     * since the pipeline started.
+     *
+     * @return The throughput of the stage, in comparisons per second.
+     */
+    public double getThroughput() {
+        long elapsedNanos = elapsed.toNanos();
+        return elapsedNanos <= 0 ? 0 : (succeeded + failed) * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "StageStats(stage: %s, started: %d, succeeded: %d, failed: %d, inFlight: %d, averageLatency: %s, "
+                        + "maxLatency: %s, throughput: %.2f/s)",
+                stage, started, succeeded, failed, getInFlight(), getAverageLatency(), getMaxLatency(),
+                getThroughput());
+    }
+}
@@ -0,0 +1,552 @@
+package com.draftable.api.client;
+
+import org.apache.commons.codec.Charsets;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.mime.HttpMultipartMode;
+import org.apache.http.entity.mime.MultipartEntityBuilder;
+import org.apache.http.entity.mime.content.AbstractContentBody;
+import org.apache.http.entity.mime.content.ByteArrayBody;
+import org.apache.http.entity.mime.content.ContentBody;
+import org.apache.http.entity.mime.content.FileBody;
+import org.apache.http.entity.mime.content.InputStreamBody;
+import org.apache.http.nio.ContentEncoder;
+import org.apache.http.nio.FileContentEncoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.entity.HttpAsyncContentProducer;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A multipart/form-data entity which streams its parts instead of buffering the
+ * whole request body in memory.
+ *
+ * <p>
+ * The multipart framing (boundaries and part headers) is generated by
+ * {@link MultipartEntityBuilder}, so the wire format is identical to the one
+ * previously sent. Only the file content is handled separately: the
+ * synchronous client writes it straight to the connection via
+ * {@link #writeTo(OutputStream)}, while the asynchronous client pulls it in
+ * fixed-size chunks through the {@link HttpAsyncContentProducer} interface.
+ * Files are handed to the asynchronous client's connection with
+ * {@link FileChannel#transferTo}, avoiding any copies through user space where
+ * the connection supports it.
+ * </p>
+ *
+ * <p>
+ * Content provided as an {@link InputStream} has no known length, so an entity
+ * with such content is sent with chunked transfer encoding rather than a
+ * Content-Length. The stream can only be read once, so the entity is then not
+ * repeatable. Files, byte arrays and streams are never copied into an
+ * intermediate buffer.
+ * </p>
+ */
+@SuppressWarnings({ "ConstantConditions", "WeakerAccess" })
+class StreamingMultipartEntity extends AbstractHttpEntity implements HttpAsyncContentProducer {
+
+    // region Parts - Part, FramingPart, ContentPart, StreamPart, FilePart
+
+    /** Size of the buffer used when pulling content for the asynchronous client. */
+    private static final int bufferSize = 8192;
+
+    private static final String truncatedMessage = "File was truncated while it was being uploaded";
+
+    private interface Part {
+        /** The length of the part, or -1 if it is only known once it has been read. */
+        long getLength();
+
+        boolean isRepeatable();
+
+        void writeTo(@Nonnull OutputStream outputStream) throws IOException;
+
+        @Nonnull
+        ReadableByteChannel openChannel() throws IOException;
+    }
+
+    /** A slice of the multipart framing generated by {@link MultipartEntityBuilder}. */
+    private static final class FramingPart implements Part {
+        @Nonnull
+        private final byte[] framing;
+        private final int offset;
+        private final int length;
+
+        FramingPart(@Nonnull final byte[] framing, final int offset, final int length) {
+            this.framing = framing;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public long getLength() {
+            return length;
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return true;
+        }
+
+        @Override
+        public void writeTo(@Nonnull final OutputStream outputStream) throws IOException {
+            outputStream.write(framing, offset, length);
+        }
+
+        @Nonnull
+        @Override
+        public ReadableByteChannel openChannel() {
+            return Channels.newChannel(new ByteArrayInputStream(framing, offset, length));
+        }
+    }
+
+    /** The content of a single file provided as a {@link ContentBody}. */
+    private static final class ContentPart implements Part {
+        @Nonnull
+        private final ContentBody body;
+
+        ContentPart(@Nonnull final ContentBody body) {
+            this.body = body;
+        }
+
+        @Override
+        public long getLength() {
+            return body.getContentLength();
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            // Input streams are handled by StreamPart, so every body here can be
+            // written again.
+            return true;
+        }
+
+        @Override
+        public void writeTo(@Nonnull final OutputStream outputStream) throws IOException {
+            body.writeTo(outputStream);
+        }
+
+        @Nonnull
+        @Override
+        public ReadableByteChannel openChannel() throws IOException {
+            if (body instanceof ByteArrayContentBody) {
+                return Channels.newChannel(new ByteArrayInputStream(((ByteArrayContentBody) body).getData()));
+            }
+
+            // Some other kind of body we don't know how to read from directly.
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            body.writeTo(outputStream);
+            return Channels.newChannel(new ByteArrayInputStream(outputStream.toByteArray()));
+        }
+    }
+
+    /**
+     * The content of a file provided as an {@link InputStreamBody}. Its length is
+     * unknown, and it can only be read once.
+     */
+    private static final class StreamPart implements Part {
+        @Nonnull
+        private final InputStreamBody body;
+
+        StreamPart(@Nonnull final InputStreamBody body) {
+            this.body = body;
+        }
+
+        @Override
+        public long getLength() {
+            return -1;
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return false;
+        }
+
+        @Override
+        public void writeTo(@Nonnull final OutputStream outputStream) throws IOException {
+            body.writeTo(outputStream);
+        }
+
+        @Nonnull
+        @Override
+        public ReadableByteChannel openChannel() {
+            return Channels.newChannel(body.getInputStream());
+        }
+    }
+
+    /**
+     * The content of a file provided as a {@link FileBody}. This is read through a
+     * {@link FileChannel}, so that the asynchronous client can transfer it to the
+     * connection without copying it through user space.
+     */
+    private static final class FilePart implements Part {
+        @Nonnull
+        private final FileBody body;
+        private final long length;
+
+        FilePart(@Nonnull final FileBody body) {
+            this.body = body;
+            this.length = body.getContentLength();
+        }
+
+        @Override
+        public long getLength() {
+            return length;
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return true;
+        }
+
+        @Override
+        public void writeTo(@Nonnull final OutputStream outputStream) throws IOException {
+            // Copy exactly the declared length, as the file may have changed since we
+            // computed the Content-Length.
+            try (InputStream inputStream = Channels.newInputStream(openChannel())) {
+                final byte[] chunk = new byte[bufferSize];
+                long remaining = length;
+                while (remaining > 0) {
+                    final int read = inputStream.read(chunk, 0, (int) Math.min(chunk.length, remaining));
+                    if (read < 0) {
+                        throw new IOException(truncatedMessage);
+                    }
+                    outputStream.write(chunk, 0, read);
+                    remaining -= read;
+                }
+            }
+        }
+
+        @Nonnull
+        @Override
+        public ReadableByteChannel openChannel() throws IOException {
+            return FileChannel.open(body.getFile().toPath(), StandardOpenOption.READ);
+        }
+    }
+
+    // endregion Parts - Part, FramingPart, ContentPart, StreamPart, FilePart
+
+    // region Content bodies - ByteArrayContentBody, PlaceholderBody
+
+    /**
+     * A {@link ByteArrayBody} which exposes its data, so that we can stream it
+     * without first copying it through {@link ContentBody#writeTo(OutputStream)}.
+     */
+    static final class ByteArrayContentBody extends ByteArrayBody {
+        @Nonnull
+        private final byte[] data;
+
+        ByteArrayContentBody(@Nonnull final byte[] data, @Nonnull final ContentType contentType,
+                @Nonnull final String filename) {
+            super(data, contentType, filename);
+            this.data = data;
+        }
+
+        @Nonnull
+        byte[] getData() {
+            return data;
+        }
+    }
+
+    /**
+     * Stands in for a real {@link ContentBody} while generating the multipart
+     * framing. It describes itself exactly as the real body does, but writes
+     * nothing, and instead records where the real content belongs.
+     */
+    private static final class PlaceholderBody extends AbstractContentBody {
+        @Nonnull
+        private final ContentBody body;
+
+        PlaceholderBody(@Nonnull final ContentBody body) {
+            super(contentTypeOf(body));
+            this.body = body;
+        }
+
+        @Override
+        public String getFilename() {
+            return body.getFilename();
+        }
+
+        @Override
+        public String getTransferEncoding() {
+            return body.getTransferEncoding();
+        }
+
+        @Override
+        public long getContentLength() {
+            return body.getContentLength();
+        }
+
+        @Override
+        public void writeTo(@Nonnull final OutputStream outputStream) {
+            ((FramingOutputStream) outputStream).markContent();
+        }
+    }
+
+    /** Captures the multipart framing and the offsets at which content belongs. */
+    private static final class FramingOutputStream extends ByteArrayOutputStream {
+        @Nonnull
+        final List<Integer> contentOffsets = new ArrayList<>();
+
+        void markContent() {
+            contentOffsets.add(size());
+        }
+    }
+
+    // endregion Content bodies - ByteArrayContentBody, PlaceholderBody
+
+    // region Fields and constructor
+
+    @Nonnull
+    private final List<Part> parts;
+    private final long contentLength;
+    private final boolean repeatable;
+
+    // State for the asynchronous producer. Only ever accessed by the I/O reactor
+    // thread currently sending the request.
+    @Nullable
+    private ByteBuffer buffer;
+    @Nullable
+    private ReadableByteChannel currentChannel;
+    private int currentPart;
+    private long currentPartProduced;
+
+    private StreamingMultipartEntity(@Nonnull final List<Part> parts, @Nonnull final HttpEntity framingEntity) {
+        this.parts = parts;
+
+        long totalLength = 0;
+        boolean allRepeatable = true;
+        for (final Part part : parts) {
+            if (totalLength >= 0) {
+                totalLength = part.getLength() < 0 ? -1 : totalLength + part.getLength();
+            }
+            allRepeatable &= part.isRepeatable();
+        }
+        this.contentLength = totalLength;
+        this.repeatable = allRepeatable;
+
+        setContentType(framingEntity.getContentType());
+        setChunked(totalLength < 0);
+    }
+
+    /**
+     * Builds a streaming multipart entity for the given parameters and content.
+     *
+     * @param parameters The string data to provide in the request.
+     * @param content    Files to provide in the request.
+     * @return A new entity which streams the given content when sent.
+     * @throws IOException Unable to generate the multipart framing.
+     */
+    @Nonnull
+    static StreamingMultipartEntity create(@Nullable final Map<String, String> parameters,
+            @Nonnull final Map<String, ContentBody> content) throws IOException {
+        final MultipartEntityBuilder builder = MultipartEntityBuilder.create();
+
+        builder.setMode(HttpMultipartMode.BROWSER_COMPATIBLE);
+        builder.setCharset(Charsets.UTF_8);
+
+        if (parameters != null) {
+            for (final Map.Entry<String, String> entry : parameters.entrySet()) {
+                builder.addTextBody(entry.getKey(), entry.getValue());
+            }
+        }
+
+        final List<ContentBody> bodies = new ArrayList<>();
+        for (final Map.Entry<String, ContentBody> entry : content.entrySet()) {
+            final ContentBody body = entry.getValue();
+            bodies.add(body);
+            builder.addPart(entry.getKey(), new PlaceholderBody(body));
+        }
+
+        // Generate the framing only. The placeholders write no content, so this is
+        // small no matter how large the files are.
+        final HttpEntity framingEntity = builder.build();
+        final FramingOutputStream framingStream = new FramingOutputStream();
+        framingEntity.writeTo(framingStream);
+        final byte[] framing = framingStream.toByteArray();
+
+        final List<Part> parts = new ArrayList<>();
+        int offset = 0;
+        for (int i = 0; i < bodies.size(); ++i) {
+            final int contentOffset = framingStream.contentOffsets.get(i);
+            parts.add(new FramingPart(framing, offset, contentOffset - offset));
+            parts.add(partFor(bodies.get(i)));
+            offset = contentOffset;
+        }
+        parts.add(new FramingPart(framing, offset, framing.length - offset));
+
+        return new StreamingMultipartEntity(parts, framingEntity);
+    }
+
+    @Nonnull
+    private static Part partFor(@Nonnull final ContentBody body) {
+        if (body instanceof FileBody) {
+            return new FilePart((FileBody) body);
+        }
+        if (body instanceof InputStreamBody) {
+            return new StreamPart((InputStreamBody) body);
+        }
+        return new ContentPart(body);
+    }
+
+    @Nonnull
+    private static ContentType contentTypeOf(@Nonnull final ContentBody body) {
+        if (body instanceof AbstractContentBody) {
+            return ((AbstractContentBody) body).getContentType();
+        }
+        return ContentType.create(body.getMimeType(), body.getCharset());
+    }
+
+    // endregion Fields and constructor
+
+    // region HttpEntity
+
+    @Override
+    public boolean isRepeatable() {
+        return repeatable;
+    }
+
+    @Override
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return !repeatable;
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        final List<InputStream> streams = new ArrayList<>();
+        for (final Part part : parts) {
+            streams.add(Channels.newInputStream(part.openChannel()));
+        }
+        final Enumeration<InputStream> enumeration = Collections.enumeration(streams);
+        return new SequenceInputStream(enumeration);
+    }
+
+    @Override
+    public void writeTo(final OutputStream outputStream) throws IOException {
+        for (final Part part : parts) {
+            part.writeTo(outputStream);
+        }
+    }
+
+    // endregion HttpEntity
+
+    // region HttpAsyncContentProducer
+
+    @Override
+    public void produceContent(@Nonnull final ContentEncoder encoder, @Nonnull final IOControl ioControl)
+            throws IOException {
+        if (buffer == null) {
+            buffer = ByteBuffer.allocate(bufferSize);
+        }
+
+        while (true) {
+            // Flush anything left over from a previous call first.
+            if (buffer.position() > 0) {
+                buffer.flip();
+                encoder.write(buffer);
+                buffer.compact();
+                if (buffer.position() > 0) {
+                    // The connection can't take any more right now. We'll be called again once
+                    // it can.
+                    return;
+                }
+            }
+
+            if (currentChannel == null) {
+                if (currentPart == parts.size()) {
+                    encoder.complete();
+                    close();
+                    return;
+                }
+                currentChannel = parts.get(currentPart).openChannel();
+                currentPartProduced = 0;
+            }
+
+            // Never send more than the declared length of a part, even if its content
+            // has since grown, or the framing that follows would be corrupted. A part of
+            // unknown length is sent until its content ends.
+            final long length = parts.get(currentPart).getLength();
+            final long remaining = length < 0 ? Long.MAX_VALUE : length - currentPartProduced;
+            if (remaining <= 0) {
+                currentChannel.close();
+                currentChannel = null;
+                ++currentPart;
+                continue;
+            }
+
+            if (currentChannel instanceof FileChannel && encoder instanceof FileContentEncoder) {
+                // Hand the file straight to the connection, as ZeroCopyPost does. The
+                // buffer is always empty at this point, so nothing can be reordered.
+                final FileChannel fileChannel = (FileChannel) currentChannel;
+                if (currentPartProduced >= fileChannel.size()) {
+                    throw new IOException(truncatedMessage);
+                }
+                final long transferred = ((FileContentEncoder) encoder).transfer(fileChannel, currentPartProduced,
+                        remaining);
+                if (transferred <= 0) {
+                    return;
+                }
+                currentPartProduced += transferred;
+                continue;
+            }
+
+            // The buffer is empty here too, so limit the read to what is left of the part.
+            if (remaining < buffer.remaining()) {
+                buffer.limit((int) remaining);
+            }
+            final int read = currentChannel.read(buffer);
+            buffer.limit(buffer.capacity());
+            if (read < 0) {
+                if (length < 0) {
+                    currentChannel.close();
+                    currentChannel = null;
+                    ++currentPart;
+                    continue;
+                }
+                // Sending less than the declared Content-Length would leave the server
+                // waiting for the rest of the body.
+                throw new IOException(truncatedMessage);
+            }
+            currentPartProduced += read;
+        }
+    }
+
+    /**
+     * Releases any open content and the transfer buffer, and rewinds the entity so
+     * that it can be produced again if it is repeatable.
+     */
+    @Override
+    public void close() throws IOException {
+        final ReadableByteChannel channel = currentChannel;
+        currentChannel = null;
+        currentPart = 0;
+        currentPartProduced = 0;
+        buffer = null;
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    // endregion HttpAsyncContentProducer
+}
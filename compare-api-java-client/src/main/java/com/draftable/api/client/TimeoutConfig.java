@@ -0,0 +1,182 @@
+package com.draftable.api.client;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Duration;
+
+/**
+ * Configures how long a {@link Comparisons} instance waits on the API before
+ * giving up, so that a server that stops responding can't block a caller
+ * indefinitely.
+ *
+ * <p>
+ * The connect, lease and socket timeouts bound each request sent with the
+ * Apache HTTP clients, and are given to a custom {@link HttpTransport} with
+ * each request. The total timeout bounds a whole call, including any
+ * retries and waits for the rate limit, and is the default for calls that
+ * aren't given a timeout of their own. Each request within a call is also cut
+ * short to the time the call has left. A call that runs out of time fails
+ * with a {@link DeadlineExceededException}.
+ * </p>
+ *
+ * <p>
+ * Instances are immutable, and are created with {@link #builder()}.
+ * </p>
+ */
+public final class TimeoutConfig {
+
+    // region Builder
+
+    /**
+     * Builds a {@link TimeoutConfig}. Any settings that aren't provided keep their
+     * documented defaults.
+     */
+    public static final class Builder {
+        @Nullable
+        private Duration connectTimeout = Duration.ofSeconds(10);
+        @Nullable
+        private Duration leaseTimeout = Duration.ofSeconds(10);
+        @Nullable
+        private Duration socketTimeout = Duration.ofSeconds(60);
+        @Nullable
+        private Duration totalTimeout = null;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the longest to wait for a connection to the server to be
+         * established. Defaults to 10 seconds.
+         *
+         * @param connectTimeout The connect timeout, or null for no limit.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder connectTimeout(@Nullable final Duration connectTimeout) {
+            checkPositive(connectTimeout, "connectTimeout");
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        /**
+         * Sets the longest to wait for a connection to become free in the pool.
+         * Defaults to 10 seconds.
+         *
+         * @param leaseTimeout The lease timeout, or null for no limit.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder leaseTimeout(@Nullable final Duration leaseTimeout) {
+            checkPositive(leaseTimeout, "leaseTimeout");
+            this.leaseTimeout = leaseTimeout;
+            return this;
+        }
+
+        /**
+         * Sets the longest the server may go without sending any data while a
+         * response is awaited or read. Defaults to 60 seconds.
+         *
+         * @param socketTimeout The socket timeout, or null for no limit.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder socketTimeout(@Nullable final Duration socketTimeout) {
+            checkPositive(socketTimeout, "socketTimeout");
+            this.socketTimeout = socketTimeout;
+            return this;
+        }
+
+        /**
+         * Sets the longest a call may take in total, for calls that aren't given a
+         * timeout of their own. Downloads of exports aren't bounded by this, as
+         * their duration depends on the size of the export. Defaults to null.
+         *
+         * @param totalTimeout The total timeout, or null for no limit.
+         * @return This builder.
+         */
+        @Nonnull
+        public Builder totalTimeout(@Nullable final Duration totalTimeout) {
+            checkPositive(totalTimeout, "totalTimeout");
+            this.totalTimeout = totalTimeout;
+            return this;
+        }
+
+        private static void checkPositive(@Nullable final Duration timeout, @Nonnull final String name) {
+            if (timeout != null && (timeout.isZero() || timeout.isNegative())) {
+                throw new IllegalArgumentException(String.format("`%s` must have positive duration", name));
+            }
+        }
+
+        /**
+         * Creates the {@link TimeoutConfig}.
+         *
+         * @return A new {@link TimeoutConfig} with this builder's settings.
+         */
+        @Nonnull
+        public TimeoutConfig build() {
+            return new TimeoutConfig(this);
+        }
+    }
+
+    /**
+     * Creates a builder for a {@link TimeoutConfig}.
+     *
+     * @return A new {@link Builder} with the default settings.
+     */
+    @Nonnull
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // endregion Builder
+
+    // region Fields and constructor
+
+    @Nullable
+    private final Duration connectTimeout;
+    @Nullable
+    private final Duration leaseTimeout;
+    @Nullable
+    private final Duration socketTimeout;
+    @Nullable
+    private final Duration totalTimeout;
+
+    private TimeoutConfig(@Nonnull final Builder builder) {
+        this.connectTimeout = builder.connectTimeout;
+        this.leaseTimeout = builder.leaseTimeout;
+        this.socketTimeout = builder.socketTimeout;
+        this.totalTimeout = builder.totalTimeout;
+    }
+
+    // endregion Fields and constructor
+
+    // region Getters
+
+    @Nullable
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    @Nullable
+    public Duration getLeaseTimeout() {
+        return leaseTimeout;
+    }
+
+    @Nullable
+    public Duration getSocketTimeout() {
+        return socketTimeout;
+    }
+
+    @Nullable
+    public Duration getTotalTimeout() {
+        return totalTimeout;
+    }
+
+    // endregion Getters
+
+    @Override
+    public String toString() {
+        return String.format("TimeoutConfig(connectTimeout: %s, leaseTimeout: %s, socketTimeout: %s, totalTimeout: %s)",
+                connectTimeout, leaseTimeout, socketTimeout, totalTimeout);
+    }
+}
@@ -1,25 +1,120 @@
 package com.draftable.api.client;
 
-import org.apache.commons.codec.Charsets;
-import org.json.JSONArray;
-
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
-import java.time.Instant;
 import java.security.SecureRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
 
 /** Internal utility methods. */
 class Utils {
-    private static final SecureRandom random = new SecureRandom();
+    /**
+     * A secure random generator, drawn from in bulk, and guarded by its own lock.
+     *
+     * <p>
+     * A fixed set of these is shared, and each call picks one at random, so
+     * concurrent callers rarely wait on each other. Nothing is created or seeded
+     * per thread, which would be costly when every call runs on a new virtual
+     * thread.
+     * </p>
+     */
+    private static final class RandomBytes {
+        private static final int seedLength = 32;
+
+        /**
+         * Seeds the generators. It is only drawn from as they are created, and reads
+         * from a non-blocking source.
+         */
+        @Nonnull
+        private static final SecureRandom seedSource = new SecureRandom();
+
+        /** Twice as many as there are processors, so that callers rarely collide. */
+        @Nonnull
+        private static final RandomBytes[] stripes = createStripes(Runtime.getRuntime().availableProcessors() * 2);
+
+        @Nonnull
+        final ReentrantLock lock = new ReentrantLock();
+        @Nonnull
+        private final SecureRandom generator = createGenerator();
+        @Nonnull
+        private final byte[] buffer = new byte[256];
+        private int position = buffer.length;
+
+        /** Picks one of the shared generators. Its lock must be held while using it. */
+        @Nonnull
+        static RandomBytes any() {
+            return stripes[ThreadLocalRandom.current().nextInt(stripes.length)];
+        }
+
+        /** Gets a uniformly distributed random value from 0 to 255. */
+        int next() {
+            if (position == buffer.length) {
+                generator.nextBytes(buffer);
+                position = 0;
+            }
+            return buffer[position++] & 0xFF;
+        }
+
+        /** Gets a uniformly distributed random value from 0 to bound - 1. */
+        int nextInt(final int bound) {
+            return generator.nextInt(bound);
+        }
+
+        @Nonnull
+        private static RandomBytes[] createStripes(final int count) {
+            RandomBytes[] stripes = new RandomBytes[count];
+            for (int i = 0; i < count; ++i) {
+                stripes[i] = new RandomBytes();
+            }
+            return stripes;
+        }
+
+        @Nonnull
+        private static SecureRandom createGenerator() {
+            byte[] seed = new byte[seedLength];
+            seedSource.nextBytes(seed);
+            try {
+                // Seeding before the first draw stops the generator seeding itself,
+                // which may block while the system gathers entropy.
+                SecureRandom generator = SecureRandom.getInstance("SHA1PRNG");
+                generator.setSeed(seed);
+                return generator;
+            } catch (NoSuchAlgorithmException ex) {
+                // Every Java implementation should provide SHA1PRNG, but if not, the
+                // platform default is still secure.
+                return new SecureRandom(seed);
+            }
+        }
+    }
 
     private Utils() {
         throw new AssertionError("`Utils` should never be instantiated");
     }
 
+    /**
+     * Makes cancelling a future derived from another, such as with
+     * {@link CompletableFuture#thenApply}, cancel the one it was derived from as
+     * well. A derived future doesn't do this by itself, so the work it waits on
+     * would otherwise carry on.
+     *
+     * @param derived The derived future.
+     * @param source  The future it was derived from.
+     * @return The derived future.
+     */
+    @Nonnull
+    static <T> CompletableFuture<T> propagateCancellation(@Nonnull final CompletableFuture<T> derived,
+            @Nonnull final Future<?> source) {
+        derived.whenComplete((result, error) -> {
+            if (derived.isCancelled()) {
+                source.cancel(true);
+            }
+        });
+        return derived;
+    }
+
     @Nullable
     static String getExtension(@Nonnull final String fileName) {
         int lastIndexOfPeriod = fileName.lastIndexOf(".");
@@ -31,67 +126,36 @@ class Utils {
 
     @Nonnull
     static String getRandomString(@Nonnull final CharSequence charset, final int length) {
-        final StringBuilder builder = new StringBuilder();
-        final int chars = charset.length();
-        for (int i = 0; i < length; ++i) {
-            builder.append(charset.charAt(random.nextInt(chars)));
-        }
-        return builder.toString();
-    }
-
-    // Lowercase hex characters look better in the URL.
-    @Nonnull
-    private static final char[] hexCharacters = "0123456789abcdef".toCharArray();
-
-    @Nonnull
-    private static String toHexString(@Nonnull final byte[] bytes) {
-        final StringBuilder builder = new StringBuilder();
-        for (byte b : bytes) {
-            builder.append(hexCharacters[(b >> 4) & 0xF]).append(hexCharacters[b & 0xF]);
-        }
-        return builder.toString();
+        return appendRandomString(new StringBuilder(length), charset, length).toString();
     }
 
     @Nonnull
-    private static byte[] SHA256HMAC(@Nonnull final String secretKey, @Nonnull final String message) {
+    static StringBuilder appendRandomString(@Nonnull final StringBuilder builder, @Nonnull final CharSequence charset,
+            final int length) {
+        final RandomBytes bytes = RandomBytes.any();
+        bytes.lock.lock();
         try {
-            final Mac SHA256HMAC = Mac.getInstance("HmacSHA256");
-            SHA256HMAC.init(new SecretKeySpec(secretKey.getBytes(Charsets.UTF_8), "HmacSHA256"));
-            return SHA256HMAC.doFinal(message.getBytes(Charsets.UTF_8));
-        } catch (NoSuchAlgorithmException ex) {
-            // This should never happen.
-            throw new RuntimeException(ex);
-        } catch (InvalidKeyException ex) {
-            // This should never occur - this is when we've passed invalid parameter has
-            // been passed for the secret key.
-            // We'll throw a description exception anyway.
-            throw new RuntimeException("Invalid auth token provided - unable to generate signature.", ex);
-        }
-    }
+            final int chars = charset.length();
+            if (chars > 256) {
+                for (int i = 0; i < length; ++i) {
+                    builder.append(charset.charAt(bytes.nextInt(chars)));
+                }
+                return builder;
+            }
 
-    @Nonnull
-    static String getViewerURLSignature(@Nonnull final String accountId, @Nonnull final String authToken,
-            @Nonnull final String identifier, Instant validUntil) {
-        Validation.validateAccountId(accountId);
-        Validation.validateAuthToken(authToken);
-        Validation.validateIdentifier(identifier);
-        Validation.validateValidUntil(validUntil);
-
-        // First we create the policy object, which is as follows:
-        // [
-        // account_id (string),
-        // identifier (string),
-        // valid_until (number)
-        // ]
-        //
-        // Then, we serialize it as JSON, with no spaces, to get the policy that we'll
-        // sign.
-
-        final String policyJSON = new JSONArray().put(accountId).put(identifier).put(validUntil.getEpochSecond())
-                .toString();
-
-        // The signature is the SHA-256 HMAC (hash-based message authentication code) of
-        // the JSON policy, using our auth token as the secret key. It's given as hex.
-        return toHexString(SHA256HMAC(authToken, policyJSON));
+            // Bytes at or above the largest multiple of the charset's size are skipped,
+            // so that every character is equally likely.
+            final int limit = 256 - 256 % chars;
+            for (int i = 0; i < length; ++i) {
+                int value;
+                do {
+                    value = bytes.next();
+                } while (value >= limit);
+                builder.append(charset.charAt(value % chars));
+            }
+            return builder;
+        } finally {
+            bytes.lock.unlock();
+        }
     }
 }
@@ -138,7 +138,7 @@ class Validation {
 
     // endregion validateSourceURL, validateSourceURI
 
-    // region validateExpires, validateValidUntil
+    // region validateExpires, validateValidUntil, validateTimeout
 
     private static void validateInstant(@Nonnull final String parameterName, @Nullable final Instant instant) {
         if (instant == null) {
@@ -170,6 +170,26 @@ class Validation {
         validateInstant("validUntil", validUntil);
     }
 
-    // endregion validateExpires, validateValidUntil
+    static void validateTimeout(@Nullable final Duration timeout) {
+        validateDuration("timeout", timeout);
+    }
+
+    // endregion validateExpires, validateValidUntil, validateTimeout
+
+    // region validatePageOffset, validatePageLimit
+
+    static void validatePageOffset(final int offset) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("`offset` cannot be negative");
+        }
+    }
+
+    static void validatePageLimit(final int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("`limit` must be positive");
+        }
+    }
+
+    // endregion validatePageOffset, validatePageLimit
 
 }
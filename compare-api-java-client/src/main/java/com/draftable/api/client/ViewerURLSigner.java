@@ -0,0 +1,226 @@
+package com.draftable.api.client;
+
+import org.json.JSONObject;
+
+import javax.annotation.Nonnull;
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Generates signed viewer URLs for one account. Everything that doesn't depend
+ * on the comparison is prepared once: the URL prefix, the start of the signed
+ * policy, and a keyed HMAC for each thread that signs URLs. Signing a URL then
+ * only hashes the identifier and expiry time.
+ *
+ * <p>
+ * Instances are thread-safe, and are obtained from
+ * {@link Comparisons#getViewerURLSigner()}.
+ * </p>
+ */
+public final class ViewerURLSigner {
+
+    private static final String algorithm = "HmacSHA256";
+
+    // Lowercase hex characters look better in the URL.
+    @Nonnull
+    private static final char[] hexCharacters = "0123456789abcdef".toCharArray();
+
+    /** The most bytes the end of a policy can take: an identifier, a number and punctuation. */
+    private static final int maxPolicySuffixLength = 1024 + 24;
+
+    /** The keyed HMAC and scratch buffers used by one thread. */
+    private static final class SigningState {
+        @Nonnull
+        final Mac mac;
+        @Nonnull
+        final byte[] policySuffix = new byte[maxPolicySuffixLength];
+        @Nonnull
+        final byte[] digest;
+        @Nonnull
+        final char[] signature;
+
+        SigningState(@Nonnull final SecretKeySpec key) {
+            try {
+                mac = Mac.getInstance(algorithm);
+                mac.init(key);
+            } catch (NoSuchAlgorithmException ex) {
+                // This should never happen.
+                throw new RuntimeException(ex);
+            } catch (InvalidKeyException ex) {
+                // This should never occur - this is when we've passed invalid parameter has
+                // been passed for the secret key.
+                // We'll throw a description exception anyway.
+                throw new RuntimeException("Invalid auth token provided - unable to generate signature.", ex);
+            }
+            digest = new byte[mac.getMacLength()];
+            signature = new char[digest.length * 2];
+        }
+    }
+
+    @Nonnull
+    private final String urlPrefix;
+
+    /**
+     * The UTF-8 encoding of the policy up to the identifier. The policy is the JSON
+     * array {@code [account_id, identifier, valid_until]}, with no spaces.
+     */
+    @Nonnull
+    private final byte[] policyPrefix;
+
+    @Nonnull
+    private final ThreadLocal<SigningState> signingState;
+
+    /**
+     * Creates a signer for an account.
+     *
+     * @param viewerBaseURL The URL of the comparison viewer, without a trailing
+     *                      slash.
+     * @param accountId     The account ID.
+     * @param authToken     The auth token, which is the secret key for the
+     *                      signatures.
+     */
+    ViewerURLSigner(@Nonnull final String viewerBaseURL, @Nonnull final String accountId,
+            @Nonnull final String authToken) {
+        Validation.validateAccountId(accountId);
+        Validation.validateAuthToken(authToken);
+
+        this.urlPrefix = viewerBaseURL + "/" + accountId + "/";
+        try {
+            new URI(urlPrefix);
+        } catch (URISyntaxException ex) {
+            // This should never happen - in this case the base URL for the comparison
+            // viewer was invalid.
+            throw new RuntimeException(ex);
+        }
+
+        this.policyPrefix = ("[" + JSONObject.quote(accountId) + ",\"").getBytes(StandardCharsets.UTF_8);
+        SecretKeySpec key = new SecretKeySpec(authToken.getBytes(StandardCharsets.UTF_8), algorithm);
+        this.signingState = ThreadLocal.withInitial(() -> new SigningState(key));
+    }
+
+    /**
+     * Generates a signed viewer URL for a comparison.
+     *
+     * @param identifier The comparison's identifier.
+     * @param validUntil The time at which the URL expires, which must be in the
+     *                   future.
+     * @param wait       Whether the viewer should wait for the comparison to exist,
+     *                   rather than showing an error if it doesn't.
+     * @return The signed viewer URL.
+     */
+    @Nonnull
+    public String signedViewerURL(@Nonnull final String identifier, @Nonnull final Instant validUntil,
+            final boolean wait) {
+        Validation.validateIdentifier(identifier);
+        Validation.validateValidUntil(validUntil);
+
+        StringBuilder builder = new StringBuilder(urlPrefix.length() + identifier.length() + 128);
+        appendSignedViewerURL(builder, signingState.get(), identifier, validUntil.getEpochSecond(), wait);
+        return builder.toString();
+    }
+
+    /**
+     * Generates signed viewer URLs for many comparisons, all valid until the same
+     * time. This is faster than calling {@link #signedViewerURL} for each.
+     *
+     * @param identifiers The comparisons' identifiers.
+     * @param validUntil  The time at which the URLs expire, which must be in the
+     *                    future.
+     * @return The signed viewer URLs, in the same order as the identifiers.
+     */
+    @Nonnull
+    public List<String> signedViewerURLs(@Nonnull final Collection<String> identifiers,
+            @Nonnull final Instant validUntil) {
+        if (identifiers == null) {
+            throw new IllegalArgumentException("`identifiers` cannot be null");
+        }
+        Validation.validateValidUntil(validUntil);
+        for (String identifier : identifiers) {
+            Validation.validateIdentifier(identifier);
+        }
+
+        long validUntilSeconds = validUntil.getEpochSecond();
+        SigningState state = signingState.get();
+        StringBuilder builder = new StringBuilder();
+        List<String> urls = new ArrayList<>(identifiers.size());
+        for (String identifier : identifiers) {
+            builder.setLength(0);
+            appendSignedViewerURL(builder, state, identifier, validUntilSeconds, false);
+            urls.add(builder.toString());
+        }
+        return urls;
+    }
+
+    private void appendSignedViewerURL(@Nonnull final StringBuilder builder, @Nonnull final SigningState state,
+            @Nonnull final String identifier, final long validUntilSeconds, final boolean wait) {
+        sign(state, identifier, validUntilSeconds);
+        builder.append(urlPrefix).append(identifier).append("?valid_until=").append(validUntilSeconds)
+                .append("&signature=").append(state.signature);
+        if (wait) {
+            builder.append("&wait");
+        }
+    }
+
+    /**
+     * Signs a policy, leaving the hex encoded signature in
+     * {@link SigningState#signature}.
+     */
+    private void sign(@Nonnull final SigningState state, @Nonnull final String identifier,
+            final long validUntilSeconds) {
+        // Identifiers are validated to be ASCII, so each char is one byte.
+        byte[] suffix = state.policySuffix;
+        int length = 0;
+        for (int i = 0; i < identifier.length(); ++i) {
+            suffix[length++] = (byte) identifier.charAt(i);
+        }
+        suffix[length++] = '"';
+        suffix[length++] = ',';
+        length = appendDigits(suffix, length, validUntilSeconds);
+        suffix[length++] = ']';
+
+        Mac mac = state.mac;
+        byte[] digest = state.digest;
+        mac.update(policyPrefix);
+        mac.update(suffix, 0, length);
+        try {
+            mac.doFinal(digest, 0);
+        } catch (ShortBufferException ex) {
+            // This should never happen - the buffer is sized for the MAC.
+            throw new RuntimeException(ex);
+        }
+
+        char[] signature = state.signature;
+        for (int i = 0; i < digest.length; ++i) {
+            signature[2 * i] = hexCharacters[(digest[i] >> 4) & 0xF];
+            signature[2 * i + 1] = hexCharacters[digest[i] & 0xF];
+        }
+    }
+
+    /**
+     * Writes the decimal digits of a non-negative number into a buffer.
+     *
+     * @return The position after the last digit.
+     */
+    private static int appendDigits(@Nonnull final byte[] buffer, final int offset, final long value) {
+        int digits = 1;
+        for (long remaining = value / 10; remaining > 0; remaining /= 10) {
+            ++digits;
+        }
+        long remaining = value;
+        for (int i = offset + digits - 1; i >= offset; --i) {
+            buffer[i] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        return offset + digits;
+    }
+}
@@ -0,0 +1,54 @@
+package com.draftable.api.client;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Detects virtual threads, so that blocking calls made from them can avoid
+ * pinning their carrier thread.
+ *
+ * <p>
+ * Virtual threads don't exist before JDK 21, so {@code Thread.isVirtual()} is
+ * looked up when this class is loaded rather than called directly. On older
+ * JDKs the lookup fails, and no thread is virtual. This works whichever JDK the
+ * library was built with.
+ * </p>
+ */
+final class VirtualThreads {
+
+    /** {@code Thread.isVirtual()}, or null if the JDK doesn't have virtual threads. */
+    @Nullable
+    private static final MethodHandle isVirtual = findIsVirtual();
+
+    private VirtualThreads() {
+    }
+
+    @Nullable
+    private static MethodHandle findIsVirtual() {
+        try {
+            return MethodHandles.publicLookup().findVirtual(Thread.class, "isVirtual",
+                    MethodType.methodType(boolean.class));
+        } catch (NoSuchMethodException | IllegalAccessException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * @param thread The thread to check.
+     * @return Whether the thread is a virtual thread.
+     */
+    static boolean isVirtual(@Nonnull final Thread thread) {
+        if (isVirtual == null) {
+            return false;
+        }
+        try {
+            return (boolean) isVirtual.invokeExact(thread);
+        } catch (Throwable ex) {
+            // Thread.isVirtual() doesn't throw.
+            return false;
+        }
+    }
+}
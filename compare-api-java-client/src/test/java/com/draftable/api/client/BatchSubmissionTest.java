@@ -0,0 +1,96 @@
+package com.draftable.api.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchSubmissionTest {
+
+    private static ComparisonRequest request(final String identifier) {
+        return ComparisonRequest.create(Comparisons.Side.create("https://example.com/left.pdf", "pdf"),
+                Comparisons.Side.create("https://example.com/right.pdf", "pdf"), identifier, false, null);
+    }
+
+    private static StubServer.Response created(final StubServer.Request request) {
+        return StubServer.json(201, StubServer.comparison("created", false));
+    }
+
+    @Test
+    void keepsAtMostMaxInFlightRequests() throws Exception {
+        final AtomicInteger concurrent = new AtomicInteger();
+        final AtomicInteger maxConcurrent = new AtomicInteger();
+        try (StubServer server = new StubServer(request -> {
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            concurrent.decrementAndGet();
+            return created(request);
+        }); Comparisons comparisons = server.clientBuilder().build()) {
+            final List<ComparisonRequest> requests = new ArrayList<>();
+            for (int i = 0; i < 12; ++i) {
+                requests.add(request("id" + i));
+            }
+
+            final BatchSummary summary = comparisons
+                    .createComparisons(requests, BatchOptions.builder().maxInFlight(3).build())
+                    .get(30, TimeUnit.SECONDS);
+
+            assertEquals(12, summary.getSucceeded());
+            assertEquals(0, summary.getFailed());
+            assertEquals(12, server.count("POST"));
+            assertTrue(maxConcurrent.get() <= 3, "Had " + maxConcurrent.get() + " requests in flight");
+        }
+    }
+
+    @Test
+    void failedRequestsDoNotStopTheBatch() throws Exception {
+        try (StubServer server = new StubServer(request -> request.bodyAsString().contains("bad")
+                ? StubServer.json(400, "{\"identifier\":[\"invalid\"]}")
+                : created(request)); Comparisons comparisons = server.clientBuilder().build()) {
+            final BatchSummary summary = comparisons
+                    .createComparisons(Arrays.asList(request("good0"), request("bad1"), request("good2")))
+                    .get(30, TimeUnit.SECONDS);
+
+            assertEquals(3, summary.getSubmitted());
+            assertEquals(2, summary.getSucceeded());
+            assertEquals(1, summary.getFailures().size());
+            assertInstanceOf(Comparisons.BadRequestException.class, summary.getFailures().get(1));
+        }
+    }
+
+    @Test
+    void nullElementsFailOnlyTheirPosition() throws Exception {
+        try (StubServer server = new StubServer(BatchSubmissionTest::created);
+                Comparisons comparisons = server.clientBuilder().build()) {
+            final BatchSummary summary = comparisons
+                    .createComparisons(Arrays.asList(request("id0"), null, request("id2"), null),
+                            BatchOptions.builder().maxInFlight(1).build())
+                    .get(30, TimeUnit.SECONDS);
+
+            assertEquals(2, summary.getSucceeded());
+            assertEquals(Arrays.asList(1, 3), new ArrayList<>(summary.getFailures().keySet()));
+            assertInstanceOf(IllegalArgumentException.class, summary.getFailures().get(1));
+            assertEquals(2, server.count("POST"));
+        }
+    }
+
+    @Test
+    void batchOfOnlyNullElementsCompletes() throws Exception {
+        try (StubServer server = new StubServer(BatchSubmissionTest::created);
+                Comparisons comparisons = server.clientBuilder().build()) {
+            final BatchSummary summary = comparisons.createComparisons(Arrays.asList(null, null))
+                    .get(30, TimeUnit.SECONDS);
+
+            assertEquals(0, summary.getSucceeded());
+            assertEquals(2, summary.getFailed());
+            assertEquals(0, server.count("POST"));
+        }
+    }
+}
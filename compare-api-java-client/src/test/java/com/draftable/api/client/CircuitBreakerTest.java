@@ -0,0 +1,194 @@
+package com.draftable.api.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CircuitBreakerTest {
+    private static final long slowNanos = TimeUnit.SECONDS.toNanos(10);
+
+    private static CircuitBreakerConfig.Builder config() {
+        return CircuitBreakerConfig.builder().windowSize(10).minimumCalls(4).failureRateThreshold(0.5)
+                .halfOpenCalls(2).openDuration(Duration.ofMillis(100));
+    }
+
+    // region CircuitBreaker
+
+    @Test
+    void opensOnceEnoughOfTheMinimumCallsFail() {
+        final CircuitBreaker circuitBreaker = new CircuitBreaker("http://host", config().build());
+        record(circuitBreaker, true);
+        record(circuitBreaker, true);
+        record(circuitBreaker, true);
+        assertEquals(CircuitBreakerState.CLOSED, circuitBreaker.getState());
+
+        record(circuitBreaker, false);
+        assertEquals(CircuitBreakerState.OPEN, circuitBreaker.getState());
+        assertEquals(-1, circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    void staysClosedWhileFailuresAreBelowTheThreshold() {
+        final CircuitBreaker circuitBreaker = new CircuitBreaker("http://host", config().build());
+        for (int i = 0; i < 30; ++i) {
+            record(circuitBreaker, i % 3 == 2);
+        }
+        assertEquals(CircuitBreakerState.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void opensWhenEnoughCallsAreSlow() {
+        final CircuitBreaker circuitBreaker = new CircuitBreaker("http://host",
+                config().slowCallDuration(Duration.ofSeconds(1)).slowCallRateThreshold(0.75).build());
+        for (int i = 0; i < 3; ++i) {
+            circuitBreaker.onResult(circuitBreaker.tryAcquire(), false, slowNanos);
+        }
+        record(circuitBreaker, false);
+        assertEquals(CircuitBreakerState.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    void halfOpensAfterTheOpenDurationAndClosesIfTheTrialsSucceed() throws InterruptedException {
+        final CircuitBreaker circuitBreaker = open(new CircuitBreaker("http://host", config().build()));
+        Thread.sleep(150);
+
+        final long first = circuitBreaker.tryAcquire();
+        final long second = circuitBreaker.tryAcquire();
+        assertEquals(CircuitBreakerState.HALF_OPEN, circuitBreaker.getState());
+        // Only the trial requests are let through.
+        assertEquals(-1, circuitBreaker.tryAcquire());
+
+        circuitBreaker.onResult(first, false, 0);
+        assertEquals(CircuitBreakerState.HALF_OPEN, circuitBreaker.getState());
+        circuitBreaker.onResult(second, false, 0);
+        assertEquals(CircuitBreakerState.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void opensAgainIfTheTrialsFail() throws InterruptedException {
+        final CircuitBreaker circuitBreaker = open(new CircuitBreaker("http://host", config().build()));
+        Thread.sleep(150);
+
+        circuitBreaker.onResult(circuitBreaker.tryAcquire(), true, 0);
+        circuitBreaker.onResult(circuitBreaker.tryAcquire(), false, 0);
+        assertEquals(CircuitBreakerState.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    void releasedTrialPermitsCanBeTakenAgain() throws InterruptedException {
+        final CircuitBreaker circuitBreaker = open(new CircuitBreaker("http://host", config().build()));
+        Thread.sleep(150);
+
+        final long first = circuitBreaker.tryAcquire();
+        circuitBreaker.tryAcquire();
+        assertEquals(-1, circuitBreaker.tryAcquire());
+        circuitBreaker.release(first);
+        assertEquals(first, circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    void outcomesOfRequestsFromBeforeAStateChangeAreIgnored() throws InterruptedException {
+        final CircuitBreaker circuitBreaker = new CircuitBreaker("http://host", config().build());
+        final long stale = circuitBreaker.tryAcquire();
+        open(circuitBreaker);
+        Thread.sleep(150);
+
+        final long first = circuitBreaker.tryAcquire();
+        final long second = circuitBreaker.tryAcquire();
+        circuitBreaker.onResult(stale, true, 0);
+        circuitBreaker.onResult(first, false, 0);
+        circuitBreaker.onResult(second, false, 0);
+        assertEquals(CircuitBreakerState.CLOSED, circuitBreaker.getState());
+    }
+
+    // endregion CircuitBreaker
+
+    // region Comparisons
+
+    @Test
+    void serverErrorsOpenTheCircuitBreaker() throws Exception {
+        final List<String> changes = new CopyOnWriteArrayList<>();
+        final CircuitBreakerConfig circuitBreaker = config().openDuration(Duration.ofMinutes(1))
+                .listener((origin, from, to) -> changes.add(origin + " " + from + " " + to)).build();
+        try (StubServer server = new StubServer(request -> StubServer.status(500));
+                Comparisons comparisons = server.clientBuilder().circuitBreaker(circuitBreaker).build()) {
+            assertEquals(CircuitBreakerState.CLOSED, comparisons.getCircuitBreakerState());
+            for (int i = 0; i < 4; ++i) {
+                assertThrows(Comparisons.UnknownErrorException.class, () -> comparisons.getComparison("abc"));
+            }
+            assertEquals(CircuitBreakerState.OPEN, comparisons.getCircuitBreakerState());
+
+            assertThrows(CircuitBreakerOpenException.class, () -> comparisons.getComparison("abc"));
+            final ExecutionException error = assertThrows(ExecutionException.class,
+                    () -> comparisons.getComparisonAsync("abc").get(10, TimeUnit.SECONDS));
+            assertInstanceOf(CircuitBreakerOpenException.class, error.getCause());
+            assertEquals(4, server.count("GET"));
+
+            final String origin = server.apiBase().substring(0, server.apiBase().indexOf("/v1"));
+            assertEquals(origin, ((CircuitBreakerOpenException) error.getCause()).getOrigin());
+            assertEquals(1, changes.size());
+            assertEquals(origin + " CLOSED OPEN", changes.get(0));
+        }
+    }
+
+    @Test
+    void clientErrorsDoNotOpenTheCircuitBreaker() throws Exception {
+        try (StubServer server = new StubServer(request -> StubServer.status(404));
+                Comparisons comparisons = server.clientBuilder().circuitBreaker(config().build()).build()) {
+            for (int i = 0; i < 10; ++i) {
+                assertThrows(Comparisons.ComparisonNotFoundException.class, () -> comparisons.getComparison("abc"));
+            }
+            assertEquals(CircuitBreakerState.CLOSED, comparisons.getCircuitBreakerState());
+            assertEquals(10, server.count("GET"));
+        }
+    }
+
+    @Test
+    void closesOnceTheServerRecovers() throws Exception {
+        try (StubServer server = new StubServer(request -> StubServer.status(503));
+                Comparisons comparisons = server.clientBuilder().circuitBreaker(config().build()).build()) {
+            for (int i = 0; i < 4; ++i) {
+                assertThrows(Comparisons.UnknownErrorException.class, () -> comparisons.getComparison("abc"));
+            }
+            assertEquals(CircuitBreakerState.OPEN, comparisons.getCircuitBreakerState());
+
+            server.setHandler(StubServer::readyComparisons);
+            Thread.sleep(150);
+            comparisons.getComparison("abc");
+            assertEquals(CircuitBreakerState.HALF_OPEN, comparisons.getCircuitBreakerState());
+            comparisons.getComparisonAsync("abc").get(10, TimeUnit.SECONDS);
+            assertEquals(CircuitBreakerState.CLOSED, comparisons.getCircuitBreakerState());
+        }
+    }
+
+    @Test
+    void stateIsNullWithoutACircuitBreaker() throws Exception {
+        try (StubServer server = new StubServer(StubServer::readyComparisons);
+                Comparisons comparisons = server.clientBuilder().build()) {
+            assertNull(comparisons.getCircuitBreakerState());
+        }
+    }
+
+    // endregion Comparisons
+
+    private static void record(final CircuitBreaker circuitBreaker, final boolean failed) {
+        circuitBreaker.onResult(circuitBreaker.tryAcquire(), failed, 0);
+    }
+
+    private static CircuitBreaker open(final CircuitBreaker circuitBreaker) {
+        for (int i = 0; i < 4; ++i) {
+            record(circuitBreaker, true);
+        }
+        assertEquals(CircuitBreakerState.OPEN, circuitBreaker.getState());
+        return circuitBreaker;
+    }
+}
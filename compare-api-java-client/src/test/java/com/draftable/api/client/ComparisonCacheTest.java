@@ -0,0 +1,120 @@
+package com.draftable.api.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ComparisonCacheTest {
+
+    private static ComparisonCacheConfig.Builder config() {
+        return ComparisonCacheConfig.builder().pendingTimeToLive(Duration.ofMillis(100));
+    }
+
+    @Test
+    void readyComparisonIsServedFromTheCache() throws Exception {
+        try (StubServer server = new StubServer(StubServer::readyComparisons);
+                Comparisons comparisons = server.clientBuilder().comparisonCache(config().build()).build()) {
+            final Comparison comparison = comparisons.getComparison("abc");
+            assertSame(comparison, comparisons.getComparison("abc"));
+            assertSame(comparison, comparisons.getComparisonAsync("abc").get(10, TimeUnit.SECONDS));
+            assertEquals(1, server.count("GET"));
+        }
+    }
+
+    @Test
+    void comparisonsAreFetchedEveryTimeWithoutACache() throws Exception {
+        try (StubServer server = new StubServer(StubServer::readyComparisons);
+                Comparisons comparisons = server.clientBuilder().build()) {
+            comparisons.getComparison("abc");
+            comparisons.getComparison("abc");
+            assertEquals(2, server.count("GET"));
+        }
+    }
+
+    @Test
+    void pendingComparisonIsOnlyCachedBriefly() throws Exception {
+        try (StubServer server = new StubServer(request -> StubServer.json(200, StubServer.comparison("abc", false)));
+                Comparisons comparisons = server.clientBuilder().comparisonCache(config().build()).build()) {
+            assertFalse(comparisons.getComparison("abc").getReady());
+            comparisons.getComparison("abc");
+            assertEquals(1, server.count("GET"));
+
+            Thread.sleep(150);
+            server.setHandler(StubServer::readyComparisons);
+            assertTrue(comparisons.getComparison("abc").getReady());
+            assertEquals(2, server.count("GET"));
+        }
+    }
+
+    @Test
+    void readyTimeToLiveLimitsHowLongReadyComparisonsAreCached() throws Exception {
+        try (StubServer server = new StubServer(StubServer::readyComparisons);
+                Comparisons comparisons = server.clientBuilder()
+                        .comparisonCache(config().readyTimeToLive(Duration.ofMillis(100)).build()).build()) {
+            comparisons.getComparison("abc");
+            comparisons.getComparison("abc");
+            Thread.sleep(150);
+            comparisons.getComparison("abc");
+            assertEquals(2, server.count("GET"));
+        }
+    }
+
+    @Test
+    void comparisonIsNotCachedPastItsExpiry() throws Exception {
+        final String expiry = Instant.now().plusMillis(300).toString();
+        try (StubServer server = new StubServer(request -> {
+            final String comparison = StubServer.comparison("abc", true);
+            return StubServer.json(200, comparison.substring(0, comparison.length() - 1)
+                    + ",\"expiry_time\":\"" + expiry + "\"}");
+        }); Comparisons comparisons = server.clientBuilder().comparisonCache(config().build()).build()) {
+            comparisons.getComparison("abc");
+            comparisons.getComparison("abc");
+            assertEquals(1, server.count("GET"));
+
+            Thread.sleep(400);
+            comparisons.getComparison("abc");
+            assertEquals(2, server.count("GET"));
+        }
+    }
+
+    @Test
+    void deletingAComparisonEvictsIt() throws Exception {
+        try (StubServer server = new StubServer(request -> request.method.equals("DELETE") ? StubServer.status(204)
+                : StubServer.readyComparisons(request));
+                Comparisons comparisons = server.clientBuilder().comparisonCache(config().build()).build()) {
+            comparisons.getComparison("abc");
+            comparisons.deleteComparison("abc");
+            comparisons.getComparison("abc");
+            assertEquals(2, server.count("GET"));
+
+            comparisons.deleteComparisonAsync("abc").get(10, TimeUnit.SECONDS);
+            comparisons.getComparison("abc");
+            assertEquals(3, server.count("GET"));
+        }
+    }
+
+    @Test
+    void leastRecentlyUsedComparisonIsEvictedOnceFull() throws Exception {
+        try (StubServer server = new StubServer(StubServer::readyComparisons);
+                Comparisons comparisons = server.clientBuilder().comparisonCache(config().maxEntries(2).build())
+                        .build()) {
+            comparisons.getComparison("abc");
+            comparisons.getComparison("def");
+            comparisons.getComparison("abc");
+            comparisons.getComparison("ghi");
+            assertEquals(3, server.count("GET"));
+
+            comparisons.getComparison("abc");
+            assertEquals(3, server.count("GET"));
+            comparisons.getComparison("def");
+            assertEquals(4, server.count("GET"));
+        }
+    }
+}
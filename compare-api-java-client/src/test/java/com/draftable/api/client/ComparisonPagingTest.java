@@ -0,0 +1,174 @@
+package com.draftable.api.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ComparisonPagingTest {
+
+    private static Map<String, String> query(final StubServer.Request request) {
+        final Map<String, String> parameters = new HashMap<>();
+        if (request.query != null) {
+            for (final String parameter : request.query.split("&")) {
+                final String[] pair = parameter.split("=", 2);
+                parameters.put(pair[0], pair.length > 1 ? pair[1] : "");
+            }
+        }
+        return parameters;
+    }
+
+    private static String results(final int from, final int to) {
+        final StringBuilder results = new StringBuilder("[");
+        for (int i = from; i < to; ++i) {
+            results.append(i == from ? "" : ",").append(StubServer.comparison("id" + i, true));
+        }
+        return results.append("]").toString();
+    }
+
+    /** Serves a list of the given number of comparisons, paged by the request's offset and limit. */
+    private static StubServer.Handler paged(final int total, final boolean includeCount) {
+        return request -> {
+            final Map<String, String> parameters = query(request);
+            final int offset = Integer.parseInt(parameters.getOrDefault("offset", "0"));
+            final int limit = Integer.parseInt(parameters.getOrDefault("limit", Integer.toString(total)));
+            final String results = results(Math.min(offset, total), Math.min(offset + limit, total));
+            return StubServer.json(200, includeCount ? "{\"results\":" + results + ",\"count\":" + total + "}"
+                    : "{\"results\":" + results + "}");
+        };
+    }
+
+    private static String comparisonCreatedAt(final String identifier, final long epochSecond) {
+        return StubServer.comparison(identifier, true).replace("\"creation_time\":\"2020-01-01T00:00:00Z\"",
+                "\"creation_time\":\"" + Instant.ofEpochSecond(epochSecond) + "\"");
+    }
+
+    private static List<String> identifiers(final List<Comparison> comparisons) {
+        return comparisons.stream().map(Comparison::getIdentifier).collect(Collectors.toList());
+    }
+
+    @Test
+    void pagesAreRequestedWithOffsetAndLimit() throws Exception {
+        try (StubServer server = new StubServer(paged(5, true));
+                Comparisons comparisons = server.clientBuilder().build()) {
+            final ComparisonPage first = comparisons.getComparisonsPage(0, 2);
+            assertEquals("0", query(server.requests().get(0)).get("offset"));
+            assertEquals("2", query(server.requests().get(0)).get("limit"));
+            assertEquals(2, first.getComparisons().size());
+            assertEquals(Integer.valueOf(5), first.getTotalCount());
+            assertTrue(first.hasMore());
+            assertEquals(2, first.getNextOffset());
+
+            final ComparisonPage last = comparisons.getComparisonsPageAsync(4, 2).get(10, TimeUnit.SECONDS);
+            assertEquals("id4", identifiers(last.getComparisons()).get(0));
+            assertEquals(4, last.getOffset());
+            assertFalse(last.hasMore());
+        }
+    }
+
+    @Test
+    void pageWithoutACountHasMoreOnlyIfItIsFull() throws Exception {
+        try (StubServer server = new StubServer(paged(3, false));
+                Comparisons comparisons = server.clientBuilder().build()) {
+            final ComparisonPage full = comparisons.getComparisonsPage(0, 3);
+            assertNull(full.getTotalCount());
+            assertTrue(full.hasMore());
+            assertFalse(comparisons.getComparisonsPage(0, 4).hasMore());
+        }
+    }
+
+    @Test
+    void serverThatIgnoresPagingReturnsTheLastPage() throws Exception {
+        try (StubServer server = new StubServer(request -> StubServer.json(200, "{\"results\":" + results(0, 7)
+                + "}")); Comparisons comparisons = server.clientBuilder().build()) {
+            final ComparisonPage page = comparisons.getComparisonsPage(0, 2);
+            assertEquals(7, page.getComparisons().size());
+            assertFalse(page.hasMore());
+            assertEquals(7, comparisons.streamAllComparisons(2).count());
+            assertEquals(2, server.count("GET"));
+        }
+    }
+
+    @Test
+    void streamFetchesPagesAsTheyAreReached() throws Exception {
+        try (StubServer server = new StubServer(paged(25, true));
+                Comparisons comparisons = server.clientBuilder().build()) {
+            final List<String> firstThree = comparisons.streamAllComparisons(2).limit(3)
+                    .map(Comparison::getIdentifier).collect(Collectors.toList());
+            assertEquals("id0", firstThree.get(0));
+            assertEquals("id2", firstThree.get(2));
+            assertEquals(2, server.count("GET"));
+
+            server.requests().clear();
+            final List<String> all = comparisons.streamAllComparisons(10).map(Comparison::getIdentifier)
+                    .collect(Collectors.toList());
+            assertEquals(25, all.size());
+            assertEquals("id24", all.get(24));
+            assertEquals(3, server.count("GET"));
+        }
+    }
+
+    @Test
+    void streamEndsAtAnEmptyPageWithoutACount() throws Exception {
+        try (StubServer server = new StubServer(paged(4, false));
+                Comparisons comparisons = server.clientBuilder().build()) {
+            assertEquals(4, comparisons.streamAllComparisons(2).count());
+            assertEquals(3, server.count("GET"));
+        }
+    }
+
+    @Test
+    void streamSkipsComparisonsPushedOntoTheNextPageByNewerOnes() throws Exception {
+        // Newest first, one second apart; each page after the first sees two more comparisons at the front.
+        final List<String> created = new ArrayList<>();
+        for (int i = 0; i < 10; ++i) {
+            created.add(comparisonCreatedAt("id" + i, 100 - i));
+        }
+        final StubServer.Handler handler = request -> {
+            final Map<String, String> parameters = query(request);
+            final int offset = Integer.parseInt(parameters.get("offset"));
+            final int limit = Integer.parseInt(parameters.get("limit"));
+            synchronized (created) {
+                if (offset > 0) {
+                    created.add(0, comparisonCreatedAt("new" + offset, 200 + offset));
+                    created.add(0, comparisonCreatedAt("newer" + offset, 300 + offset));
+                }
+                final List<String> page = created.subList(Math.min(offset, created.size()),
+                        Math.min(offset + limit, created.size()));
+                return StubServer.json(200, "{\"results\":[" + String.join(",", page) + "],\"count\":"
+                        + created.size() + "}");
+            }
+        };
+        try (StubServer server = new StubServer(handler);
+                Comparisons comparisons = server.clientBuilder().build()) {
+            final List<String> all = comparisons.streamAllComparisons(3).map(Comparison::getIdentifier)
+                    .collect(Collectors.toList());
+            assertEquals(Arrays.asList("id0", "id1", "id2", "id3", "id4", "id5", "id6", "id7", "id8", "id9"), all);
+        }
+    }
+
+    @Test
+    void invalidPageArgumentsAreRejected() throws Exception {
+        try (StubServer server = new StubServer(paged(1, true));
+                Comparisons comparisons = server.clientBuilder().build()) {
+            assertEquals("`offset` cannot be negative", assertThrows(IllegalArgumentException.class,
+                    () -> comparisons.getComparisonsPage(-1, 10)).getMessage());
+            assertEquals("`limit` must be positive", assertThrows(IllegalArgumentException.class,
+                    () -> comparisons.getComparisonsPageAsync(0, 0)).getMessage());
+            assertThrows(IllegalArgumentException.class, () -> comparisons.streamAllComparisons(0));
+            assertEquals(0, server.requests().size());
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.draftable.api.client;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConnectionPoolTest {
+
+    private static final String evictorThreadName = "draftable-connection-evictor";
+
+    // region Builder
+
+    @Test
+    void builderHasTheDocumentedDefaults() {
+        final ConnectionPoolConfig config = ConnectionPoolConfig.builder().build();
+
+        assertEquals(20, config.getMaxTotal());
+        assertEquals(20, config.getMaxPerRoute());
+        assertNull(config.getTimeToLive());
+        assertEquals(Duration.ofSeconds(2), config.getValidateAfterInactivity());
+        assertNull(config.getIdleEvictionInterval());
+        assertTrue(config.getTcpNoDelay());
+        assertEquals(0, config.getSendBufferSize());
+        assertEquals(0, config.getReceiveBufferSize());
+    }
+
+    @Test
+    void builderRejectsInvalidSettings() {
+        final ConnectionPoolConfig.Builder builder = ConnectionPoolConfig.builder();
+
+        assertThrows(IllegalArgumentException.class, () -> builder.maxTotal(0));
+        assertThrows(IllegalArgumentException.class, () -> builder.maxPerRoute(-1));
+        assertThrows(IllegalArgumentException.class, () -> builder.timeToLive(Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> builder.timeToLive(Duration.ofSeconds(-1)));
+        assertThrows(IllegalArgumentException.class, () -> builder.validateAfterInactivity(null));
+        assertThrows(IllegalArgumentException.class, () -> builder.validateAfterInactivity(Duration.ofMillis(-1)));
+        assertThrows(IllegalArgumentException.class, () -> builder.idleEvictionInterval(Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> builder.sendBufferSize(-1));
+        assertThrows(IllegalArgumentException.class, () -> builder.receiveBufferSize(-1));
+
+        // Rejected settings leave the builder as it was.
+        assertEquals(ConnectionPoolConfig.builder().build().toString(), builder.build().toString());
+    }
+
+    @Test
+    void builderAcceptsOptionalSettingsBeingCleared() {
+        final ConnectionPoolConfig config = ConnectionPoolConfig.builder().timeToLive(Duration.ofMinutes(1))
+                .timeToLive(null).idleEvictionInterval(Duration.ofSeconds(1)).idleEvictionInterval(null)
+                .validateAfterInactivity(Duration.ZERO).build();
+
+        assertNull(config.getTimeToLive());
+        assertNull(config.getIdleEvictionInterval());
+        assertEquals(Duration.ZERO, config.getValidateAfterInactivity());
+    }
+
+    // endregion Builder
+
+    // region Pooled clients
+
+    @ParameterizedTest(name = "async: {0}")
+    @ValueSource(booleans = {false, true})
+    void connectionsPerRouteAreLimited(final boolean async) throws Exception {
+        final int calls = 12;
+        final int maxPerRoute = 3;
+        final AtomicInteger open = new AtomicInteger();
+        final AtomicInteger maxOpen = new AtomicInteger();
+        final ExecutorService callers = Executors.newFixedThreadPool(calls);
+        try (StubServer server = new StubServer(request -> {
+            maxOpen.accumulateAndGet(open.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(100);
+            } finally {
+                open.decrementAndGet();
+            }
+            return StubServer.readyComparisons(request);
+        }); Comparisons comparisons = server.clientBuilder()
+                .connectionPool(ConnectionPoolConfig.builder().maxTotal(10).maxPerRoute(maxPerRoute).build())
+                .build()) {
+            final List<Future<Comparison>> results = new ArrayList<>();
+            for (int i = 0; i < calls; ++i) {
+                final String identifier = "id" + i;
+                results.add(async ? comparisons.getComparisonAsync(identifier)
+                        : callers.submit(() -> comparisons.getComparison(identifier)));
+            }
+            for (int i = 0; i < calls; ++i) {
+                assertEquals("id" + i, results.get(i).get(10, TimeUnit.SECONDS).getIdentifier());
+            }
+
+            assertEquals(calls, server.count("GET"));
+            assertEquals(maxPerRoute, maxOpen.get());
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void closeStopsTheConnectionEvictor() throws Exception {
+        try (StubServer server = new StubServer(StubServer::readyComparisons)) {
+            final Comparisons comparisons = server.clientBuilder()
+                    .connectionPool(ConnectionPoolConfig.builder().idleEvictionInterval(Duration.ofSeconds(1)).build())
+                    .build();
+            final CompletableFuture<Comparison> result = comparisons.getComparisonAsync("abc");
+            assertEquals("abc", result.get(10, TimeUnit.SECONDS).getIdentifier());
+
+            final Thread evictor = findThread(evictorThreadName);
+            assertTrue(evictor != null && evictor.isAlive(), "The connection evictor wasn't started");
+
+            comparisons.close();
+            evictor.join(TimeUnit.SECONDS.toMillis(10));
+            assertFalse(evictor.isAlive());
+        }
+    }
+
+    // endregion Pooled clients
+
+    private static Thread findThread(final String name) {
+        for (final Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals(name)) {
+                return thread;
+            }
+        }
+        return null;
+    }
+}
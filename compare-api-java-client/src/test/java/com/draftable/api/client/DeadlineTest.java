@@ -0,0 +1,132 @@
+package com.draftable.api.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeadlineTest {
+    private static final Duration timeout = Duration.ofMillis(300);
+
+    @Test
+    void deadlineCountsDownFromWhenItIsTaken() throws InterruptedException {
+        final Deadline deadline = Deadline.after(Duration.ofMillis(100));
+        assertTrue(deadline.remainingNanos() > TimeUnit.MILLISECONDS.toNanos(50));
+        assertFalse(deadline.isExpired());
+
+        Thread.sleep(120);
+        assertTrue(deadline.remainingNanos() <= 0);
+        assertTrue(deadline.isExpired());
+        assertEquals(Duration.ofMillis(100), deadline.exceeded().getTimeout());
+    }
+
+    @Test
+    void callFailsOnceItsTimeoutPasses() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        try (StubServer server = new StubServer(request -> {
+            release.await(10, TimeUnit.SECONDS);
+            return StubServer.readyComparisons(request);
+        }); Comparisons comparisons = server.clientBuilder().build()) {
+            try {
+                final long start = System.nanoTime();
+                final DeadlineExceededException error = assertThrows(DeadlineExceededException.class,
+                        () -> comparisons.getComparison("abc", timeout));
+                assertEquals(timeout, error.getTimeout());
+                assertTookAboutTheTimeout(start);
+
+                final long asyncStart = System.nanoTime();
+                final ExecutionException asyncError = assertThrows(ExecutionException.class,
+                        () -> comparisons.getComparisonAsync("def", timeout).get(10, TimeUnit.SECONDS));
+                assertInstanceOf(DeadlineExceededException.class, asyncError.getCause());
+                assertTookAboutTheTimeout(asyncStart);
+            } finally {
+                release.countDown();
+            }
+        }
+    }
+
+    @Test
+    void totalTimeoutAppliesToCallsWithoutTheirOwn() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        try (StubServer server = new StubServer(request -> {
+            release.await(10, TimeUnit.SECONDS);
+            return StubServer.readyComparisons(request);
+        }); Comparisons comparisons = server.clientBuilder()
+                .timeouts(TimeoutConfig.builder().totalTimeout(timeout).build()).build()) {
+            try {
+                final long start = System.nanoTime();
+                assertThrows(DeadlineExceededException.class, () -> comparisons.getComparison("abc"));
+                assertTookAboutTheTimeout(start);
+
+                assertThrows(DeadlineExceededException.class, () -> comparisons.deleteComparison("abc"));
+            } finally {
+                release.countDown();
+            }
+        }
+    }
+
+    @Test
+    void timeoutCoversRetries() throws Exception {
+        final RetryPolicy retryPolicy = RetryPolicy.builder().maxAttempts(100).initialBackoff(Duration.ofMillis(1))
+                .maxBackoff(Duration.ofMillis(1)).retryBudgetReserve(100).build();
+        try (StubServer server = new StubServer(request -> {
+            Thread.sleep(100);
+            return StubServer.status(503);
+        }); Comparisons comparisons = server.clientBuilder().retryPolicy(retryPolicy).build()) {
+            final long start = System.nanoTime();
+            assertThrows(DeadlineExceededException.class, () -> comparisons.getComparison("abc", timeout));
+            assertTookAboutTheTimeout(start);
+            assertTrue(server.count("GET") <= 4, server.count("GET") + " requests");
+        }
+    }
+
+    @Test
+    void callThatWouldWaitPastItsTimeoutForTheRateLimitFailsStraightAway() throws Exception {
+        final RateLimitConfig rateLimit = RateLimitConfig.builder().rate(1).minRate(1).burst(1).build();
+        try (StubServer server = new StubServer(StubServer::readyComparisons);
+                Comparisons comparisons = server.clientBuilder().rateLimit(rateLimit).build()) {
+            comparisons.getComparison("abc");
+
+            final long start = System.nanoTime();
+            assertThrows(DeadlineExceededException.class, () -> comparisons.getComparison("def", timeout));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < timeout.toMillis());
+            assertEquals(1, server.count("GET"));
+        }
+    }
+
+    @Test
+    void timeoutMustBePositive() throws Exception {
+        try (StubServer server = new StubServer(StubServer::readyComparisons);
+                Comparisons comparisons = server.clientBuilder().build()) {
+            final IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                    () -> comparisons.getComparison("abc", Duration.ZERO));
+            assertEquals("`timeout` must have positive duration", error.getMessage());
+            assertThrows(IllegalArgumentException.class,
+                    () -> comparisons.getComparisonAsync("abc", Duration.ofSeconds(-1)));
+
+            // Waiting for readiness validates its timeout in the same way, even for an
+            // export that is already ready.
+            assertEquals("`timeout` must have positive duration", assertThrows(IllegalArgumentException.class,
+                    () -> comparisons.awaitReady("abc", Duration.ZERO)).getMessage());
+            final Export ready = new Export("exp", "abc", null, ExportKind.COMBINED, true, false, null);
+            assertEquals("`timeout` must have positive duration", assertThrows(IllegalArgumentException.class,
+                    () -> comparisons.awaitExportReady(ready, Duration.ZERO)).getMessage());
+            assertThrows(IllegalArgumentException.class, () -> comparisons.awaitExportReady(ready, null));
+            assertEquals(0, server.count("GET"));
+        }
+    }
+
+    private static void assertTookAboutTheTimeout(final long startNanos) {
+        final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        assertTrue(millis >= timeout.toMillis() - 20 && millis < timeout.toMillis() + 700,
+                "The call took " + millis + " ms");
+    }
+}
@@ -0,0 +1,225 @@
+package com.draftable.api.client;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.util.EntityUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DecodingResponseConsumerTest {
+
+    private static final int bodySize = 4 * 1024 * 1024;
+
+    // region Decoding
+
+    @Test
+    void largeBodiesAreDecodedAsTheyArriveWithoutBeingBuffered() throws Exception {
+        final CountDownLatch parserStarted = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final DecodingResponseConsumer<Long> consumer = new DecodingResponseConsumer<>(200, reader -> {
+                parserStarted.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    throw new InterruptedIOException();
+                }
+                return count(reader);
+            }, executor);
+            final FakeDecoder decoder = new FakeDecoder(bodySize);
+            final FakeIOControl ioControl = new FakeIOControl();
+
+            consumer.responseReceived(response(200));
+            assertTrue(consumer.isDecoding());
+            assertTrue(parserStarted.await(10, TimeUnit.SECONDS));
+            consumer.consumeContent(decoder, ioControl);
+
+            // The parser hasn't read anything, so reading stops once the pipe is full.
+            assertTrue(ioControl.suspended);
+            assertTrue(decoder.delivered < bodySize / 8, "Buffered " + decoder.delivered + " bytes");
+
+            release.countDown();
+            while (!decoder.isCompleted()) {
+                assertTrue(ioControl.awaitResumed(), "The parser never asked for more of the body");
+                consumer.consumeContent(decoder, ioControl);
+            }
+            consumer.responseCompleted(new BasicHttpContext());
+
+            assertEquals(bodySize, (long) consumer.getDecoded().get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void executorsThatRunInPlaceDecodeOnceTheBodyHasArrived() throws Exception {
+        final DecodingResponseConsumer<Long> consumer = new DecodingResponseConsumer<>(200,
+                DecodingResponseConsumerTest::count, Runnable::run);
+        final FakeDecoder decoder = new FakeDecoder(bodySize);
+        final FakeIOControl ioControl = new FakeIOControl();
+
+        consumer.responseReceived(response(200));
+        consumer.consumeContent(decoder, ioControl);
+        assertFalse(ioControl.suspended);
+        assertFalse(consumer.getDecoded().isDone());
+
+        consumer.responseCompleted(new BasicHttpContext());
+        assertEquals(bodySize, (long) consumer.getDecoded().get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void bodiesAreDiscardedOnceTheParserHasFinished() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final DecodingResponseConsumer<Integer> consumer = new DecodingResponseConsumer<>(200, Reader::read,
+                    executor);
+            final FakeDecoder decoder = new FakeDecoder(bodySize);
+            final FakeIOControl ioControl = new FakeIOControl();
+
+            consumer.responseReceived(response(200));
+            consumer.consumeContent(decoder, ioControl);
+            assertEquals('x', (int) consumer.getDecoded().get(10, TimeUnit.SECONDS));
+            assertTrue(ioControl.awaitResumed(), "The parser never let go of the connection");
+            while (!decoder.isCompleted()) {
+                consumer.consumeContent(decoder, ioControl);
+                assertFalse(ioControl.suspended);
+            }
+            consumer.responseCompleted(new BasicHttpContext());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // endregion Decoding
+
+    // region Errors
+
+    @Test
+    void errorBodiesAreKeptForTheException() throws Exception {
+        final DecodingResponseConsumer<Long> consumer = new DecodingResponseConsumer<>(200,
+                DecodingResponseConsumerTest::count, Runnable::run);
+
+        consumer.responseReceived(response(400));
+        assertFalse(consumer.isDecoding());
+        consumer.consumeContent(new FakeDecoder(100), new FakeIOControl());
+        consumer.responseCompleted(new BasicHttpContext());
+
+        assertEquals(100, EntityUtils.toByteArray(consumer.getResult().getEntity()).length);
+        assertFalse(consumer.getDecoded().isDone());
+    }
+
+    @Test
+    void anExchangeThatFailsPartWayFailsTheParser() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final DecodingResponseConsumer<Long> consumer = new DecodingResponseConsumer<>(200,
+                    DecodingResponseConsumerTest::count, executor);
+
+            consumer.responseReceived(response(200));
+            consumer.consumeContent(new FakeDecoder(bodySize), new FakeIOControl());
+            consumer.failed(new IOException("Connection reset"));
+
+            final ExecutionException failed = assertThrows(ExecutionException.class,
+                    () -> consumer.getDecoded().get(10, TimeUnit.SECONDS));
+            assertInstanceOf(IOException.class, failed.getCause());
+            assertNull(consumer.getResult());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // endregion Errors
+
+    private static HttpResponse response(final int statusCode) {
+        return new BasicHttpResponse(HttpVersion.HTTP_1_1, statusCode, null);
+    }
+
+    private static long count(final Reader reader) throws IOException {
+        final char[] buffer = new char[8192];
+        long count = 0;
+        int read;
+        while ((read = reader.read(buffer)) >= 0) {
+            count += read;
+        }
+        return count;
+    }
+
+    /** Gives a body of the given size, in chunks of up to 16 KiB. */
+    private static final class FakeDecoder implements ContentDecoder {
+        private final long size;
+        private volatile long delivered;
+
+        FakeDecoder(final long size) {
+            this.size = size;
+        }
+
+        @Override
+        public int read(final ByteBuffer destination) {
+            final int count = (int) Math.min(Math.min(destination.remaining(), 16 * 1024), size - delivered);
+            for (int i = 0; i < count; ++i) {
+                destination.put((byte) 'x');
+            }
+            delivered += count;
+            return count == 0 && isCompleted() ? -1 : count;
+        }
+
+        @Override
+        public boolean isCompleted() {
+            return delivered == size;
+        }
+    }
+
+    private static final class FakeIOControl implements IOControl {
+        private volatile boolean suspended;
+        private volatile CountDownLatch resumed = new CountDownLatch(1);
+
+        @Override
+        public void requestInput() {
+            suspended = false;
+            resumed.countDown();
+        }
+
+        @Override
+        public void suspendInput() {
+            resumed = new CountDownLatch(1);
+            suspended = true;
+        }
+
+        boolean awaitResumed() throws InterruptedException {
+            return !suspended || resumed.await(10, TimeUnit.SECONDS);
+        }
+
+        @Override
+        public void requestOutput() {
+        }
+
+        @Override
+        public void suspendOutput() {
+        }
+
+        @Override
+        public void shutdown() {
+        }
+    }
+}
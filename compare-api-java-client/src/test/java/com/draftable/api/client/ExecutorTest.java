@@ -0,0 +1,91 @@
+package com.draftable.api.client;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExecutorTest {
+
+    @ParameterizedTest(name = "sharedTransport: {0}")
+    @ValueSource(booleans = {false, true})
+    void futuresCompleteOnTheExecutor(final boolean sharedTransport) throws Exception {
+        final ExecutorService executor = executor("callbacks");
+        try (StubServer server = new StubServer(request -> {
+            // Make sure the stages below are added before the futures complete.
+            Thread.sleep(100);
+            return StubServer.readyComparisons(request);
+        }); Comparisons comparisons = server.clientBuilder().sharedTransport(sharedTransport).executor(executor)
+                .build()) {
+            final String succeeded = comparisons.getComparisonAsync("abc")
+                    .thenApply(comparison -> Thread.currentThread().getName()).get(10, TimeUnit.SECONDS);
+            final String failed = comparisons.getExportAsync("missing")
+                    .handle((export, error) -> Thread.currentThread().getName()).get(10, TimeUnit.SECONDS);
+
+            assertTrue(succeeded.startsWith("callbacks"), succeeded);
+            assertTrue(failed.startsWith("callbacks"), failed);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void slowStageDoesNotHoldUpOtherRequests() throws Exception {
+        final ExecutorService executor = executor("callbacks");
+        final CountDownLatch release = new CountDownLatch(1);
+        try (StubServer server = new StubServer(StubServer::readyComparisons);
+                Comparisons comparisons = server.clientBuilder().executor(executor).build()) {
+            final CompletableFuture<Comparison> slow = comparisons.getComparisonAsync("abc")
+                    .thenApply(comparison -> {
+                        try {
+                            release.await(10, TimeUnit.SECONDS);
+                        } catch (InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return comparison;
+                    });
+            try {
+                assertEquals("def", comparisons.getComparisonAsync("def").get(1, TimeUnit.SECONDS).getIdentifier());
+                assertFalse(slow.isDone());
+            } finally {
+                release.countDown();
+            }
+            slow.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void completionRunsInPlaceIfTheExecutorRejectsIt() throws Exception {
+        final AtomicInteger rejected = new AtomicInteger();
+        try (StubServer server = new StubServer(StubServer::readyComparisons);
+                Comparisons comparisons = server.clientBuilder().executor(command -> {
+                    rejected.incrementAndGet();
+                    throw new RejectedExecutionException();
+                }).build()) {
+            assertEquals("abc", comparisons.getComparisonAsync("abc").get(10, TimeUnit.SECONDS).getIdentifier());
+            assertTrue(rejected.get() > 0);
+        }
+    }
+
+    private static ExecutorService executor(final String name) {
+        final AtomicInteger threads = new AtomicInteger();
+        return Executors.newFixedThreadPool(2, runnable -> {
+            final Thread thread = new Thread(runnable, name + "-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
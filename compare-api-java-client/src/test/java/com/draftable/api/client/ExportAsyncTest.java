@@ -0,0 +1,141 @@
+package com.draftable.api.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExportAsyncTest {
+
+    /** The API's representation of an export, with "failed" null while it is pending. */
+    private static String export(final String identifier, final boolean ready) {
+        return "{\"identifier\":\"" + identifier + "\",\"comparison\":\"abc\",\"kind\":\"single_page\","
+                + "\"url\":" + (ready ? "\"https://example.com/" + identifier + ".pdf\"" : "null")
+                + ",\"ready\":" + ready + ",\"failed\":" + (ready ? "false" : "null") + "}";
+    }
+
+    /** Answers exports with a pending export until the given number of GETs have been made. */
+    private static StubServer.Handler readyAfter(final int pendingGets) {
+        final AtomicInteger gets = new AtomicInteger();
+        return request -> {
+            if (request.method.equals("POST") && request.path.equals("/v1/exports")) {
+                return StubServer.json(201, export("exp", false));
+            }
+            if (request.method.equals("GET") && request.path.startsWith("/v1/exports/")) {
+                final String identifier = request.path.substring("/v1/exports/".length());
+                return StubServer.json(200, export(identifier, gets.incrementAndGet() > pendingGets));
+            }
+            return StubServer.status(404);
+        };
+    }
+
+    private static Export pending(final String identifier) {
+        return new Export(identifier, "abc", null, ExportKind.SINGLE_PAGE, false, null, null);
+    }
+
+    @Test
+    void asyncCreateAndGetDecodeAPendingExport() throws Exception {
+        try (StubServer server = new StubServer(readyAfter(1));
+                Comparisons comparisons = server.clientBuilder().build()) {
+            final Export created = comparisons.createExportAsync("abc", ExportKind.SINGLE_PAGE)
+                    .get(10, TimeUnit.SECONDS);
+            assertEquals("exp", created.getIdentifier());
+            assertEquals(ExportKind.SINGLE_PAGE, created.getKind());
+            assertFalse(created.isReady());
+            assertNull(created.getFailed());
+            assertTrue(server.requests().get(0).bodyAsString().contains("single_page"));
+
+            assertFalse(comparisons.getExportAsync("exp").get(10, TimeUnit.SECONDS).isReady());
+            assertTrue(comparisons.getExportAsync("exp").get(10, TimeUnit.SECONDS).isReady());
+        }
+    }
+
+    @Test
+    void asyncErrorsAreMappedLikeTheBlockingOnes() throws Exception {
+        try (StubServer server = new StubServer(request -> StubServer.status(request.method.equals("POST") ? 400
+                : 404)); Comparisons comparisons = server.clientBuilder().build()) {
+            final ExecutionException notFound = assertThrows(ExecutionException.class,
+                    () -> comparisons.getExportAsync("missing").get(10, TimeUnit.SECONDS));
+            assertInstanceOf(Comparisons.ComparisonNotFoundException.class, notFound.getCause());
+
+            final ExecutionException badRequest = assertThrows(ExecutionException.class,
+                    () -> comparisons.createExportAsync("abc", ExportKind.LEFT).get(10, TimeUnit.SECONDS));
+            assertInstanceOf(Comparisons.BadRequestException.class, badRequest.getCause());
+        }
+    }
+
+    @Test
+    void awaitExportReadyPollsUntilTheExportIsReady() throws Exception {
+        try (StubServer server = new StubServer(readyAfter(1));
+                Comparisons comparisons = server.clientBuilder().build()) {
+            final CompletableFuture<Export> first = comparisons.awaitExportReady(pending("exp"));
+            final CompletableFuture<Export> second = comparisons.awaitExportReady(pending("exp"));
+
+            final Export ready = first.get(10, TimeUnit.SECONDS);
+            assertTrue(ready.isReady());
+            assertEquals("https://example.com/exp.pdf", ready.getUrl());
+            assertSame(ready, second.get(10, TimeUnit.SECONDS));
+            assertEquals(2, server.count("GET"));
+        }
+    }
+
+    @Test
+    void finishedExportCompletesWithoutPolling() throws Exception {
+        try (StubServer server = new StubServer(readyAfter(0));
+                Comparisons comparisons = server.clientBuilder().build()) {
+            final Export ready = new Export("exp", "abc", "https://example.com/exp.pdf", ExportKind.LEFT, true,
+                    false, null);
+            assertSame(ready, comparisons.awaitExportReady(ready).getNow(null));
+
+            final Export failed = new Export("exp", "abc", null, ExportKind.LEFT, false, true, "Export failed");
+            assertSame(failed, comparisons.awaitExportReady(failed, Duration.ofSeconds(1)).getNow(null));
+            assertEquals(0, server.requests().size());
+        }
+    }
+
+    @Test
+    void awaitExportReadyTimesOut() throws Exception {
+        try (StubServer server = new StubServer(readyAfter(Integer.MAX_VALUE));
+                Comparisons comparisons = server.clientBuilder().build()) {
+            final ExecutionException error = assertThrows(ExecutionException.class,
+                    () -> comparisons.awaitExportReady(pending("exp"), Duration.ofMillis(200))
+                            .get(10, TimeUnit.SECONDS));
+            assertInstanceOf(TimeoutException.class, error.getCause());
+        }
+    }
+
+    @Test
+    void closingTheClientCancelsWaiters() throws Exception {
+        final CompletableFuture<Export> waiter;
+        try (StubServer server = new StubServer(readyAfter(Integer.MAX_VALUE));
+                Comparisons comparisons = server.clientBuilder().build()) {
+            waiter = comparisons.awaitExportReady(pending("exp"));
+        }
+        assertThrows(CancellationException.class, () -> waiter.get(10, TimeUnit.SECONDS));
+        assertTrue(waiter.isCancelled());
+    }
+
+    @Test
+    void invalidArgumentsAreRejected() throws Exception {
+        try (Comparisons comparisons = Comparisons.builder().accountId("account").authToken("token").build()) {
+            final IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                    () -> comparisons.awaitExportReady(null));
+            assertEquals("`export` cannot be null", error.getMessage());
+            assertThrows(IllegalArgumentException.class,
+                    () -> comparisons.awaitExportReady(pending("exp"), Duration.ofSeconds(-1)));
+        }
+    }
+}
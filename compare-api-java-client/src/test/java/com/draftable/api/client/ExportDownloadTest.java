@@ -0,0 +1,48 @@
+package com.draftable.api.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExportDownloadTest {
+
+    @Test
+    void streamsTheExportToTheChannel() throws Exception {
+        final byte[] data = StreamingMultipartEntityTest.randomBytes(100_000, 1);
+        try (StubServer server = new StubServer(request -> new StubServer.Response(200, data));
+                Comparisons comparisons = server.clientBuilder().build()) {
+            final ByteArrayOutputStream target = new ByteArrayOutputStream();
+
+            final long length = comparisons.downloadExport(export(server), Channels.newChannel(target));
+
+            assertEquals(data.length, length);
+            assertArrayEquals(data, target.toByteArray());
+        }
+    }
+
+    @Test
+    void errorWithAnEmptyBodyFailsTheDownload() throws Exception {
+        try (StubServer server = new StubServer(request -> StubServer.status(500));
+                Comparisons comparisons = server.clientBuilder().build()) {
+            final ByteArrayOutputStream target = new ByteArrayOutputStream();
+
+            final ExecutionException error = assertThrows(ExecutionException.class, () -> comparisons
+                    .downloadExportAsync(export(server), Channels.newChannel(target)).get(10, TimeUnit.SECONDS));
+
+            assertEquals(Comparisons.UnknownErrorException.class, error.getCause().getClass());
+            assertEquals(0, target.size());
+        }
+    }
+
+    private static Export export(final StubServer server) {
+        return new Export("export", "comparison", server.apiBase() + "/files/export.pdf", ExportKind.COMBINED, true,
+                false, null);
+    }
+}
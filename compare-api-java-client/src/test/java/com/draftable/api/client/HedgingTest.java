@@ -0,0 +1,149 @@
+package com.draftable.api.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HedgingTest {
+
+    private static HedgingPolicy.Builder policy() {
+        return HedgingPolicy.builder().minDelay(Duration.ofMillis(10)).maxDelay(Duration.ofMillis(50));
+    }
+
+    // region LatencyTracker
+
+    @Test
+    void percentileIsEstimatedOnceThereAreEnoughSamples() {
+        final LatencyTracker tracker = new LatencyTracker(0.95);
+        for (int i = 1; i < 20; ++i) {
+            tracker.record(TimeUnit.MILLISECONDS.toNanos(i));
+            assertEquals(-1, tracker.getPercentileNanos());
+        }
+        tracker.record(TimeUnit.MILLISECONDS.toNanos(20));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(19), tracker.getPercentileNanos());
+    }
+
+    @Test
+    void percentileIsRecomputedEverySixteenSamples() {
+        final LatencyTracker tracker = new LatencyTracker(0.5);
+        for (int i = 0; i < 20; ++i) {
+            tracker.record(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        for (int i = 0; i < 15; ++i) {
+            tracker.record(TimeUnit.MILLISECONDS.toNanos(1000));
+        }
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(10), tracker.getPercentileNanos());
+
+        tracker.record(TimeUnit.MILLISECONDS.toNanos(1000));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(10), tracker.getPercentileNanos());
+        for (int i = 0; i < 16; ++i) {
+            tracker.record(TimeUnit.MILLISECONDS.toNanos(1000));
+        }
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1000), tracker.getPercentileNanos());
+    }
+
+    // endregion LatencyTracker
+
+    // region Comparisons
+
+    @Test
+    void slowReadIsAnsweredByItsHedge() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger requests = new AtomicInteger();
+        try (StubServer server = new StubServer(request -> {
+            if (requests.incrementAndGet() == 1) {
+                release.await(10, TimeUnit.SECONDS);
+            }
+            return StubServer.readyComparisons(request);
+        }); Comparisons comparisons = server.clientBuilder().hedgingPolicy(policy().build()).build()) {
+            try {
+                final long start = System.nanoTime();
+                assertEquals("abc", comparisons.getComparison("abc").getIdentifier());
+                assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 5);
+                assertEquals(2, server.count("GET"));
+
+                requests.set(0);
+                assertEquals("def", comparisons.getComparisonAsync("def").get(5, TimeUnit.SECONDS).getIdentifier());
+            } finally {
+                release.countDown();
+            }
+        }
+    }
+
+    @Test
+    void fastReadIsNotHedged() throws Exception {
+        try (StubServer server = new StubServer(StubServer::readyComparisons);
+                Comparisons comparisons = server.clientBuilder()
+                        .hedgingPolicy(policy().maxDelay(Duration.ofMillis(500)).build()).build()) {
+            comparisons.getComparison("abc");
+            Thread.sleep(600);
+            assertEquals(1, server.count("GET"));
+        }
+    }
+
+    @Test
+    void readsAreNotHedgedWithoutAPolicy() throws Exception {
+        try (StubServer server = new StubServer(request -> {
+            Thread.sleep(200);
+            return StubServer.readyComparisons(request);
+        }); Comparisons comparisons = server.clientBuilder().build()) {
+            comparisons.getComparison("abc");
+            assertEquals(1, server.count("GET"));
+        }
+    }
+
+    @Test
+    void hedgesStopOnceTheBudgetIsSpent() throws Exception {
+        final HedgingPolicy hedgingPolicy = policy().hedgeBudgetRatio(0).hedgeBudgetReserve(1).build();
+        try (StubServer server = new StubServer(request -> {
+            Thread.sleep(200);
+            return StubServer.readyComparisons(request);
+        }); Comparisons comparisons = server.clientBuilder().hedgingPolicy(hedgingPolicy).build()) {
+            comparisons.getComparison("abc");
+            assertEquals(2, server.count("GET"));
+            comparisons.getComparison("def");
+            Thread.sleep(200);
+            assertEquals(3, server.count("GET"));
+        }
+    }
+
+    @Test
+    void serverErrorWaitsForTheOtherRequest() throws Exception {
+        final AtomicInteger requests = new AtomicInteger();
+        try (StubServer server = new StubServer(request -> {
+            if (requests.incrementAndGet() == 1) {
+                Thread.sleep(300);
+                return StubServer.readyComparisons(request);
+            }
+            return StubServer.status(503);
+        }); Comparisons comparisons = server.clientBuilder().hedgingPolicy(policy().build()).build()) {
+            assertEquals("abc", comparisons.getComparison("abc").getIdentifier());
+            assertEquals(2, server.count("GET"));
+        }
+    }
+
+    @Test
+    void clientErrorIsFinal() throws Exception {
+        final AtomicInteger requests = new AtomicInteger();
+        try (StubServer server = new StubServer(request -> {
+            if (requests.incrementAndGet() == 1) {
+                Thread.sleep(2000);
+                return StubServer.readyComparisons(request);
+            }
+            return StubServer.status(404);
+        }); Comparisons comparisons = server.clientBuilder().hedgingPolicy(policy().build()).build()) {
+            final long start = System.nanoTime();
+            assertThrows(Comparisons.ComparisonNotFoundException.class, () -> comparisons.getComparison("abc"));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+        }
+    }
+
+    // endregion Comparisons
+}
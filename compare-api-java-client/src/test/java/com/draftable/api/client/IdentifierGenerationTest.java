@@ -0,0 +1,152 @@
+package com.draftable.api.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdentifierGenerationTest {
+
+    private static final String letters = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    // region Utils.appendRandomString
+
+    @Test
+    void randomStringsHaveTheLengthAndAlphabetAskedFor() {
+        for (int length : new int[] {0, 1, 12, 1000}) {
+            final String value = Utils.getRandomString(letters, length);
+            assertEquals(length, value.length());
+            assertOnlyUses(letters, value);
+        }
+    }
+
+    @Test
+    void randomStringsAreAppendedToTheBuilder() {
+        final StringBuilder builder = new StringBuilder("prefix");
+        assertEquals(builder, Utils.appendRandomString(builder, "xy", 10));
+        assertTrue(builder.toString().startsWith("prefix"));
+        assertEquals(16, builder.length());
+        assertOnlyUses("xy", builder.substring(6));
+    }
+
+    @Test
+    void everyCharacterIsUsedAboutEquallyOften() {
+        // 52 doesn't divide 256, so this fails if biased bytes aren't skipped.
+        final int[] counts = new int[letters.length()];
+        final int samples = 520_000;
+        for (final char c : Utils.getRandomString(letters, samples).toCharArray()) {
+            ++counts[letters.indexOf(c)];
+        }
+
+        final int expected = samples / letters.length();
+        for (int i = 0; i < counts.length; ++i) {
+            assertTrue(Math.abs(counts[i] - expected) < expected / 10,
+                    "'" + letters.charAt(i) + "' was used " + counts[i] + " times");
+        }
+    }
+
+    @Test
+    void alphabetsLargerThanAByteAreSupported() {
+        final StringBuilder alphabet = new StringBuilder();
+        for (char c = 0x4E00; alphabet.length() < 300; ++c) {
+            alphabet.append(c);
+        }
+
+        final String value = Utils.getRandomString(alphabet, 5000);
+        assertEquals(5000, value.length());
+        assertOnlyUses(alphabet.toString(), value);
+        // Characters beyond the 256th are reachable.
+        assertTrue(value.chars().anyMatch(c -> alphabet.indexOf(String.valueOf((char) c)) >= 256));
+    }
+
+    @Test
+    void concurrentCallersGetDistinctValues() throws Exception {
+        final int threads = 16;
+        final int perThread = 2000;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<List<String>>> results = new ArrayList<>();
+            for (int i = 0; i < threads; ++i) {
+                results.add(executor.submit(() -> {
+                    final List<String> values = new ArrayList<>();
+                    for (int j = 0; j < perThread; ++j) {
+                        values.add(Comparisons.generateIdentifier());
+                    }
+                    return values;
+                }));
+            }
+
+            final Set<String> unique = new HashSet<>();
+            for (final Future<List<String>> result : results) {
+                unique.addAll(result.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(threads * perThread, unique.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // endregion Utils.appendRandomString
+
+    // region Comparisons.generateIdentifier, generateTimeOrderedIdentifier
+
+    @Test
+    void generatedIdentifiersAreValid() {
+        final String identifier = Comparisons.generateIdentifier();
+        assertEquals(12, identifier.length());
+        assertOnlyUses(letters, identifier);
+        Validation.validateIdentifier(identifier);
+
+        final String timeOrdered = Comparisons.generateTimeOrderedIdentifier();
+        assertEquals(20, timeOrdered.length());
+        assertOnlyUses(letters, timeOrdered.substring(8));
+        Validation.validateIdentifier(timeOrdered);
+    }
+
+    @Test
+    void timeOrderedIdentifiersSortByTime() throws InterruptedException {
+        final List<String> identifiers = new ArrayList<>();
+        for (int i = 0; i < 20; ++i) {
+            identifiers.add(Comparisons.generateTimeOrderedIdentifier());
+            Thread.sleep(2);
+        }
+
+        for (int i = 1; i < identifiers.size(); ++i) {
+            final String previous = identifiers.get(i - 1);
+            final String current = identifiers.get(i);
+            assertTrue(previous.substring(0, 8).compareTo(current.substring(0, 8)) < 0,
+                    previous + " should sort before " + current);
+        }
+    }
+
+    @Test
+    void timeOrderedIdentifiersStartWithTheTime() {
+        final long before = System.currentTimeMillis();
+        final String identifier = Comparisons.generateTimeOrderedIdentifier();
+        final long after = System.currentTimeMillis();
+
+        final String digits = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+        long millis = 0;
+        for (final char c : identifier.substring(0, 8).toCharArray()) {
+            millis = millis * digits.length() + digits.indexOf(c);
+        }
+        assertTrue(millis >= before && millis <= after, identifier + " encodes " + millis);
+    }
+
+    // endregion Comparisons.generateIdentifier, generateTimeOrderedIdentifier
+
+    private static void assertOnlyUses(final String alphabet, final String value) {
+        for (final char c : value.toCharArray()) {
+            assertTrue(alphabet.indexOf(c) >= 0, "'" + c + "' isn't in the alphabet");
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.draftable.api.client;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JSONStreamReaderTest {
+
+    private static JSONStreamReader reader(final String json) {
+        return new JSONStreamReader(new StringReader(json));
+    }
+
+    // region JSONStreamReader
+
+    @Test
+    void fieldsAreReadInOrder() {
+        final JSONStreamReader reader = reader("{ \"count\" : 2, \"next\": null, \"nested\": {\"a\": [1, 2]} }");
+        assertEquals("count", reader.nextField());
+        assertEquals(2, reader.readValue());
+        assertEquals("next", reader.nextField());
+        assertEquals(JSONObject.NULL, reader.readValue());
+        assertEquals("nested", reader.nextField());
+        assertEquals(2, reader.readObject().getJSONArray("a").length());
+        assertNull(reader.nextField());
+        assertNull(reader.nextField());
+    }
+
+    @Test
+    void seekFieldSkipsEarlierValuesAndReadsArraysOneElementAtATime() {
+        final JSONStreamReader reader = reader("{\"skipped\": {\"results\": [{\"x\": 0}]}, \"other\": [\"a,]}\"],"
+                + " \"results\": [{\"x\": 1}, {\"x\": 2}, {\"x\": 3}]}");
+        assertTrue(reader.seekField("results"));
+        reader.beginArray();
+        final List<Integer> values = new ArrayList<>();
+        while (reader.hasNextElement()) {
+            values.add(reader.readObject().getInt("x"));
+        }
+        assertEquals(3, values.size());
+        assertEquals(1, (int) values.get(0));
+        assertEquals(3, (int) values.get(2));
+        assertFalse(reader.hasNextElement());
+        assertNull(reader.nextField());
+    }
+
+    @Test
+    void emptyObjectsAndArraysHaveNoContents() {
+        assertNull(reader("{}").nextField());
+        assertFalse(reader("{\"a\": 1}").seekField("results"));
+
+        final JSONStreamReader reader = reader("{\"results\": []}");
+        assertTrue(reader.seekField("results"));
+        reader.beginArray();
+        assertFalse(reader.hasNextElement());
+        assertNull(reader.nextField());
+    }
+
+    @Test
+    void malformedInputIsRejected() {
+        assertThrows(JSONException.class, () -> reader("[]").nextField());
+        assertThrows(JSONException.class, () -> reader("{\"a\" 1}").nextField());
+        assertThrows(JSONException.class, () -> reader("{\"a\": 1").seekField("b"));
+        assertThrows(JSONException.class, () -> reader("{\"results\": {}}").beginArray());
+        assertThrows(JSONException.class, () -> reader("[1]").readObject());
+
+        final JSONStreamReader reader = reader("{\"results\": [{} {}]}");
+        reader.seekField("results");
+        reader.beginArray();
+        assertTrue(reader.hasNextElement());
+        reader.readObject();
+        assertThrows(JSONException.class, reader::hasNextElement);
+    }
+
+    // endregion JSONStreamReader
+
+    // region Comparisons
+
+    @Test
+    void comparisonListIsDecodedFromTheResponse() throws Exception {
+        final StringBuilder results = new StringBuilder();
+        for (int i = 0; i < 500; ++i) {
+            results.append(i == 0 ? "" : ",").append(StubServer.comparison("id" + i, i % 2 == 0));
+        }
+        final String body = "{\"count\":500,\"next\":null,\"results\":[" + results + "],\"previous\":null}";
+        try (StubServer server = new StubServer(request -> StubServer.json(200, body));
+                Comparisons comparisons = server.clientBuilder().build()) {
+            final List<Comparison> all = comparisons.getAllComparisons();
+            assertEquals(500, all.size());
+            assertEquals("id0", all.get(0).getIdentifier());
+            assertTrue(all.get(0).getReady());
+            assertEquals("id499", all.get(499).getIdentifier());
+            assertFalse(all.get(499).getReady());
+
+            assertEquals(all.size(), comparisons.getAllComparisonsAsync().get(10, TimeUnit.SECONDS).size());
+        }
+    }
+
+    @Test
+    void responseWithoutResultsIsAnError() throws Exception {
+        try (StubServer server = new StubServer(request -> StubServer.json(200, "{\"count\":0}"));
+                Comparisons comparisons = server.clientBuilder().build()) {
+            assertThrows(Comparisons.UnknownErrorException.class, comparisons::getAllComparisons);
+        }
+    }
+
+    // endregion Comparisons
+}
@@ -0,0 +1,110 @@
+package com.draftable.api.client;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PipelineTest {
+
+    @TempDir
+    Path tempDir;
+
+    /** Creates comparisons and exports which are ready straight away, and serves each export's file. */
+    private static StubServer.Handler api() {
+        final AtomicInteger comparisons = new AtomicInteger();
+        return request -> {
+            if (request.method.equals("POST") && request.path.equals("/v1/comparisons")) {
+                return StubServer.json(201, StubServer.comparison("cmp" + comparisons.getAndIncrement(), true));
+            }
+            if (request.method.equals("POST") && request.path.equals("/v1/exports")) {
+                final String body = request.bodyAsString();
+                final String comparison = body.substring(body.indexOf("cmp"), body.indexOf("cmp") + 4);
+                return StubServer.json(201, "{\"identifier\":\"exp-" + comparison + "\",\"comparison\":\""
+                        + comparison + "\",\"url\":\"/v1/files/" + comparison + ".pdf\",\"kind\":\"combined\","
+                        + "\"ready\":true,\"failed\":false}");
+            }
+            if (request.method.equals("GET") && request.path.startsWith("/v1/files/")) {
+                return new StubServer.Response(200, request.path.getBytes(StandardCharsets.UTF_8));
+            }
+            return StubServer.status(404);
+        };
+    }
+
+    private static ComparisonRequest request() {
+        return ComparisonRequest.create(Comparisons.Side.create("https://example.com/left.pdf", "pdf"),
+                Comparisons.Side.create("https://example.com/right.pdf", "pdf"));
+    }
+
+    @Test
+    void takesEachRequestThroughToADownloadedExport() throws Exception {
+        try (StubServer server = new StubServer(api()); Comparisons comparisons = server.clientBuilder().build()) {
+            final List<ComparisonRequest> requests = new ArrayList<>();
+            for (int i = 0; i < 5; ++i) {
+                requests.add(request());
+            }
+
+            final PipelineSummary summary = comparisons
+                    .runPipeline(requests, comparison -> tempDir.resolve(comparison.getIdentifier() + ".pdf"))
+                    .getResult().get(30, TimeUnit.SECONDS);
+
+            assertEquals(5, summary.getSucceeded());
+            assertEquals(0, summary.getFailed());
+            for (int i = 0; i < 5; ++i) {
+                assertEquals("/v1/files/cmp" + i + ".pdf",
+                        new String(Files.readAllBytes(tempDir.resolve("cmp" + i + ".pdf")), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    @Test
+    void nullElementsFailOnlyTheirPosition() throws Exception {
+        final Map<Integer, PipelineStage> reportedFailures = new ConcurrentHashMap<>();
+        final PipelineOptions options = PipelineOptions.builder().maxUploads(1).listener(new PipelineListener() {
+            @Override
+            public void onFailure(final int index, final PipelineStage stage, final Comparison comparison,
+                    final Throwable error) {
+                reportedFailures.put(index, stage);
+            }
+        }).build();
+
+        try (StubServer server = new StubServer(api()); Comparisons comparisons = server.clientBuilder().build()) {
+            final PipelineSummary summary = comparisons
+                    .runPipeline(Arrays.asList(null, request(), null),
+                            comparison -> tempDir.resolve(comparison.getIdentifier() + ".pdf"), options)
+                    .getResult().get(30, TimeUnit.SECONDS);
+
+            assertEquals(1, summary.getSucceeded());
+            assertEquals(2, summary.getFailed());
+            assertInstanceOf(IllegalArgumentException.class, summary.getFailures().get(0));
+            assertEquals(PipelineStage.UPLOAD, summary.getFailedStage(2));
+            assertNull(summary.getFailures().get(1));
+            assertEquals(2, reportedFailures.size());
+        }
+    }
+
+    @Test
+    void pipelineOfOnlyNullElementsCompletes() throws Exception {
+        try (StubServer server = new StubServer(api()); Comparisons comparisons = server.clientBuilder().build()) {
+            final PipelineSummary summary = comparisons
+                    .runPipeline(Arrays.asList(null, null), comparison -> tempDir.resolve("unused.pdf"))
+                    .getResult().get(30, TimeUnit.SECONDS);
+
+            assertEquals(2, summary.getFailed());
+            assertEquals(0, server.requests().size());
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.draftable.api.client;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RangedDownloadTest {
+
+    private static final Pattern rangePattern = Pattern.compile("bytes=(\\d+)-(\\d+)");
+    private static final String lastModified = "Wed, 01 Jan 2020 00:00:00 GMT";
+
+    @TempDir
+    Path tempDir;
+
+    /** A file served with support for Range and If-Range, which can be replaced at any time. */
+    private static final class RangedFile {
+        volatile byte[] content;
+        volatile String entityTag;
+        volatile String lastModified;
+
+        RangedFile(final byte[] content, final String entityTag, final String lastModified) {
+            this.content = content;
+            this.entityTag = entityTag;
+            this.lastModified = lastModified;
+        }
+
+        StubServer.Response serve(final StubServer.Request request) {
+            final byte[] current = content;
+            final String range = request.header("Range");
+            final String ifRange = request.header("If-Range");
+            final boolean unchanged = ifRange == null || ifRange.equals(entityTag) || ifRange.equals(lastModified);
+
+            final Matcher matcher = rangePattern.matcher(range != null ? range : "");
+            final StubServer.Response response;
+            if (matcher.matches() && unchanged) {
+                final int first = Integer.parseInt(matcher.group(1));
+                final int last = Math.min(Integer.parseInt(matcher.group(2)), current.length - 1);
+                response = new StubServer.Response(206, Arrays.copyOfRange(current, first, last + 1))
+                        .header("Content-Range", "bytes " + first + "-" + last + "/" + current.length);
+            } else {
+                response = new StubServer.Response(200, current);
+            }
+            if (entityTag != null) {
+                response.header("ETag", entityTag);
+            }
+            if (lastModified != null) {
+                response.header("Last-Modified", lastModified);
+            }
+            return response;
+        }
+    }
+
+    private long download(final StubServer server, final Path target, final boolean resume) throws Exception {
+        return download(server, target, resume, 3);
+    }
+
+    private long download(final StubServer server, final Path target, final boolean resume, final int parallelism)
+            throws Exception {
+        try (RESTClient client = new RESTClient("token")) {
+            return new RangedDownload(client, URI.create(server.apiBase() + "/export.pdf"), null, target,
+                    ParallelDownloadOptions.builder().parallelism(parallelism).partSize(10_000).resume(resume).build())
+                    .start().get(30, TimeUnit.SECONDS);
+        }
+    }
+
+    private static List<String> ifRangeHeaders(final StubServer server) {
+        return server.requests().stream().filter(request -> request.header("Range") != null)
+                .filter(request -> !request.header("Range").equals("bytes=0-0"))
+                .map(request -> String.valueOf(request.header("If-Range"))).distinct().collect(Collectors.toList());
+    }
+
+    @Test
+    void partsAreValidatedWithAStrongEntityTag() throws Exception {
+        final byte[] content = StreamingMultipartEntityTest.randomBytes(95_000, 1);
+        final RangedFile file = new RangedFile(content, "\"v1\"", lastModified);
+        final Path target = tempDir.resolve("export.pdf");
+        try (StubServer server = new StubServer(file::serve)) {
+            assertEquals(content.length, download(server, target, true));
+
+            assertArrayEquals(content, Files.readAllBytes(target));
+            // The probe, then ten parts.
+            assertEquals(11, server.count("GET"));
+            assertEquals(Arrays.asList("\"v1\""), ifRangeHeaders(server));
+            assertFalse(Files.exists(RangedDownload.getPartsFile(target)));
+        }
+    }
+
+    @Test
+    void partsAreValidatedWithLastModifiedWithoutAStrongEntityTag() throws Exception {
+        final byte[] content = StreamingMultipartEntityTest.randomBytes(35_000, 2);
+        final RangedFile file = new RangedFile(content, "W/\"weak\"", lastModified);
+        final Path target = tempDir.resolve("export.pdf");
+        try (StubServer server = new StubServer(file::serve)) {
+            assertEquals(content.length, download(server, target, true));
+
+            assertArrayEquals(content, Files.readAllBytes(target));
+            assertEquals(5, server.count("GET"));
+            assertEquals(Arrays.asList(lastModified), ifRangeHeaders(server));
+        }
+    }
+
+    @Test
+    void fileWithoutAValidatorIsDownloadedInOnePiece() throws Exception {
+        final byte[] original = StreamingMultipartEntityTest.randomBytes(35_000, 3);
+        final byte[] replacement = StreamingMultipartEntityTest.randomBytes(35_000, 4);
+        final RangedFile file = new RangedFile(original, null, null);
+        final Path target = tempDir.resolve("export.pdf");
+        try (StubServer server = new StubServer(request -> {
+            final StubServer.Response response = file.serve(request);
+            // The file changes as soon as the probe has been answered.
+            file.content = replacement;
+            return response;
+        })) {
+            assertEquals(replacement.length, download(server, target, true));
+
+            assertArrayEquals(replacement, Files.readAllBytes(target));
+            assertEquals(2, server.count("GET"));
+            assertNull(server.requests().get(1).header("Range"));
+            assertFalse(Files.exists(RangedDownload.getPartsFile(target)));
+        }
+    }
+
+    @Test
+    void fileThatChangesMidDownloadFails() throws Exception {
+        final byte[] original = StreamingMultipartEntityTest.randomBytes(35_000, 5);
+        final RangedFile file = new RangedFile(original, "\"v1\"", null);
+        final Path target = tempDir.resolve("export.pdf");
+        try (StubServer server = new StubServer(request -> {
+            final StubServer.Response response = file.serve(request);
+            file.content = StreamingMultipartEntityTest.randomBytes(35_000, 6);
+            file.entityTag = "\"v2\"";
+            return response;
+        })) {
+            final ExecutionException error = assertThrows(ExecutionException.class,
+                    () -> download(server, target, false));
+            assertInstanceOf(RESTClient.UnknownResponseException.class, error.getCause());
+        }
+    }
+
+    @Test
+    void resumeOnlyFetchesMissingParts() throws Exception {
+        final byte[] content = StreamingMultipartEntityTest.randomBytes(45_000, 7);
+        final RangedFile file = new RangedFile(content, "\"v1\"", null);
+        final Path target = tempDir.resolve("export.pdf");
+        try (StubServer server = new StubServer(request -> {
+            if ("bytes=20000-29999".equals(request.header("Range"))) {
+                throw new IOException("Fail this part");
+            }
+            return file.serve(request);
+        })) {
+            // One part at a time, so that exactly the first two parts finish.
+            assertThrows(ExecutionException.class, () -> download(server, target, true, 1));
+            assertTrue(Files.exists(RangedDownload.getPartsFile(target)));
+
+            server.setHandler(file::serve);
+            server.requests().clear();
+            assertEquals(content.length, download(server, target, true));
+
+            assertArrayEquals(content, Files.readAllBytes(target));
+            // The probe, and the parts that hadn't finished.
+            assertEquals(Arrays.asList("bytes=0-0", "bytes=20000-29999", "bytes=30000-39999", "bytes=40000-44999"),
+                    server.requests().stream().map(request -> request.header("Range")).sorted()
+                            .collect(Collectors.toList()));
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.draftable.api.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimitTest {
+    private static final long millisPerSecond = 1000;
+
+    // region RateLimiter
+
+    @Test
+    void burstIsSentAtOnceThenRequestsArePaced() {
+        final RateLimiter rateLimiter = new RateLimiter(RateLimitConfig.builder().rate(10).burst(5).build());
+        for (int i = 0; i < 5; ++i) {
+            assertEquals(0, rateLimiter.reserve());
+        }
+        assertDelayMillis(100, rateLimiter.reserve());
+        assertDelayMillis(200, rateLimiter.reserve());
+    }
+
+    @Test
+    void throttlingPausesForRetryAfterAndCutsTheRate() {
+        final RateLimiter rateLimiter = new RateLimiter(RateLimitConfig.builder().rate(10).burst(5).build());
+        rateLimiter.onThrottled(Duration.ofSeconds(2));
+
+        // The saved up burst is dropped, and the rate is halved to 5 per second.
+        assertDelayMillis(2000, rateLimiter.reserve());
+        assertDelayMillis(2200, rateLimiter.reserve());
+    }
+
+    @Test
+    void throttlingWithoutRetryAfterWaitsOneSlotAtTheNewRate() {
+        final RateLimiter rateLimiter = new RateLimiter(RateLimitConfig.builder().rate(10).build());
+        rateLimiter.onThrottled(null);
+
+        assertDelayMillis(200, rateLimiter.reserve());
+    }
+
+    @Test
+    void rateIsNeverCutBelowTheMinimum() {
+        final RateLimiter rateLimiter = new RateLimiter(RateLimitConfig.builder().rate(10).minRate(4).build());
+        for (int i = 0; i < 5; ++i) {
+            rateLimiter.onThrottled(Duration.ZERO);
+        }
+
+        final long first = rateLimiter.reserve();
+        assertDelayMillis(250, rateLimiter.reserve() - first);
+    }
+
+    // endregion RateLimiter
+
+    // region Comparisons
+
+    @Test
+    void throttledRequestIsSentAgainAfterRetryAfter() throws Exception {
+        final List<Long> sentMillis = new ArrayList<>();
+        final AtomicInteger throttled = new AtomicInteger(1);
+        try (StubServer server = new StubServer(request -> {
+            synchronized (sentMillis) {
+                sentMillis.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime()));
+            }
+            return throttled.getAndDecrement() > 0 ? StubServer.status(429).header("Retry-After", "1")
+                    : StubServer.readyComparisons(request);
+        }); Comparisons comparisons = server.clientBuilder().rateLimit(RateLimitConfig.builder().build()).build()) {
+            assertEquals("abc", comparisons.getComparison("abc").getIdentifier());
+            assertEquals(2, server.count("GET"));
+            assertRetriedAfterOneSecond(sentMillis.get(1) - sentMillis.get(0));
+
+            throttled.set(1);
+            assertEquals("def", comparisons.getComparisonAsync("def").get(10, TimeUnit.SECONDS).getIdentifier());
+            assertEquals(4, server.count("GET"));
+            assertRetriedAfterOneSecond(sentMillis.get(3) - sentMillis.get(2));
+        }
+    }
+
+    @Test
+    void throttlingIsReportedAfterMaxThrottledRetries() throws Exception {
+        final RateLimitConfig rateLimit = RateLimitConfig.builder().rate(1000).burst(100).maxThrottledRetries(2)
+                .build();
+        try (StubServer server = new StubServer(request -> StubServer.status(429).header("Retry-After", "0"));
+                Comparisons comparisons = server.clientBuilder().rateLimit(rateLimit).build()) {
+            assertThrows(Comparisons.UnknownErrorException.class, () -> comparisons.getComparison("abc"));
+            assertEquals(3, server.count("GET"));
+
+            assertThrows(ExecutionException.class,
+                    () -> comparisons.getComparisonAsync("abc").get(10, TimeUnit.SECONDS));
+            assertEquals(6, server.count("GET"));
+        }
+    }
+
+    @Test
+    void requestsBeyondTheBurstWaitTheirTurn() throws Exception {
+        final RateLimitConfig rateLimit = RateLimitConfig.builder().rate(20).minRate(20).burst(1).build();
+        try (StubServer server = new StubServer(StubServer::readyComparisons);
+                Comparisons comparisons = server.clientBuilder().rateLimit(rateLimit).build()) {
+            final long start = System.nanoTime();
+            final List<CompletableFuture<Comparison>> futures = new ArrayList<>();
+            for (int i = 0; i < 6; ++i) {
+                futures.add(comparisons.getComparisonAsync("cmp" + i));
+            }
+            for (final CompletableFuture<Comparison> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+
+            // The first is sent straight away, and the rest 50 ms apart.
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 250 - 20);
+            assertEquals(6, server.count("GET"));
+        }
+    }
+
+    // endregion Comparisons
+
+    private static void assertRetriedAfterOneSecond(final long gapMillis) {
+        assertTrue(gapMillis >= millisPerSecond - 50 && gapMillis < millisPerSecond + 150,
+                "Expected a retry after about 1 s, but was " + gapMillis + " ms");
+    }
+
+    private static void assertDelayMillis(final long expectedMillis, final long delayNanos) {
+        final long delayMillis = TimeUnit.NANOSECONDS.toMillis(delayNanos);
+        // Allow for the time the test itself takes.
+        assertTrue(delayMillis <= expectedMillis && delayMillis >= expectedMillis - 50,
+                "Expected a delay of about " + expectedMillis + " ms, but was " + delayMillis + " ms");
+    }
+}
@@ -0,0 +1,93 @@
+package com.draftable.api.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReadinessPollerTest {
+
+    private final Map<String, AtomicInteger> polls = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> ready = new ConcurrentHashMap<>();
+    private final AtomicInteger bulkPolls = new AtomicInteger();
+
+    private CompletableFuture<String> fetch(final String identifier) {
+        polls.computeIfAbsent(identifier, key -> new AtomicInteger()).incrementAndGet();
+        return CompletableFuture.completedFuture(ready.getOrDefault(identifier, false) ? "ready" : "pending");
+    }
+
+    private int pollsOf(final String identifier) {
+        final AtomicInteger count = polls.get(identifier);
+        return count == null ? 0 : count.get();
+    }
+
+    @Test
+    void waitersForTheSameIdentifierSharePolls() throws Exception {
+        try (ReadinessPoller<String> poller = new ReadinessPoller<>(this::fetch, null, "ready"::equals)) {
+            final CompletableFuture<String> first = poller.await("id", null);
+            final CompletableFuture<String> second = poller.await("id", null);
+            Thread.sleep(700);
+            ready.put("id", true);
+
+            assertEquals("ready", first.get(10, TimeUnit.SECONDS));
+            assertEquals("ready", second.get(10, TimeUnit.SECONDS));
+            // Immediately, then about every 0.5 s and 0.8 s, shared by both waiters.
+            assertTrue(pollsOf("id") <= 4, "Polled " + pollsOf("id") + " times");
+        }
+    }
+
+    @Test
+    void timesOutWaitersWithoutFailingOthers() throws Exception {
+        try (ReadinessPoller<String> poller = new ReadinessPoller<>(this::fetch, null, "ready"::equals)) {
+            final CompletableFuture<String> impatient = poller.await("id", Duration.ofMillis(100));
+            final CompletableFuture<String> patient = poller.await("id", null);
+
+            final ExecutionException error = assertThrows(ExecutionException.class,
+                    () -> impatient.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(TimeoutException.class, error.getCause());
+
+            ready.put("id", true);
+            assertEquals("ready", patient.get(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void bulkPollingOnlyPollsMissingIdentifiersWhenTheyAreDue() throws Exception {
+        // The bulk fetch never finds anything, as if every identifier were older than
+        // the pages it searches.
+        final ReadinessPoller.BulkFetcher<String> bulkFetcher = identifiers -> {
+            bulkPolls.incrementAndGet();
+            return CompletableFuture.completedFuture(Collections.emptyMap());
+        };
+        try (ReadinessPoller<String> poller = new ReadinessPoller<>(this::fetch, bulkFetcher, "ready"::equals)) {
+            for (int i = 0; i < ReadinessPoller.bulkThreshold; ++i) {
+                poller.await("old" + i, null);
+            }
+            // Each new identifier is due straight away, so each one causes a bulk
+            // request. The old identifiers must still back off as usual.
+            for (int i = 0; i < 10; ++i) {
+                Thread.sleep(100);
+                poller.await("new" + i, null);
+            }
+            Thread.sleep(100);
+
+            assertTrue(bulkPolls.get() >= 5, "Made " + bulkPolls.get() + " bulk requests");
+            for (int i = 0; i < ReadinessPoller.bulkThreshold; ++i) {
+                // Due immediately, then after about 0.5 s and 1.3 s.
+                assertTrue(pollsOf("old" + i) <= 3, "Polled old" + i + " " + pollsOf("old" + i) + " times");
+            }
+        }
+    }
+}
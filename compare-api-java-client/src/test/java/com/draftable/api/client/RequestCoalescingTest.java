@@ -0,0 +1,155 @@
+package com.draftable.api.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestCoalescingTest {
+
+    @Test
+    void concurrentIdenticalGetsShareOneRequest() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        try (StubServer server = new StubServer(blockingUntil(release));
+                Comparisons comparisons = server.clientBuilder().build()) {
+            final List<CompletableFuture<Comparison>> futures = new ArrayList<>();
+            for (int i = 0; i < 20; ++i) {
+                futures.add(comparisons.getComparisonAsync("abc"));
+            }
+            awaitRequests(server, 1);
+
+            release.countDown();
+            final Comparison first = futures.get(0).get(10, TimeUnit.SECONDS);
+            for (final CompletableFuture<Comparison> future : futures) {
+                assertSame(first, future.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals("abc", first.getIdentifier());
+            assertEquals(1, server.count("GET"));
+        }
+    }
+
+    @Test
+    void differentResourcesAreRequestedSeparately() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        try (StubServer server = new StubServer(blockingUntil(release));
+                Comparisons comparisons = server.clientBuilder().build()) {
+            final CompletableFuture<Comparison> first = comparisons.getComparisonAsync("abc");
+            final CompletableFuture<Comparison> second = comparisons.getComparisonAsync("def");
+            awaitRequests(server, 2);
+
+            release.countDown();
+            assertEquals("abc", first.get(10, TimeUnit.SECONDS).getIdentifier());
+            assertEquals("def", second.get(10, TimeUnit.SECONDS).getIdentifier());
+            assertEquals(2, server.count("GET"));
+        }
+    }
+
+    @Test
+    void requestsAfterACompletedOneAreSentAgain() throws Exception {
+        try (StubServer server = new StubServer(StubServer::readyComparisons);
+                Comparisons comparisons = server.clientBuilder().build()) {
+            comparisons.getComparison("abc");
+            comparisons.getComparisonAsync("abc").get(10, TimeUnit.SECONDS);
+
+            assertEquals(2, server.count("GET"));
+        }
+    }
+
+    @Test
+    void cancellingOneCallerLeavesTheOthersWaiting() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        try (StubServer server = new StubServer(blockingUntil(release));
+                Comparisons comparisons = server.clientBuilder().build()) {
+            final CompletableFuture<Comparison> cancelled = comparisons.getComparisonAsync("abc");
+            final CompletableFuture<Comparison> waiting = comparisons.getComparisonAsync("abc");
+            awaitRequests(server, 1);
+
+            assertTrue(cancelled.cancel(true));
+            release.countDown();
+
+            assertEquals("abc", waiting.get(10, TimeUnit.SECONDS).getIdentifier());
+            assertTrue(cancelled.isCancelled());
+            assertEquals(1, server.count("GET"));
+        }
+    }
+
+    @Test
+    void aCallerWhoseDeadlinePassesDoesNotFailTheOthers() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        try (StubServer server = new StubServer(blockingUntil(release));
+                Comparisons comparisons = server.clientBuilder().build()) {
+            final CompletableFuture<Comparison> bounded = comparisons.getComparisonAsync("abc", Duration.ofMillis(100));
+            final CompletableFuture<Comparison> unbounded = comparisons.getComparisonAsync("abc");
+
+            final ExecutionException failed = assertThrows(ExecutionException.class,
+                    () -> bounded.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(DeadlineExceededException.class, failed.getCause());
+            awaitRequests(server, 2);
+            assertFalse(unbounded.isDone());
+
+            release.countDown();
+            assertEquals("abc", unbounded.get(10, TimeUnit.SECONDS).getIdentifier());
+        }
+    }
+
+    @Test
+    void aSynchronousCallerWhoseDeadlinePassesDoesNotFailTheOthers() throws Exception {
+        final CountDownLatch arrived = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final StubServer.Handler handler = request -> {
+            arrived.countDown();
+            return blockingUntil(release).handle(request);
+        };
+        try (StubServer server = new StubServer(handler);
+                Comparisons comparisons = server.clientBuilder().build()) {
+            final CompletableFuture<Comparison> bounded = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return comparisons.getComparison("abc", Duration.ofMillis(100));
+                } catch (Exception ex) {
+                    throw new CompletionException(ex);
+                }
+            });
+            assertTrue(arrived.await(10, TimeUnit.SECONDS));
+            final CompletableFuture<Comparison> unbounded = comparisons.getComparisonAsync("abc");
+
+            final ExecutionException failed = assertThrows(ExecutionException.class,
+                    () -> bounded.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(IOException.class, failed.getCause());
+            awaitRequests(server, 2);
+            assertFalse(unbounded.isDone());
+
+            release.countDown();
+            assertEquals("abc", unbounded.get(10, TimeUnit.SECONDS).getIdentifier());
+        }
+    }
+
+    private static StubServer.Handler blockingUntil(final CountDownLatch release) {
+        return request -> {
+            assertTrue(release.await(10, TimeUnit.SECONDS));
+            return StubServer.readyComparisons(request);
+        };
+    }
+
+    private static void awaitRequests(final StubServer server, final int count) throws InterruptedException {
+        for (int i = 0; i < 1000 && server.requests().size() < count; ++i) {
+            Thread.sleep(10);
+        }
+        // Give any request that wasn't coalesced time to arrive as well.
+        Thread.sleep(100);
+        assertEquals(count, server.requests().size());
+    }
+}
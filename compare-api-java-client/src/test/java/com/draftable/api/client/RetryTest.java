@@ -0,0 +1,332 @@
+package com.draftable.api.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryTest {
+
+    private static RetryPolicy.Builder fastRetries() {
+        return RetryPolicy.builder().initialBackoff(Duration.ofMillis(1)).maxBackoff(Duration.ofMillis(5));
+    }
+
+    // region Retries
+
+    @Test
+    void retryableFailuresAreRetriedUntilTheySucceed() throws Exception {
+        final AtomicInteger failures = new AtomicInteger(2);
+        try (StubServer server = new StubServer(request -> failures.getAndDecrement() > 0
+                ? StubServer.status(503) : StubServer.readyComparisons(request));
+                Comparisons comparisons = server.clientBuilder().retryPolicy(fastRetries().build()).build()) {
+            assertEquals("abc", comparisons.getComparison("abc").getIdentifier());
+            assertEquals(3, server.count("GET"));
+
+            failures.set(2);
+            assertEquals("abc", comparisons.getComparisonAsync("abc").get(10, TimeUnit.SECONDS).getIdentifier());
+            assertEquals(6, server.count("GET"));
+        }
+    }
+
+    @Test
+    void requestsAreMadeAtMostMaxAttemptsTimes() throws Exception {
+        try (StubServer server = new StubServer(request -> StubServer.status(503));
+                Comparisons comparisons = server.clientBuilder()
+                        .retryPolicy(fastRetries().maxAttempts(4).build()).build()) {
+            assertThrows(Comparisons.UnknownErrorException.class, () -> comparisons.getComparison("abc"));
+            assertEquals(4, server.count("GET"));
+
+            assertThrows(ExecutionException.class,
+                    () -> comparisons.getComparisonAsync("abc").get(10, TimeUnit.SECONDS));
+            assertEquals(8, server.count("GET"));
+        }
+    }
+
+    @Test
+    void otherFailuresAreNotRetried() throws Exception {
+        try (StubServer server = new StubServer(request -> StubServer.status(500));
+                Comparisons comparisons = server.clientBuilder().retryPolicy(fastRetries().build()).build()) {
+            assertThrows(Comparisons.UnknownErrorException.class, () -> comparisons.getComparison("abc"));
+            assertEquals(1, server.count("GET"));
+        }
+    }
+
+    @Test
+    void streamedSidesAreNotRetried() throws Exception {
+        try (StubServer server = new StubServer(request -> StubServer.status(503));
+                Comparisons comparisons = server.clientBuilder().retryPolicy(fastRetries().build()).build()) {
+            assertThrows(Comparisons.UnknownErrorException.class, () -> comparisons.createComparison(
+                    Comparisons.Side.create(new ByteArrayInputStream(new byte[1000]), "pdf"),
+                    Comparisons.Side.create(new ByteArrayInputStream(new byte[2000]), "pdf")));
+            assertEquals(1, server.count("POST"));
+            assertEquals("chunked", server.requests().get(0).header("Transfer-Encoding"));
+
+            assertThrows(ExecutionException.class, () -> comparisons.createComparisonAsync(
+                    Comparisons.Side.create(new ByteArrayInputStream(new byte[1000]), "pdf"),
+                    Comparisons.Side.create(new ByteArrayInputStream(new byte[2000]), "pdf"))
+                    .get(10, TimeUnit.SECONDS));
+            assertEquals(2, server.count("POST"));
+            assertEquals("chunked", server.requests().get(1).header("Transfer-Encoding"));
+        }
+    }
+
+    @Test
+    void failuresAreNotRetriedWithoutAPolicy() throws Exception {
+        try (StubServer server = new StubServer(request -> StubServer.status(503));
+                Comparisons comparisons = server.clientBuilder().build()) {
+            assertThrows(Comparisons.UnknownErrorException.class, () -> comparisons.getComparison("abc"));
+            assertEquals(1, server.count("GET"));
+        }
+    }
+
+    @Test
+    void retriesStopOnceTheBudgetIsSpent() throws Exception {
+        final RetryPolicy retryPolicy = fastRetries().maxAttempts(3).retryBudgetRatio(0).retryBudgetReserve(3).build();
+        try (StubServer server = new StubServer(request -> StubServer.status(503));
+                Comparisons comparisons = server.clientBuilder().retryPolicy(retryPolicy).build()) {
+            assertThrows(Comparisons.UnknownErrorException.class, () -> comparisons.getComparison("abc"));
+            assertEquals(3, server.count("GET"));
+            assertThrows(Comparisons.UnknownErrorException.class, () -> comparisons.getComparison("abc"));
+            assertEquals(5, server.count("GET"));
+            assertThrows(Comparisons.UnknownErrorException.class, () -> comparisons.getComparison("abc"));
+            assertEquals(6, server.count("GET"));
+        }
+    }
+
+    @Test
+    void exportsAreNotRetried() throws Exception {
+        try (StubServer server = new StubServer(request -> StubServer.status(503));
+                Comparisons comparisons = server.clientBuilder().retryPolicy(fastRetries().build()).build()) {
+            assertThrows(Comparisons.UnknownErrorException.class,
+                    () -> comparisons.createExport("abc", ExportKind.COMBINED));
+            assertEquals(1, server.count("POST"));
+        }
+    }
+
+    // endregion Retries
+
+    // region Idempotent create
+
+    @Test
+    void retriedCreateReturnsTheComparisonAnEarlierAttemptCreated() throws Exception {
+        final AtomicReference<String> created = new AtomicReference<>();
+        try (StubServer server = new StubServer(request -> {
+            if (request.method.equals("POST")) {
+                final String identifier = identifierOf(request);
+                if (created.compareAndSet(null, identifier)) {
+                    // The comparison is created, but the response is lost.
+                    return StubServer.status(504);
+                }
+                assertEquals(created.get(), identifier);
+                return identifierInUse();
+            }
+            return StubServer.readyComparisons(request);
+        }); Comparisons comparisons = server.clientBuilder().retryPolicy(fastRetries().build()).build()) {
+            final Comparison comparison = comparisons.createComparison(side(), side());
+
+            assertNotNull(created.get());
+            assertEquals(created.get(), comparison.getIdentifier());
+            assertEquals(2, server.count("POST"));
+            assertEquals(1, server.count("GET"));
+
+            created.set(null);
+            final Comparison asyncComparison = comparisons.createComparisonAsync(side(), side())
+                    .get(10, TimeUnit.SECONDS);
+            assertEquals(created.get(), asyncComparison.getIdentifier());
+            assertEquals(4, server.count("POST"));
+        }
+    }
+
+    @Test
+    void identifierInUseAfterAnAttemptTheServerTurnedAwayIsABadRequest() throws Exception {
+        final AtomicInteger posts = new AtomicInteger();
+        try (StubServer server = new StubServer(request -> posts.incrementAndGet() % 2 == 1 ? StubServer.status(503)
+                : identifierInUse());
+                Comparisons comparisons = server.clientBuilder().retryPolicy(fastRetries().build()).build()) {
+            assertThrows(Comparisons.BadRequestException.class, () -> comparisons.createComparison(side(), side()));
+
+            final ExecutionException failed = assertThrows(ExecutionException.class,
+                    () -> comparisons.createComparisonAsync(side(), side()).get(10, TimeUnit.SECONDS));
+            assertInstanceOf(Comparisons.BadRequestException.class, failed.getCause());
+            assertEquals(4, server.count("POST"));
+            assertEquals(0, server.count("GET"));
+        }
+    }
+
+    @Test
+    void identifierInUseOnTheFirstAttemptIsABadRequest() throws Exception {
+        try (StubServer server = new StubServer(request -> StubServer.json(400,
+                "{\"identifier\":[\"Comparison with this identifier already exists.\"]}"));
+                Comparisons comparisons = server.clientBuilder().retryPolicy(fastRetries().build()).build()) {
+            assertThrows(Comparisons.BadRequestException.class,
+                    () -> comparisons.createComparison(side(), side(), "taken", false, null));
+            assertEquals(1, server.count("POST"));
+            assertEquals(0, server.count("GET"));
+        }
+    }
+
+    @Test
+    void retriedCreateWithAGivenIdentifierRejectsAnOlderComparison() throws Exception {
+        final AtomicInteger posts = new AtomicInteger();
+        try (StubServer server = new StubServer(request -> {
+            if (request.method.equals("POST")) {
+                // The first attempt's response is lost, but the identifier belongs to an older comparison.
+                return posts.incrementAndGet() == 1 ? StubServer.status(504) : identifierInUse();
+            }
+            return StubServer.readyComparisons(request);
+        }); Comparisons comparisons = server.clientBuilder().retryPolicy(fastRetries().build()).build()) {
+            assertThrows(Comparisons.BadRequestException.class,
+                    () -> comparisons.createComparison(side(), side(), "taken", false, null));
+            assertEquals(1, server.count("GET"));
+
+            posts.set(0);
+            final ExecutionException failed = assertThrows(ExecutionException.class,
+                    () -> comparisons.createComparisonAsync(side(), side(), "taken", false, null)
+                            .get(10, TimeUnit.SECONDS));
+            assertInstanceOf(Comparisons.BadRequestException.class, failed.getCause());
+            assertEquals(2, server.count("GET"));
+        }
+    }
+
+    @Test
+    void retriedCreateWithAGivenIdentifierAndExpiryReturnsTheComparisonItCreated() throws Exception {
+        final Instant expires = Instant.now().plus(Duration.ofDays(1));
+        final AtomicInteger posts = new AtomicInteger();
+        try (StubServer server = new StubServer(request -> {
+            if (request.method.equals("POST")) {
+                return posts.incrementAndGet() % 2 == 1 ? StubServer.status(504) : identifierInUse();
+            }
+            // The server keeps the expiry to the microsecond.
+            return StubServer.json(200, withExpiry(StubServer.comparison("mine", true),
+                    expires.truncatedTo(ChronoUnit.MICROS)));
+        }); Comparisons comparisons = server.clientBuilder().retryPolicy(fastRetries().build()).build()) {
+            assertEquals("mine", comparisons.createComparison(side(), side(), "mine", false, expires)
+                    .getIdentifier());
+            assertEquals("mine", comparisons.createComparisonAsync(side(), side(), "mine", false, expires)
+                    .get(10, TimeUnit.SECONDS).getIdentifier());
+
+            // The comparison under the identifier expires at another time, so it isn't this call's.
+            assertThrows(Comparisons.BadRequestException.class, () -> comparisons.createComparison(side(), side(),
+                    "mine", false, expires.plus(Duration.ofHours(1))));
+            assertEquals(3, server.count("GET"));
+        }
+    }
+
+    @Test
+    void retriedCreateWithAGivenIdentifierAndNoExpiryIsABadRequest() throws Exception {
+        final AtomicInteger posts = new AtomicInteger();
+        try (StubServer server = new StubServer(request -> {
+            if (request.method.equals("POST")) {
+                return posts.incrementAndGet() % 2 == 1 ? StubServer.status(504) : identifierInUse();
+            }
+            // However new it looks, nothing the call sent tells it apart from an older comparison.
+            return StubServer.json(200, StubServer.comparison("mine", true)
+                    .replace("2020-01-01T00:00:00Z", Instant.now().plus(Duration.ofDays(1)).toString()));
+        }); Comparisons comparisons = server.clientBuilder().retryPolicy(fastRetries().build()).build()) {
+            assertThrows(Comparisons.BadRequestException.class,
+                    () -> comparisons.createComparison(side(), side(), "mine", false, null));
+
+            final ExecutionException failed = assertThrows(ExecutionException.class,
+                    () -> comparisons.createComparisonAsync(side(), side(), "mine", false, null)
+                            .get(10, TimeUnit.SECONDS));
+            assertInstanceOf(Comparisons.BadRequestException.class, failed.getCause());
+        }
+    }
+
+    @Test
+    void otherBadRequestsOnARetryAreNotTreatedAsCreated() throws Exception {
+        final AtomicInteger posts = new AtomicInteger();
+        try (StubServer server = new StubServer(request -> posts.incrementAndGet() == 1 ? StubServer.status(504)
+                : StubServer.json(400, "{\"detail\":\"The identifier of the file type doesn't exist.\"}"));
+                Comparisons comparisons = server.clientBuilder().retryPolicy(fastRetries().build()).build()) {
+            assertThrows(Comparisons.BadRequestException.class, () -> comparisons.createComparison(side(), side()));
+            assertEquals(0, server.count("GET"));
+        }
+    }
+
+    // endregion Idempotent create
+
+    // region Idempotent delete
+
+    @Test
+    void notFoundAfterAnAttemptWhoseResponseWasLostIsADelete() throws Exception {
+        final AtomicInteger deletes = new AtomicInteger();
+        try (StubServer server = new StubServer(request -> deletes.incrementAndGet() % 2 == 1
+                ? StubServer.status(504) : StubServer.status(404));
+                Comparisons comparisons = server.clientBuilder().retryPolicy(fastRetries().build()).build()) {
+            comparisons.deleteComparison("abc");
+            comparisons.deleteComparisonAsync("abc").get(10, TimeUnit.SECONDS);
+            assertEquals(4, server.count("DELETE"));
+        }
+    }
+
+    @Test
+    void notFoundAfterAnAttemptTheServerTurnedAwayIsReported() throws Exception {
+        final AtomicInteger deletes = new AtomicInteger();
+        try (StubServer server = new StubServer(request -> deletes.incrementAndGet() % 2 == 1
+                ? StubServer.status(503) : StubServer.status(404));
+                Comparisons comparisons = server.clientBuilder().retryPolicy(fastRetries().build()).build()) {
+            assertThrows(Comparisons.ComparisonNotFoundException.class, () -> comparisons.deleteComparison("abc"));
+
+            final ExecutionException failed = assertThrows(ExecutionException.class,
+                    () -> comparisons.deleteComparisonAsync("abc").get(10, TimeUnit.SECONDS));
+            assertInstanceOf(Comparisons.ComparisonNotFoundException.class, failed.getCause());
+            assertEquals(4, server.count("DELETE"));
+        }
+    }
+
+    // endregion Idempotent delete
+
+    // region Backoff
+
+    @Test
+    void backoffIsJitteredUpToAnExponentiallyGrowingLimit() {
+        final RetryPolicy retryPolicy = RetryPolicy.builder().initialBackoff(Duration.ofMillis(100))
+                .maxBackoff(Duration.ofMillis(1000)).build();
+        final long[] limits = {100, 200, 400, 800, 1000, 1000};
+        for (int retry = 1; retry <= limits.length; ++retry) {
+            long max = 0;
+            for (int i = 0; i < 2000; ++i) {
+                final long backoff = retryPolicy.getBackoffMillis(retry);
+                assertTrue(backoff >= 0 && backoff <= limits[retry - 1], "Backoff " + backoff + " for retry " + retry);
+                max = Math.max(max, backoff);
+            }
+            assertTrue(max > limits[retry - 1] / 2, "Backoff never came near its limit for retry " + retry);
+        }
+    }
+
+    // endregion Backoff
+
+    private static Comparisons.Side side() {
+        return Comparisons.Side.create("%PDF-1.4".getBytes(StandardCharsets.US_ASCII), "pdf");
+    }
+
+    private static StubServer.Response identifierInUse() {
+        return StubServer.json(400, "{\"identifier\":[\"Comparison with this identifier already exists.\"]}");
+    }
+
+    private static String withExpiry(final String comparison, final Instant expires) {
+        return comparison.replace("\"public\":false,", "\"public\":false,\"expiry_time\":\"" + expires + "\",");
+    }
+
+    /** Reads the identifier field from a multipart request. */
+    private static String identifierOf(final StubServer.Request request) {
+        final String body = request.bodyAsString();
+        final String field = "name=\"identifier\"";
+        final int start = body.indexOf("\r\n\r\n", body.indexOf(field)) + 4;
+        return body.substring(start, body.indexOf("\r\n", start));
+    }
+}
@@ -0,0 +1,321 @@
+package com.draftable.api.client;
+
+import org.apache.commons.codec.Charsets;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.mime.HttpMultipartMode;
+import org.apache.http.entity.mime.MultipartEntityBuilder;
+import org.apache.http.entity.mime.content.ByteArrayBody;
+import org.apache.http.entity.mime.content.ContentBody;
+import org.apache.http.entity.mime.content.FileBody;
+import org.apache.http.entity.mime.content.InputStreamBody;
+import org.apache.http.nio.ContentEncoder;
+import org.apache.http.nio.FileContentEncoder;
+import org.apache.http.nio.IOControl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamingMultipartEntityTest {
+
+    @TempDir
+    Path tempDir;
+
+    // region Framing
+
+    @Test
+    void framingMatchesMultipartEntityBuilder() throws IOException {
+        final byte[] leftData = randomBytes(20_000, 1);
+        final byte[] rightData = randomBytes(70_000, 2);
+        final Path rightFile = tempDir.resolve("right.pdf");
+        Files.write(rightFile, rightData);
+
+        final StreamingMultipartEntity entity = StreamingMultipartEntity.create(parameters(),
+                content(new ByteArrayBody(leftData, ContentType.APPLICATION_OCTET_STREAM, "left.pdf"),
+                        new FileBody(rightFile.toFile(), ContentType.APPLICATION_OCTET_STREAM, "right.pdf")));
+
+        final byte[] expected = expectedBody(boundaryOf(entity),
+                content(new ByteArrayBody(leftData, ContentType.APPLICATION_OCTET_STREAM, "left.pdf"),
+                        new FileBody(rightFile.toFile(), ContentType.APPLICATION_OCTET_STREAM, "right.pdf")));
+
+        assertFalse(entity.isChunked());
+        assertEquals(expected.length, entity.getContentLength());
+        assertArrayEquals(expected, written(entity));
+        assertArrayEquals(expected, read(entity));
+        assertArrayEquals(expected, produced(entity, new CollectingEncoder(1000)));
+        assertArrayEquals(expected, produced(entity, new CollectingFileEncoder(1000)));
+    }
+
+    @Test
+    void streamsOfUnknownLengthAreSentChunked() throws IOException {
+        final byte[] leftData = randomBytes(12_345, 3);
+        final byte[] rightData = randomBytes(54_321, 4);
+
+        final StreamingMultipartEntity written = StreamingMultipartEntity.create(parameters(),
+                content(new InputStreamBody(new ByteArrayInputStream(leftData), "left.pdf"),
+                        new InputStreamBody(new ByteArrayInputStream(rightData), "right.pdf")));
+
+        final byte[] expected = expectedBody(boundaryOf(written),
+                content(new InputStreamBody(new ByteArrayInputStream(leftData), "left.pdf"),
+                        new InputStreamBody(new ByteArrayInputStream(rightData), "right.pdf")));
+
+        assertTrue(written.isChunked());
+        assertFalse(written.isRepeatable());
+        assertTrue(written.isStreaming());
+        assertEquals(-1, written.getContentLength());
+        assertArrayEquals(expected, written(written));
+
+        // Each stream can only be read once, so produce from a second entity.
+        final StreamingMultipartEntity produced = StreamingMultipartEntity.create(parameters(),
+                content(new InputStreamBody(new ByteArrayInputStream(leftData), "left.pdf"),
+                        new InputStreamBody(new ByteArrayInputStream(rightData), "right.pdf")));
+        final byte[] expectedProduced = expectedBody(boundaryOf(produced),
+                content(new InputStreamBody(new ByteArrayInputStream(leftData), "left.pdf"),
+                        new InputStreamBody(new ByteArrayInputStream(rightData), "right.pdf")));
+        assertArrayEquals(expectedProduced, produced(produced, new CollectingEncoder(777)));
+    }
+
+    @Test
+    void repeatableEntityProducesTheSameBodyAgain() throws IOException {
+        final Path leftFile = tempDir.resolve("left.pdf");
+        Files.write(leftFile, randomBytes(30_000, 5));
+
+        final StreamingMultipartEntity entity = StreamingMultipartEntity.create(null,
+                content(new FileBody(leftFile.toFile()),
+                        new ByteArrayBody(randomBytes(100, 6), ContentType.APPLICATION_OCTET_STREAM, "right.pdf")));
+
+        assertTrue(entity.isRepeatable());
+        final byte[] first = produced(entity, new CollectingFileEncoder(4096));
+        assertEquals(entity.getContentLength(), first.length);
+        assertArrayEquals(first, produced(entity, new CollectingFileEncoder(4096)));
+        assertArrayEquals(first, written(entity));
+    }
+
+    // endregion Framing
+
+    // region Declared lengths
+
+    @Test
+    void fileThatGrowsIsSentAtItsDeclaredLength() throws IOException {
+        final byte[] leftData = randomBytes(25_000, 7);
+        final Path leftFile = tempDir.resolve("left.pdf");
+        Files.write(leftFile, leftData);
+
+        final StreamingMultipartEntity entity = StreamingMultipartEntity.create(parameters(),
+                content(new FileBody(leftFile.toFile()),
+                        new ByteArrayBody(randomBytes(100, 8), ContentType.APPLICATION_OCTET_STREAM, "right.pdf")));
+        final byte[] expected = written(entity);
+
+        Files.write(leftFile, randomBytes(10_000, 9), StandardOpenOption.APPEND);
+
+        assertEquals(expected.length, entity.getContentLength());
+        assertArrayEquals(expected, written(entity));
+        assertArrayEquals(expected, produced(entity, new CollectingEncoder(1000)));
+        assertArrayEquals(expected, produced(entity, new CollectingFileEncoder(1000)));
+    }
+
+    @Test
+    void fileThatShrinksFailsInsteadOfSendingAShortBody() throws IOException {
+        final Path leftFile = tempDir.resolve("left.pdf");
+        Files.write(leftFile, randomBytes(25_000, 10));
+
+        final StreamingMultipartEntity entity = StreamingMultipartEntity.create(parameters(),
+                content(new FileBody(leftFile.toFile()),
+                        new ByteArrayBody(randomBytes(100, 11), ContentType.APPLICATION_OCTET_STREAM, "right.pdf")));
+
+        Files.write(leftFile, randomBytes(20_000, 12));
+
+        assertThrows(IOException.class, () -> written(entity));
+        assertThrows(IOException.class, () -> produced(entity, new CollectingEncoder(1000)));
+        entity.close();
+        assertThrows(IOException.class, () -> produced(entity, new CollectingFileEncoder(1000)));
+        entity.close();
+    }
+
+    // endregion Declared lengths
+
+    // region Helpers
+
+    static byte[] randomBytes(final int length, final long seed) {
+        final byte[] data = new byte[length];
+        new Random(seed).nextBytes(data);
+        return data;
+    }
+
+    static Map<String, String> parameters() {
+        final Map<String, String> parameters = new LinkedHashMap<>();
+        parameters.put("identifier", "abcdef");
+        parameters.put("public", "false");
+        parameters.put("left.file_type", "pdf");
+        parameters.put("right.file_type", "pdf");
+        return parameters;
+    }
+
+    static Map<String, ContentBody> content(final ContentBody left, final ContentBody right) {
+        final Map<String, ContentBody> content = new LinkedHashMap<>();
+        content.put("left.file", left);
+        content.put("right.file", right);
+        return content;
+    }
+
+    static String boundaryOf(final StreamingMultipartEntity entity) {
+        final String contentType = entity.getContentType().getValue();
+        final int start = contentType.indexOf("boundary=") + "boundary=".length();
+        final int end = contentType.indexOf(';', start);
+        return end < 0 ? contentType.substring(start) : contentType.substring(start, end);
+    }
+
+    /** The body {@link MultipartEntityBuilder} would have sent for the same request. */
+    static byte[] expectedBody(final String boundary, final Map<String, ContentBody> content) throws IOException {
+        final MultipartEntityBuilder builder = MultipartEntityBuilder.create();
+        builder.setMode(HttpMultipartMode.BROWSER_COMPATIBLE);
+        builder.setCharset(Charsets.UTF_8);
+        builder.setBoundary(boundary);
+        for (final Map.Entry<String, String> entry : parameters().entrySet()) {
+            builder.addTextBody(entry.getKey(), entry.getValue());
+        }
+        for (final Map.Entry<String, ContentBody> entry : content.entrySet()) {
+            builder.addPart(entry.getKey(), entry.getValue());
+        }
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        builder.build().writeTo(outputStream);
+        return outputStream.toByteArray();
+    }
+
+    static byte[] written(final StreamingMultipartEntity entity) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        entity.writeTo(outputStream);
+        return outputStream.toByteArray();
+    }
+
+    static byte[] read(final StreamingMultipartEntity entity) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (InputStream inputStream = entity.getContent()) {
+            final byte[] chunk = new byte[4096];
+            int count;
+            while ((count = inputStream.read(chunk)) >= 0) {
+                outputStream.write(chunk, 0, count);
+            }
+        }
+        return outputStream.toByteArray();
+    }
+
+    static byte[] produced(final StreamingMultipartEntity entity, final CollectingEncoder encoder) throws IOException {
+        for (int calls = 0; !encoder.isCompleted(); ++calls) {
+            assertTrue(calls < 1_000_000, "Producer never completed");
+            entity.produceContent(encoder, NoopIOControl.INSTANCE);
+            encoder.drain();
+        }
+        return encoder.toByteArray();
+    }
+
+    /**
+     * A {@link ContentEncoder} which accepts at most {@code capacity} bytes per
+     * call to {@link StreamingMultipartEntity#produceContent}, as a connection
+     * with a full send buffer would.
+     */
+    static class CollectingEncoder implements ContentEncoder {
+        private final ByteArrayOutputStream received = new ByteArrayOutputStream();
+        private final int capacity;
+        private int available;
+        private boolean completed;
+
+        CollectingEncoder(final int capacity) {
+            this.capacity = capacity;
+            this.available = capacity;
+        }
+
+        void drain() {
+            available = capacity;
+        }
+
+        byte[] toByteArray() {
+            return received.toByteArray();
+        }
+
+        @Override
+        public int write(final ByteBuffer src) {
+            final int count = Math.min(src.remaining(), available);
+            final byte[] chunk = new byte[count];
+            src.get(chunk);
+            received.write(chunk, 0, count);
+            available -= count;
+            return count;
+        }
+
+        long transfer(final FileChannel src, final long position, final long count) throws IOException {
+            final ByteBuffer chunk = ByteBuffer.allocate((int) Math.min(count, available));
+            final int read = src.read(chunk, position);
+            if (read <= 0) {
+                return 0;
+            }
+            chunk.flip();
+            return write(chunk);
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        @Override
+        public boolean isCompleted() {
+            return completed;
+        }
+    }
+
+    /** A {@link CollectingEncoder} which also accepts file transfers. */
+    static final class CollectingFileEncoder extends CollectingEncoder implements FileContentEncoder {
+        CollectingFileEncoder(final int capacity) {
+            super(capacity);
+        }
+
+        @Override
+        public long transfer(final FileChannel src, final long position, final long count) throws IOException {
+            return super.transfer(src, position, count);
+        }
+    }
+
+    enum NoopIOControl implements IOControl {
+        INSTANCE;
+
+        @Override
+        public void requestInput() {
+        }
+
+        @Override
+        public void suspendInput() {
+        }
+
+        @Override
+        public void requestOutput() {
+        }
+
+        @Override
+        public void suspendOutput() {
+        }
+
+        @Override
+        public void shutdown() {
+        }
+    }
+
+    // endregion Helpers
+}
@@ -0,0 +1,191 @@
+package com.draftable.api.client;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A local HTTP server which stands in for the API in tests. Every request is
+ * recorded and answered by a {@link Handler}.
+ */
+final class StubServer implements AutoCloseable {
+
+    // region Request, Response, Handler
+
+    /** A request received by the server, with its body read in full. */
+    static final class Request {
+        final String method;
+        final String path;
+        final String query;
+        final Headers headers;
+        final byte[] body;
+
+        Request(final String method, final String path, final String query, final Headers headers,
+                final byte[] body) {
+            this.method = method;
+            this.path = path;
+            this.query = query;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        String header(final String name) {
+            return headers.getFirst(name);
+        }
+
+        String bodyAsString() {
+            return new String(body, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String toString() {
+            return method + " " + path + (query != null ? "?" + query : "");
+        }
+    }
+
+    /** The response to send to a request. */
+    static final class Response {
+        final int status;
+        final byte[] body;
+        final Map<String, String> headers = new LinkedHashMap<>();
+
+        Response(final int status, final byte[] body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        Response header(final String name, final String value) {
+            headers.put(name, value);
+            return this;
+        }
+    }
+
+    interface Handler {
+        Response handle(Request request) throws Exception;
+    }
+
+    static Response json(final int status, final String body) {
+        return new Response(status, body.getBytes(StandardCharsets.UTF_8)).header("Content-Type", "application/json");
+    }
+
+    static Response status(final int status) {
+        return new Response(status, new byte[0]);
+    }
+
+    /** The API's representation of a comparison of two PDFs. */
+    static String comparison(final String identifier, final boolean ready) {
+        return "{\"identifier\":\"" + identifier + "\",\"left\":{\"file_type\":\"pdf\"},"
+                + "\"right\":{\"file_type\":\"pdf\"},\"public\":false,\"creation_time\":\"2020-01-01T00:00:00Z\","
+                + "\"ready\":" + ready + (ready ? ",\"ready_time\":\"2020-01-01T00:00:01Z\",\"failed\":false" : "")
+                + "}";
+    }
+
+    /** Answers every GET for a comparison with that comparison, ready, and anything else with a 404. */
+    static Response readyComparisons(final Request request) {
+        if (request.method.equals("GET") && request.path.startsWith("/v1/comparisons/")) {
+            return json(200, comparison(request.path.substring("/v1/comparisons/".length()), true));
+        }
+        return status(404);
+    }
+
+    // endregion Request, Response, Handler
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final List<Request> requests = new CopyOnWriteArrayList<>();
+    private volatile Handler handler;
+
+    StubServer(final Handler handler) throws IOException {
+        this.handler = handler;
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        executor = Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable, "stub-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::exchange);
+        server.start();
+    }
+
+    void setHandler(final Handler handler) {
+        this.handler = handler;
+    }
+
+    /** The base URL to give the client, including the API version. */
+    String apiBase() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1";
+    }
+
+    List<Request> requests() {
+        return requests;
+    }
+
+    long count(final String method) {
+        return requests.stream().filter(request -> request.method.equals(method)).count();
+    }
+
+    Comparisons.Builder clientBuilder() {
+        return Comparisons.builder().accountId("account").authToken("token").apiBaseUrl(apiBase());
+    }
+
+    private void exchange(final HttpExchange exchange) throws IOException {
+        try {
+            final byte[] body = readFully(exchange.getRequestBody());
+            final Request request = new Request(exchange.getRequestMethod(), exchange.getRequestURI().getPath(),
+                    exchange.getRequestURI().getRawQuery(), exchange.getRequestHeaders(), body);
+            requests.add(request);
+
+            Response response;
+            try {
+                response = handler.handle(request);
+            } catch (final Exception ex) {
+                response = status(500);
+            }
+
+            for (final Map.Entry<String, String> header : response.headers.entrySet()) {
+                exchange.getResponseHeaders().add(header.getKey(), header.getValue());
+            }
+            final boolean hasBody = response.body.length > 0 && !request.method.equals("HEAD");
+            exchange.sendResponseHeaders(response.status, hasBody ? response.body.length : -1);
+            if (hasBody) {
+                try (OutputStream outputStream = exchange.getResponseBody()) {
+                    outputStream.write(response.body);
+                }
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static byte[] readFully(final InputStream inputStream) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final byte[] chunk = new byte[8192];
+        int count;
+        while ((count = inputStream.read(chunk)) >= 0) {
+            outputStream.write(chunk, 0, count);
+        }
+        return outputStream.toByteArray();
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        server.stop(0);
+        executor.shutdownNow();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,131 @@
+package com.draftable.api.client;
+
+import com.sun.net.httpserver.Headers;
+
+import javax.annotation.Nonnull;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * An {@link HttpTransport} which answers requests in memory with a
+ * {@link StubServer.Handler}, so that the library's use of the transport can
+ * be tested without a network. Every request is recorded, together with its
+ * body as sent.
+ */
+final class StubTransport implements HttpTransport {
+
+    /** A request given to the transport, with its body read in full. */
+    static final class Sent {
+        final Request request;
+        final byte[] body;
+
+        Sent(final Request request, final byte[] body) {
+            this.request = request;
+            this.body = body;
+        }
+    }
+
+    private final List<Sent> sent = new CopyOnWriteArrayList<>();
+    private volatile StubServer.Handler handler;
+    private volatile boolean closed;
+
+    StubTransport(final StubServer.Handler handler) {
+        this.handler = handler;
+    }
+
+    void setHandler(final StubServer.Handler handler) {
+        this.handler = handler;
+    }
+
+    List<Sent> sent() {
+        return sent;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /** A client which sends every request through this transport. */
+    Comparisons.Builder clientBuilder() {
+        return Comparisons.builder().accountId("account").authToken("token").apiBaseUrl("http://api.test/v1")
+                .transport(this);
+    }
+
+    @Nonnull
+    @Override
+    public CompletableFuture<Response> execute(@Nonnull final Request request) {
+        final CompletableFuture<Response> result = new CompletableFuture<>();
+        try {
+            final byte[] body = request.getBody() == null ? new byte[0] : readFully(request.getBody().getContent());
+            sent.add(new Sent(request, body));
+
+            final Headers headers = new Headers();
+            for (final Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+                headers.add(header.getKey(), header.getValue());
+            }
+            final StubServer.Response response = handler.handle(new StubServer.Request(request.getMethod(),
+                    request.getUri().getPath(), request.getUri().getRawQuery(), headers, body));
+            result.complete(new StubResponse(response));
+        } catch (final Exception ex) {
+            result.completeExceptionally(ex);
+        }
+        return result;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    private static byte[] readFully(final InputStream inputStream) throws IOException {
+        try (InputStream input = inputStream) {
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            final byte[] chunk = new byte[8192];
+            int count;
+            while ((count = input.read(chunk)) >= 0) {
+                outputStream.write(chunk, 0, count);
+            }
+            return outputStream.toByteArray();
+        }
+    }
+
+    private static final class StubResponse implements Response {
+        private final StubServer.Response response;
+        private final Map<String, List<String>> headers = new LinkedHashMap<>();
+
+        StubResponse(final StubServer.Response response) {
+            this.response = response;
+            for (final Map.Entry<String, String> header : response.headers.entrySet()) {
+                headers.put(header.getKey(), Collections.singletonList(header.getValue()));
+            }
+        }
+
+        @Override
+        public int getStatusCode() {
+            return response.status;
+        }
+
+        @Nonnull
+        @Override
+        public Map<String, List<String>> getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return response.body.length > 0 ? new ByteArrayInputStream(response.body) : null;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
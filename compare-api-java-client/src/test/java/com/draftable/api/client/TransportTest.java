@@ -0,0 +1,371 @@
+package com.draftable.api.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransportTest {
+
+    // region Requests and responses
+
+    @Test
+    void requestsAreSentThroughTheTransport() throws Exception {
+        final StubTransport transport = new StubTransport(StubServer::readyComparisons);
+        try (Comparisons comparisons = transport.clientBuilder().build()) {
+            assertEquals("abc", comparisons.getComparison("abc").getIdentifier());
+            assertEquals("def", comparisons.getComparisonAsync("def").get(10, TimeUnit.SECONDS).getIdentifier());
+
+            assertEquals(2, transport.sent().size());
+            final HttpTransport.Request request = transport.sent().get(0).request;
+            assertEquals("GET", request.getMethod());
+            assertEquals("http://api.test/v1/comparisons/abc", request.getUri().toString());
+            assertEquals("Token token", request.getHeaders().get("Authorization"));
+            assertFalse(request.getHeaders().containsKey("Content-Length"));
+            assertNull(request.getBody());
+        }
+        assertTrue(transport.isClosed());
+    }
+
+    @Test
+    void uploadsAreSentAsStreamedMultipartBodies() throws Exception {
+        final byte[] leftData = StreamingMultipartEntityTest.randomBytes(20_000, 1);
+        final byte[] rightData = StreamingMultipartEntityTest.randomBytes(30_000, 2);
+        final StubTransport transport = new StubTransport(request -> StubServer.json(201,
+                StubServer.comparison("abc", false)));
+        try (Comparisons comparisons = transport.clientBuilder().build()) {
+            comparisons.createComparison(Comparisons.Side.create(leftData, "pdf"),
+                    Comparisons.Side.create(new ByteArrayInputStream(rightData), "pdf"), "abc", false, null);
+
+            final StubTransport.Sent sent = transport.sent().get(0);
+            assertEquals("POST", sent.request.getMethod());
+            final HttpTransport.Body body = sent.request.getBody();
+            assertTrue(body.getContentType().startsWith("multipart/form-data; boundary="), body.getContentType());
+            // The right side is a stream, so the length of the body isn't known.
+            assertEquals(-1, body.getContentLength());
+            assertFalse(body.isRepeatable());
+            assertTrue(contains(sent.body, leftData));
+            assertTrue(contains(sent.body, rightData));
+            assertTrue(new String(sent.body, StandardCharsets.UTF_8).contains("name=\"identifier\""));
+        }
+    }
+
+    @Test
+    void uploadsOfKnownLengthCanBeSentAgain() throws Exception {
+        final byte[] data = StreamingMultipartEntityTest.randomBytes(10_000, 3);
+        final StubTransport transport = new StubTransport(request -> StubServer.json(201,
+                StubServer.comparison("abc", false)));
+        try (Comparisons comparisons = transport.clientBuilder().build()) {
+            comparisons.createComparison(Comparisons.Side.create(data, "pdf"), Comparisons.Side.create(data, "pdf"));
+
+            final StubTransport.Sent sent = transport.sent().get(0);
+            final HttpTransport.Body body = sent.request.getBody();
+            assertEquals(sent.body.length, body.getContentLength());
+            assertTrue(body.isRepeatable());
+            final ByteArrayOutputStream written = new ByteArrayOutputStream();
+            body.writeTo(written);
+            assertArrayEquals(sent.body, written.toByteArray());
+        }
+    }
+
+    @Test
+    void requestsCarryTheConfiguredTimeouts() throws Exception {
+        final StubTransport transport = new StubTransport(StubServer::readyComparisons);
+        try (Comparisons comparisons = transport.clientBuilder().timeouts(TimeoutConfig.builder()
+                .connectTimeout(Duration.ofSeconds(1)).leaseTimeout(Duration.ofSeconds(2))
+                .socketTimeout(Duration.ofSeconds(4)).build()).build()) {
+            comparisons.getComparison("abc");
+            final HttpTransport.Request request = transport.sent().get(0).request;
+            assertEquals(Duration.ofSeconds(3), request.getConnectTimeout());
+            assertEquals(Duration.ofSeconds(4), request.getSocketTimeout());
+
+            // Each timeout is cut short to the time the call has left.
+            comparisons.getComparison("abc", Duration.ofMillis(500));
+            final HttpTransport.Request bounded = transport.sent().get(1).request;
+            assertTrue(bounded.getConnectTimeout().compareTo(Duration.ofSeconds(1)) <= 0, bounded.toString());
+            assertTrue(bounded.getSocketTimeout().compareTo(Duration.ofMillis(500)) <= 0, bounded.toString());
+        }
+
+        try (Comparisons comparisons = transport.clientBuilder().build()) {
+            comparisons.getComparison("abc");
+            final HttpTransport.Request request = transport.sent().get(2).request;
+            assertNull(request.getConnectTimeout());
+            assertNull(request.getSocketTimeout());
+        }
+    }
+
+    // endregion Requests and responses
+
+    // region Errors
+
+    @Test
+    void errorResponsesAreMapped() throws Exception {
+        final StubTransport transport = new StubTransport(request -> StubServer.status(404));
+        try (Comparisons comparisons = transport.clientBuilder().build()) {
+            assertThrows(Comparisons.ComparisonNotFoundException.class, () -> comparisons.getComparison("abc"));
+            final ExecutionException notFound = assertThrows(ExecutionException.class,
+                    () -> comparisons.getComparisonAsync("abc").get(10, TimeUnit.SECONDS));
+            assertInstanceOf(Comparisons.ComparisonNotFoundException.class, notFound.getCause());
+
+            transport.setHandler(request -> StubServer.json(400, "{\"detail\":\"Bad file type\"}"));
+            final Comparisons.BadRequestException badRequest = assertThrows(Comparisons.BadRequestException.class,
+                    () -> comparisons.createComparison(Comparisons.Side.create(new byte[10], "pdf"),
+                            Comparisons.Side.create(new byte[10], "pdf")));
+            assertTrue(badRequest.getMessage().contains("Bad file type"), badRequest.getMessage());
+
+            transport.setHandler(request -> StubServer.status(401));
+            assertThrows(Comparisons.InvalidAuthenticationException.class, () -> comparisons.getComparison("abc"));
+
+            transport.setHandler(request -> StubServer.status(500));
+            assertThrows(Comparisons.UnknownErrorException.class, () -> comparisons.getComparison("abc"));
+
+            transport.setHandler(request -> {
+                throw new IOException("Connection refused");
+            });
+            assertThrows(IOException.class, () -> comparisons.getComparison("abc"));
+            final ExecutionException failed = assertThrows(ExecutionException.class,
+                    () -> comparisons.getComparisonAsync("abc").get(10, TimeUnit.SECONDS));
+            assertInstanceOf(IOException.class, failed.getCause());
+        }
+    }
+
+    // endregion Errors
+
+    // region Downloads
+
+    @Test
+    void downloadsFollowRedirectsWithoutLeakingTheToken() throws Exception {
+        final byte[] data = StreamingMultipartEntityTest.randomBytes(50_000, 4);
+        final StubTransport transport = new StubTransport(request -> request.path.equals("/v1/files/export.pdf")
+                ? StubServer.status(302).header("Location", "http://storage.test/export.pdf")
+                : new StubServer.Response(200, data));
+        try (Comparisons comparisons = transport.clientBuilder().build()) {
+            final ByteArrayOutputStream target = new ByteArrayOutputStream();
+            assertEquals(data.length, comparisons.downloadExport(export(), Channels.newChannel(target)));
+            assertArrayEquals(data, target.toByteArray());
+
+            assertEquals(2, transport.sent().size());
+            assertEquals("Token token", transport.sent().get(0).request.getHeaders().get("Authorization"));
+            assertEquals("http://storage.test/export.pdf", transport.sent().get(1).request.getUri().toString());
+            assertNull(transport.sent().get(1).request.getHeaders().get("Authorization"));
+        }
+    }
+
+    @Test
+    void failedDownloadsAreMapped() throws Exception {
+        final StubTransport transport = new StubTransport(request -> StubServer.status(404));
+        try (Comparisons comparisons = transport.clientBuilder().build()) {
+            final ByteArrayOutputStream target = new ByteArrayOutputStream();
+            assertThrows(Comparisons.ComparisonNotFoundException.class,
+                    () -> comparisons.downloadExport(export(), Channels.newChannel(target)));
+            assertEquals(0, target.size());
+        }
+    }
+
+    @Test
+    void cancellingADownloadStopsReadingTheBody() throws Exception {
+        final long length = 300L * 1024 * 1024;
+        final AtomicLong read = new AtomicLong();
+        final CountDownLatch closed = new CountDownLatch(1);
+        final InputStream body = new InputStream() {
+            @Override
+            public int read() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int read(final byte[] buffer, final int offset, final int count) throws IOException {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException ex) {
+                    throw new InterruptedIOException();
+                }
+                final int chunk = (int) Math.min(count, length - read.get());
+                if (chunk <= 0) {
+                    return -1;
+                }
+                read.addAndGet(chunk);
+                return chunk;
+            }
+
+            @Override
+            public void close() {
+                closed.countDown();
+            }
+        };
+        final HttpTransport transport = new HttpTransport() {
+            @Override
+            public CompletableFuture<Response> execute(final Request request) {
+                // Complete on another thread, as a real transport would, since the body is
+                // copied on the thread which completes the future.
+                return CompletableFuture.supplyAsync(() -> new Response() {
+                    @Override
+                    public int getStatusCode() {
+                        return 200;
+                    }
+
+                    @Override
+                    public Map<String, List<String>> getHeaders() {
+                        return Collections.emptyMap();
+                    }
+
+                    @Override
+                    public InputStream getBody() {
+                        return body;
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        body.close();
+                    }
+                });
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        try (Comparisons comparisons = Comparisons.builder().accountId("account").authToken("token")
+                .apiBaseUrl("http://api.test/v1").transport(transport).build()) {
+            final CompletableFuture<Long> download = comparisons.downloadExportAsync(export(),
+                    Channels.newChannel(new ByteArrayOutputStream()));
+            while (read.get() < 64 * 1024) {
+                assertFalse(download.isDone(), "The download finished before it was cancelled");
+                Thread.sleep(10);
+            }
+
+            assertTrue(download.cancel(true));
+            assertTrue(closed.await(10, TimeUnit.SECONDS), "The body was never closed");
+            final long readWhenClosed = read.get();
+            assertTrue(readWhenClosed < length / 4, "Read " + readWhenClosed + " bytes");
+            Thread.sleep(100);
+            assertEquals(readWhenClosed, read.get());
+        }
+    }
+
+    // endregion Downloads
+
+    // region Cancellation
+
+    @Test
+    void cancellingTheFutureCancelsTheExchange() throws Exception {
+        final AtomicReference<CompletableFuture<HttpTransport.Response>> exchange = new AtomicReference<>();
+        final HttpTransport transport = new HttpTransport() {
+            @Override
+            public CompletableFuture<Response> execute(final Request request) {
+                exchange.set(new CompletableFuture<>());
+                return exchange.get();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        try (Comparisons comparisons = Comparisons.builder().accountId("account").authToken("token")
+                .apiBaseUrl("http://api.test/v1").transport(transport).build()) {
+            final CompletableFuture<Comparison> comparison = comparisons.getComparisonAsync("abc");
+
+            assertTrue(comparison.cancel(true));
+            assertTrue(exchange.get().isCancelled());
+        }
+    }
+
+    @Test
+    void cancellingBeforeTheResponseIsDecodedClosesIt() throws Exception {
+        final AtomicInteger closed = new AtomicInteger();
+        final HttpTransport transport = new HttpTransport() {
+            @Override
+            public CompletableFuture<Response> execute(final Request request) {
+                return CompletableFuture.completedFuture(new Response() {
+                    @Override
+                    public int getStatusCode() {
+                        return 200;
+                    }
+
+                    @Override
+                    public Map<String, List<String>> getHeaders() {
+                        return Collections.emptyMap();
+                    }
+
+                    @Override
+                    public InputStream getBody() {
+                        return new ByteArrayInputStream(
+                                StubServer.comparison("abc", true).getBytes(StandardCharsets.UTF_8));
+                    }
+
+                    @Override
+                    public void close() {
+                        closed.incrementAndGet();
+                    }
+                });
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        // Holds back the decoding of the response until the call has been cancelled.
+        final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        try (Comparisons comparisons = Comparisons.builder().accountId("account").authToken("token")
+                .apiBaseUrl("http://api.test/v1").transport(transport).executor(tasks::add).build()) {
+            final CompletableFuture<Comparison> comparison = comparisons.getComparisonAsync("abc");
+            assertFalse(tasks.isEmpty());
+
+            assertTrue(comparison.cancel(true));
+            assertEquals(1, closed.get());
+
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+            assertTrue(comparison.isCancelled());
+            assertEquals(1, closed.get());
+        }
+    }
+
+    // endregion Cancellation
+
+    private static Export export() {
+        return new Export("export", "comparison", "http://api.test/v1/files/export.pdf", ExportKind.COMBINED, true,
+                false, null);
+    }
+
+    private static boolean contains(final byte[] data, final byte[] part) {
+        outer:
+        for (int i = 0; i + part.length <= data.length; ++i) {
+            for (int j = 0; j < part.length; ++j) {
+                if (data[i + j] != part[j]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
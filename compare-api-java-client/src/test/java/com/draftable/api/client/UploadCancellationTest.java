@@ -0,0 +1,116 @@
+package com.draftable.api.client;
+
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UploadCancellationTest {
+    private static final long fileSize = 200L * 1024 * 1024;
+
+    @TempDir
+    Path tempDir;
+
+    @ParameterizedTest(name = "sharedTransport: {0}")
+    @ValueSource(booleans = {false, true})
+    void cancellingTheFutureStopsTheUpload(final boolean sharedTransport) throws Exception {
+        final File file = tempDir.resolve("large.pdf").toFile();
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.setLength(fileSize);
+        }
+
+        try (SlowServer server = new SlowServer();
+                Comparisons comparisons = Comparisons.builder().accountId("account").authToken("token")
+                        .apiBaseUrl(server.apiBase()).sharedTransport(sharedTransport).build()) {
+            final CompletableFuture<Comparison> comparison = comparisons.createComparisonAsync(
+                    Comparisons.Side.create(file, "pdf"), Comparisons.Side.create(file, "pdf"));
+            while (server.received.get() < 256 * 1024) {
+                assertFalse(comparison.isDone(), "The upload finished before it was cancelled");
+                Thread.sleep(10);
+            }
+
+            assertTrue(comparison.cancel(true));
+            // Read whatever the client sent before the cancel as fast as we can, after
+            // which the connection must close rather than carry on with the upload.
+            server.drain();
+
+            assertTrue(server.closed.await(10, TimeUnit.SECONDS), "The upload carried on after its cancel");
+            final long received = server.received.get();
+            assertTrue(received < fileSize / 4, "Received " + received + " bytes");
+            Thread.sleep(200);
+            assertEquals(received, server.received.get());
+        }
+    }
+
+    /**
+     * A server which accepts one connection and reads from it slowly, without ever
+     * responding, until told to drain it.
+     */
+    static final class SlowServer implements AutoCloseable {
+        final AtomicLong received = new AtomicLong();
+        final CountDownLatch closed = new CountDownLatch(1);
+
+        private final ServerSocket serverSocket;
+        private final Thread thread;
+        private volatile boolean draining;
+
+        SlowServer() throws IOException {
+            serverSocket = new ServerSocket();
+            serverSocket.setReceiveBufferSize(16 * 1024);
+            serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            thread = new Thread(this::serve, "slow-server");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        String apiBase() {
+            return "http://127.0.0.1:" + serverSocket.getLocalPort() + "/v1";
+        }
+
+        void drain() {
+            draining = true;
+        }
+
+        private void serve() {
+            try (Socket socket = serverSocket.accept(); InputStream inputStream = socket.getInputStream()) {
+                final byte[] chunk = new byte[4096];
+                int count;
+                while ((count = inputStream.read(chunk)) >= 0) {
+                    received.addAndGet(count);
+                    if (!draining) {
+                        Thread.sleep(5);
+                    }
+                }
+            } catch (IOException ex) {
+                // A reset connection is closed too.
+            } catch (InterruptedException ex) {
+                return;
+            }
+            closed.countDown();
+        }
+
+        @Override
+        public void close() throws IOException, InterruptedException {
+            serverSocket.close();
+            thread.interrupt();
+            thread.join(5000);
+        }
+    }
+}
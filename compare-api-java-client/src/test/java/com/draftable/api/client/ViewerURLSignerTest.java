@@ -0,0 +1,135 @@
+package com.draftable.api.client;
+
+import org.json.JSONArray;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ViewerURLSignerTest {
+    private static final String accountId = "account";
+    private static final String authToken = "0123456789abcdef0123456789abcdef";
+    private static final String identifierCharacters =
+            "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789-._";
+
+    @Test
+    void signaturesMatchTheHMACOfThePolicy() throws Exception {
+        final List<String> identifiers = Arrays.asList("a", "abcdef", identifierCharacters,
+                randomIdentifier(new Random(1), 1024));
+        final List<Instant> validUntils = Arrays.asList(Instant.now().plus(Duration.ofMinutes(1)),
+                Instant.now().plus(Duration.ofDays(365 * 300)));
+        try (Comparisons comparisons = client()) {
+            for (final String identifier : identifiers) {
+                for (final Instant validUntil : validUntils) {
+                    assertEquals(expectedURL(comparisons, identifier, validUntil, false),
+                            comparisons.signedViewerURL(identifier, validUntil, false));
+                    assertEquals(expectedURL(comparisons, identifier, validUntil, true),
+                            comparisons.signedViewerURL(identifier, validUntil, true));
+                }
+            }
+        }
+    }
+
+    @Test
+    void bulkSigningMatchesSigningEachURL() throws Exception {
+        final Random random = new Random(2);
+        final List<String> identifiers = new ArrayList<>();
+        for (int i = 0; i < 100; ++i) {
+            identifiers.add(randomIdentifier(random, 1 + random.nextInt(40)));
+        }
+        final Instant validUntil = Instant.now().plus(Duration.ofHours(1));
+        try (Comparisons comparisons = client()) {
+            final List<String> urls = comparisons.signedViewerURLs(identifiers, validUntil);
+            assertEquals(identifiers.size(), urls.size());
+            for (int i = 0; i < identifiers.size(); ++i) {
+                assertEquals(expectedURL(comparisons, identifiers.get(i), validUntil, false), urls.get(i));
+            }
+        }
+    }
+
+    @Test
+    void threadsSigningAtOnceGetTheirOwnSignatures() throws Exception {
+        final Instant validUntil = Instant.now().plus(Duration.ofHours(1));
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (Comparisons comparisons = client()) {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; ++thread) {
+                final long seed = thread;
+                futures.add(executor.submit(() -> {
+                    final Random random = new Random(seed);
+                    for (int i = 0; i < 2000; ++i) {
+                        final String identifier = randomIdentifier(random, 1 + random.nextInt(60));
+                        assertEquals(expectedURL(comparisons, identifier, validUntil, false),
+                                comparisons.signedViewerURL(identifier, validUntil, false));
+                    }
+                    return null;
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void invalidArgumentsAreRejected() throws Exception {
+        try (Comparisons comparisons = client()) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> comparisons.signedViewerURL("abc", Instant.now().minusSeconds(60), false));
+            assertThrows(IllegalArgumentException.class,
+                    () -> comparisons.signedViewerURL("a/b", Instant.now().plusSeconds(60), false));
+            final IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                    () -> comparisons.signedViewerURLs(null, Instant.now().plusSeconds(60)));
+            assertEquals("`identifiers` cannot be null", error.getMessage());
+            assertThrows(IllegalArgumentException.class,
+                    () -> comparisons.signedViewerURLs(Arrays.asList("abc", ""), Instant.now().plusSeconds(60)));
+        }
+    }
+
+    private static Comparisons client() {
+        return Comparisons.builder().accountId(accountId).authToken(authToken).build();
+    }
+
+    private static String randomIdentifier(final Random random, final int length) {
+        final StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; ++i) {
+            builder.append(identifierCharacters.charAt(random.nextInt(identifierCharacters.length())));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * The signed URL, computed as the API documents it: the hex SHA-256 HMAC,
+     * keyed by the auth token, of the JSON policy
+     * {@code [account_id, identifier, valid_until]}.
+     */
+    private static String expectedURL(final Comparisons comparisons, final String identifier,
+            final Instant validUntil, final boolean wait) throws GeneralSecurityException {
+        final String policy = new JSONArray().put(accountId).put(identifier).put(validUntil.getEpochSecond())
+                .toString();
+        final Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(authToken.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        final StringBuilder signature = new StringBuilder();
+        for (final byte b : mac.doFinal(policy.getBytes(StandardCharsets.UTF_8))) {
+            signature.append(String.format("%02x", b));
+        }
+        return comparisons.publicViewerURL(identifier) + "?valid_until=" + validUntil.getEpochSecond()
+                + "&signature=" + signature + (wait ? "&wait" : "");
+    }
+}
@@ -0,0 +1,40 @@
+package com.draftable.api.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class VirtualThreadsTest {
+
+    @Test
+    void platformThreadsAreNotVirtual() throws InterruptedException {
+        assertFalse(VirtualThreads.isVirtual(Thread.currentThread()));
+
+        final AtomicBoolean virtual = new AtomicBoolean(true);
+        final Thread thread = new Thread(() -> virtual.set(VirtualThreads.isVirtual(Thread.currentThread())));
+        thread.start();
+        thread.join();
+        assertFalse(virtual.get());
+    }
+
+    @Test
+    void virtualThreadsAreDetectedWhenTheJDKHasThem() throws Exception {
+        Method startVirtualThread;
+        try {
+            startVirtualThread = Thread.class.getMethod("startVirtualThread", Runnable.class);
+        } catch (NoSuchMethodException ex) {
+            startVirtualThread = null;
+        }
+        assumeTrue(startVirtualThread != null, "This JDK has no virtual threads");
+
+        final AtomicBoolean virtual = new AtomicBoolean();
+        final Runnable check = () -> virtual.set(VirtualThreads.isVirtual(Thread.currentThread()));
+        ((Thread) startVirtualThread.invoke(null, check)).join();
+        assertTrue(virtual.get());
+    }
+}
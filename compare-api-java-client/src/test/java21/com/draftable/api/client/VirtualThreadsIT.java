@@ -0,0 +1,95 @@
+package com.draftable.api.client;
+
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Needs JDK 21 or later, so it is only compiled and run by the jdk-21-plus
+ * profile.
+ */
+class VirtualThreadsIT {
+
+    @Test
+    void virtualThreadsAreDetected() throws InterruptedException {
+        final AtomicBoolean virtual = new AtomicBoolean();
+        Thread.ofVirtual().start(() -> virtual.set(VirtualThreads.isVirtual(Thread.currentThread()))).join();
+
+        assertTrue(virtual.get());
+        assertFalse(VirtualThreads.isVirtual(Thread.currentThread()));
+    }
+
+    @Test
+    void blockingCallsFromVirtualThreadsDoNotPinCarrierThreads() throws Exception {
+        final int calls = 10_000;
+
+        // Hold each response briefly, so that most callers are waiting for a pooled
+        // connection at once. That wait is where the blocking client pins.
+        try (StubServer server = new StubServer(request -> {
+            Thread.sleep(10);
+            return StubServer.readyComparisons(request);
+        }); Comparisons comparisons = server.clientBuilder()
+                .connectionPool(ConnectionPoolConfig.builder().maxTotal(50).maxPerRoute(50).build()).build();
+                ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+                RecordingStream recording = new RecordingStream()) {
+
+            // Start the asynchronous client from this platform thread, since starting it
+            // reads files such as the trusted certificates.
+            comparisons.getComparisonAsync("warm-up").get(60, TimeUnit.SECONDS);
+
+            final List<String> pinned = new CopyOnWriteArrayList<>();
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", event -> pinned.add(String.valueOf(event.getStackTrace())));
+            recording.startAsync();
+
+            final Set<String> carriers = ConcurrentHashMap.newKeySet();
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<Comparison>> results = new ArrayList<>();
+            for (int i = 0; i < calls; ++i) {
+                final String identifier = "id" + i;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    final Comparison comparison = comparisons.getComparison(identifier);
+                    carriers.add(carrierOf(Thread.currentThread()));
+                    return comparison;
+                }));
+            }
+            start.countDown();
+
+            for (int i = 0; i < calls; ++i) {
+                assertEquals("id" + i, results.get(i).get(60, TimeUnit.SECONDS).getIdentifier());
+            }
+            recording.stop();
+
+            assertEquals(calls + 1, server.count("GET"));
+            assertEquals(0, pinned.size(), () -> "Virtual threads were pinned: " + pinned);
+            // The scheduler adds carriers to make up for pinned virtual threads, which
+            // would be one per pooled connection. It may also add one while a virtual
+            // thread blocks on file I/O, such as loading a class from the JAR.
+            assertTrue(carriers.size() <= Runtime.getRuntime().availableProcessors() + 1,
+                    "Used " + carriers.size() + " carrier threads: " + carriers);
+        }
+    }
+
+    /** Reads the carrier from a description such as "VirtualThread[#22]/runnable@ForkJoinPool-1-worker-1". */
+    private static String carrierOf(final Thread thread) {
+        final String description = thread.toString();
+        return description.substring(description.indexOf('@') + 1);
+    }
+}
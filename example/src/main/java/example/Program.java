@@ -7,10 +7,11 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 import java.io.File;
 import java.io.IOException;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
 
 public class Program {
@@ -92,18 +93,17 @@ public class Program {
         System.out.println(String.format("%s Signed URL: %s", indent, comparisons.signedViewerURL(comparisonId)));
 
         System.out.print(String.format("%s Waiting for comparison ..", indent));
-        int timeoutSecs = 0;
-        do {
-            if (timeoutSecs > 20) {
+        try {
+            comparison = comparisons.awaitReady(comparisonId, Duration.ofSeconds(20)).get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof TimeoutException) {
                 System.out.println(" timeout!");
                 throw new TimeoutException("Timeout exceeded while waiting for comparison.");
+            } else if (ex.getCause() instanceof IOException) {
+                throw (IOException) ex.getCause();
             }
-
-            timeoutSecs++;
-            TimeUnit.SECONDS.sleep(1);
-            System.out.print(".");
-            comparison = comparisons.getComparison(comparisonId);
-        } while (!comparison.getReady());
+            throw (RuntimeException) ex.getCause();
+        }
         System.out.println(" ready.");
 
         if (comparison.getFailed()) {